@@ -0,0 +1,136 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.player.exoplayer.AudioAnalysis;
+import org.bottiger.podcast.player.exoplayer.SilenceRemover;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+/**
+ * Builds an analysis of generated PCM, stores it next to a file and reads it back, and checks that
+ * silence trimming from the analysis removes the same audio as trimming by measuring the energy.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class AudioAnalysisTest extends TestCase {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int CHUNK_FRAMES = 1024;
+
+    private File mAudioFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mAudioFile = File.createTempFile("episode", ".mp3");
+        FileOutputStream outputStream = new FileOutputStream(mAudioFile);
+        outputStream.write(new byte[1234]);
+        outputStream.close();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        AudioAnalysis.delete(mAudioFile);
+        mAudioFile.delete();
+        super.tearDown();
+    }
+
+    public void testSilentSpans() throws Exception {
+        short[] audio = episode();
+        AudioAnalysis analysis = analyze(audio);
+
+        assertEquals(1, analysis.getSilentSpanCount());
+        // The pause is from 1 s to 3 s, minus the lookahead and the hangover
+        assertTrue(analysis.isSilent(1_200_000, 2_900_000));
+        assertFalse(analysis.isSilent(500_000, 600_000));
+        assertFalse(analysis.isSilent(2_900_000, 3_100_000));
+        assertFalse(analysis.isSilent(3_500_000, 3_600_000));
+    }
+
+    public void testGainBoostsQuietSpeech() throws Exception {
+        AudioAnalysis analysis = analyze(episode());
+
+        // The tone is about -15 dBFS at 8000, which is brought down 3 dB to the target, and -35 dBFS
+        // at 800, which gets the largest gain once the loud speech is out of reach
+        assertEquals(0.71f, analysis.getGain(500_000), 0.02f);
+        assertEquals(0.71f, analysis.getGain(4_500_000), 0.02f);
+        assertEquals(3.98f, analysis.getGain(6_800_000), 0.02f);
+        assertTrue(analysis.getLoudnessDb(2_000_000) < -50);
+    }
+
+    public void testReadWrite() throws Exception {
+        AudioAnalysis analysis = analyze(episode());
+        analysis.write(mAudioFile);
+
+        AudioAnalysis read = AudioAnalysis.read(mAudioFile);
+        assertNotNull(read);
+        assertEquals(analysis.getSilentSpanCount(), read.getSilentSpanCount());
+        assertEquals(analysis.getTotalSilenceUs(), read.getTotalSilenceUs());
+        assertEquals(analysis.getDurationUs(), read.getDurationUs());
+        assertEquals(analysis.getGain(6_800_000), read.getGain(6_800_000), 0.0f);
+
+        // The episode has changed since it was analysed
+        FileOutputStream outputStream = new FileOutputStream(mAudioFile, true);
+        outputStream.write(1);
+        outputStream.close();
+        assertNull(AudioAnalysis.read(mAudioFile));
+    }
+
+    public void testIndexRemovesSameAudio() throws Exception {
+        short[] audio = episode();
+        AudioAnalysis analysis = analyze(audio);
+
+        SilenceRemover measured = new SilenceRemover(SAMPLE_RATE, 1);
+        SilenceRemover indexed = new SilenceRemover(SAMPLE_RATE, 1);
+        indexed.setSilenceIndex(analysis);
+
+        int measuredFrames = run(measured, audio);
+        int indexedFrames = run(indexed, audio);
+
+        assertEquals(measured.getSkippedFrames(), indexed.getSkippedFrames());
+        assertEquals(measuredFrames, indexedFrames);
+    }
+
+    private AudioAnalysis analyze(short[] argAudio) {
+        AudioAnalysis.Builder builder = new AudioAnalysis.Builder(SAMPLE_RATE, 1, mAudioFile.length());
+        short[] chunk = new short[CHUNK_FRAMES];
+        for (int frame = 0; frame < argAudio.length; frame += CHUNK_FRAMES) {
+            int frames = Math.min(CHUNK_FRAMES, argAudio.length - frame);
+            System.arraycopy(argAudio, frame, chunk, 0, frames);
+            builder.addSamples(chunk, frames);
+        }
+        return builder.build();
+    }
+
+    private static int run(SilenceRemover argRemover, short[] argAudio) {
+        short[] chunk = new short[CHUNK_FRAMES];
+        short[] output = new short[argRemover.getMaxOutputFrames(CHUNK_FRAMES)];
+        int written = 0;
+        for (int frame = 0; frame < argAudio.length; frame += CHUNK_FRAMES) {
+            int frames = Math.min(CHUNK_FRAMES, argAudio.length - frame);
+            System.arraycopy(argAudio, frame, chunk, 0, frames);
+            written += argRemover.removeSilence(chunk, frames, output);
+        }
+        return written;
+    }
+
+    /**
+     * A second of loud speech, two seconds of silence, two seconds of loud speech and two seconds of
+     * quiet speech.
+     */
+    private static short[] episode() {
+        short[] audio = new short[7 * SAMPLE_RATE];
+        tone(audio, 0, 1, 8000);
+        tone(audio, 3, 5, 8000);
+        tone(audio, 5, 7, 800);
+        return audio;
+    }
+
+    private static void tone(short[] argAudio, int argStartSeconds, int argEndSeconds, int argAmplitude) {
+        for (int frame = argStartSeconds * SAMPLE_RATE; frame < argEndSeconds * SAMPLE_RATE; frame++) {
+            argAudio[frame] = (short) (argAmplitude * Math.sin(2 * Math.PI * 220 * frame / SAMPLE_RATE));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.utils.chapter.Chapter;
+import org.bottiger.podcast.utils.chapter.ChapterCache;
+import org.bottiger.podcast.utils.chapter.ChapterReader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Reads the chapters of a generated ID3 tag from a local file and from a stream, and stores them in
+ * the chapter cache.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ChapterReaderTest extends TestCase {
+
+    private static final String URL = "http://example.com/episode.mp3"; // NoI18N
+
+    private static final String[] TITLES = {"Intro", "News", "Outro"}; // NoI18N
+    private static final long[] STARTS = {0, 61_000, 3_599_000};
+
+    private File mAudioFile;
+    private File mCacheFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mAudioFile = File.createTempFile("episode", ".mp3");
+        mCacheFile = File.createTempFile("episode", ChapterCache.FILE_SUFFIX);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mAudioFile.delete();
+        mCacheFile.delete();
+        super.tearDown();
+    }
+
+    public void testReadFile() throws Exception {
+        write(tag(0), 100_000);
+
+        ChapterReader reader = new ChapterReader();
+        reader.readFile(mAudioFile);
+        assertChapters(reader.getChapters());
+    }
+
+    public void testReadFileWithPadding() throws Exception {
+        write(tag(1024), 100_000);
+
+        ChapterReader reader = new ChapterReader();
+        reader.readFile(mAudioFile);
+        assertChapters(reader.getChapters());
+    }
+
+    public void testReadStream() throws Exception {
+        write(tag(0), 100_000);
+
+        ChapterReader reader = new ChapterReader();
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(mAudioFile));
+        try {
+            reader.readInputStream(inputStream);
+        } finally {
+            inputStream.close();
+        }
+        assertChapters(reader.getChapters());
+    }
+
+    public void testNoTag() throws Exception {
+        write(new byte[0], 1000);
+
+        ChapterReader reader = new ChapterReader();
+        reader.readFile(mAudioFile);
+        assertNull(reader.getChapters());
+    }
+
+    public void testCache() throws Exception {
+        write(tag(0), 1000);
+        ChapterReader reader = new ChapterReader();
+        reader.readFile(mAudioFile);
+
+        ChapterCache.write(mCacheFile, URL, reader.getChapters(), true);
+        assertChapters(ChapterCache.read(mCacheFile, URL, true));
+        assertChapters(ChapterCache.read(mCacheFile, URL, false));
+        assertNull(ChapterCache.read(mCacheFile, URL + "2", true));
+    }
+
+    public void testCacheWithoutChapters() throws Exception {
+        // None were found in the stream, which is not trusted once the episode is downloaded
+        ChapterCache.write(mCacheFile, URL, new LinkedList<Chapter>(), false);
+        assertEquals(0, ChapterCache.read(mCacheFile, URL, false).size());
+        assertNull(ChapterCache.read(mCacheFile, URL, true));
+
+        ChapterCache.write(mCacheFile, URL, new LinkedList<Chapter>(), true);
+        assertEquals(0, ChapterCache.read(mCacheFile, URL, true).size());
+    }
+
+    public void testTrimDeletesOldestFiles() throws Exception {
+        File directory = new File(mCacheFile.getParentFile(), "chapters-trim-test"); // NoI18N
+        assertTrue(directory.mkdirs() || directory.isDirectory());
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 10; i++) {
+                File file = new File(directory, i + ChapterCache.FILE_SUFFIX);
+                ChapterCache.write(file, URL + i, new LinkedList<Chapter>(), true);
+                assertTrue(file.setLastModified(now - (10 - i) * 60_000L));
+            }
+
+            ChapterCache.trim(directory, 4);
+
+            assertEquals(4, directory.listFiles().length);
+            for (int i = 6; i < 10; i++) {
+                assertTrue(new File(directory, i + ChapterCache.FILE_SUFFIX).exists());
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static void assertChapters(List<Chapter> argChapters) {
+        assertNotNull(argChapters);
+        assertEquals(TITLES.length, argChapters.size());
+        for (int i = 0; i < TITLES.length; i++) {
+            assertEquals(STARTS[i], argChapters.get(i).getStart());
+            assertEquals(TITLES[i], argChapters.get(i).getTitle());
+        }
+    }
+
+    private void write(byte[] argTag, int argAudioBytes) throws Exception {
+        FileOutputStream outputStream = new FileOutputStream(mAudioFile);
+        try {
+            outputStream.write(argTag);
+            byte[] audio = new byte[argAudioBytes];
+            for (int i = 0; i < audio.length; i++) {
+                audio[i] = (byte) (i * 31 + 7);
+            }
+            outputStream.write(audio);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * An ID3v2.3 tag with a CHAP frame with a TIT2 sub frame for every chapter.
+     */
+    private static byte[] tag(int argPadding) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        for (int i = 0; i < TITLES.length; i++) {
+            ByteArrayOutputStream title = new ByteArrayOutputStream();
+            title.write(0); // ISO-8859-1
+            writeBytes(title, TITLES[i].getBytes());
+
+            ByteArrayOutputStream chapter = new ByteArrayOutputStream();
+            writeBytes(chapter, ("chp" + i).getBytes()); // NoI18N
+            chapter.write(0);
+            writeInt(chapter, (int) STARTS[i]);
+            writeInt(chapter, (int) STARTS[i] + 1000);
+            writeInt(chapter, -1);
+            writeInt(chapter, -1);
+            writeFrame(chapter, "TIT2", title.toByteArray()); // NoI18N
+
+            writeFrame(frames, "CHAP", chapter.toByteArray()); // NoI18N
+        }
+        writeBytes(frames, new byte[argPadding]);
+
+        ByteArrayOutputStream tag = new ByteArrayOutputStream();
+        writeBytes(tag, "ID3".getBytes()); // NoI18N
+        tag.write(3);
+        tag.write(0);
+        tag.write(0);
+        int size = frames.size();
+        tag.write((size >> 21) & 0x7F);
+        tag.write((size >> 14) & 0x7F);
+        tag.write((size >> 7) & 0x7F);
+        tag.write(size & 0x7F);
+        writeBytes(tag, frames.toByteArray());
+        return tag.toByteArray();
+    }
+
+    private static void writeFrame(ByteArrayOutputStream argOutput, String argId, byte[] argContent) {
+        writeBytes(argOutput, argId.getBytes());
+        writeInt(argOutput, argContent.length);
+        argOutput.write(0);
+        argOutput.write(0);
+        writeBytes(argOutput, argContent);
+    }
+
+    private static void writeInt(ByteArrayOutputStream argOutput, int argValue) {
+        argOutput.write(argValue >>> 24);
+        argOutput.write(argValue >>> 16);
+        argOutput.write(argValue >>> 8);
+        argOutput.write(argValue);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream argOutput, byte[] argBytes) {
+        argOutput.write(argBytes, 0, argBytes.length);
+    }
+}
@@ -0,0 +1,128 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.utils.chapter.Chapter;
+import org.bottiger.podcast.utils.chapter.ChapterTimeline;
+import org.bottiger.podcast.utils.id3reader.ID3Chapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Looks up chapters in a timeline and compares them with a scan of the chapters, for an audiobook
+ * sized number of chapters in random order.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ChapterTimelineTest extends TestCase {
+
+    public void testEmpty() throws Exception {
+        ChapterTimeline timeline = ChapterTimeline.of(new ArrayList<Chapter>());
+        assertTrue(timeline.isEmpty());
+        assertEquals(ChapterTimeline.NO_CHAPTER, timeline.indexOf(1000));
+        assertEquals(ChapterTimeline.NO_BOUNDARY, timeline.getNextBoundary(0));
+    }
+
+    public void testLookup() throws Exception {
+        List<Chapter> chapters = chapters(0, 60_000, 120_000, 180_000);
+        ChapterTimeline timeline = ChapterTimeline.of(chapters);
+
+        assertEquals(0, timeline.indexOf(0));
+        assertEquals(0, timeline.indexOf(59_999));
+        assertEquals(1, timeline.indexOf(60_000));
+        assertEquals(2, timeline.indexOf(150_000));
+        assertEquals(3, timeline.indexOf(10_000_000));
+
+        assertEquals(60_000, timeline.getNextBoundary(0));
+        assertEquals(180_000, timeline.getNextBoundary(2));
+        assertEquals(ChapterTimeline.NO_BOUNDARY, timeline.getNextBoundary(3));
+    }
+
+    public void testBeforeFirstChapter() throws Exception {
+        ChapterTimeline timeline = ChapterTimeline.of(chapters(5_000, 10_000));
+        assertEquals(0, timeline.indexOf(0));
+        assertEquals(10_000, timeline.getNextBoundary(timeline.indexOf(0)));
+    }
+
+    public void testUnsorted() throws Exception {
+        // Indexes are the indexes in the list, not in the timeline
+        ChapterTimeline timeline = ChapterTimeline.of(chapters(120_000, 0, 60_000));
+        assertEquals(1, timeline.indexOf(30_000));
+        assertEquals(2, timeline.indexOf(90_000));
+        assertEquals(0, timeline.indexOf(130_000));
+        assertEquals(60_000, timeline.getNextBoundary(1));
+        assertEquals(120_000, timeline.getNextBoundary(2));
+        assertEquals(ChapterTimeline.NO_BOUNDARY, timeline.getNextBoundary(0));
+    }
+
+    public void testBoundaryIsAfterPosition() throws Exception {
+        // Chapters which start at the same time must not make the player update in a loop
+        ChapterTimeline timeline = ChapterTimeline.of(chapters(0, 10_000, 10_000, 20_000));
+        int index = timeline.indexOf(10_000);
+        assertEquals(2, index);
+        assertEquals(20_000, timeline.getNextBoundary(index));
+    }
+
+    public void testMatchesScan() throws Exception {
+        Random random = new Random(42);
+        long[] starts = new long[1000];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = i * 30_000L + random.nextInt(10_000);
+        }
+
+        List<Chapter> chapters = chapters(starts);
+        Collections.shuffle(chapters, random);
+        ChapterTimeline timeline = ChapterTimeline.of(chapters);
+
+        for (int i = 0; i < 10_000; i++) {
+            long position = random.nextInt(31_000_000);
+            int index = timeline.indexOf(position);
+            assertEquals(scan(chapters, position), index);
+
+            long boundary = timeline.getNextBoundary(index);
+            assertTrue(boundary > position);
+            assertEquals(scanNextBoundary(chapters, position), boundary);
+        }
+    }
+
+    /**
+     * The chapter which started last at or before the position, or the first chapter
+     */
+    private static int scan(List<Chapter> argChapters, long argPosition) {
+        int index = -1;
+        long first = Long.MAX_VALUE;
+        int firstIndex = -1;
+        for (int i = 0; i < argChapters.size(); i++) {
+            long start = argChapters.get(i).getStart();
+            if (start <= argPosition && (index < 0 || start >= argChapters.get(index).getStart())) {
+                index = i;
+            }
+            if (start < first) {
+                first = start;
+                firstIndex = i;
+            }
+        }
+        return index >= 0 ? index : firstIndex;
+    }
+
+    private static long scanNextBoundary(List<Chapter> argChapters, long argPosition) {
+        long next = ChapterTimeline.NO_BOUNDARY;
+        for (Chapter chapter : argChapters) {
+            if (chapter.getStart() > argPosition) {
+                next = Math.min(next, chapter.getStart());
+            }
+        }
+        return next;
+    }
+
+    private static List<Chapter> chapters(long... argStarts) {
+        List<Chapter> chapters = new ArrayList<>();
+        for (long start : argStarts) {
+            chapters.add(new ID3Chapter(start, "Chapter", null, null)); // NoI18N
+        }
+        return chapters;
+    }
+}
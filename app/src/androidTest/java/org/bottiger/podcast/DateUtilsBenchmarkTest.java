@@ -0,0 +1,204 @@
+package org.bottiger.podcast;
+
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.utils.DateUtils;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a corpus of pubDates seen in real feeds. Checks that the hand written RFC 822 parser
+ * agrees with the SimpleDateFormats, and that threads parsing at the same time get the same
+ * results. Logs the time per date for one and for four threads, compared with parsing every date
+ * under one global lock like DateUtils used to.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class DateUtilsBenchmarkTest extends TestCase {
+
+    private static final String TAG = "DateUtilsBenchmark";
+
+    private static final int ITERATIONS = 2000;
+    private static final int THREADS = 4;
+
+    // The date, and the format DateUtils picks for it
+    private static final String[][] CORPUS = {
+            {"Mon, 02 Jan 2017 10:00:00 +0000", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Tue, 14 Mar 2017 07:30:00 -0500", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Wed, 1 Feb 2017 23:59:59 +0530", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Thu, 29 Feb 2024 12:00:00 GMT", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Fri, 20 Oct 2017 04:00:00 EDT", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Sat, 25 Nov 2017 16:45:00 PST", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Sun, 10 Sep 2017 09:00:00 BST", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Mon, 04 December 2017 08:00:00 UTC", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Tue, 05 Dec 2017 08:00 +0100", "EEE, dd MMM yyyy HH:mm Z"}, // NoI18N
+            {"Wed, 06 Dec 2017 8:00 GMT", "EEE, dd MMM yyyy HH:mm z"}, // NoI18N
+            {"Thu 07 Dec 2017 18:20:00 +0000", "EEE dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"fri, 08 dec 2017 18:20:00 +0000", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Fri, 08 Dec 2017 18:20:00 CET", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            {"Fri, 08 Dec 2017 18:20:00 GMT+0100", "EEE, dd MMM yyyy HH:mm:ss z"}, // NoI18N
+            // Wrong day of the week, day of the month, hour and time zone
+            {"Tue, 02 Jan 2017 10:00:00 +0000", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Wed, 29 Feb 2017 10:00:00 +0000", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Mon, 02 Jan 2017 24:00:00 +0000", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            {"Mon, 02 Jan 2017 10:00:00 +9930", "EEE, dd MMM yyyy HH:mm:ss Z"}, // NoI18N
+            // Not RFC 822
+            {"2016-11-26T00:00:00", "yyyy-MM-dd'T'HH:mm:ss"}, // NoI18N
+            {"2017-01-02 10:00:00", "yyyy-MM-dd HH:mm:ss"}, // NoI18N
+            {"02 Jan 2017", "dd MMM yyyy"}, // NoI18N
+            {"12/24/2017 10:30:00 PM", "MM/dd/yyyy HH:mm:ss a"}, // NoI18N
+    };
+
+    public void testMatchesSimpleDateFormat() throws Exception {
+        for (String[] date : CORPUS) {
+            Date expected = parseWithFormat(date[0], date[1]);
+            Date actual = parse(date[0], new DateUtils.FeedDates());
+            assertEquals(date[0], expected, actual);
+        }
+    }
+
+    public void testHint() throws Exception {
+        // The format of the previous date is tried first, and a date in another format still parses
+        DateUtils.FeedDates feedDates = new DateUtils.FeedDates();
+        assertNotNull(feedDates.parse("2017-01-02 10:00:00")); // NoI18N
+        assertNotNull(feedDates.parse("2017-01-03 10:00:00")); // NoI18N
+        assertNotNull(feedDates.parse("02 Jan 2017")); // NoI18N
+        assertNotNull(feedDates.parse("Mon, 02 Jan 2017 10:00:00 +0000")); // NoI18N
+        assertNotNull(feedDates.parse("2017-01-04 10:00:00")); // NoI18N
+    }
+
+    public void testConcurrent() throws Exception {
+        final List<Date> expected = parseCorpus(new DateUtils.FeedDates());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            results.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    DateUtils.FeedDates feedDates = new DateUtils.FeedDates();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        if (!expected.equals(parseCorpus(feedDates))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+    }
+
+    public void testBenchmark() throws Exception {
+        final Object globalLock = new Object();
+
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseCorpus(new DateUtils.FeedDates());
+            parseCorpusLocked(globalLock);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseCorpusLocked(globalLock);
+        }
+        long lockedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseCorpus(new DateUtils.FeedDates());
+        }
+        long nanos = System.nanoTime() - start;
+
+        long lockedThreadedNanos = runThreads(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    parseCorpusLocked(globalLock);
+                }
+                return null;
+            }
+        });
+
+        long threadedNanos = runThreads(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    parseCorpus(new DateUtils.FeedDates());
+                }
+                return null;
+            }
+        });
+
+        int dates = ITERATIONS * CORPUS.length;
+        Log.i(TAG, "1 thread: " + (lockedNanos / dates) + " ns/date with a global lock, " // NoI18N
+                + (nanos / dates) + " ns/date now. " // NoI18N
+                + THREADS + " threads: " + (lockedThreadedNanos / dates / THREADS) + " ns/date with a global lock, " // NoI18N
+                + (threadedNanos / dates / THREADS) + " ns/date now"); // NoI18N
+    }
+
+    private static long runThreads(Callable<Void> argTask) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            results.add(executor.submit(argTask));
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        long nanos = System.nanoTime() - start;
+
+        executor.shutdown();
+        return nanos;
+    }
+
+    private static List<Date> parseCorpus(DateUtils.FeedDates argFeedDates) {
+        List<Date> dates = new ArrayList<>(CORPUS.length);
+        for (String[] date : CORPUS) {
+            dates.add(parse(date[0], argFeedDates));
+        }
+        return dates;
+    }
+
+    /**
+     * Every date parsed by a SimpleDateFormat under one lock, like DateUtils.parse used to
+     */
+    private static void parseCorpusLocked(Object argLock) {
+        for (String[] date : CORPUS) {
+            synchronized (argLock) {
+                parseWithFormat(date[0], date[1]);
+            }
+        }
+    }
+
+    private static Date parse(String argDate, DateUtils.FeedDates argFeedDates) {
+        try {
+            return argFeedDates.parse(argDate);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static Date parseWithFormat(String argDate, String argFormat) {
+        try {
+            return DateUtils.parse(argDate, argFormat);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.provider.IEpisode;
+import org.bottiger.podcast.provider.QueueEpisode;
+import org.bottiger.podcast.provider.SlimImplementations.SlimEpisode;
+import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
+import org.bottiger.podcast.service.Downloader.DownloadScheduler;
+import org.bottiger.podcast.service.Downloader.engines.IDownloadEngine;
+
+import java.net.URL;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the global limit, the per host limit and the priority of manual downloads in the
+ * download scheduler.
+ *
+ * Created by apl on 18-10-2026.
+ */
+public class DownloadSchedulerTest extends TestCase {
+
+    private final CountDownLatch mRelease = new CountDownLatch(1);
+
+    @Override
+    protected void tearDown() throws Exception {
+        mRelease.countDown();
+        super.tearDown();
+    }
+
+    public void testGlobalLimit() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(2, 10);
+        List<QueueEpisode> queue = new LinkedList<>();
+        queue.add(episode("http://a.example.com/1.mp3", true));
+        queue.add(episode("http://b.example.com/2.mp3", true));
+        queue.add(episode("http://c.example.com/3.mp3", true));
+
+        startAll(scheduler, queue);
+
+        assertEquals(2, scheduler.getRunningCount());
+        assertNull(scheduler.nextDownload(queue));
+    }
+
+    public void testPerHostLimit() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(5, 2);
+        List<QueueEpisode> queue = new LinkedList<>();
+        queue.add(episode("http://cdn.example.com/1.mp3", true));
+        queue.add(episode("http://cdn.example.com/2.mp3", true));
+        queue.add(episode("http://cdn.example.com/3.mp3", true));
+        QueueEpisode otherHost = episode("http://other.example.com/4.mp3", true);
+        queue.add(otherHost);
+
+        startAll(scheduler, queue);
+
+        assertEquals(3, scheduler.getRunningCount());
+        assertTrue(scheduler.isDownloading(otherHost.getEpisode()));
+        assertFalse(scheduler.isDownloading(queue.get(2).getEpisode()));
+    }
+
+    public void testManualDownloadsGoFirst() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(3, 10);
+        List<QueueEpisode> queue = new LinkedList<>();
+        queue.add(episode("http://a.example.com/1.mp3", false));
+        queue.add(episode("http://b.example.com/2.mp3", false));
+        QueueEpisode manual = episode("http://c.example.com/3.mp3", true);
+        queue.add(manual);
+
+        assertSame(manual, scheduler.nextDownload(queue));
+    }
+
+    public void testSlotIsReservedForManualDownloads() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(3, 10);
+        List<QueueEpisode> queue = new LinkedList<>();
+        queue.add(episode("http://a.example.com/1.mp3", false));
+        queue.add(episode("http://b.example.com/2.mp3", false));
+        queue.add(episode("http://c.example.com/3.mp3", false));
+
+        startAll(scheduler, queue);
+        assertEquals(2, scheduler.getRunningCount());
+
+        QueueEpisode manual = episode("http://d.example.com/4.mp3", true);
+        queue.add(manual);
+        assertSame(manual, scheduler.nextDownload(queue));
+    }
+
+    private void startAll(DownloadScheduler argScheduler, List<QueueEpisode> argQueue) {
+        QueueEpisode next;
+        while ((next = argScheduler.nextDownload(argQueue)) != null) {
+            argScheduler.start(next, new BlockingEngine(next.getEpisode()), () -> {});
+        }
+    }
+
+    private static QueueEpisode episode(String argUrl, boolean argStartedManually) throws Exception {
+        URL url = new URL(argUrl);
+        SlimEpisode episode = new SlimEpisode(argUrl, url, "", new SlimSubscription(url));
+        QueueEpisode queueEpisode = new QueueEpisode(episode);
+        queueEpisode.setStartedManually(argStartedManually);
+        return queueEpisode;
+    }
+
+    private class BlockingEngine implements IDownloadEngine {
+        private final IEpisode mEpisode;
+
+        BlockingEngine(IEpisode argEpisode) {
+            mEpisode = argEpisode;
+        }
+
+        @Override
+        public void startDownload(boolean argIsLast) {
+            try {
+                mRelease.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public float getProgress() {
+            return 0;
+        }
+
+        @Override
+        public long getSpeed() {
+            return 0;
+        }
+
+        @Override
+        public IEpisode getEpisode() {
+            return mEpisode;
+        }
+
+        @Override
+        public void addCallback(Callback argCallback) {
+        }
+
+        @Override
+        public void abort() {
+        }
+    }
+}
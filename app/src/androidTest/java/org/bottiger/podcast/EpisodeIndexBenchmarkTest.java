@@ -0,0 +1,137 @@
+package org.bottiger.podcast;
+
+import android.support.v4.util.ArrayMap;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.model.datastructures.LongHashMap;
+import org.bottiger.podcast.model.datastructures.OpenHashMap;
+import org.bottiger.podcast.provider.FeedItem;
+import org.bottiger.podcast.provider.IEpisode;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Micro benchmark of the episode lookup tables in the Library. Loads 100k FeedItems into the old
+ * ArrayMap based index and into the open addressing index, after a number of warmup rounds.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class EpisodeIndexBenchmarkTest extends TestCase {
+
+    private static final String TAG = "EpisodeIndexBenchmark";
+
+    private static final int EPISODES = 100000;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 5;
+
+    private FeedItem[] mItems;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mItems = new FeedItem[EPISODES];
+        for (int i = 0; i < EPISODES; i++) {
+            FeedItem item = new FeedItem(true);
+            item.id = i + 1;
+            item.setURL("http://example.com/podcast/" + (i % 100) + "/episode" + i + ".mp3");
+            mItems[i] = item;
+        }
+    }
+
+    public void testLoadArrayMap() throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            loadArrayMap();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            loadArrayMap();
+        }
+        report("ArrayMap", System.nanoTime() - start);
+    }
+
+    public void testLoadOpenHashMap() throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            loadOpenHashMap();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            loadOpenHashMap();
+        }
+        report("OpenHashMap", System.nanoTime() - start);
+    }
+
+    public void testMatchesHashMap() throws Exception {
+        Random random = new Random(42);
+        LongHashMap<Long> longMap = new LongHashMap<>();
+        OpenHashMap<String, Long> stringMap = new OpenHashMap<>();
+        HashMap<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < EPISODES; i++) {
+            long key = random.nextInt(EPISODES / 10) - 10;
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertEquals(removed, longMap.remove(key));
+                assertEquals(removed, stringMap.remove(Long.toString(key)));
+            } else {
+                assertEquals(expected.put(key, (long) i), longMap.put(key, (long) i));
+                stringMap.put(Long.toString(key), (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), longMap.size());
+        assertEquals(expected.size(), stringMap.size());
+        for (long key = -10; key < EPISODES / 10; key++) {
+            assertEquals(expected.get(key), longMap.get(key));
+            assertEquals(expected.get(key), stringMap.get(Long.toString(key)));
+        }
+    }
+
+    private int loadArrayMap() {
+        ArrayMap<String, IEpisode> urlIndex = new ArrayMap<>();
+        ArrayMap<Long, FeedItem> idIndex = new ArrayMap<>();
+        for (FeedItem item : mItems) {
+            if (!urlIndex.containsKey(item.getURL())) {
+                urlIndex.put(item.getURL(), item);
+                idIndex.put(item.getId(), item);
+            }
+        }
+
+        int found = 0;
+        for (FeedItem item : mItems) {
+            if (urlIndex.get(item.getURL()) != null && idIndex.get(item.getId()) != null)
+                found++;
+        }
+
+        assertEquals(EPISODES, found);
+        return found;
+    }
+
+    private int loadOpenHashMap() {
+        OpenHashMap<String, IEpisode> urlIndex = new OpenHashMap<>();
+        LongHashMap<FeedItem> idIndex = new LongHashMap<>();
+        for (FeedItem item : mItems) {
+            if (!urlIndex.containsKey(item.getURL())) {
+                urlIndex.put(item.getURL(), item);
+                idIndex.put(item.getId(), item);
+            }
+        }
+
+        int found = 0;
+        for (FeedItem item : mItems) {
+            if (urlIndex.get(item.getURL()) != null && idIndex.get(item.getId()) != null)
+                found++;
+        }
+
+        assertEquals(EPISODES, found);
+        return found;
+    }
+
+    private static void report(String argName, long argNanos) {
+        Log.i(TAG, argName + ": " + (argNanos / ITERATIONS / 1000) + " us to load and look up " + EPISODES + " episodes");
+    }
+}
@@ -0,0 +1,139 @@
+package org.bottiger.podcast;
+
+import android.support.v7.util.SortedList;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.model.datastructures.EpisodeList;
+import org.bottiger.podcast.provider.FeedItem;
+import org.bottiger.podcast.provider.IEpisode;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Looks up the episodes of a refreshed feed in the episode list of a subscription of 100, 1k and
+ * 10k episodes, with the URL index of the list and with the linear scan the subscription used to
+ * do, and logs the time per lookup of both.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class EpisodeListBenchmarkTest extends TestCase {
+
+    private static final String TAG = "EpisodeListBenchmark";
+
+    private static final int[] SIZES = {100, 1000, 10000};
+    private static final int SCAN_LOOKUPS = 1000;
+
+    public void testFind() throws Exception {
+        EpisodeList<IEpisode> list = newList();
+        FeedItem[] episodes = episodes(100);
+        for (FeedItem episode : episodes) {
+            list.add(episode);
+        }
+
+        // A parsed episode is a new object with the same URL
+        FeedItem parsed = episode(42);
+        assertSame(episodes[42], list.find(parsed));
+        assertNull(list.find(episode(1000)));
+
+        assertTrue(list.remove(episodes[42]));
+        assertNull(list.find(parsed));
+
+        list.add(parsed);
+        assertSame(parsed, list.find(episode(42)));
+
+        list.clear();
+        assertNull(list.find(parsed));
+    }
+
+    public void testBenchmark() throws Exception {
+        for (int size : SIZES) {
+            EpisodeList<IEpisode> list = newList();
+            for (FeedItem episode : episodes(size)) {
+                list.add(episode);
+            }
+            FeedItem[] refreshed = episodes(size);
+            Random random = new Random(42);
+
+            long start = System.nanoTime();
+            for (FeedItem episode : refreshed) {
+                assertNotNull(list.find(episode));
+            }
+            long indexNanos = (System.nanoTime() - start) / size;
+
+            int lookups = Math.min(size, SCAN_LOOKUPS);
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                assertNotNull(scan(list, refreshed[random.nextInt(size)]));
+            }
+            long scanNanos = (System.nanoTime() - start) / lookups;
+
+            Log.i(TAG, size + " episodes: index " + indexNanos + " ns/lookup, scan " + scanNanos // NoI18N
+                    + " ns/lookup. Refreshing the feed takes " + (indexNanos * size / 1000) // NoI18N
+                    + " us instead of " + (scanNanos * size / 1000) + " us"); // NoI18N
+        }
+    }
+
+    /**
+     * The lookup BaseSubscription.getMatchingEpisode used to do
+     */
+    private static IEpisode scan(EpisodeList<IEpisode> argList, IEpisode argEpisode) {
+        for (int i = 0; i < argList.size(); i++) {
+            if (argList.get(i).equals(argEpisode))
+                return argList.get(i);
+        }
+        return null;
+    }
+
+    private static FeedItem[] episodes(int argCount) {
+        FeedItem[] episodes = new FeedItem[argCount];
+        for (int i = 0; i < argCount; i++) {
+            episodes[i] = episode(i);
+        }
+        return episodes;
+    }
+
+    private static FeedItem episode(int argNumber) {
+        FeedItem episode = new FeedItem(true);
+        episode.setURL("http://example.com/podcast/episode" + argNumber + ".mp3"); // NoI18N
+        episode.setPubDate(new Date(1500000000000L + argNumber * 3600000L));
+        return episode;
+    }
+
+    private static EpisodeList<IEpisode> newList() {
+        return new EpisodeList<>(IEpisode.class, new SortedList.Callback<IEpisode>() {
+            @Override
+            public int compare(IEpisode o1, IEpisode o2) {
+                return o2.getDateTime().compareTo(o1.getDateTime());
+            }
+
+            @Override
+            public void onInserted(int position, int count) {
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+            }
+
+            @Override
+            public void onChanged(int position, int count) {
+            }
+
+            @Override
+            public boolean areContentsTheSame(IEpisode oldItem, IEpisode newItem) {
+                return false;
+            }
+
+            @Override
+            public boolean areItemsTheSame(IEpisode item1, IEpisode item2) {
+                return item1.equals(item2);
+            }
+        });
+    }
+}
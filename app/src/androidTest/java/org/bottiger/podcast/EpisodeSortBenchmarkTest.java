@@ -0,0 +1,174 @@
+package org.bottiger.podcast;
+
+import android.os.Debug;
+import android.support.v7.util.SortedList;
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.model.datastructures.EpisodeList;
+import org.bottiger.podcast.playlist.Playlist;
+import org.bottiger.podcast.provider.FeedItem;
+import org.bottiger.podcast.provider.IEpisode;
+import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorts 5k episodes newest first through the episode list of a subscription and through the
+ * playlist order, and checks that they order the episodes like the Date comparator they replaced.
+ * Logs the time and the number of objects allocated per sort, with the Date comparator as the
+ * baseline.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class EpisodeSortBenchmarkTest extends TestCase {
+
+    private static final String TAG = "EpisodeSortBenchmark";
+
+    private static final int EPISODES = 5000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 10;
+
+    // How the episode lists used to be sorted
+    private static final Comparator<IEpisode> BY_DATE = new Comparator<IEpisode>() {
+        @Override
+        public int compare(IEpisode o1, IEpisode o2) {
+            Date dt1 = o1.getDateTime();
+            if (dt1 == null)
+                return 1;
+
+            Date dt2 = o2.getDateTime();
+            if (dt2 == null)
+                return -1;
+
+            return o2.getDateTime().compareTo(o1.getDateTime());
+        }
+    };
+
+    private static final Comparator<IEpisode> PLAYLIST_ORDER = new Comparator<IEpisode>() {
+        @Override
+        public int compare(IEpisode o1, IEpisode o2) {
+            return Playlist.comparePlaylistOrder(o1, o2);
+        }
+    };
+
+    private List<IEpisode> mEpisodes;
+    private SlimSubscription mSubscription;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Random random = new Random(42);
+        mEpisodes = new ArrayList<>(EPISODES);
+        for (int i = 0; i < EPISODES; i++) {
+            FeedItem item = new FeedItem(true);
+            item.setURL("http://example.com/podcast/episode" + i + ".mp3"); // NoI18N
+            item.setPubDate(new Date(1500000000000L + random.nextInt(Integer.MAX_VALUE) * 1000L));
+            mEpisodes.add(item);
+        }
+        mSubscription = new SlimSubscription(new URL("http://example.com/feed.xml")); // NoI18N
+    }
+
+    public void testSameOrder() throws Exception {
+        List<IEpisode> byDate = new ArrayList<>(mEpisodes);
+        Collections.sort(byDate, BY_DATE);
+
+        EpisodeList<IEpisode> episodeList = mSubscription.initEpisodeList();
+        episodeList.addAll(mEpisodes);
+        assertEquals(byDate, toList(episodeList));
+
+        List<IEpisode> playlist = new ArrayList<>(mEpisodes);
+        Collections.sort(playlist, PLAYLIST_ORDER);
+        assertEquals(byDate, playlist);
+    }
+
+    public void testNoDateSortsLast() throws Exception {
+        FeedItem undated = new FeedItem(true);
+        undated.setURL("http://example.com/podcast/undated.mp3"); // NoI18N
+        assertEquals(IEpisode.NO_SORT_KEY, undated.getSortKey());
+
+        List<IEpisode> episodes = new ArrayList<>(mEpisodes);
+        episodes.add(0, undated);
+
+        EpisodeList<IEpisode> episodeList = mSubscription.initEpisodeList();
+        episodeList.addAll(episodes);
+        assertSame(undated, episodeList.get(episodeList.size() - 1));
+
+        Collections.sort(episodes, PLAYLIST_ORDER);
+        assertSame(undated, episodes.get(episodes.size() - 1));
+    }
+
+    public void testBenchmark() throws Exception {
+        measure("Date", BY_DATE); // NoI18N
+        measure("playlist order", PLAYLIST_ORDER); // NoI18N
+        measureEpisodeList();
+    }
+
+    private void measure(String argName, final Comparator<IEpisode> argComparator) {
+        final List<IEpisode> episodes = new ArrayList<>(mEpisodes);
+        measure(argName, episodes, new Runnable() {
+            @Override
+            public void run() {
+                Collections.sort(episodes, argComparator);
+            }
+        });
+    }
+
+    private void measureEpisodeList() {
+        final List<IEpisode> episodes = new ArrayList<>(mEpisodes);
+        final EpisodeList<IEpisode> episodeList = mSubscription.initEpisodeList();
+        // Includes the URL index of the list, which is built as the episodes are added
+        measure("episode list", episodes, new Runnable() { // NoI18N
+            @Override
+            public void run() {
+                episodeList.clear();
+                episodeList.addAll(episodes);
+            }
+        });
+    }
+
+    /**
+     * Shuffles the episodes before every run of the sort
+     */
+    @SuppressWarnings("deprecation")
+    private static void measure(String argName, List<IEpisode> argEpisodes, Runnable argSort) {
+        Random random = new Random(42);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            Collections.shuffle(argEpisodes, random);
+            argSort.run();
+        }
+
+        long nanos = 0;
+        long allocations = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Collections.shuffle(argEpisodes, random);
+
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            long start = System.nanoTime();
+            argSort.run();
+            nanos += System.nanoTime() - start;
+            Debug.stopAllocCounting();
+            allocations += Debug.getThreadAllocCount();
+        }
+
+        Log.i(TAG, argName + ": " + (nanos / ITERATIONS / 1000) + " us and " // NoI18N
+                + (allocations / ITERATIONS) + " allocations per sort of " + EPISODES + " episodes"); // NoI18N
+    }
+
+    private static List<IEpisode> toList(SortedList<IEpisode> argList) {
+        List<IEpisode> list = new ArrayList<>(argList.size());
+        for (int i = 0; i < argList.size(); i++) {
+            list.add(argList.get(i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,136 @@
+package org.bottiger.podcast;
+
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import org.bottiger.podcast.parser.FeedParser;
+import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Compares a full parse of a large feed with an incremental parse, where only the newest items
+ * are unknown.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class FeedParserBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "FeedParserBenchmark";
+
+    private static final int BACK_CATALOGUE_SIZE = 2000;
+    private static final int NEW_EPISODES = 10;
+    private static final int ITERATIONS = 5;
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    public void testIncrementalParseOfLargeFeed() throws Exception {
+        long now = System.currentTimeMillis();
+        byte[] oldFeed = generateFeed(BACK_CATALOGUE_SIZE, now - NEW_EPISODES * HOUR, false);
+        byte[] newFeed = generateFeed(BACK_CATALOGUE_SIZE + NEW_EPISODES, now, false);
+
+        long fullTime = 0;
+        long incrementalTime = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            SlimSubscription full = parsedSubscription(oldFeed);
+            SlimSubscription incremental = parsedSubscription(oldFeed);
+
+            long start = System.nanoTime();
+            FeedParser.parse(full, stream(newFeed), getContext(), true);
+            fullTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            FeedParser.parse(incremental, stream(newFeed), getContext(), false);
+            incrementalTime += System.nanoTime() - start;
+
+            assertEquals(full.getEpisodes().size(), incremental.getEpisodes().size());
+        }
+
+        Log.i(TAG, "Full read: " + (fullTime / ITERATIONS / 1000000) + " ms/feed, " +
+                "incremental read: " + (incrementalTime / ITERATIONS / 1000000) + " ms/feed " +
+                "(" + BACK_CATALOGUE_SIZE + " known items, " + NEW_EPISODES + " new)");
+    }
+
+    public void testOldestFirstFeedIsReadCompletely() throws Exception {
+        long now = System.currentTimeMillis();
+        byte[] oldFeed = generateFeed(BACK_CATALOGUE_SIZE, now - NEW_EPISODES * HOUR, true);
+        byte[] newFeed = generateFeed(BACK_CATALOGUE_SIZE + NEW_EPISODES, now, true);
+
+        SlimSubscription full = parsedSubscription(oldFeed);
+        SlimSubscription incremental = parsedSubscription(oldFeed);
+
+        FeedParser.parse(full, stream(newFeed), getContext(), true);
+        FeedParser.parse(incremental, stream(newFeed), getContext(), false);
+
+        assertEquals(full.getEpisodes().size(), incremental.getEpisodes().size());
+    }
+
+    public void testChannelTagsAfterKnownItemsAreRead() throws Exception {
+        long now = System.currentTimeMillis();
+        String image = "http://example.com/new-cover.jpg";
+        byte[] oldFeed = generateFeed(BACK_CATALOGUE_SIZE, now - NEW_EPISODES * HOUR, false);
+        byte[] newFeed = generateFeed(BACK_CATALOGUE_SIZE + NEW_EPISODES, now, false,
+                "<image><url>" + image + "</url></image>");
+
+        SlimSubscription incremental = parsedSubscription(oldFeed);
+        FeedParser.parse(incremental, stream(newFeed), getContext(), false);
+
+        assertEquals(image, incremental.getImageURL());
+    }
+
+    private SlimSubscription parsedSubscription(byte[] argFeed) throws Exception {
+        SlimSubscription subscription = new SlimSubscription(new URL("http://example.com/feed.xml"));
+        FeedParser.parse(subscription, stream(argFeed), getContext(), true);
+        return subscription;
+    }
+
+    private static InputStream stream(byte[] argFeed) {
+        return new ByteArrayInputStream(argFeed);
+    }
+
+    /**
+     * Generate an RSS feed with one episode per hour, ending at argNewest.
+     */
+    private static byte[] generateFeed(int argItems, long argNewest, boolean argOldestFirst) {
+        return generateFeed(argItems, argNewest, argOldestFirst, "");
+    }
+
+    /**
+     * @param argTrailingTags Channel tags placed after the items
+     */
+    private static byte[] generateFeed(int argItems, long argNewest, boolean argOldestFirst, String argTrailingTags) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        StringBuilder builder = new StringBuilder(argItems * 400);
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<rss version=\"2.0\"><channel>");
+        builder.append("<title>Benchmark feed</title><link>http://example.com</link>");
+
+        for (int i = 0; i < argItems; i++) {
+            int index = argOldestFirst ? i : argItems - 1 - i;
+            long pubDate = argNewest - (argItems - 1 - index) * HOUR;
+
+            builder.append("<item>");
+            builder.append("<title>Episode ").append(index).append("</title>");
+            builder.append("<description>Description of episode ").append(index).append("</description>");
+            builder.append("<pubDate>").append(format.format(new Date(pubDate))).append("</pubDate>");
+            builder.append("<enclosure url=\"http://example.com/episode").append(index)
+                    .append(".mp3\" length=\"12345678\" type=\"audio/mpeg\"/>");
+            builder.append("<itunes:duration>01:02:03</itunes:duration>");
+            builder.append("</item>");
+        }
+
+        builder.append(argTrailingTags);
+        builder.append("</channel></rss>");
+        return builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+}
@@ -0,0 +1,230 @@
+package org.bottiger.podcast;
+
+import android.os.Looper;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.utils.lanes.Lane;
+import org.bottiger.podcast.utils.lanes.Lanes;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that a lane never runs more threads than it has, what happens when its queue is full,
+ * and that it counts its tasks.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class LanesTest extends TestCase {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    public void testBoundedThreads() throws Exception {
+        Lane lane = new Lane("Test", 2, 100, Thread.NORM_PRIORITY, false); // NoI18N
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            lane.execute(new Runnable() {
+                @Override
+                public void run() {
+                    threads.add(Thread.currentThread().getName());
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(threads.size() <= 2);
+        for (String thread : threads) {
+            assertTrue(thread, thread.startsWith("Test-")); // NoI18N
+        }
+        assertEquals(0, lane.getCallerRunsCount());
+        assertEquals(0, lane.getDroppedCount());
+    }
+
+    public void testCallerRunsWhenFull() throws Exception {
+        final Lane lane = new Lane("Test", 1, 1, Thread.NORM_PRIORITY, false); // NoI18N
+        CountDownLatch release = block(lane);
+
+        final CountDownLatch queuedDone = new CountDownLatch(1);
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                queuedDone.countDown();
+            }
+        });
+        assertEquals(1, lane.getQueueDepth());
+
+        // The queue is full, so a background thread runs it itself
+        final AtomicBoolean ranOnCaller = new AtomicBoolean();
+        runOnNewThread(new Runnable() {
+            @Override
+            public void run() {
+                final Thread caller = Thread.currentThread();
+                lane.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        ranOnCaller.set(Thread.currentThread() == caller);
+                    }
+                });
+            }
+        }, false);
+        assertTrue(ranOnCaller.get());
+        assertEquals(1, lane.getCallerRunsCount());
+
+        release.countDown();
+        assertTrue(queuedDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    public void testOverflowFromLooperThread() throws Exception {
+        final Lane lane = new Lane("Test", 1, 1, Thread.NORM_PRIORITY, false); // NoI18N
+        CountDownLatch release = block(lane);
+
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals(1, lane.getQueueDepth());
+
+        // The queue is full, but a thread with a Looper, like the main thread, must not run it
+        final AtomicReference<Thread> ranOn = new AtomicReference<>();
+        final CountDownLatch overflowDone = new CountDownLatch(1);
+        Thread looperThread = runOnNewThread(new Runnable() {
+            @Override
+            public void run() {
+                lane.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        ranOn.set(Thread.currentThread());
+                        overflowDone.countDown();
+                    }
+                });
+            }
+        }, true);
+
+        assertEquals(1, lane.getOverflowCount());
+        assertEquals(0, lane.getCallerRunsCount());
+        assertEquals(1, overflowDone.getCount());
+
+        release.countDown();
+        assertTrue(overflowDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotSame(looperThread, ranOn.get());
+        assertTrue(ranOn.get().getName(), ranOn.get().getName().startsWith("Test-")); // NoI18N
+        waitForCompletion(lane, 3);
+    }
+
+    public void testDropWhenFull() throws Exception {
+        Lane lane = new Lane("Test", 1, 1, Thread.MIN_PRIORITY, true); // NoI18N
+        CountDownLatch release = block(lane);
+
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                ran.set(true);
+            }
+        });
+        assertEquals(1, lane.getDroppedCount());
+
+        release.countDown();
+        waitForCompletion(lane, 2);
+        assertFalse(ran.get());
+    }
+
+    public void testMetrics() throws Exception {
+        Lane lane = new Lane("Test", 1, 10, Thread.NORM_PRIORITY, false); // NoI18N
+        CountDownLatch release = block(lane);
+        for (int i = 0; i < 5; i++) {
+            lane.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+
+        assertEquals(5, lane.getQueueDepth());
+        assertEquals(5, lane.getMaxQueueDepth());
+
+        Thread.sleep(20);
+        release.countDown();
+        waitForCompletion(lane, 6);
+
+        assertEquals(6, lane.getSubmittedCount());
+        assertEquals(0, lane.getQueueDepth());
+        assertTrue(lane.getMaxWaitMs() >= 20);
+        assertTrue(lane.toString().startsWith("Test: ")); // NoI18N
+    }
+
+    public void testAllLanesInMetrics() throws Exception {
+        String[] lines = Lanes.getMetrics().split("\n");
+        Lane[] lanes = {Lanes.DB, Lanes.NETWORK, Lanes.CPU, Lanes.AUDIO};
+
+        assertEquals(lanes.length, lines.length);
+        for (int i = 0; i < lanes.length; i++) {
+            assertTrue(lines[i], lines[i].startsWith(lanes[i].getName() + ": ")); // NoI18N
+        }
+    }
+
+    /**
+     * Keeps the only thread of the lane busy until the returned latch is released
+     */
+    private static CountDownLatch block(Lane argLane) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        argLane.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return release;
+    }
+
+    /**
+     * Runs the task on a new thread, with or without a Looper, and waits for it. The thread of the
+     * test runner may have a Looper of its own.
+     */
+    private static Thread runOnNewThread(final Runnable argTask, final boolean argLooper) throws InterruptedException {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                if (argLooper) {
+                    Looper.prepare();
+                }
+                argTask.run();
+            }
+        });
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(thread.isAlive());
+        return thread;
+    }
+
+    private static void waitForCompletion(Lane argLane, long argTasks) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (argLane.getCompletedCount() < argTasks && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(argTasks, argLane.getCompletedCount());
+    }
+}
@@ -0,0 +1,80 @@
+package org.bottiger.podcast;
+
+import android.support.annotation.NonNull;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.parser.opml.OpmlElement;
+import org.bottiger.podcast.parser.opml.OpmlReader;
+import org.bottiger.podcast.service.Downloader.FeedRefreshScheduler;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Reads a 500 feed OPML document element by element, and checks that a refresh batch is only done
+ * once it has been closed.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class OpmlImportTest extends TestCase {
+
+    private static final int FEEDS = 500;
+
+    public void testStreaming() throws Exception {
+        final List<OpmlElement> streamed = new ArrayList<>();
+        new OpmlReader().readDocument(new StringReader(opml(FEEDS)), new OpmlReader.ElementHandler() {
+            @Override
+            public void onElement(@NonNull OpmlElement argElement) {
+                streamed.add(argElement);
+            }
+        });
+
+        List<OpmlElement> read = new OpmlReader().readDocument(new StringReader(opml(FEEDS)));
+
+        // The category outline has no feed url
+        assertEquals(FEEDS, streamed.size());
+        assertEquals(FEEDS, read.size());
+        for (int i = 0; i < FEEDS; i++) {
+            assertEquals(url(i), streamed.get(i).getXmlUrl());
+            assertEquals(read.get(i).getXmlUrl(), streamed.get(i).getXmlUrl());
+            assertEquals("Podcast " + i, streamed.get(i).getText()); // NoI18N
+        }
+    }
+
+    public void testEmptyBatchIsDoneWhenClosed() throws Exception {
+        FeedRefreshScheduler scheduler = new FeedRefreshScheduler(new OkHttpClient());
+        final AtomicInteger done = new AtomicInteger();
+
+        FeedRefreshScheduler.Batch batch = scheduler.newBatch("empty", new Runnable() { // NoI18N
+            @Override
+            public void run() {
+                done.incrementAndGet();
+            }
+        });
+
+        assertEquals(0, done.get());
+        batch.close();
+        assertEquals(1, done.get());
+    }
+
+    private static String opml(int argFeeds) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<opml version=\"1.0\"><head><title>Feeds</title></head><body>\n"); // NoI18N
+        builder.append("<outline text=\"Podcasts\">\n"); // NoI18N
+        for (int i = 0; i < argFeeds; i++) {
+            builder.append("<outline type=\"rss\" text=\"Podcast ").append(i) // NoI18N
+                    .append("\" xmlUrl=\"").append(url(i)).append("\"/>\n"); // NoI18N
+        }
+        builder.append("</outline>\n</body></opml>\n"); // NoI18N
+        return builder.toString();
+    }
+
+    private static String url(int argFeed) {
+        return "http://example.com/podcast/" + argFeed + "/feed.xml"; // NoI18N
+    }
+}
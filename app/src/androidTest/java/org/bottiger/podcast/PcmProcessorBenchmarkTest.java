@@ -0,0 +1,165 @@
+package org.bottiger.podcast;
+
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.player.exoplayer.PcmProcessor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Micro benchmark of the PCM processing chain in the audio renderer. Runs a minute of stereo audio
+ * with pauses through silence trimming, gain and time-stretch at a number of speeds, in buffers of
+ * the size the decoder returns, and reports the time per sample.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class PcmProcessorBenchmarkTest extends TestCase {
+
+    private static final String TAG = "PcmProcessorBenchmark";
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int CHANNELS = 2;
+    private static final int FRAMES_PER_BUFFER = 1024;
+    private static final int BUFFER_BYTES = FRAMES_PER_BUFFER * CHANNELS * 2;
+    private static final int BUFFERS = 60 * SAMPLE_RATE / FRAMES_PER_BUFFER;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 5;
+
+    // Three seconds of a 220 Hz tone, followed by a second of silence
+    private static final int PATTERN_FRAMES = 4 * SAMPLE_RATE;
+
+    private short[] mPattern;
+    private ByteBuffer[] mInput;
+    private ShortBuffer[] mInputSamples;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        mPattern = new short[PATTERN_FRAMES * CHANNELS];
+        for (int frame = 0; frame < 3 * SAMPLE_RATE; frame++) {
+            short sample = (short) (8000 * Math.sin(2 * Math.PI * 220 * frame / SAMPLE_RATE));
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                mPattern[frame * CHANNELS + channel] = sample;
+            }
+        }
+
+        // A decoder cycles through a few output buffers
+        mInput = new ByteBuffer[4];
+        mInputSamples = new ShortBuffer[mInput.length];
+        for (int i = 0; i < mInput.length; i++) {
+            mInput[i] = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+            mInputSamples[i] = mInput[i].asShortBuffer();
+        }
+    }
+
+    public void testPassThroughWhenInactive() throws Exception {
+        PcmProcessor processor = new PcmProcessor(SAMPLE_RATE, CHANNELS, BUFFER_BYTES);
+        ByteBuffer input = fill(0);
+
+        assertFalse(processor.isActive());
+        assertSame(input, processor.process(input));
+    }
+
+    public void testGainDoesNotChangeLength() throws Exception {
+        PcmProcessor processor = new PcmProcessor(SAMPLE_RATE, CHANNELS, BUFFER_BYTES);
+        processor.setGain(2.0f);
+
+        ByteBuffer input = fill(0);
+        ShortBuffer samples = input.duplicate().order(ByteOrder.nativeOrder()).asShortBuffer();
+        ByteBuffer output = processor.process(input);
+
+        assertEquals(BUFFER_BYTES, output.remaining());
+        assertEquals(0, input.position());
+        ShortBuffer processed = output.asShortBuffer();
+        for (int i = 0; i < 100; i++) {
+            int expected = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, samples.get(i) * 2));
+            assertEquals(expected, processed.get(i), 1);
+        }
+    }
+
+    public void testSpeedShortensOutput() throws Exception {
+        PcmProcessor processor = new PcmProcessor(SAMPLE_RATE, CHANNELS, BUFFER_BYTES);
+        processor.setSpeed(2.0f);
+
+        long output = 0;
+        for (int i = 0; i < BUFFERS; i++) {
+            output += processor.process(fill(i)).remaining();
+        }
+
+        long input = (long) BUFFERS * BUFFER_BYTES;
+        assertEquals(input / 2, output, input / 20);
+    }
+
+    public void testSilenceIsCounted() throws Exception {
+        PcmProcessor processor = new PcmProcessor(SAMPLE_RATE, CHANNELS, BUFFER_BYTES);
+        processor.setRemoveSilence(true);
+
+        for (int i = 0; i < BUFFERS; i++) {
+            processor.process(fill(i));
+        }
+
+        assertTrue(processor.getSkippedUs() > 0);
+    }
+
+    public void testSpeed10() throws Exception {
+        benchmark(1.0f);
+    }
+
+    public void testSpeed15() throws Exception {
+        benchmark(1.5f);
+    }
+
+    public void testSpeed25() throws Exception {
+        benchmark(2.5f);
+    }
+
+    private void benchmark(float argSpeed) {
+        PcmProcessor processor = new PcmProcessor(SAMPLE_RATE, CHANNELS, BUFFER_BYTES);
+        processor.setSpeed(argSpeed);
+        processor.setGain(1.5f);
+        processor.setRemoveSilence(true);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(processor);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(processor);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long samples = (long) ITERATIONS * BUFFERS * FRAMES_PER_BUFFER * CHANNELS;
+        Log.i(TAG, argSpeed + "x: " + ((double) nanos / samples) + " ns/sample");
+    }
+
+    private long run(PcmProcessor argProcessor) {
+        long output = 0;
+        for (int i = 0; i < BUFFERS; i++) {
+            output += argProcessor.process(fill(i)).remaining();
+        }
+        return output;
+    }
+
+    /**
+     * @return The next decoder buffer, filled with the audio at the index
+     */
+    private ByteBuffer fill(int argIndex) {
+        ByteBuffer buffer = mInput[argIndex % mInput.length];
+        ShortBuffer samples = mInputSamples[argIndex % mInput.length];
+
+        samples.clear();
+        int offset = (int) (((long) argIndex * FRAMES_PER_BUFFER) % PATTERN_FRAMES) * CHANNELS;
+        int length = Math.min(FRAMES_PER_BUFFER * CHANNELS, mPattern.length - offset);
+        samples.put(mPattern, offset, length);
+        samples.put(mPattern, 0, FRAMES_PER_BUFFER * CHANNELS - length);
+
+        buffer.clear();
+        return buffer;
+    }
+}
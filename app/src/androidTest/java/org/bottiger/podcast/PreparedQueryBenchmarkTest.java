@@ -0,0 +1,165 @@
+package org.bottiger.podcast;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import org.bottiger.podcast.provider.PreparedQuery;
+import org.bottiger.podcast.provider.ReadConnectionPool;
+
+import java.util.Random;
+
+import io.requery.android.database.sqlite.SQLiteDatabase;
+import io.requery.android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Looks up episodes by url and by subscription with the values written into the SQL, like the
+ * Library used to, and with bound values, and logs the statement cache hit rate and the time per
+ * query of both.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class PreparedQueryBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = "PreparedQueryBenchmark";
+
+    private static final String DATABASE = "prepared_query_test.db"; // NoI18N
+    private static final int SUBSCRIPTIONS = 100;
+    private static final int EPISODES = 10000;
+    private static final int WARMUP_QUERIES = 200;
+    private static final int QUERIES = 2000;
+
+    private static final String SQL_BY_URL = "SELECT * FROM items WHERE url=?"; // NoI18N
+    private static final String SQL_BY_SUBSCRIPTION = "SELECT * FROM items WHERE subs_id=?"; // NoI18N
+
+    private TestOpenHelper mHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getContext().deleteDatabase(DATABASE);
+        mHelper = new TestOpenHelper(getContext());
+
+        SQLiteDatabase database = mHelper.getWritableDatabase();
+        database.beginTransaction();
+        try {
+            for (int i = 0; i < EPISODES; i++) {
+                database.execSQL("INSERT INTO items (subs_id, url, title) VALUES (?, ?, ?)", // NoI18N
+                        new Object[] {i % SUBSCRIPTIONS, url(i), "Episode " + i}); // NoI18N
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mHelper.close();
+        getContext().deleteDatabase(DATABASE);
+        super.tearDown();
+    }
+
+    public void testEpisodeByUrl() throws Exception {
+        ReadConnectionPool literalPool = new ReadConnectionPool(mHelper);
+        ReadConnectionPool preparedPool = new ReadConnectionPool(mHelper);
+        Random random = new Random(42);
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            String url = url(random.nextInt(EPISODES));
+            run(literalPool, new PreparedQuery("SELECT * FROM items WHERE url=" + DatabaseUtils.sqlEscapeString(url))); // NoI18N
+            run(preparedPool, new PreparedQuery(SQL_BY_URL, url));
+        }
+
+        long literalNanos = 0;
+        long preparedNanos = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String url = url(random.nextInt(EPISODES));
+
+            long start = System.nanoTime();
+            assertEquals(1, run(literalPool, new PreparedQuery("SELECT * FROM items WHERE url=" + DatabaseUtils.sqlEscapeString(url)))); // NoI18N
+            literalNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            assertEquals(1, run(preparedPool, new PreparedQuery(SQL_BY_URL, url)));
+            preparedNanos += System.nanoTime() - start;
+        }
+
+        report("by url", literalPool, literalNanos, preparedPool, preparedNanos); // NoI18N
+        assertTrue(hitRate(preparedPool) > 0.9);
+    }
+
+    public void testEpisodesBySubscription() throws Exception {
+        ReadConnectionPool literalPool = new ReadConnectionPool(mHelper);
+        ReadConnectionPool preparedPool = new ReadConnectionPool(mHelper);
+        Random random = new Random(42);
+
+        long literalNanos = 0;
+        long preparedNanos = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            int subscription = random.nextInt(SUBSCRIPTIONS);
+
+            long start = System.nanoTime();
+            run(literalPool, new PreparedQuery("SELECT * FROM items WHERE subs_id==" + subscription)); // NoI18N
+            literalNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            assertEquals(EPISODES / SUBSCRIPTIONS, run(preparedPool, new PreparedQuery(SQL_BY_SUBSCRIPTION, String.valueOf(subscription))));
+            preparedNanos += System.nanoTime() - start;
+        }
+
+        report("by subscription", literalPool, literalNanos, preparedPool, preparedNanos); // NoI18N
+        assertTrue(hitRate(preparedPool) > 0.9);
+    }
+
+    private static int run(ReadConnectionPool argPool, PreparedQuery argQuery) {
+        Cursor cursor = argPool.query(argQuery);
+        try {
+            int rows = 0;
+            while (cursor.moveToNext()) {
+                rows++;
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static double hitRate(ReadConnectionPool argPool) {
+        return (double) argPool.getStatementCacheHits() / argPool.getQueryCount();
+    }
+
+    private static void report(String argName,
+                               ReadConnectionPool argLiteralPool, long argLiteralNanos,
+                               ReadConnectionPool argPreparedPool, long argPreparedNanos) {
+        Log.i(TAG, argName + ": literal " + (argLiteralNanos / QUERIES / 1000) + " us/query, " // NoI18N
+                + Math.round(hitRate(argLiteralPool) * 100) + "% cache hits. " // NoI18N
+                + "Prepared " + (argPreparedNanos / QUERIES / 1000) + " us/query, " // NoI18N
+                + Math.round(hitRate(argPreparedPool) * 100) + "% cache hits"); // NoI18N
+    }
+
+    private static String url(int argEpisode) {
+        return "http://example.com/podcast/" + (argEpisode % SUBSCRIPTIONS) + "/episode'" + argEpisode + ".mp3"; // NoI18N
+    }
+
+    private static class TestOpenHelper extends SQLiteOpenHelper {
+
+        TestOpenHelper(Context argContext) {
+            super(argContext, DATABASE, null, 1);
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE items (_id INTEGER PRIMARY KEY AUTOINCREMENT, subs_id INTEGER, url VARCHAR(1024), title TEXT)"); // NoI18N
+            db.execSQL("CREATE INDEX items_subs_id ON items (subs_id)"); // NoI18N
+            db.execSQL("CREATE UNIQUE INDEX items_url ON items (url)"); // NoI18N
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+    }
+}
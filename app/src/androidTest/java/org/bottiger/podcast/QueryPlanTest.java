@@ -0,0 +1,188 @@
+package org.bottiger.podcast;
+
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import org.bottiger.podcast.model.Library;
+import org.bottiger.podcast.playlist.Playlist;
+import org.bottiger.podcast.playlist.filters.SubscriptionFilter;
+import org.bottiger.podcast.provider.ItemColumns;
+import org.bottiger.podcast.provider.PodcastOpenHelper;
+import org.bottiger.podcast.provider.PreparedQuery;
+import org.bottiger.podcast.provider.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import io.requery.android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on the queries the Library and the Playlist use, on a database created
+ * like the real one, and fails if one of them reads the whole episode table or sorts the episodes
+ * in a temporary B-tree.
+ *
+ * Also checks that the triggers keep the playlist eligible flag of the episodes in sync with their
+ * subscription.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class QueryPlanTest extends AndroidTestCase {
+
+    private static final String TAG = "QueryPlanTest";
+
+    private static final Pattern FULL_SCAN = Pattern.compile("SCAN (TABLE )?" + ItemColumns.TABLE_NAME + "\\b"); // NoI18N
+    private static final Pattern TEMP_SORT = Pattern.compile("TEMP B-TREE"); // NoI18N
+
+    private static final String SHOW_ALL_FILTER = " 1 "; // NoI18N
+    private static final String UNLISTENED_FILTER = " " + ItemColumns.LISTENED + "<= 0 "; // NoI18N
+    private static final String SELECTED_FILTER = " " + ItemColumns.SUBS_ID + " IN (?,?) AND " + UNLISTENED_FILTER; // NoI18N
+
+    private SQLiteDatabase mDatabase;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDatabase = SQLiteDatabase.create(null);
+        new PodcastOpenHelper(getContext()).onCreate(mDatabase);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mDatabase.close();
+        super.tearDown();
+    }
+
+    public void testLibraryQueries() throws Exception {
+        assertIndexed(new PreparedQuery(Library.SQL_EPISODE_BY_URL, "http://example.com/episode.mp3")); // NoI18N
+        assertIndexed(new PreparedQuery(Library.SQL_EPISODES_BY_SUBSCRIPTION, "1"));
+        // All the subscriptions are read, but their episodes must not be
+        assertIndexed(new PreparedQuery(Library.SQL_SUBSCRIPTIONS, "0"));
+    }
+
+    public void testPlaylistQuery() throws Exception {
+        for (String order : Arrays.asList("DESC", "ASC")) { // NoI18N
+            for (boolean onlyDownloaded : new boolean[] {false, true}) {
+                for (long playing : new long[] {-1, 42}) {
+                    assertSorted(playlist(playing, SubscriptionFilter.SHOW_ALL, SHOW_ALL_FILTER, onlyDownloaded, order));
+                    assertSorted(playlist(playing, SubscriptionFilter.SHOW_ALL, UNLISTENED_FILTER, onlyDownloaded, order));
+                    assertSorted(playlist(playing, SubscriptionFilter.SHOW_NONE, null, onlyDownloaded, order));
+                    // Selected, but no subscriptions have been selected
+                    assertSorted(playlist(playing, SubscriptionFilter.SHOW_SELECTED, "", onlyDownloaded, order));
+                }
+            }
+        }
+    }
+
+    public void testPlaylistQuerySelectedSubscriptions() throws Exception {
+        // The planner may look the episodes up by subscription and sort the few it finds, which is
+        // fine, but it must not read all of them
+        List<String> ids = Arrays.asList("1", "2");
+        assertIndexed(Playlist.getEpisodeQuery(42, SubscriptionFilter.SHOW_SELECTED, SELECTED_FILTER, ids, false, "DESC", 20)); // NoI18N
+        assertIndexed(Playlist.getEpisodeQuery(-1, SubscriptionFilter.SHOW_SELECTED, SELECTED_FILTER, ids, true, "ASC", 20)); // NoI18N
+    }
+
+    public void testPlaylistEligible() throws Exception {
+        long subscribed = insertSubscription("http://example.com/subscribed.xml", 0, -1); // NoI18N
+        long unsubscribed = insertSubscription("http://example.com/unsubscribed.xml", Subscription.STATUS_UNSUBSCRIBED, -1); // NoI18N
+        long excluded = insertSubscription("http://example.com/excluded.xml", 0, Subscription.ADD_NEW_TO_PLAYLIST_SET); // NoI18N
+        long included = insertSubscription("http://example.com/included.xml", 0, // NoI18N
+                Subscription.ADD_NEW_TO_PLAYLIST_SET | Subscription.ADD_NEW_TO_PLAYLIST);
+
+        long episode1 = insertEpisode(subscribed);
+        long episode2 = insertEpisode(unsubscribed);
+        long episode3 = insertEpisode(excluded);
+        long episode4 = insertEpisode(included);
+        long orphan = insertEpisode(1000);
+
+        assertEligible(true, episode1);
+        assertEligible(false, episode2);
+        assertEligible(false, episode3);
+        assertEligible(true, episode4);
+        assertEligible(false, orphan);
+
+        // Subscription changes
+        mDatabase.execSQL("UPDATE subscriptions SET status=? WHERE _id=?", new Object[] {Subscription.STATUS_UNSUBSCRIBED, subscribed}); // NoI18N
+        mDatabase.execSQL("UPDATE subscriptions SET settings=? WHERE _id=?", new Object[] {-1, excluded}); // NoI18N
+        assertEligible(false, episode1);
+        assertEligible(true, episode3);
+
+        // The episode is moved
+        mDatabase.execSQL("UPDATE item SET subs_id=? WHERE _id=?", new Object[] {included, episode1}); // NoI18N
+        assertEligible(true, episode1);
+
+        mDatabase.execSQL("DELETE FROM subscriptions WHERE _id=?", new Object[] {included}); // NoI18N
+        assertEligible(false, episode1);
+        assertEligible(false, episode4);
+    }
+
+    private static PreparedQuery playlist(long argPlaying, @SubscriptionFilter.Mode int argMode, String argFilter,
+                                          boolean argOnlyDownloaded, String argOrder) {
+        return Playlist.getEpisodeQuery(argPlaying, argMode, argFilter, Collections.<String>emptyList(),
+                argOnlyDownloaded, argOrder, 20);
+    }
+
+    private void assertIndexed(PreparedQuery argQuery) {
+        for (String step : plan(argQuery)) {
+            assertFalse("Full table scan in " + argQuery + ": " + step, FULL_SCAN.matcher(step).find()); // NoI18N
+        }
+    }
+
+    private void assertSorted(PreparedQuery argQuery) {
+        for (String step : plan(argQuery)) {
+            assertFalse("Full table scan in " + argQuery + ": " + step, FULL_SCAN.matcher(step).find()); // NoI18N
+            assertFalse("Temporary sort in " + argQuery + ": " + step, TEMP_SORT.matcher(step).find()); // NoI18N
+        }
+    }
+
+    private List<String> plan(PreparedQuery argQuery) {
+        List<String> steps = new ArrayList<>();
+        Cursor cursor = mDatabase.rawQuery("EXPLAIN QUERY PLAN " + argQuery.getSql(), argQuery.getArgs()); // NoI18N
+        try {
+            int detail = cursor.getColumnIndexOrThrow("detail"); // NoI18N
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detail));
+            }
+        } finally {
+            cursor.close();
+        }
+        Log.d(TAG, argQuery.getSql() + " -> " + steps); // NoI18N
+        return steps;
+    }
+
+    private long insertSubscription(String argUrl, int argStatus, int argSettings) {
+        mDatabase.execSQL("INSERT INTO subscriptions (url, status, settings) VALUES (?, ?, ?)", // NoI18N
+                new Object[] {argUrl, argStatus, argSettings});
+        return lastId();
+    }
+
+    private long insertEpisode(long argSubscription) {
+        mDatabase.execSQL("INSERT INTO item (subs_id, url) VALUES (?, ?)", // NoI18N
+                new Object[] {argSubscription, "http://example.com/" + System.nanoTime() + ".mp3"}); // NoI18N
+        return lastId();
+    }
+
+    private long lastId() {
+        Cursor cursor = mDatabase.rawQuery("SELECT last_insert_rowid()", null); // NoI18N
+        try {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private void assertEligible(boolean argExpected, long argEpisode) {
+        Cursor cursor = mDatabase.rawQuery("SELECT " + ItemColumns.PLAYLIST_ELIGIBLE + " FROM item WHERE _id=?", // NoI18N
+                new String[] {String.valueOf(argEpisode)});
+        try {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Episode " + argEpisode, argExpected ? 1 : 0, cursor.getInt(0)); // NoI18N
+        } finally {
+            cursor.close();
+        }
+    }
+}
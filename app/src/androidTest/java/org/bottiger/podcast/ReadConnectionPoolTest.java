@@ -0,0 +1,134 @@
+package org.bottiger.podcast;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import org.bottiger.podcast.provider.ReadConnectionPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.requery.android.database.sqlite.SQLiteDatabase;
+import io.requery.android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Reads a WAL database from a number of threads through the read pool while another thread writes
+ * to it, and logs the time the reads spent waiting for a connection and running.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ReadConnectionPoolTest extends AndroidTestCase {
+
+    private static final String TAG = "ReadConnectionPool";
+
+    private static final String DATABASE = "read_pool_test.db"; // NoI18N
+    private static final int ROWS = 5000;
+    private static final int READERS = 4;
+    private static final int QUERIES_PER_READER = 50;
+
+    private TestOpenHelper mHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getContext().deleteDatabase(DATABASE);
+        mHelper = new TestOpenHelper(getContext());
+
+        SQLiteDatabase database = mHelper.getWritableDatabase();
+        database.beginTransaction();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                database.execSQL("INSERT INTO items (subs_id, title) VALUES (?, ?)", // NoI18N
+                        new Object[] {i % 50, "Episode " + i}); // NoI18N
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mHelper.close();
+        getContext().deleteDatabase(DATABASE);
+        super.tearDown();
+    }
+
+    public void testConcurrentReadsWhileWriting() throws Exception {
+        final ReadConnectionPool pool = new ReadConnectionPool(mHelper);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            final int subscription = reader;
+            readers.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    int rows = 0;
+                    for (int i = 0; i < QUERIES_PER_READER; i++) {
+                        Cursor cursor = pool.query("SELECT * FROM items WHERE subs_id=? ORDER BY title", // NoI18N
+                                new String[] {String.valueOf(subscription)});
+                        try {
+                            while (cursor.moveToNext()) {
+                                rows++;
+                            }
+                        } finally {
+                            cursor.close();
+                        }
+                    }
+                    return rows;
+                }
+            }));
+        }
+
+        Future<?> writer = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                SQLiteDatabase database = mHelper.getWritableDatabase();
+                for (int i = 0; i < 100; i++) {
+                    database.execSQL("UPDATE items SET title=? WHERE _id=?", // NoI18N
+                            new Object[] {"Updated " + i, i + 1}); // NoI18N
+                }
+            }
+        });
+
+        for (Future<Integer> reader : readers) {
+            assertEquals(QUERIES_PER_READER * ROWS / 50, (int) reader.get());
+        }
+        writer.get();
+        executor.shutdown();
+
+        assertEquals(READERS * QUERIES_PER_READER, pool.getQueryCount());
+        assertTrue(pool.getOpenedConnections() <= 3);
+
+        long queries = pool.getQueryCount();
+        Log.i(TAG, READERS + " readers, " + pool.getOpenedConnections() + " connections. " // NoI18N
+                + "Waiting: " + (pool.getWaitNanos() / queries / 1000) + " us/query, " // NoI18N
+                + "max " + (pool.getMaxWaitNanos() / 1000) + " us. " // NoI18N
+                + "Executing: " + (pool.getExecuteNanos() / queries / 1000) + " us/query"); // NoI18N
+    }
+
+    private static class TestOpenHelper extends SQLiteOpenHelper {
+
+        TestOpenHelper(Context argContext) {
+            super(argContext, DATABASE, null, 1);
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE items (_id INTEGER PRIMARY KEY AUTOINCREMENT, subs_id INTEGER, title TEXT)"); // NoI18N
+            db.execSQL("CREATE INDEX items_subs_id ON items (subs_id)"); // NoI18N
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+    }
+}
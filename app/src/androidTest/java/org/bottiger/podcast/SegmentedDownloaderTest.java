@@ -0,0 +1,189 @@
+package org.bottiger.podcast;
+
+import android.util.Log;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.service.Downloader.engines.okhttp.SegmentedDownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Downloads a file from a local MockWebServer in segments, and compares the throughput with a
+ * single stream when every connection is throttled, like it is by a slow CDN.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SegmentedDownloaderTest extends TestCase {
+
+    private static final String TAG = "SegmentedDownloaderTest";
+
+    private static final int LENGTH = 4 * 1024 * 1024 + 17;
+    private static final int SEGMENTS = 4;
+    private static final String ETAG = "\"abc\"";
+
+    // 64 KB every 10 ms, about 6.4 MB/s for each connection
+    private static final long THROTTLE_BYTES = 64 * 1024;
+    private static final long THROTTLE_PERIOD_MS = 10;
+
+    private final OkHttpClient mClient = new OkHttpClient();
+    private MockWebServer mServer;
+    private byte[] mContent;
+    private File mFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mContent = new byte[LENGTH];
+        new Random(42).nextBytes(mContent);
+        mFile = File.createTempFile("segmented", ".tmp");
+
+        mServer = new MockWebServer();
+        mServer.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mServer.shutdown();
+        mFile.delete();
+        super.tearDown();
+    }
+
+    public void testSegmentedDownload() throws Exception {
+        mServer.setDispatcher(new RangeDispatcher(true, true));
+
+        SegmentedDownloader downloader = newDownloader();
+        assertTrue(downloader.probe());
+        assertEquals(LENGTH, downloader.getTotalLength());
+        assertEquals(LENGTH, downloader.download(mFile, null));
+
+        assertTrue(Arrays.equals(mContent, readFile()));
+        // One HEAD request and one request for each segment
+        assertEquals(1 + SEGMENTS, mServer.getRequestCount());
+    }
+
+    public void testNoAcceptRanges() throws Exception {
+        mServer.setDispatcher(new RangeDispatcher(false, true));
+
+        assertFalse(newDownloader().probe());
+    }
+
+    public void testFileChangedOnServer() throws Exception {
+        // The server ignores the range, as it does when If-Range does not match
+        mServer.setDispatcher(new RangeDispatcher(true, false));
+
+        SegmentedDownloader downloader = newDownloader();
+        assertTrue(downloader.probe());
+        try {
+            downloader.download(mFile, null);
+            fail("Expected the download to fail");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    public void testThroughputComparedToSingleStream() throws Exception {
+        RangeDispatcher dispatcher = new RangeDispatcher(true, true);
+        dispatcher.mThrottle = true;
+        mServer.setDispatcher(dispatcher);
+
+        long start = System.nanoTime();
+        downloadSingleStream();
+        long singleStream = System.nanoTime() - start;
+        assertTrue(Arrays.equals(mContent, readFile()));
+
+        start = System.nanoTime();
+        SegmentedDownloader downloader = newDownloader();
+        assertTrue(downloader.probe());
+        downloader.download(mFile, null);
+        long segmented = System.nanoTime() - start;
+        assertTrue(Arrays.equals(mContent, readFile()));
+
+        report("Single stream", singleStream);
+        report(SEGMENTS + " segments", segmented);
+    }
+
+    private SegmentedDownloader newDownloader() {
+        return new SegmentedDownloader(mClient, mServer.url("/video.mp4").toString(), TAG, SEGMENTS);
+    }
+
+    private void downloadSingleStream() throws IOException {
+        Request request = new Request.Builder().url(mServer.url("/video.mp4")).build();
+        Response response = mClient.newCall(request).execute();
+        try {
+            BufferedSink sink = Okio.buffer(Okio.sink(mFile));
+            try {
+                sink.writeAll(response.body().source());
+            } finally {
+                sink.close();
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    private byte[] readFile() throws IOException {
+        return Okio.buffer(Okio.source(mFile)).readByteArray();
+    }
+
+    private static void report(String argName, long argNanos) {
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(argNanos));
+        Log.i(TAG, argName + ": " + millis + " ms, " + (LENGTH / 1024 * 1000 / millis) + " KB/s");
+    }
+
+    private class RangeDispatcher extends Dispatcher {
+
+        private final boolean mAcceptRanges;
+        private final boolean mHonorRanges;
+        boolean mThrottle = false;
+
+        RangeDispatcher(boolean argAcceptRanges, boolean argHonorRanges) {
+            mAcceptRanges = argAcceptRanges;
+            mHonorRanges = argHonorRanges;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            MockResponse response = new MockResponse().setHeader("ETag", ETAG);
+            if (mAcceptRanges) {
+                response.setHeader("Accept-Ranges", "bytes");
+            }
+
+            if ("HEAD".equals(request.getMethod())) {
+                return response.setHeader("Content-Length", LENGTH);
+            }
+
+            int first = 0;
+            int last = LENGTH - 1;
+            String range = request.getHeader("Range");
+            if (range != null && mHonorRanges) {
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                first = Integer.parseInt(bounds[0]);
+                last = Integer.parseInt(bounds[1]);
+                response.setResponseCode(206);
+                response.setHeader("Content-Range", "bytes " + first + "-" + last + "/" + LENGTH);
+            }
+
+            response.setBody(new Buffer().write(mContent, first, last - first + 1));
+            if (mThrottle) {
+                response.throttleBody(THROTTLE_BYTES, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+            }
+            return response;
+        }
+    }
+}
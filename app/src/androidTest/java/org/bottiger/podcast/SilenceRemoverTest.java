@@ -0,0 +1,182 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.TestUtils.SpeechTone;
+import org.bottiger.podcast.player.exoplayer.SilenceRemover;
+
+import java.util.Random;
+
+/**
+ * Tests the silence remover with generated PCM: speech-like tone bursts separated by pauses, on top
+ * of background noise of different levels. Does not depend on Android.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SilenceRemoverTest extends TestCase {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    // The size of the buffers the decoder returns
+    private static final int CHUNK_FRAMES = 1024;
+
+    private final Random mRandom = new Random(42);
+
+    public void testRemovesLongPause() throws Exception {
+        Fixture fixture = new Fixture(1)
+                .speech(1000, 8000, 30)
+                .noise(2000, 30)
+                .speech(1000, 8000, 30);
+
+        SilenceRemover remover = new SilenceRemover(SAMPLE_RATE, 1);
+        int output = run(remover, fixture);
+
+        // Everything but the lookahead, the hangover and the crossfade of the pause is removed
+        long skippedMs = remover.getSkippedUs() / 1000;
+        assertTrue("skipped " + skippedMs + " ms", skippedMs > 1800 && skippedMs < 2000);
+        assertFramesAccountedFor(remover, fixture, output);
+    }
+
+    public void testKeepsShortPause() throws Exception {
+        Fixture fixture = new Fixture(1)
+                .speech(1000, 8000, 30)
+                .noise(80, 30)
+                .speech(1000, 8000, 30);
+
+        SilenceRemover remover = new SilenceRemover(SAMPLE_RATE, 1);
+        int output = run(remover, fixture);
+
+        assertEquals(0, remover.getSkippedFrames());
+        assertFramesAccountedFor(remover, fixture, output);
+    }
+
+    public void testAdaptsToNoiseFloor() throws Exception {
+        // The background noise is louder than the old fixed threshold of 400
+        Fixture fixture = new Fixture(1);
+        for (int i = 0; i < 10; i++) {
+            fixture.speech(1500, 8000, 600).noise(500, 600);
+        }
+        fixture.noise(2000, 600).speech(1000, 8000, 600);
+
+        SilenceRemover remover = new SilenceRemover(SAMPLE_RATE, 1);
+        int output = run(remover, fixture);
+
+        assertTrue("noise floor " + remover.getNoiseFloor(), remover.getNoiseFloor() > 300);
+        assertTrue("skipped " + remover.getSkippedUs(), remover.getSkippedUs() > 1_500_000);
+        assertFramesAccountedFor(remover, fixture, output);
+    }
+
+    public void testSpeechOnOneChannelIsKept() throws Exception {
+        Fixture fixture = new Fixture(2)
+                .speech(1000, 8000, 30)
+                .speechOnChannel(1, 2000, 8000, 30)
+                .speech(1000, 8000, 30);
+
+        SilenceRemover remover = new SilenceRemover(SAMPLE_RATE, 2);
+        int output = run(remover, fixture);
+
+        assertEquals(0, remover.getSkippedFrames());
+        assertFramesAccountedFor(remover, fixture, output);
+    }
+
+    public void testCrossfadeHasNoClick() throws Exception {
+        Fixture fixture = new Fixture(1)
+                .speech(1000, 8000, 30)
+                .noise(2000, 30)
+                .speech(1000, 8000, 30);
+
+        SilenceRemover remover = new SilenceRemover(SAMPLE_RATE, 1);
+        short[] output = new short[remover.getMaxOutputFrames(fixture.mFrames)];
+        int frames = remover.removeSilence(fixture.mSamples, fixture.mFrames, output);
+
+        // The cuts are crossfaded, so the output never jumps more than the input does
+        assertTrue(maxStep(output, frames) <= maxStep(fixture.mSamples, fixture.mFrames));
+    }
+
+    /**
+     * Feed the fixture in decoder sized chunks.
+     *
+     * @return The number of frames written
+     */
+    private static int run(SilenceRemover argRemover, Fixture argFixture) {
+        int channels = argFixture.mChannels;
+        short[] chunk = new short[CHUNK_FRAMES * channels];
+        short[] output = new short[argRemover.getMaxOutputFrames(CHUNK_FRAMES) * channels];
+
+        int written = 0;
+        for (int frame = 0; frame < argFixture.mFrames; frame += CHUNK_FRAMES) {
+            int frames = Math.min(CHUNK_FRAMES, argFixture.mFrames - frame);
+            System.arraycopy(argFixture.mSamples, frame * channels, chunk, 0, frames * channels);
+            written += argRemover.removeSilence(chunk, frames, output);
+        }
+        return written;
+    }
+
+    private static int maxStep(short[] argSamples, int argFrames) {
+        int maxStep = 0;
+        for (int i = 1; i < argFrames; i++) {
+            maxStep = Math.max(maxStep, Math.abs(argSamples[i] - argSamples[i - 1]));
+        }
+        return maxStep;
+    }
+
+    private static void assertFramesAccountedFor(SilenceRemover argRemover, Fixture argFixture, int argOutput) {
+        assertEquals(argFixture.mFrames, argOutput + argRemover.getSkippedFrames() + argRemover.getPendingFrames());
+        assertEquals(argRemover.getSkippedFrames() * 1_000_000L / SAMPLE_RATE, argRemover.getSkippedUs());
+    }
+
+    private class Fixture {
+        final int mChannels;
+        short[] mSamples = new short[0];
+        int mFrames = 0;
+
+        Fixture(int argChannels) {
+            mChannels = argChannels;
+        }
+
+        /**
+         * A tone which changes pitch and loudness like speech does, on top of the noise.
+         */
+        Fixture speech(int argMs, int argAmplitude, int argNoise) {
+            return speechOnChannel(-1, argMs, argAmplitude, argNoise);
+        }
+
+        Fixture speechOnChannel(int argChannel, int argMs, int argAmplitude, int argNoise) {
+            int frames = SAMPLE_RATE * argMs / 1000;
+            int start = grow(frames);
+            for (int frame = 0; frame < frames; frame++) {
+                double tone = SpeechTone.at(frame, SAMPLE_RATE);
+                for (int channel = 0; channel < mChannels; channel++) {
+                    double sample = mRandom.nextGaussian() * argNoise;
+                    if (argChannel < 0 || argChannel == channel) {
+                        sample += argAmplitude * tone;
+                    }
+                    mSamples[(start + frame) * mChannels + channel] = clip(sample);
+                }
+            }
+            return this;
+        }
+
+        Fixture noise(int argMs, int argNoise) {
+            int frames = SAMPLE_RATE * argMs / 1000;
+            int start = grow(frames);
+            for (int i = start * mChannels; i < (start + frames) * mChannels; i++) {
+                mSamples[i] = clip(mRandom.nextGaussian() * argNoise);
+            }
+            return this;
+        }
+
+        private int grow(int argFrames) {
+            int start = mFrames;
+            short[] samples = new short[(mFrames + argFrames) * mChannels];
+            System.arraycopy(mSamples, 0, samples, 0, mSamples.length);
+            mSamples = samples;
+            mFrames += argFrames;
+            return start;
+        }
+
+        private short clip(double argSample) {
+            return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(argSample)));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.bottiger.podcast;
+
+import junit.framework.TestCase;
+
+import org.bottiger.podcast.player.sonic.JavaSonic;
+import org.bottiger.podcast.player.sonic.SonicPump;
+import org.bottiger.podcast.player.sonic.SonicStream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Runs the decode path of the sonic Track player with buffers like the ones a MediaCodec returns,
+ * and checks that it stops allocating once it has seen the first buffers, and that it plays the
+ * same audio as writing to Sonic directly.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SonicPumpTest extends TestCase {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int CHANNELS = 2;
+    private static final int FRAMES_PER_BUFFER = 1152;
+    private static final int BUFFER_BYTES = FRAMES_PER_BUFFER * CHANNELS * 2;
+
+    // Codec buffers are larger than the data, which starts at an offset
+    private static final int OFFSET_BYTES = 64;
+
+    private ByteBuffer[] mCodecBuffers;
+    private final CountingSink mSink = new CountingSink();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCodecBuffers = new ByteBuffer[4];
+        for (int i = 0; i < mCodecBuffers.length; i++) {
+            mCodecBuffers[i] = ByteBuffer.allocateDirect(OFFSET_BYTES + BUFFER_BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public void testNoAllocationsInSteadyState() throws Exception {
+        SonicStream sonic = new JavaSonic(SAMPLE_RATE, CHANNELS);
+        sonic.setSpeed(1.5f);
+        SonicPump pump = new SonicPump(sonic);
+        pump.setOutputBuffers(mCodecBuffers);
+
+        // Every codec buffer gets a view, and the arrays grow to size
+        for (int i = 0; i < 50; i++) {
+            process(pump, i);
+        }
+        int allocations = pump.getAllocationCount();
+
+        // A minute of audio, with the speed changed by the user on the way
+        for (int i = 50; i < 60 * SAMPLE_RATE / FRAMES_PER_BUFFER; i++) {
+            if (i % 500 == 0) {
+                sonic.setSpeed(sonic.getSpeed() == 1.5f ? 1.4f : 1.5f);
+            }
+            process(pump, i);
+        }
+
+        assertEquals(allocations, pump.getAllocationCount());
+    }
+
+    public void testSameOutputAsSonic() throws Exception {
+        SonicStream pumped = new JavaSonic(SAMPLE_RATE, CHANNELS);
+        SonicStream direct = new JavaSonic(SAMPLE_RATE, CHANNELS);
+        pumped.setSpeed(2.0f);
+        direct.setSpeed(2.0f);
+
+        SonicPump pump = new SonicPump(pumped);
+        pump.setOutputBuffers(mCodecBuffers);
+
+        short[] samples = new short[FRAMES_PER_BUFFER * CHANNELS];
+        short[] output = new short[SAMPLE_RATE * CHANNELS];
+        long expectedSum = 0;
+        int expectedLength = 0;
+        for (int i = 0; i < 200; i++) {
+            process(pump, i);
+
+            fill(samples, i);
+            direct.writeShortToStream(samples, FRAMES_PER_BUFFER);
+            int frames = direct.readShortFromStream(output, output.length / CHANNELS);
+            for (int j = 0; j < frames * CHANNELS; j++) {
+                expectedSum += output[j] * (long) (expectedLength + j + 1);
+            }
+            expectedLength += frames * CHANNELS;
+        }
+
+        assertEquals(expectedLength, mSink.mLength);
+        assertEquals(expectedSum, mSink.mSum);
+    }
+
+    private void process(SonicPump argPump, int argIndex) {
+        int index = argIndex % mCodecBuffers.length;
+        ShortBuffer shorts = mCodecBuffers[index].duplicate().order(ByteOrder.nativeOrder()).asShortBuffer();
+        short[] samples = new short[FRAMES_PER_BUFFER * CHANNELS];
+        fill(samples, argIndex);
+        shorts.position(OFFSET_BYTES / 2);
+        shorts.put(samples);
+
+        argPump.process(index, OFFSET_BYTES, BUFFER_BYTES, mSink);
+    }
+
+    private static void fill(short[] argSamples, int argIndex) {
+        for (int frame = 0; frame < FRAMES_PER_BUFFER; frame++) {
+            long position = (long) argIndex * FRAMES_PER_BUFFER + frame;
+            short sample = (short) (8000 * Math.sin(2 * Math.PI * 220 * position / SAMPLE_RATE));
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                argSamples[frame * CHANNELS + channel] = sample;
+            }
+        }
+    }
+
+    /**
+     * Stands in for the AudioTrack. Keeps a position weighted checksum of what is played.
+     */
+    private static class CountingSink implements SonicPump.AudioSink {
+        int mLength = 0;
+        long mSum = 0;
+
+        @Override
+        public int write(short[] audioData, int offsetInShorts, int sizeInShorts) {
+            for (int i = 0; i < sizeInShorts; i++) {
+                mSum += audioData[offsetInShorts + i] * (long) (mLength + i + 1);
+            }
+            mLength += sizeInShorts;
+            return sizeInShorts;
+        }
+    }
+}
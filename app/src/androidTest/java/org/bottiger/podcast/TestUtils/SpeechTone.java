@@ -0,0 +1,22 @@
+package org.bottiger.podcast.TestUtils;
+
+/**
+ * A tone which changes pitch and loudness like speech does. Shared by the audio tests, so the
+ * silence detection and the time stretching are tested with the same signal.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SpeechTone {
+
+    /**
+     * @param argFrame The frame, counted from the start of the tone
+     * @param argSampleRate The sample rate in Hz
+     * @return The value of the tone at the frame, between -1 and 1
+     */
+    public static double at(int argFrame, int argSampleRate) {
+        double t = (double) argFrame / argSampleRate;
+        double envelope = 0.6 + 0.4 * Math.sin(2 * Math.PI * 4 * t);
+        double tone = Math.sin(2 * Math.PI * (180 + 40 * Math.sin(2 * Math.PI * 3 * t)) * t);
+        return envelope * tone;
+    }
+}
@@ -12,6 +12,7 @@ import com.bugsnag.android.MetaData;
 import org.bottiger.podcast.ApplicationConfiguration;
 import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 /**
  * Created by apl on 26-02-2015.
@@ -20,6 +21,12 @@ public class VendorCrashReporter {
 
     public static void init(@NonNull Application argApplication) {
         Bugsnag.init(argApplication);
+
+        // Shows if a background lane was saturated when the error happened
+        Bugsnag.beforeNotify(error -> {
+            error.addToTab("Lanes", "metrics", Lanes.getMetrics()); // NoI18N
+            return true;
+        });
         /*
         ACRAConfiguration config = ACRA.getNewDefaultConfig(argApplication);
         try {
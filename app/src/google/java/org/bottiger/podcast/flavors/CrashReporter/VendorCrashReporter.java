@@ -11,6 +11,7 @@ import com.bugsnag.android.MetaData;
 
 import org.bottiger.podcast.BuildConfig;
 import org.bottiger.podcast.SoundWaves;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 
 /**
@@ -22,6 +23,12 @@ public class VendorCrashReporter {
 
     public static void init(@NonNull Application argApplication) {
         Bugsnag.init(argApplication);
+
+        // Shows if a background lane was saturated when the error happened
+        Bugsnag.beforeNotify(error -> {
+            error.addToTab("Lanes", "metrics", Lanes.getMetrics()); // NoI18N
+            return true;
+        });
     }
 	
 	public static void report(@NonNull String argKey, @NonNull String argValue) {
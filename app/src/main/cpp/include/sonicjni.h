@@ -1,170 +1,194 @@
 /* DO NOT EDIT THIS FILE - it is machine generated */
 #include <jni.h>
-/* Header for class org_bottiger_podcast_Player_sonic_Sonic */
+/* Header for class org_bottiger_podcast_player_sonic_NativeSonic */
 
-#ifndef _Included_org_bottiger_podcast_Player_sonic_Sonic
-#define _Included_org_bottiger_podcast_Player_sonic_Sonic
+#ifndef _Included_org_bottiger_podcast_player_sonic_NativeSonic
+#define _Included_org_bottiger_podcast_player_sonic_NativeSonic
 #ifdef __cplusplus
 extern "C" {
 #endif
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    initNative
  * Signature: (II)J
  */
-JNIEXPORT jlong JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_initNative
+JNIEXPORT jlong JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_initNative
         (JNIEnv *, jobject, jint, jint);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    closeNative
  * Signature: (J)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_closeNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_closeNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    flushNative
  * Signature: (J)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_flushNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_flushNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setSampleRateNative
  * Signature: (JI)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setSampleRateNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setSampleRateNative
         (JNIEnv *, jobject, jlong, jint);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getSampleRateNative
  * Signature: (J)I
  */
-JNIEXPORT jint JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getSampleRateNative
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getSampleRateNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setNumChannelsNative
  * Signature: (JI)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setNumChannelsNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setNumChannelsNative
         (JNIEnv *, jobject, jlong, jint);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getNumChannelsNative
  * Signature: (J)I
  */
-JNIEXPORT jint JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getNumChannelsNative
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getNumChannelsNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setPitchNative
  * Signature: (JF)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setPitchNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setPitchNative
         (JNIEnv *, jobject, jlong, jfloat);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getPitchNative
  * Signature: (J)F
  */
-JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getPitchNative
+JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getPitchNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setSpeedNative
  * Signature: (JF)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setSpeedNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setSpeedNative
         (JNIEnv *, jobject, jlong, jfloat);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getSpeedNative
  * Signature: (J)F
  */
-JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getSpeedNative
+JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getSpeedNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setRateNative
  * Signature: (JF)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setRateNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setRateNative
         (JNIEnv *, jobject, jlong, jfloat);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getRateNative
  * Signature: (J)F
  */
-JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getRateNative
+JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getRateNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setChordPitchNative
  * Signature: (JZ)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setChordPitchNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setChordPitchNative
         (JNIEnv *, jobject, jlong, jboolean);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getChordPitchNative
  * Signature: (J)Z
  */
-JNIEXPORT jboolean JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getChordPitchNative
+JNIEXPORT jboolean JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getChordPitchNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    putBytesNative
  * Signature: (J[BI)Z
  */
-JNIEXPORT jboolean JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_putBytesNative
+JNIEXPORT jboolean JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_putBytesNative
         (JNIEnv *, jobject, jlong, jbyteArray, jint);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    receiveBytesNative
  * Signature: (J[BI)I
  */
-JNIEXPORT jint JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_receiveBytesNative
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_receiveBytesNative
         (JNIEnv *, jobject, jlong, jbyteArray, jint);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    availableBytesNative
  * Signature: (J)I
  */
-JNIEXPORT jint JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_availableBytesNative
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_availableBytesNative
         (JNIEnv *, jobject, jlong);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    setVolumeNative
  * Signature: (JF)V
  */
-JNIEXPORT void JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_setVolumeNative
+JNIEXPORT void JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_setVolumeNative
         (JNIEnv *, jobject, jlong, jfloat);
 
 /*
- * Class:     org_bottiger_podcast_Player_sonic_Sonic
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
  * Method:    getVolumeNative
  * Signature: (J)F
  */
-JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_Player_sonic_Sonic_getVolumeNative
+JNIEXPORT jfloat JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_getVolumeNative
+        (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
+ * Method:    putShortsNative
+ * Signature: (J[SI)Z
+ */
+JNIEXPORT jboolean JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_putShortsNative
+        (JNIEnv *, jobject, jlong, jshortArray, jint);
+
+/*
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
+ * Method:    receiveShortsNative
+ * Signature: (J[SI)I
+ */
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_receiveShortsNative
+        (JNIEnv *, jobject, jlong, jshortArray, jint);
+
+/*
+ * Class:     org_bottiger_podcast_player_sonic_NativeSonic
+ * Method:    samplesAvailableNative
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_samplesAvailableNative
         (JNIEnv *, jobject, jlong);
 
 #ifdef __cplusplus
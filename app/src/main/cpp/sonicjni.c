@@ -22,8 +22,26 @@ typedef struct sonicInstStruct *sonicInst;
 
 #define getInst(sonicID) ((sonicInst)((char *)NULL + (sonicID)))
 
+// Returns false, with an IllegalArgumentException pending, if numSamples frames do not fit in
+// the array. Must be called before the array is locked.
+static int checkLength(
+    JNIEnv *env,
+    sonicStream stream,
+    jshortArray samples,
+    jint numSamples)
+{
+    jlong length = (*env)->GetArrayLength(env, samples);
+
+    if(numSamples < 0 || (jlong)numSamples*sonicGetNumChannels(stream) > length) {
+        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/IllegalArgumentException"),
+            "The samples do not fit in the array");
+        return 0;
+    }
+    return 1;
+}
+
 /* Initialize the C data structure */
-JNIEXPORT jlong JNICALL Java_org_bottiger_podcast_player_sonic_Sonic_initNative(
+JNIEXPORT jlong JNICALL Java_org_bottiger_podcast_player_sonic_NativeSonic_initNative(
         JNIEnv *env,
         jobject obj,
         jint sampleRate,
@@ -49,7 +67,7 @@ JNIEXPORT jlong JNICALL Java_org_bottiger_podcast_player_sonic_Sonic_initNative(
 
 
 // Teardown the C data structure.
-void Java_org_bottiger_podcast_player_sonic_Sonic_closeNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_closeNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -67,7 +85,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_closeNative(
    lenBytes bytes will be read from buffer into the sound alteration object
    buffer is not guaranteed not to change after this function is called,
    so data should be copied from it */
-jboolean Java_org_bottiger_podcast_player_sonic_Sonic_putBytesNative(
+jboolean Java_org_bottiger_podcast_player_sonic_NativeSonic_putBytesNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -98,7 +116,7 @@ if(remainingBytes != 0) {
 // Get bytes representing sped up/slowed down sound and put up to lenBytes
 // into ret.
 // Returns number of bytes read, or -1 if we run out of memory.
-jint Java_org_bottiger_podcast_player_sonic_Sonic_receiveBytesNative(
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_receiveBytesNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -130,8 +148,69 @@ jint Java_org_bottiger_podcast_player_sonic_Sonic_receiveBytesNative(
     return bytesRead;
 }
 
+// Write numSamples 16-bit samples to the stream. The Java array is read in place, so there is no
+// copy through a byte buffer. Nothing in here may call back into the JVM.
+jboolean Java_org_bottiger_podcast_player_sonic_NativeSonic_putShortsNative(
+    JNIEnv *env,
+    jobject thiz,
+    jlong sonicID,
+    jshortArray samples,
+    jint numSamples)
+{
+    sonicStream stream = getInst(sonicID)->stream;
+    short *buffer;
+    int result;
+
+    if(!checkLength(env, stream, samples, numSamples)) {
+        return 0;
+    }
+    buffer = (short *)(*env)->GetPrimitiveArrayCritical(env, samples, NULL);
+    if(buffer == NULL) {
+        return 0;
+    }
+    LOGV("Writing %d samples to stream", numSamples);
+    result = sonicWriteShortToStream(stream, buffer, numSamples);
+    (*env)->ReleasePrimitiveArrayCritical(env, samples, buffer, JNI_ABORT);
+    return result;
+}
+
+// Read up to maxSamples 16-bit samples from the stream directly into the Java array.
+// Returns the number of samples read.
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_receiveShortsNative(
+    JNIEnv *env,
+    jobject thiz,
+    jlong sonicID,
+    jshortArray samples,
+    jint maxSamples)
+{
+    sonicStream stream = getInst(sonicID)->stream;
+    short *buffer;
+    int samplesRead;
+
+    if(!checkLength(env, stream, samples, maxSamples) || sonicSamplesAvailable(stream) == 0) {
+        return 0;
+    }
+    buffer = (short *)(*env)->GetPrimitiveArrayCritical(env, samples, NULL);
+    if(buffer == NULL) {
+        return 0;
+    }
+    samplesRead = sonicReadShortFromStream(stream, buffer, maxSamples);
+    (*env)->ReleasePrimitiveArrayCritical(env, samples, buffer, 0);
+    return samplesRead;
+}
+
+// Returns the number of samples that can be read from the stream.
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_samplesAvailableNative(
+    JNIEnv *env,
+    jobject thiz,
+    jlong sonicID)
+{
+    sonicStream stream = getInst(sonicID)->stream;
+    return sonicSamplesAvailable(stream);
+}
+
 // Set pitch in sound alteration object
-void Java_org_bottiger_podcast_player_sonic_Sonic_setPitchNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setPitchNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -143,7 +222,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setPitchNative(
 }
 
 // Get the current pitch.
-jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getPitchNative(
+jfloat Java_org_bottiger_podcast_player_sonic_NativeSonic_getPitchNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -155,7 +234,7 @@ jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getPitchNative(
 
 // Speed up the sound and increase the pitch, or slow down the sound and
 // decrease the pitch.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setRateNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setRateNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -167,7 +246,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setRateNative(
 }
 
 // Return the current playback rate.
-jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getRateNative(
+jfloat Java_org_bottiger_podcast_player_sonic_NativeSonic_getRateNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -178,7 +257,7 @@ jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getRateNative(
 }
 
 // Get the current sample rate.
-jint Java_org_bottiger_podcast_player_sonic_Sonic_getSampleRateNative(
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_getSampleRateNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -189,7 +268,7 @@ jint Java_org_bottiger_podcast_player_sonic_Sonic_getSampleRateNative(
 }
 
 // Set the sample rate.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setSampleRateNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setSampleRateNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -201,7 +280,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setSampleRateNative(
 }
 
 // Get the current number of channels.
-jint Java_org_bottiger_podcast_player_sonic_Sonic_getNumChannelsNative(
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_getNumChannelsNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -212,7 +291,7 @@ jint Java_org_bottiger_podcast_player_sonic_Sonic_getNumChannelsNative(
 }
 
 // Set the number of channels.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setNumChannelsNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setNumChannelsNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -224,7 +303,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setNumChannelsNative(
 }
 
 // Get the current speed.
-jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getSpeedNative(
+jfloat Java_org_bottiger_podcast_player_sonic_NativeSonic_getSpeedNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -235,7 +314,7 @@ jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getSpeedNative(
 }
 
 // Change the speed.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setSpeedNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setSpeedNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -247,7 +326,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setSpeedNative(
 }
 
 // Get the current volume.
-jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getVolumeNative(
+jfloat Java_org_bottiger_podcast_player_sonic_NativeSonic_getVolumeNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -258,7 +337,7 @@ jfloat Java_org_bottiger_podcast_player_sonic_Sonic_getVolumeNative(
 }
 
 // Change the volume.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setVolumeNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setVolumeNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -270,7 +349,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setVolumeNative(
 }
 
 // Get the current chord pitch setting.
-jboolean Java_org_bottiger_podcast_player_sonic_Sonic_getChordPitchNative(
+jboolean Java_org_bottiger_podcast_player_sonic_NativeSonic_getChordPitchNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -281,7 +360,7 @@ jboolean Java_org_bottiger_podcast_player_sonic_Sonic_getChordPitchNative(
 }
 
 // Set chord pitch mode on or off.  Default is off.
-void Java_org_bottiger_podcast_player_sonic_Sonic_setChordPitchNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_setChordPitchNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID,
@@ -294,7 +373,7 @@ void Java_org_bottiger_podcast_player_sonic_Sonic_setChordPitchNative(
 
 // Returns the number of bytes that can be read from the speed alteration
 // object
-jint Java_org_bottiger_podcast_player_sonic_Sonic_availableBytesNative(
+jint Java_org_bottiger_podcast_player_sonic_NativeSonic_availableBytesNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -306,7 +385,7 @@ jint Java_org_bottiger_podcast_player_sonic_Sonic_availableBytesNative(
 }
 
 // Process any samples still in a sonic buffer.
-void Java_org_bottiger_podcast_player_sonic_Sonic_flushNative(
+void Java_org_bottiger_podcast_player_sonic_NativeSonic_flushNative(
     JNIEnv *env,
     jobject thiz,
     jlong sonicID)
@@ -36,6 +36,7 @@ import org.bottiger.podcast.utils.IntUtils;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.UIUtils;
 import org.bottiger.podcast.utils.featured.FeaturedPodcastsUtil;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.views.dialogs.DialogSearchDirectory;
 import org.bottiger.podcast.webservices.directories.IDirectoryProvider;
 import org.bottiger.podcast.webservices.directories.ISearchParameters;
@@ -59,7 +60,6 @@ import okhttp3.OkHttpClient;
 import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
-import rx.schedulers.Schedulers;
 
 import static org.bottiger.podcast.webservices.directories.IDirectoryProvider.BY_AUTHOR;
 import static org.bottiger.podcast.webservices.directories.IDirectoryProvider.POPULAR;
@@ -246,7 +246,7 @@ public class DiscoveryFragment extends Fragment implements SharedPreferences.OnS
                 .mSubscriptionsChangeObservable
                 .onBackpressureLatest()
                 .ofType(org.bottiger.podcast.provider.Subscription.class)
-                .subscribeOn(Schedulers.computation())
+                .subscribeOn(Lanes.CPU.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(argSubscription -> {
                     mResultsAdapter.populateSubscribedUrls();
@@ -35,6 +35,7 @@ import org.bottiger.podcast.service.jobservice.PodcastUpdater;
 import org.bottiger.podcast.utils.PlayerHelper;
 import org.bottiger.podcast.utils.PodcastLog;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBus;
 import org.bottiger.podcast.utils.rxbus.RxBus2;
 import org.bottiger.podcast.utils.shortcuts.ShortcutManagerUtil;
@@ -45,7 +46,6 @@ import io.reactivex.processors.BehaviorProcessor;
 import io.reactivex.processors.FlowableProcessor;
 import rx.Observable;
 import rx.Subscriber;
-import rx.schedulers.Schedulers;
 
 public class SoundWaves extends MultiDexApplication {
 
@@ -129,7 +129,7 @@ public class SoundWaves extends MultiDexApplication {
         Log.v(TAG, "time9: " + System.currentTimeMillis());
 
         Observable.just(this)
-                .observeOn(Schedulers.io())
+                .observeOn(Lanes.NETWORK.rx())
                 .subscribe(new Subscriber<Context>() {
             @Override
             public void onCompleted() {
@@ -291,7 +291,7 @@ public class SoundWaves extends MultiDexApplication {
 
     public Flowable<Integer> getChapterObservable() {
         return mChapterProcessor
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx2())
                 .observeOn(AndroidSchedulers.mainThread());
     }
 
@@ -32,13 +32,13 @@ import org.bottiger.podcast.service.DownloadService;
 import org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager;
 import org.bottiger.podcast.utils.PlayerHelper;
 import org.bottiger.podcast.utils.TransitionUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
-import rx.schedulers.Schedulers;
 
 public class TopActivity extends AppCompatActivity implements LifecycleRegistryOwner {
 
@@ -85,7 +85,7 @@ public class TopActivity extends AppCompatActivity implements LifecycleRegistryO
 
         SoundWaves.getRxBus().toObserverable()
                 .ofType(SoundWavesDownloadManager.DownloadManagerChanged.class)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Action1<SoundWavesDownloadManager.DownloadManagerChanged>() {
                     @Override
@@ -26,6 +26,7 @@ import org.bottiger.podcast.provider.Subscription;
 import org.bottiger.podcast.provider.base.BaseSubscription;
 import org.bottiger.podcast.utils.ColorExtractor;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -50,7 +51,7 @@ public class DiscoveryFeedActivity extends FeedActivity {
         ISubscription subscription = getSubscription();
         if (subscription != null) {
             subscription.getColors(this)
-                    .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                    .subscribeOn(Lanes.NETWORK.rx2())
                     .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                     .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
                         @Override
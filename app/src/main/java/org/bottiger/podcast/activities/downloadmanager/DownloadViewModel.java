@@ -23,12 +23,12 @@ import org.bottiger.podcast.model.events.DownloadProgress;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.service.DownloadStatus;
 import org.bottiger.podcast.utils.ImageLoaderUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
 
 /**
  * Created by aplb on 05-10-2015.
@@ -70,7 +70,7 @@ public class DownloadViewModel {
                         return getEpisode().equals(downloadProgress.getEpisode());
                     }
                 })
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Action1<DownloadProgress>() {
                     @Override
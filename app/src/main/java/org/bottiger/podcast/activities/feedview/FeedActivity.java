@@ -73,6 +73,7 @@ import org.bottiger.podcast.utils.NetworkUtils;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.UIUtils;
 import org.bottiger.podcast.utils.WhitenessUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.views.FeedRecyclerView;
 import org.bottiger.podcast.views.FloatingActionButton;
 import org.bottiger.podcast.views.MultiShrink.feed.FeedViewTopImage;
@@ -85,7 +86,6 @@ import io.codetail.animation.SupportAnimator;
 import io.codetail.animation.ViewAnimationUtils;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
-import rx.schedulers.Schedulers;
 
 /**
  * Created by apl on 14-02-2015.
@@ -338,7 +338,7 @@ public class FeedActivity extends TopActivity {
         }
 
         mSubscription.getColors(this)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
                     @Override
@@ -532,7 +532,7 @@ public class FeedActivity extends TopActivity {
         return SoundWaves.getRxBus()
                 .toObserverable()
                 .ofType(SubscriptionChanged.class)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(subscriptionChanged -> {
                     @SubscriptionChanged.Action int action = subscriptionChanged.getAction();
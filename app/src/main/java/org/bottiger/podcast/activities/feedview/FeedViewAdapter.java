@@ -26,6 +26,7 @@ import org.bottiger.podcast.utils.ColorExtractor;
 import org.bottiger.podcast.utils.ColorUtils;
 import org.bottiger.podcast.utils.SharedAdapterUtils;
 import org.bottiger.podcast.utils.StrUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.views.DownloadButtonView;
 import org.bottiger.podcast.views.PlayPauseButton;
 
@@ -304,7 +305,7 @@ public class FeedViewAdapter extends FeedViewAdapterBase {
     @Override
     protected void getPaletteEpisode(@NonNull final EpisodeViewHolder episodeViewHolder) {
         mSubscription.getColors(mActivity)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
 
@@ -2,6 +2,7 @@ package org.bottiger.podcast.activities.openopml;
 
 import android.Manifest;
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Build;
@@ -13,6 +14,7 @@ import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.Toolbar;
 import android.util.Log;
 import android.view.View;
+import android.widget.Toast;
 
 import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
@@ -28,6 +30,7 @@ import java.io.FileReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -94,14 +97,6 @@ public class OpenOpmlFromIntentActivity extends AppCompatActivity {
             ErrorUtils.handleException(e);
         }
 
-        SlimSubscription subscription;
-        for (int i = 0; i < mSubscriptions.size(); i++) {
-            subscription = mSubscriptions.get(i);
-            if (mLibrary.containsSubscription(subscription)) {
-                subscription.setIsSubscribed(true);
-            }
-        }
-
         mAdapter = new OpenOpmlAdapter(mSubscriptions);
         //mAdapter.setHasStableIds(true);
 
@@ -113,19 +108,38 @@ public class OpenOpmlFromIntentActivity extends AppCompatActivity {
     public void import_click(View view) {
         Log.d(TAG, "importing selected"); // NoI18N
 
-        boolean didImport = false;
+        List<SlimSubscription> selected = new ArrayList<>();
         SlimSubscription subscription;
         for (int i = 0; i < mSubscriptions.size(); i++) {
             subscription = mSubscriptions.get(i);
             if (subscription.IsDirty()) {
-                mLibrary.subscribe(subscription);
-                didImport = true;
+                selected.add(subscription);
             }
         }
 
-        if (didImport) {
-            finish();
+        if (selected.isEmpty()) {
+            return;
         }
+
+        // The activity is finished right away, so the progress is reported in toasts
+        final Context context = getApplicationContext();
+        mLibrary.subscribe(selected, new Library.SubscribeListener() {
+            @Override
+            public void onSubscribed(int argCount) {
+                Log.d(TAG, "Subscribed to: " + argCount); // NoI18N
+                Toast.makeText(context, context.getString(R.string.opml_import_subscribed_toast, argCount), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onRefreshed(int argRefreshed, int argTotal) {
+                Log.d(TAG, "Refreshed: " + argRefreshed + "/" + argTotal); // NoI18N
+                if (argRefreshed == argTotal) {
+                    Toast.makeText(context, context.getString(R.string.opml_import_refreshed_toast, argTotal), Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+
+        finish();
     }
 
     public void select_all_click(View argView) {
@@ -30,6 +30,7 @@ import org.bottiger.podcast.utils.ColorUtils;
 import org.bottiger.podcast.utils.ImageLoaderUtils;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.views.Overlay;
 import org.bottiger.podcast.views.PlayPauseButton;
 import org.bottiger.podcast.views.PlaylistViewHolder;
@@ -121,7 +122,7 @@ public class PlaylistAdapter extends AbstractPodcastAdapter<PlaylistViewHolder>
         viewHolder.mPlayPauseButton.setIconColor(Color.WHITE);
 
         subscription.getColors(mActivity)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
 
@@ -190,7 +191,7 @@ public class PlaylistAdapter extends AbstractPodcastAdapter<PlaylistViewHolder>
 
         ISubscription subscription = argEpisode.getSubscription(context);
         subscription.getColors(context)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
 
@@ -47,6 +47,7 @@ import org.bottiger.podcast.utils.ErrorUtils;
 import org.bottiger.podcast.utils.ImageLoaderUtils;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.WhitenessUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.util.List;
 
@@ -191,7 +192,7 @@ public class SubscriptionAdapter extends RecyclerView.Adapter {
             if (argHolder.image != null && hasImage) {
 
                 argSubscription.getColors(mActivity)
-                        .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                        .subscribeOn(Lanes.NETWORK.rx2())
                         .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                         .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
 
@@ -9,6 +9,7 @@ import android.util.Log;
 
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.flavors.Analytics.IAnalytics;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 
 import java.io.IOException;
 import java.lang.annotation.Retention;
@@ -37,7 +38,7 @@ public class EventLogger {
     public static final int LISTEN_PODCAST = 3;
     public static final int START_APP = 4;
 
-    private static final OkHttpClient client = new OkHttpClient();
+    private static final OkHttpClient client = OkHttpClientFactory.getBaseClient();
 
     public static void postEvent(@NonNull Context argContent, @EventType int argType,
                                  @Nullable Integer value1,
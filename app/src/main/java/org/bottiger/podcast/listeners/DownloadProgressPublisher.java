@@ -5,15 +5,19 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 
+import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.model.events.DownloadProgress;
+import org.bottiger.podcast.notification.ProgressNotification;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.service.DownloadStatus;
 import org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager;
 import org.bottiger.podcast.service.Downloader.engines.IDownloadEngine;
+import org.bottiger.podcast.utils.PreferenceHelper;
 
 import java.util.Date;
 import java.util.LinkedList;
@@ -27,6 +31,11 @@ public class DownloadProgressPublisher {
 	 */
 	private static final long REFRESH_INTERVAL = 50; // 16 ms => 60 fps
 
+    /**
+     * How often the aggregated progress notification should be updated
+     */
+    private static final long NOTIFICATION_INTERVAL = 1000;
+
     /**
      * Unregister an Observer from being updated on progress updates
      *
@@ -61,6 +70,8 @@ public class DownloadProgressPublisher {
         private List<FeedItem> mUpdateEpisodess = new LinkedList<>();
         private final ReentrantLock lock = new ReentrantLock();
 
+        private long mLastNotification = 0;
+
         @Override
         public void handleMessage(Message msg) {
 
@@ -73,6 +84,12 @@ public class DownloadProgressPublisher {
 
                         Log.d("Refresh UI:", "Run at: "+ (new Date().getTime()));
 
+                        // Aggregated over all running downloads
+                        int downloading = 0;
+                        float progressSum = 0;
+                        long speedSum = 0;
+                        FeedItem downloadingEpisode = null;
+
                         for (int i = 0; i < mUpdateEpisodess.size(); i++) {
 
                             FeedItem episode = mUpdateEpisodess.get(i); //iterator.next();
@@ -82,7 +99,7 @@ public class DownloadProgressPublisher {
                             }
 
                             DownloadStatus status = mDownloadManager.getStatus(episode);
-                            IDownloadEngine download = mDownloadManager.getCurrentDownloadProcess();
+                            IDownloadEngine download = mDownloadManager.getDownloadProcess(episode);
 
                             DownloadProgress downloadProgress = null;
 
@@ -92,9 +109,14 @@ public class DownloadProgressPublisher {
                                 case DOWNLOADING:
                                     if (download != null) {
                                         float progressFloat = download.getProgress();
-                                        progress = (int) (progressFloat * 100);
+                                        progress = (int) progressFloat;
 
                                         downloadProgress = new DownloadProgress(episode, status, progress);
+
+                                        downloading++;
+                                        progressSum += progressFloat;
+                                        speedSum += download.getSpeed();
+                                        downloadingEpisode = episode;
                                     }
                                     Log.d("Refresh UI:", "Downloading: " + episode.getTitle() + " (progress: " + progress + ")");
                                     break;
@@ -117,6 +139,8 @@ public class DownloadProgressPublisher {
                             }
                         }
 
+                        updateNotification(downloading, progressSum, speedSum, downloadingEpisode);
+
                         if (!mUpdateEpisodess.isEmpty()) {
                             msg = DownloadProgressHandler.this.obtainMessage(REFRESH_UI);
                             DownloadProgressHandler.this.sendMessageDelayed(msg, REFRESH_INTERVAL);
@@ -140,6 +164,39 @@ public class DownloadProgressPublisher {
                 lock.unlock();
             }
         }
+
+        /**
+         * Show one notification for all the running downloads, with their average progress and
+         * combined speed.
+         */
+        private void updateNotification(int argDownloading, float argProgressSum, long argSpeedSum, @Nullable FeedItem argEpisode) {
+            if (!PreferenceHelper.getBooleanPreferenceValue(mApplicationContext,
+                    R.string.pref_download_notification_key,
+                    R.bool.pref_download_notification_default)) {
+                return;
+            }
+
+            if (argDownloading == 0 || argEpisode == null) {
+                if (mLastNotification > 0) {
+                    ProgressNotification.removeNotification(mApplicationContext);
+                    mLastNotification = 0;
+                }
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - mLastNotification < NOTIFICATION_INTERVAL) {
+                return;
+            }
+            mLastNotification = now;
+
+            String title = argDownloading == 1 ?
+                    argEpisode.getTitle() :
+                    mApplicationContext.getResources().getQuantityString(R.plurals.download_notification_title, argDownloading, argDownloading);
+            int progress = (int) (argProgressSum / argDownloading);
+
+            ProgressNotification.show(mApplicationContext, title, progress, argSpeedSum);
+        }
 	}
 
     public void addEpisode(@NonNull FeedItem argEpisode) {
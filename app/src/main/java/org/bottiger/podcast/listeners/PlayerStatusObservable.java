@@ -64,7 +64,6 @@ public class PlayerStatusObservable {
 
         // http://stackoverflow.com/questions/11407943/this-handler-class-should-be-static-or-leaks-might-occur-incominghandler
         private final WeakReference<PlayerService> mService;
-        private long lastPosition = -1;
 
         ProgressHandler(PlayerService service) {
             mService = new WeakReference<>(service);
@@ -79,8 +78,7 @@ public class PlayerStatusObservable {
                 switch (inputMessage.what) {
                     case PLAYING: {
                         updateProgress(service);
-                        service.updateChapter(lastPosition);
-                        lastPosition = service.position();
+                        service.updateChapterIfChanged();
 
                         int currentStatus = PlayerService.isPlaying() || service.getPlayer().isCasting() ? PLAYING : STOPPED;
                         inputMessage = sHandler.obtainMessage(currentStatus);
@@ -20,6 +20,8 @@ import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.cloud.EventLogger;
 import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
+import org.bottiger.podcast.model.datastructures.LongHashMap;
+import org.bottiger.podcast.model.datastructures.OpenHashMap;
 import org.bottiger.podcast.model.events.EpisodeChanged;
 import org.bottiger.podcast.model.events.ItemChanged;
 import org.bottiger.podcast.model.events.SubscriptionChanged;
@@ -31,13 +33,17 @@ import org.bottiger.podcast.provider.ISubscription;
 import org.bottiger.podcast.provider.ItemColumns;
 import org.bottiger.podcast.provider.PersistedSubscription;
 import org.bottiger.podcast.provider.PodcastOpenHelper;
+import org.bottiger.podcast.provider.PreparedQuery;
 import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
 import org.bottiger.podcast.provider.Subscription;
 import org.bottiger.podcast.provider.SubscriptionColumns;
 import org.bottiger.podcast.provider.SubscriptionLoader;
 import org.bottiger.podcast.provider.base.BaseEpisode;
+import org.bottiger.podcast.service.Downloader.FeedRefreshScheduler;
 import org.bottiger.podcast.utils.PreferenceHelper;
 import org.bottiger.podcast.utils.StrUtils;
+import org.bottiger.podcast.utils.chapter.ChapterCache;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBasicSubscriber;
 
 import java.lang.annotation.Retention;
@@ -62,7 +68,6 @@ import rx.Observer;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
 
 import static org.bottiger.podcast.provider.Subscription.STATUS_SUBSCRIBED;
@@ -95,16 +100,44 @@ public class Library {
     private int mSubscriptionSortOrder = Library.ALPHABETICALLY;
 
     private final ReentrantLock mEpisodeLock = new ReentrantLock();
+
+    // Number of rows read from a cursor for each acquisition of mEpisodeLock
+    private static final int HYDRATION_BATCH_SIZE = 64;
+
+    // The SQL is the same for every call, so the compiled statements are reused.
+    // Public so the query plans can be tested
+    public static final String SQL_EPISODE_BY_URL = "SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns.URL + "=?";
+    public static final String SQL_EPISODES_BY_SUBSCRIPTION = "SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns.SUBS_ID + "=?";
+    // The subscriptions, and the number of episodes of each published after a threshold
+    public static final String SQL_SUBSCRIPTIONS = "SELECT *, (SELECT count("
+            + ItemColumns.TABLE_NAME + "." + ItemColumns._ID + ") FROM " + ItemColumns.TABLE_NAME
+            + " WHERE " + ItemColumns.TABLE_NAME + "." + ItemColumns.SUBS_ID + " == "
+            + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns._ID
+            + " AND " + ItemColumns.TABLE_NAME + "." + ItemColumns.PUB_DATE + ">?) AS "
+            + SubscriptionColumns.NEW_EPISODES + " FROM " + SubscriptionColumns.TABLE_NAME;
+
     private final ReentrantLock mSubscriptionLock = new ReentrantLock();
 
+    // Number of imported subscriptions which are refreshed at a time
+    private static final int IMPORT_REFRESH_BATCH_SIZE = 2 * FeedRefreshScheduler.MAX_CONCURRENT_FETCHES;
+
+    public interface SubscribeListener {
+        @MainThread
+        void onSubscribed(int argCount);
+
+        @MainThread
+        void onRefreshed(int argRefreshed, int argTotal);
+    }
+
     private final NewEpisodesNotification mNewEpisodesNotification = new NewEpisodesNotification();
 
     @NonNull
     private final ArrayList<IEpisode> mEpisodes = new ArrayList<>();
+    // The lookup tables are not thread safe. Every read and write must hold mEpisodeLock.
     @NonNull
-    private final ArrayMap<String, IEpisode> mEpisodesUrlLUT = new ArrayMap<>();
+    private final OpenHashMap<String, IEpisode> mEpisodesUrlLUT = new OpenHashMap<>();
     @NonNull
-    private final ArrayMap<Long, FeedItem> mEpisodesIdLUT = new ArrayMap<>();
+    private final LongHashMap<FeedItem> mEpisodesIdLUT = new LongHashMap<>();
 
     @NonNull
     @Deprecated
@@ -225,7 +258,7 @@ public class Library {
             case EpisodeChanged.FILE_DELETED:
                 break;
             case EpisodeChanged.PARSED: {
-                if (mEpisodesUrlLUT.containsKey(argEpisodeChanged.getUrl()))
+                if (getEpisode(argEpisodeChanged.getUrl()) != null)
                     return;
 
                 break;
@@ -248,33 +281,32 @@ public class Library {
      * @return
      */
     public boolean addEpisodes(@NonNull Subscription argSubscription) {
-        mEpisodeLock.lock();
-
         LinkedList<IEpisode> episodes = argSubscription.getEpisodes().getFilteredList();
-        LinkedList<String> keys = new LinkedList<>();
         LinkedList<FeedItem> unpersistedEpisodes = new LinkedList<>();
+        boolean addedEpisodes = false;
 
-        for (int i = 0; i < episodes.size(); i++) {
-            keys.add(i, getKey(episodes.get(i)));
-        }
-
+        mEpisodeLock.lock();
         try {
-            if (mEpisodesUrlLUT.containsAll(keys)) {
-                return false;
-            }
+            for (IEpisode libraryEpisode : episodes) {
+                String key = getKey(libraryEpisode);
+                if (key == null || mEpisodesUrlLUT.containsKey(key)) {
+                    continue;
+                }
 
-            for (int i = 0; i < episodes.size(); i++) {
-                FeedItem episode = (FeedItem) episodes.get(i);
-                if (!mEpisodesUrlLUT.containsKey(keys.get(i))) {
-                    mEpisodes.add(episode);
-                    mEpisodesUrlLUT.put(keys.get(i), episode);
+                FeedItem episode = (FeedItem) libraryEpisode;
+                mEpisodes.add(episode);
+                mEpisodesUrlLUT.put(key, episode);
+                addedEpisodes = true;
 
-                    if (!episode.isPersisted()) {
-                        unpersistedEpisodes.add(episode);
-                    }
+                if (!episode.isPersisted()) {
+                    unpersistedEpisodes.add(episode);
                 }
             }
 
+            if (!addedEpisodes) {
+                return false;
+            }
+
             mLibraryPersistency.insert(mContext, unpersistedEpisodes);
 
             mNewEpisodesNotification.show(mContext, unpersistedEpisodes);
@@ -310,57 +342,69 @@ public class Library {
         if (argEpisode == null)
             return false;
 
+        mEpisodeLock.lock();
+        try {
+            return addEpisodeLocked(argEpisode);
+        } finally {
+            mEpisodeLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called while holding mEpisodeLock.
+     */
+    private boolean addEpisodeLocked(@NonNull IEpisode argEpisode) {
         boolean isFeedItem = argEpisode instanceof FeedItem;
         FeedItem item = isFeedItem ? (FeedItem)argEpisode : null;
 
-        mEpisodeLock.lock();
-        try {
-            // If the item is a feedItem it should belong to a subscription.
-            // If it does not belong to a subscription yet (i.e. we are parsing the subscription, maybe for the first time)
-            // We do not add it to the library yet.
-            if (isFeedItem && item.sub_id < 0)
-                return false;
+        // If the item is a feedItem it should belong to a subscription.
+        // If it does not belong to a subscription yet (i.e. we are parsing the subscription, maybe for the first time)
+        // We do not add it to the library yet.
+        if (isFeedItem && item.sub_id < 0)
+            return false;
 
-            String episodeUrl = argEpisode.getURL();
-            boolean libraryContainsEpisode = mEpisodesUrlLUT.containsKey(episodeUrl);
-            IEpisode libraryEpisode = libraryContainsEpisode ? mEpisodesUrlLUT.get(episodeUrl) : item;
+        String episodeUrl = argEpisode.getURL();
+        if (episodeUrl == null)
+            return false;
 
-            Subscription subscription = null;
-            if (item != null) {
-                subscription = item.getSubscription(mContext);
+        IEpisode libraryEpisode = mEpisodesUrlLUT.get(episodeUrl);
+        boolean libraryContainsEpisode = libraryEpisode != null;
+        if (!libraryContainsEpisode)
+            libraryEpisode = item;
 
-                if (subscription != null) {
-                    subscription.addEpisode(libraryEpisode, true);
-                }
-            }
+        Subscription subscription = null;
+        if (item != null) {
+            subscription = item.getSubscription(mContext);
 
-            if (libraryContainsEpisode) {
-                // FIXME we should update the content of the model episode
-                return false;
+            if (subscription != null) {
+                subscription.addEpisode(libraryEpisode, true);
             }
+        }
 
-            mEpisodes.add(argEpisode);
-            mEpisodesUrlLUT.put(argEpisode.getURL(), argEpisode);
+        if (libraryContainsEpisode) {
+            // FIXME we should update the content of the model episode
+            return false;
+        }
 
-            if (isFeedItem) {
-                boolean updatedEpisode = false;
+        mEpisodes.add(argEpisode);
+        mEpisodesUrlLUT.put(episodeUrl, argEpisode);
 
-                if (!item.isPersisted()) {
-                    updateEpisode(item);
-                    updatedEpisode = true;
-                }
+        if (isFeedItem) {
+            boolean updatedEpisode = false;
 
-                mEpisodesIdLUT.put(item.getId(), item);
+            if (!item.isPersisted()) {
+                updateEpisode(item);
+                updatedEpisode = true;
+            }
 
-                if (subscription != null && updatedEpisode) {
-                    IEpisode episode = subscription.getEpisodes().getNewest();
-                    if (episode != null) {
-                        subscription.setLastUpdated(episode.getCreatedAt().getTime());
-                    }
+            mEpisodesIdLUT.put(item.getId(), item);
+
+            if (subscription != null && updatedEpisode) {
+                IEpisode episode = subscription.getEpisodes().getNewest();
+                if (episode != null) {
+                    subscription.setLastUpdated(episode.getCreatedAt().getTime());
                 }
             }
-        } finally {
-            mEpisodeLock.unlock();
         }
 
         return true;
@@ -402,6 +446,7 @@ public class Library {
     }
 
     public void removeSubscription(@Nullable Subscription argSubscription) {
+        final List<IEpisode> removedEpisodes = new LinkedList<>();
         mSubscriptionLock.lock();
         try {
             if (argSubscription == null)
@@ -421,6 +466,7 @@ public class Library {
                         mEpisodesUrlLUT.remove(episode.getURL());
                         // Remove the current element from the iterator and the list.
                         iterator.remove();
+                        removedEpisodes.add(episode);
                     }
                 }
 
@@ -440,6 +486,12 @@ public class Library {
         }
 
         mSubscriptionsChangePublisher.onNext(argSubscription);
+
+        Lanes.DB.execute(() -> {
+            for (IEpisode episode : removedEpisodes) {
+                ChapterCache.delete(mContext, episode);
+            }
+        });
     }
 
     private void clearSubscriptions() {
@@ -511,15 +563,26 @@ public class Library {
     @Nullable
     public IEpisode getEpisode(@NonNull String argUrl, boolean doLookup) {
 
-        IEpisode episode = mEpisodesUrlLUT.get(argUrl);
+        IEpisode episode;
+        mEpisodeLock.lock();
+        try {
+            episode = mEpisodesUrlLUT.get(argUrl);
+        } finally {
+            mEpisodeLock.unlock();
+        }
 
         if (episode != null || !doLookup) {
             return episode;
         }
 
-        String query = getSingleEpisodes(argUrl);
-        Cursor cursor = PodcastOpenHelper.runQuery(mContext, query);
-        episode = LibraryPersistency.fetchEpisodeFromCursor(cursor, null);
+        Cursor cursor = PodcastOpenHelper.runQuery(mContext, getSingleEpisodes(argUrl));
+        try {
+            if (cursor.moveToFirst()) {
+                episode = LibraryPersistency.fetchEpisodeFromCursor(cursor, null);
+            }
+        } finally {
+            cursor.close();
+        }
 
         return episode;
     }
@@ -531,11 +594,12 @@ public class Library {
 
     @Nullable
     public FeedItem getEpisode(long argId) {
-        if (mEpisodesIdLUT.containsKey(argId)) {
+        mEpisodeLock.lock();
+        try {
             return mEpisodesIdLUT.get(argId);
+        } finally {
+            mEpisodeLock.unlock();
         }
-
-        return null;
     }
 
     public SortedList<IEpisode> newEpisodeSortedList(SortedList.Callback<IEpisode> argCallback) {
@@ -568,7 +632,19 @@ public class Library {
         if (argEpisode == null)
             return false;
 
-        return mEpisodes.contains(argEpisode);
+        mEpisodeLock.lock();
+        try {
+            // Same semantics as FeedItem.equals(): the id or the URL must match
+            if (argEpisode instanceof FeedItem) {
+                long id = ((FeedItem) argEpisode).getId();
+                if (id > 0 && mEpisodesIdLUT.containsKey(id))
+                    return true;
+            }
+
+            return mEpisodesUrlLUT.containsKey(argEpisode.getURL());
+        } finally {
+            mEpisodeLock.unlock();
+        }
     }
 
     private void invalidate() {
@@ -594,52 +670,34 @@ public class Library {
      *
      * @return
      */
-    private String getAllSubscriptions() {
+    private PreparedQuery getAllSubscriptions() {
         long thresholdTimestamp = episodeNewThreshold();
-
-        StringBuilder builder = new StringBuilder(200);
-        builder.append("SELECT ");
-        builder.append("*, ");
-        builder.append("(SELECT count(");
-        builder.append(ItemColumns.TABLE_NAME + "." + ItemColumns._ID);
-        builder.append(") ");
-        builder.append("FROM " + ItemColumns.TABLE_NAME + " ");
-        builder.append("WHERE ");
-        builder.append(ItemColumns.TABLE_NAME + "." + ItemColumns.SUBS_ID + " == ");
-        builder.append(SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns._ID);
-        builder.append(" AND ");
-        builder.append(ItemColumns.TABLE_NAME + "." + ItemColumns.PUB_DATE + ">" + thresholdTimestamp + ") ");
-        builder.append("AS " + SubscriptionColumns.NEW_EPISODES + " ");
-        builder.append("FROM " + SubscriptionColumns.TABLE_NAME + " ");
-
-        return builder.toString();
+        return new PreparedQuery(SQL_SUBSCRIPTIONS, String.valueOf(thresholdTimestamp));
     }
 
-    private String getSingleEpisodes(@NonNull String argUrl) {
-        return "SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns.URL + "==" + argUrl;
+    private PreparedQuery getSingleEpisodes(@NonNull String argUrl) {
+        return new PreparedQuery(SQL_EPISODE_BY_URL, argUrl);
     }
 
-    private String getAllEpisodes(@NonNull Subscription argSubscription) {
-        return "SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns.SUBS_ID + "==" + argSubscription.getId();
+    private PreparedQuery getAllEpisodes(@NonNull Subscription argSubscription) {
+        return new PreparedQuery(SQL_EPISODES_BY_SUBSCRIPTION, String.valueOf(argSubscription.getId()));
     }
 
-    private String getPlaylistEpisodes(@NonNull Playlist argPlaylist) {
-        return "SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " +
-                argPlaylist.getWhere() + " ORDER BY " +
-                argPlaylist.getOrder();
+    private PreparedQuery getPlaylistEpisodes(@NonNull Playlist argPlaylist) {
+        return argPlaylist.getEpisodeQuery();
     }
 
     @WorkerThread
     public void loadPlaylistSync(@NonNull final Playlist argPlaylist) {
-        String query = getPlaylistEpisodes(argPlaylist);
+        PreparedQuery query = getPlaylistEpisodes(argPlaylist);
         loadPlaylistInternal(query, argPlaylist);
     }
 
     public rx.Subscription loadPlaylist(@NonNull final Playlist argPlaylist) {
-        String query = getPlaylistEpisodes(argPlaylist);
+        PreparedQuery query = getPlaylistEpisodes(argPlaylist);
 
         return Observable.just(query)
-                .subscribeOn(Schedulers.newThread())
+                .subscribeOn(Lanes.DB.rx())
                 .subscribe(query1 -> loadPlaylistInternal(query1, argPlaylist), throwable -> {
                     VendorCrashReporter.report("subscribeError" , throwable.toString());
                     Log.d(TAG, "error: " + throwable.toString());
@@ -647,7 +705,7 @@ public class Library {
     }
 
     @WorkerThread
-    private void loadPlaylistInternal(@NonNull String query, @NonNull  Playlist argPlaylist) {
+    private void loadPlaylistInternal(@NonNull PreparedQuery query, @NonNull  Playlist argPlaylist) {
 
         Cursor cursor = null;
 
@@ -671,23 +729,60 @@ public class Library {
         }
     }
 
+    /**
+     * Hydrate the episodes of the cursor and add them to the library.
+     *
+     * The rows are read in batches of HYDRATION_BATCH_SIZE without holding the episode lock, and
+     * the lock is taken once for each batch. The column indices are only resolved once.
+     *
+     * @param argCursor A cursor over the episode table
+     * @param emptyItems Preallocated episodes to read the rows into, or null
+     * @return The number of episodes added to the library
+     */
     private int addEpisodes(@NonNull Cursor argCursor, @Nullable FeedItem[] emptyItems) {
+        long start = System.nanoTime();
+
+        LibraryPersistency.EpisodeColumns columns = new LibraryPersistency.EpisodeColumns(argCursor);
+        FeedItem[] batch = new FeedItem[HYDRATION_BATCH_SIZE];
+        int rows = 0;
         int counter = 0;
-        boolean wasAdded = false;
-        while (argCursor.moveToNext()) {
-            final FeedItem item;
-            if (emptyItems != null) {
-                item = LibraryPersistency.fetchEpisodeFromCursor(argCursor, emptyItems[counter]);
-            } else {
-                item = LibraryPersistency.fetchEpisodeFromCursor(argCursor, null);
+        boolean hasMoreRows = true;
+
+        while (hasMoreRows) {
+            int batchSize = 0;
+            while (batchSize < batch.length && (hasMoreRows = argCursor.moveToNext())) {
+                FeedItem item = emptyItems != null && rows < emptyItems.length ? emptyItems[rows] : null;
+                batch[batchSize++] = LibraryPersistency.fetchEpisodeFromCursor(argCursor, item, columns);
+                rows++;
             }
-            wasAdded = addEpisode(item);
 
-            if (wasAdded) {
-                counter++;
+            if (batchSize == 0) {
+                break;
+            }
+
+            mEpisodeLock.lock();
+            try {
+                if (counter == 0) {
+                    mEpisodes.ensureCapacity(mEpisodes.size() + argCursor.getCount());
+                }
+
+                for (int i = 0; i < batchSize; i++) {
+                    if (addEpisodeLocked(batch[i])) {
+                        counter++;
+                    }
+                    batch[i] = null;
+                }
+            } finally {
+                mEpisodeLock.unlock();
             }
         }
 
+        long elapsed = System.nanoTime() - start;
+        if (rows > 0) {
+            long rowsPerSecond = elapsed > 0 ? rows * 1000000000L / elapsed : rows;
+            Log.d(TAG, "Hydrated " + rows + " episodes in " + (elapsed / 1000000) + " ms (" + rowsPerSecond + " rows/s), added: " + counter); // NoI18N
+        }
+
         return counter;
     }
 
@@ -707,7 +802,7 @@ public class Library {
     @MainThread
     private void loadSubscriptions() {
         Observable.just(1)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.DB.rx())
                 .map(integer -> {
                     loadSubscriptionsInternalSync(true);
                     return true;
@@ -760,9 +855,9 @@ public class Library {
         if (argSubscription.IsLoaded())
             return;
 
-        String query = getAllEpisodes(argSubscription);
+        PreparedQuery query = getAllEpisodes(argSubscription);
         Observable.just(query)
-                .observeOn(Schedulers.io())
+                .observeOn(Lanes.DB.rx())
                 .subscribe(query1 -> loadEpisodesSync(argSubscription, query1), throwable -> {
                     VendorCrashReporter.report("subscribeError" , throwable.toString());
                     Log.d(TAG, "error: " + throwable.toString());
@@ -770,7 +865,7 @@ public class Library {
     }
 
     @WorkerThread
-    public void loadEpisodesSync(@NonNull final Subscription argSubscription, @Nullable String argQuery) {
+    public void loadEpisodesSync(@NonNull final Subscription argSubscription, @Nullable PreparedQuery argQuery) {
 
         synchronized (argSubscription) {
 
@@ -886,7 +981,7 @@ public class Library {
 
                     return subscription;
                 })
-                .subscribeOn(Schedulers.newThread())
+                .subscribeOn(Lanes.DB.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Observer<Subscription>() {
 
@@ -910,6 +1005,115 @@ public class Library {
                 });
     }
 
+    /**
+     * Subscribe to many podcasts at once, e.g. from an OPML file.
+     *
+     * Podcasts we are already subscribed to, and duplicates, are skipped. The new subscriptions
+     * are persisted in a single transaction and refreshed IMPORT_REFRESH_BATCH_SIZE at a time.
+     *
+     * @param argSubscriptions The podcasts to subscribe to
+     * @param argListener Notified on the main thread about the progress
+     */
+    public void subscribe(@NonNull final List<? extends ISubscription> argSubscriptions,
+                          @Nullable final SubscribeListener argListener) {
+        Observable
+                .fromCallable(() -> subscribeSync(argSubscriptions))
+                .subscribeOn(Lanes.DB.rx())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(subscriptions -> {
+                    if (argListener != null) {
+                        argListener.onSubscribed(subscriptions.size());
+                    }
+
+                    if (subscriptions.isEmpty()) {
+                        return;
+                    }
+
+                    SoundWaves.getAppContext(mContext).getRefreshManager().refresh(subscriptions,
+                            IMPORT_REFRESH_BATCH_SIZE,
+                            (argRefreshed, argTotal) -> {
+                                if (argListener != null) {
+                                    argListener.onRefreshed(argRefreshed, argTotal);
+                                }
+                            });
+                }, throwable -> {
+                    Log.e(TAG, "Subscribing failed: " + throwable.toString()); // NoI18N
+                    VendorCrashReporter.handleException(throwable);
+                });
+    }
+
+    @WorkerThread
+    @NonNull
+    private List<Subscription> subscribeSync(@NonNull List<? extends ISubscription> argSubscriptions) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(mContext);
+
+        mSubscriptionLock.lock();
+        try {
+            ArrayMap<String, Subscription> added = new ArrayMap<>();
+            for (int i = 0; i < argSubscriptions.size(); i++) {
+                ISubscription slimSubscription = argSubscriptions.get(i);
+                String key = getKey(slimSubscription);
+                if (TextUtils.isEmpty(key) || added.containsKey(key)) {
+                    continue;
+                }
+
+                Subscription subscription = mSubscriptionUrlLUT.get(key);
+                if (subscription == null) {
+                    subscription = new Subscription(sharedPreferences, slimSubscription);
+                } else if (subscription.getStatus() == STATUS_SUBSCRIBED) {
+                    continue;
+                }
+
+                subscription.subscribe("Subscribe:from:Library.subscribe(List)"); // NoI18N
+                added.put(key, subscription);
+                subscriptions.add(subscription);
+            }
+
+            int inserted = mLibraryPersistency.persist(subscriptions);
+            Log.d(TAG, "Subscribed to " + subscriptions.size() + " podcasts, " + inserted + " new"); // NoI18N
+
+            for (int i = 0; i < subscriptions.size(); i++) {
+                Subscription subscription = subscriptions.get(i);
+                mSubscriptionUrlLUT.put(getKey(subscription), subscription);
+                mSubscriptionIdLUT.put(subscription.getId(), subscription);
+                if (mActiveSubscriptions.indexOf(subscription) == -1) {
+                    mActiveSubscriptions.add(subscription);
+                }
+            }
+
+            if (!subscriptions.isEmpty()) {
+                mActiveLiveSubscriptions.postValue(mActiveSubscriptions);
+            }
+        } finally {
+            mSubscriptionLock.unlock();
+        }
+
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            EventLogger.postEvent(mContext, EventLogger.SUBSCRIBE_PODCAST, null, subscription.getURLString(), null);
+            mSubscriptionsChangePublisher.onNext(subscription);
+        }
+
+        return subscriptions;
+    }
+
+    /**
+     * Marks the podcasts we are already subscribed to, taking the subscription lock only once.
+     */
+    public void markSubscribed(@NonNull List<SlimSubscription> argSubscriptions) {
+        mSubscriptionLock.lock();
+        try {
+            for (int i = 0; i < argSubscriptions.size(); i++) {
+                SlimSubscription slimSubscription = argSubscriptions.get(i);
+                Subscription subscription = mSubscriptionUrlLUT.get(getKey(slimSubscription));
+                slimSubscription.setIsSubscribed(subscription != null && subscription.IsSubscribed());
+            }
+        } finally {
+            mSubscriptionLock.unlock();
+        }
+    }
+
     public void updateSubscription(Subscription argSubscription) {
         mLibraryPersistency.persist(argSubscription);
 
@@ -1059,6 +1263,11 @@ public class Library {
      * @param argEpisode
      */
     protected void setEpisodeId(@NonNull Long argID, @NonNull FeedItem argEpisode) {
-        mEpisodesIdLUT.put(argID, argEpisode);
+        mEpisodeLock.lock();
+        try {
+            mEpisodesIdLUT.put(argID, argEpisode);
+        } finally {
+            mEpisodeLock.unlock();
+        }
     }
 }
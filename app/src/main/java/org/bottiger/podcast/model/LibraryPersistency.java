@@ -10,6 +10,8 @@ import android.net.Uri;
 import android.provider.BaseColumns;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
 import android.support.v4.util.Pair;
 import android.util.Log;
 
@@ -178,41 +180,64 @@ public class LibraryPersistency {
         return result;
     }
 
-    public ContentProviderOperation update(@NonNull Subscription argSubscription,
-                                                  boolean batchUpdate,
-                                                  boolean silent) {
+    /**
+     * Persist many subscriptions in a single transaction, e.g. the new subscriptions of an OPML
+     * import. Subscriptions which are not in the database are inserted and get their id.
+     *
+     * @param argSubscriptions The subscriptions
+     * @return The number of inserted subscriptions
+     */
+    @WorkerThread
+    public int persist(@NonNull List<Subscription> argSubscriptions) {
+        if (argSubscriptions.isEmpty()) {
+            return 0;
+        }
 
-        ContentProviderOperation contentUpdate = null;
-        ContentValues cv = new ContentValues();
+        SQLiteDatabase db = PodcastOpenHelper.getInstance(mContext).getWritableDatabase();
+        String where = SubscriptionColumns.URL + "=?"; // NoI18N
+        int inserted = 0;
 
-        cv.put(SubscriptionColumns.TITLE, argSubscription.getTitle());
-        cv.put(SubscriptionColumns.URL, argSubscription.getURLString());
-        cv.put(SubscriptionColumns.IMAGE_URL, argSubscription.getImageURL());
-        cv.put(SubscriptionColumns.DESCRIPTION, argSubscription.getDescription());
+        db.beginTransaction();
+        try {
+            for (Subscription subscription : argSubscriptions) {
+                ContentValues cv = getSubscriptionContentValues(subscription, false);
+                String[] whereArgs = {subscription.getURLString()};
+
+                if (db.update(SubscriptionColumns.TABLE_NAME, cv, where, whereArgs) == 0) {
+                    cv = SubscriptionColumns.checkValues(cv, SubscriptionColumns.URI);
+                    long id = db.insertOrThrow(SubscriptionColumns.TABLE_NAME, SubscriptionColumns.URL, cv);
+                    subscription.setId(id);
+                    inserted++;
+                }
+            }
 
-        if (!silent) {
-            long lastUpdated = System.currentTimeMillis();
-            cv.put(SubscriptionColumns.LAST_UPDATED, lastUpdated);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
 
-        cv.put(SubscriptionColumns.SUBSCRIBED_AT, argSubscription.getSubscribedAt());
-        cv.put(SubscriptionColumns.LAST_ITEM_UPDATED, argSubscription.getLastItemUpdated());
-        cv.put(SubscriptionColumns.STATUS, argSubscription.getStatus());
-        cv.put(SubscriptionColumns.SETTINGS, argSubscription.getSettings());
-        cv.put(SubscriptionColumns.PRIMARY_COLOR, argSubscription.getPrimaryColor());
-        cv.put(SubscriptionColumns.PRIMARY_TINT_COLOR, argSubscription.getPrimaryTintColor());
-        cv.put(SubscriptionColumns.SECONDARY_COLOR, argSubscription.getSecondaryColor());
+        mContentResolver.notifyChange(SubscriptionColumns.URI, null);
 
-        cv.put(SubscriptionColumns.NEW_EPISODES, argSubscription.getNewEpisodes());
-        cv.put(SubscriptionColumns.EPISODE_COUNT, argSubscription.getEpisodeCount());
-
-        cv.put(SubscriptionColumns.RATING, argSubscription.getClicks());
+        for (int i = 0; i < inserted; i++) {
+            SoundWaves.sAnalytics.trackEvent(IAnalytics.EVENT_TYPE.SUBSCRIBE_TO_FEED);
+        }
 
-        int episode_count = argSubscription.getEpisodes().size();
-        if (episode_count > 0) {
-            cv.put(SubscriptionColumns.EPISODE_COUNT, episode_count);
+        for (Subscription subscription : argSubscriptions) {
+            if (!subscription.IsSubscribed()) {
+                deleteEpisodes(subscription);
+            }
         }
 
+        return inserted;
+    }
+
+    public ContentProviderOperation update(@NonNull Subscription argSubscription,
+                                                  boolean batchUpdate,
+                                                  boolean silent) {
+
+        ContentProviderOperation contentUpdate = null;
+        ContentValues cv = getSubscriptionContentValues(argSubscription, silent);
+
         String condition = SubscriptionColumns.URL + "='" + argSubscription.getURLString() + "'";
         if (batchUpdate) {
             contentUpdate = ContentProviderOperation
@@ -247,6 +272,43 @@ public class LibraryPersistency {
         return contentUpdate;
     }
 
+    private static ContentValues getSubscriptionContentValues(@NonNull Subscription argSubscription, boolean silent) {
+        ContentValues cv = new ContentValues();
+
+        cv.put(SubscriptionColumns.TITLE, argSubscription.getTitle());
+        cv.put(SubscriptionColumns.URL, argSubscription.getURLString());
+        cv.put(SubscriptionColumns.IMAGE_URL, argSubscription.getImageURL());
+        cv.put(SubscriptionColumns.DESCRIPTION, argSubscription.getDescription());
+
+        if (!silent) {
+            long lastUpdated = System.currentTimeMillis();
+            cv.put(SubscriptionColumns.LAST_UPDATED, lastUpdated);
+        }
+
+        cv.put(SubscriptionColumns.SUBSCRIBED_AT, argSubscription.getSubscribedAt());
+        cv.put(SubscriptionColumns.LAST_ITEM_UPDATED, argSubscription.getLastItemUpdated());
+        cv.put(SubscriptionColumns.STATUS, argSubscription.getStatus());
+        cv.put(SubscriptionColumns.SETTINGS, argSubscription.getSettings());
+        cv.put(SubscriptionColumns.PRIMARY_COLOR, argSubscription.getPrimaryColor());
+        cv.put(SubscriptionColumns.PRIMARY_TINT_COLOR, argSubscription.getPrimaryTintColor());
+        cv.put(SubscriptionColumns.SECONDARY_COLOR, argSubscription.getSecondaryColor());
+
+        cv.put(SubscriptionColumns.NEW_EPISODES, argSubscription.getNewEpisodes());
+        cv.put(SubscriptionColumns.EPISODE_COUNT, argSubscription.getEpisodeCount());
+
+        cv.put(SubscriptionColumns.RATING, argSubscription.getClicks());
+
+        cv.put(SubscriptionColumns.HTTP_ETAG, argSubscription.getHttpETag());
+        cv.put(SubscriptionColumns.HTTP_LAST_MODIFIED, argSubscription.getHttpLastModified());
+
+        int episode_count = argSubscription.getEpisodes().size();
+        if (episode_count > 0) {
+            cv.put(SubscriptionColumns.EPISODE_COUNT, episode_count);
+        }
+
+        return cv;
+    }
+
     private ContentValues getEpisodeContentValues(FeedItem argItem, Boolean silent) {
         ContentValues cv = new ContentValues();
 
@@ -301,8 +363,75 @@ public class LibraryPersistency {
         return map;
     }
 
+    /**
+     * Column indices of the episode table in a cursor. Resolving an index is a linear search
+     * through the column names, so it should be done once per cursor and not once per row.
+     */
+    public static class EpisodeColumns {
+        final int id;
+        final int pathname;
+        final int offset;
+        final int url;
+        final int image;
+        final int title;
+        final int author;
+        final int date;
+        final int pubDate;
+        final int content;
+        final int filesize;
+        final int length;
+        final int isDownloaded;
+        final int duration;
+        final int status;
+        final int lastUpdate;
+        final int subTitle;
+        final int subId;
+        final int listened;
+        final int priority;
+        final int created;
+
+        public EpisodeColumns(@NonNull Cursor argCursor) {
+            id = argCursor.getColumnIndex(BaseColumns._ID);
+            pathname = argCursor.getColumnIndex(ItemColumns.PATHNAME);
+            offset = argCursor.getColumnIndex(ItemColumns.OFFSET);
+            url = argCursor.getColumnIndex(ItemColumns.URL);
+            image = argCursor.getColumnIndex(ItemColumns.IMAGE_URL);
+            title = argCursor.getColumnIndex(ItemColumns.TITLE);
+            author = argCursor.getColumnIndex(ItemColumns.AUTHOR);
+            date = argCursor.getColumnIndex(ItemColumns.DATE);
+            pubDate = argCursor.getColumnIndex(ItemColumns.PUB_DATE);
+            content = argCursor.getColumnIndex(ItemColumns.CONTENT);
+            filesize = argCursor.getColumnIndex(ItemColumns.FILESIZE);
+            length = argCursor.getColumnIndex(ItemColumns.LENGTH);
+            isDownloaded = argCursor.getColumnIndex(ItemColumns.IS_DOWNLOADED);
+            duration = argCursor.getColumnIndex(ItemColumns.DURATION_MS);
+            status = argCursor.getColumnIndex(ItemColumns.STATUS);
+            lastUpdate = argCursor.getColumnIndex(ItemColumns.LAST_UPDATE);
+            subTitle = argCursor.getColumnIndex(ItemColumns.SUB_TITLE);
+            subId = argCursor.getColumnIndex(ItemColumns.SUBS_ID);
+            listened = argCursor.getColumnIndex(ItemColumns.LISTENED);
+            priority = argCursor.getColumnIndex(ItemColumns.PRIORITY);
+            created = argCursor.getColumnIndex(ItemColumns.CREATED);
+        }
+    }
+
     public static FeedItem fetchEpisodeFromCursor(Cursor cursor,
                                                   FeedItem item)
+    {
+        return fetchEpisodeFromCursor(cursor, item, new EpisodeColumns(cursor));
+    }
+
+    /**
+     * Read the current row of the cursor into an episode.
+     *
+     * @param cursor A cursor positioned at an episode row
+     * @param item An episode to reuse, or null
+     * @param columns The column indices of the cursor
+     * @return The episode
+     */
+    public static FeedItem fetchEpisodeFromCursor(@NonNull Cursor cursor,
+                                                  @Nullable FeedItem item,
+                                                  @NonNull EpisodeColumns columns)
     {
         if (item != null) {
             item.reset();
@@ -311,29 +440,29 @@ public class LibraryPersistency {
 
         item.setIsParsing(true, false);
 
-        item.id = cursor.getLong(cursor.getColumnIndex(BaseColumns._ID));
-        item.filename = cursor.getString(cursor.getColumnIndex(ItemColumns.PATHNAME));
-        item.offset = cursor.getInt(cursor.getColumnIndex(ItemColumns.OFFSET));
-        item.setURL(cursor.getString(cursor.getColumnIndex(ItemColumns.URL)));
-        item.image = cursor.getString(cursor.getColumnIndex(ItemColumns.IMAGE_URL));
-        item.setTitle(cursor.getString(cursor.getColumnIndex(ItemColumns.TITLE)));
-        item.author = cursor.getString(cursor.getColumnIndex(ItemColumns.AUTHOR));
-        item.date = cursor.getString(cursor.getColumnIndex(ItemColumns.DATE));
-        item.pub_date = cursor.getLong(cursor.getColumnIndex(ItemColumns.PUB_DATE));
-        item.content = cursor.getString(cursor.getColumnIndex(ItemColumns.CONTENT));
-        item.filesize = cursor.getLong(cursor.getColumnIndex(ItemColumns.FILESIZE));
-        item.length = cursor.getLong(cursor.getColumnIndex(ItemColumns.LENGTH));
-        int intVal = cursor.getInt(cursor.getColumnIndex(ItemColumns.IS_DOWNLOADED));
+        item.id = cursor.getLong(columns.id);
+        item.filename = cursor.getString(columns.pathname);
+        item.offset = cursor.getInt(columns.offset);
+        item.setURL(cursor.getString(columns.url));
+        item.image = cursor.getString(columns.image);
+        item.setTitle(cursor.getString(columns.title));
+        item.author = cursor.getString(columns.author);
+        item.date = cursor.getString(columns.date);
+        item.pub_date = cursor.getLong(columns.pubDate);
+        item.content = cursor.getString(columns.content);
+        item.filesize = cursor.getLong(columns.filesize);
+        item.length = cursor.getLong(columns.length);
+        int intVal = cursor.getInt(columns.isDownloaded);
         item.isDownloaded = intVal == 1;
 
-        item.duration_ms = cursor.getLong(cursor.getColumnIndex(ItemColumns.DURATION_MS));
-        item.status = cursor.getInt(cursor.getColumnIndex(ItemColumns.STATUS));
-        item.lastUpdate = cursor.getLong(cursor.getColumnIndex(ItemColumns.LAST_UPDATE));
-        item.sub_title = cursor.getString(cursor.getColumnIndex(ItemColumns.SUB_TITLE));
-        item.sub_id = cursor.getLong(cursor.getColumnIndex(ItemColumns.SUBS_ID));
-        item.listened = cursor.getInt(cursor.getColumnIndex(ItemColumns.LISTENED));
-        item.priority = cursor.getInt(cursor.getColumnIndex(ItemColumns.PRIORITY));
-        item.created_at = cursor.getLong(cursor.getColumnIndex(ItemColumns.CREATED));
+        item.duration_ms = cursor.getLong(columns.duration);
+        item.status = cursor.getInt(columns.status);
+        item.lastUpdate = cursor.getLong(columns.lastUpdate);
+        item.sub_title = cursor.getString(columns.subTitle);
+        item.sub_id = cursor.getLong(columns.subId);
+        item.listened = cursor.getInt(columns.listened);
+        item.priority = cursor.getInt(columns.priority);
+        item.created_at = cursor.getLong(columns.created);
 
         item.setIsParsing(false, false);
 
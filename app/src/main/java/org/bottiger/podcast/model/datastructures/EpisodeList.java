@@ -9,12 +9,19 @@ import org.bottiger.podcast.provider.IEpisode;
 import java.util.LinkedList;
 
 /**
+ * A sorted list of episodes which can also find an episode by its URL in constant time. The URL of
+ * an episode is unique within a subscription, so the index is kept in sync with the list as
+ * episodes are added, updated and removed.
+ *
  * Created by aplb on 20-01-2016.
  */
 public class EpisodeList<T> extends SortedList<T> {
 
     private EpisodeFilter mFilter = new EpisodeFilter();
 
+    // The episodes in the list by URL. Episodes without a URL are not indexed
+    private final OpenHashMap<String, T> mUrlIndex = new OpenHashMap<>();
+
     public EpisodeList(Class<T> listItemClass, Callback<T> callback) {
         super(listItemClass, callback);
     }
@@ -23,6 +30,98 @@ public class EpisodeList<T> extends SortedList<T> {
         super(listItemClass, callback, initialCapacity);
     }
 
+    @Override
+    public int add(T item) {
+        int index = super.add(item);
+        index(item);
+        return index;
+    }
+
+    // addAll(T...) and addAll(Collection) end up here
+    @Override
+    public void addAll(T[] items, boolean mayModifyInput) {
+        super.addAll(items, mayModifyInput);
+        for (T item : items) {
+            index(item);
+        }
+    }
+
+    @Override
+    public boolean remove(T item) {
+        boolean removed = super.remove(item);
+        if (removed) {
+            unindex(item);
+        }
+        return removed;
+    }
+
+    @Override
+    public T removeItemAt(int index) {
+        T item = super.removeItemAt(index);
+        unindex(item);
+        return item;
+    }
+
+    @Override
+    public void updateItemAt(int index, T item) {
+        T previous = get(index);
+        super.updateItemAt(index, item);
+        unindex(previous);
+        index(item);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        mUrlIndex.clear();
+    }
+
+    /**
+     * @return The episode in the list which is equal to the episode, or null
+     */
+    @Nullable
+    public T find(@NonNull IEpisode argEpisode) {
+        String url = argEpisode.getURL();
+        if (url != null) {
+            T episode = mUrlIndex.get(url);
+            return episode != null && argEpisode.equals(episode) ? episode : null;
+        }
+
+        for (int i = 0; i < size(); i++) {
+            T episode = get(i);
+            if (argEpisode.equals(episode)) {
+                return episode;
+            }
+        }
+
+        return null;
+    }
+
+    private void index(@Nullable T argItem) {
+        String url = getURL(argItem);
+        if (url != null) {
+            mUrlIndex.put(url, argItem);
+        }
+    }
+
+    private void unindex(@Nullable T argItem) {
+        String url = getURL(argItem);
+        if (url == null) {
+            return;
+        }
+
+        // Do not remove another episode with the same URL
+        T indexed = mUrlIndex.get(url);
+        if (indexed != null && indexed.equals(argItem)) {
+            mUrlIndex.remove(url);
+        }
+    }
+
+    @Nullable
+    private static String getURL(@Nullable Object argItem) {
+        return argItem instanceof IEpisode ? ((IEpisode) argItem).getURL() : null;
+    }
+
     @NonNull
     public LinkedList<IEpisode> getUnfilteredList() {
         LinkedList<IEpisode> list =  new LinkedList<>();
@@ -0,0 +1,179 @@
+package org.bottiger.podcast.model.datastructures;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A map from primitive long keys to objects. Uses open addressing with linear probing, so
+ * neither the keys nor the entries are boxed.
+ *
+ * Not thread safe. A removal moves the following entries of the probe sequence within the table,
+ * so a reader running at the same time could miss an entry which is in the map. The caller must
+ * hold the same lock for reads and writes.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class LongHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values; // null marks an empty slot
+        final int mask;
+
+        Table(int argCapacity) {
+            keys = new long[argCapacity];
+            values = new Object[argCapacity];
+            mask = argCapacity - 1;
+        }
+    }
+
+    private Table mTable;
+    private int mSize;
+    private int mThreshold;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashMap(int argExpectedSize) {
+        mTable = new Table(capacityFor(argExpectedSize));
+        mThreshold = (int) (mTable.keys.length * LOAD_FACTOR);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long argKey) {
+        Table table = mTable;
+        int index = hash(argKey) & table.mask;
+        Object value;
+        while ((value = table.values[index]) != null) {
+            if (table.keys[index] == argKey) {
+                return (V) value;
+            }
+            index = (index + 1) & table.mask;
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(long argKey) {
+        return get(argKey) != null;
+    }
+
+    /**
+     * @return The previous value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long argKey, @NonNull V argValue) {
+        if (mSize >= mThreshold) {
+            resize(mTable.keys.length << 1);
+        }
+
+        Table table = mTable;
+        int index = hash(argKey) & table.mask;
+        Object value;
+        while ((value = table.values[index]) != null) {
+            if (table.keys[index] == argKey) {
+                table.values[index] = argValue;
+                return (V) value;
+            }
+            index = (index + 1) & table.mask;
+        }
+
+        table.keys[index] = argKey;
+        table.values[index] = argValue;
+        mSize++;
+        return null;
+    }
+
+    /**
+     * @return The removed value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long argKey) {
+        Table table = mTable;
+        int index = hash(argKey) & table.mask;
+        Object value;
+        while ((value = table.values[index]) != null) {
+            if (table.keys[index] == argKey) {
+                shiftBack(table, index);
+                mSize--;
+                return (V) value;
+            }
+            index = (index + 1) & table.mask;
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        mTable = new Table(DEFAULT_CAPACITY);
+        mThreshold = (int) (DEFAULT_CAPACITY * LOAD_FACTOR);
+        mSize = 0;
+    }
+
+    /**
+     * Backward shift deletion. Moves the following entries of the probe sequence into the hole,
+     * so no tombstones are needed.
+     */
+    private static void shiftBack(@NonNull Table argTable, int argHole) {
+        int hole = argHole;
+        int index = (hole + 1) & argTable.mask;
+        while (argTable.values[index] != null) {
+            int home = hash(argTable.keys[index]) & argTable.mask;
+            // Move the entry if its home slot is not between the hole and its current position.
+            if (((index - home) & argTable.mask) >= ((index - hole) & argTable.mask)) {
+                argTable.keys[hole] = argTable.keys[index];
+                argTable.values[hole] = argTable.values[index];
+                hole = index;
+            }
+            index = (index + 1) & argTable.mask;
+        }
+
+        argTable.values[hole] = null;
+    }
+
+    private void resize(int argCapacity) {
+        Table oldTable = mTable;
+        Table newTable = new Table(argCapacity);
+
+        for (int i = 0; i < oldTable.values.length; i++) {
+            Object value = oldTable.values[i];
+            if (value == null) {
+                continue;
+            }
+
+            int index = hash(oldTable.keys[i]) & newTable.mask;
+            while (newTable.values[index] != null) {
+                index = (index + 1) & newTable.mask;
+            }
+            newTable.keys[index] = oldTable.keys[i];
+            newTable.values[index] = value;
+        }
+
+        mTable = newTable;
+        mThreshold = (int) (argCapacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long argKey) {
+        long h = argKey * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int capacityFor(int argExpectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR <= argExpectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,174 @@
+package org.bottiger.podcast.model.datastructures;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A hash map using open addressing with linear probing. Keys and values are stored in a single
+ * interleaved array, so an insert never allocates an entry object. Used to look up episodes by URL.
+ *
+ * Null keys and values are not supported. Not thread safe, like {@link LongHashMap}: the caller
+ * must hold the same lock for reads and writes.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class OpenHashMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // [key0, value0, key1, value1, ...]. A null key marks an empty slot.
+    private Object[] mTable;
+    private int mSize;
+    private int mThreshold;
+
+    public OpenHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OpenHashMap(int argExpectedSize) {
+        int capacity = LongHashMap.capacityFor(argExpectedSize);
+        mTable = new Object[capacity * 2];
+        mThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@Nullable K argKey) {
+        if (argKey == null) {
+            return null;
+        }
+
+        Object[] table = mTable;
+        int mask = (table.length >> 1) - 1;
+        int index = hash(argKey) & mask;
+        Object key;
+        while ((key = table[index << 1]) != null) {
+            if (key == argKey || key.equals(argKey)) {
+                return (V) table[(index << 1) + 1];
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(@Nullable K argKey) {
+        return get(argKey) != null;
+    }
+
+    /**
+     * @return The previous value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(@NonNull K argKey, @NonNull V argValue) {
+        if (mSize >= mThreshold) {
+            resize(mTable.length);
+        }
+
+        Object[] table = mTable;
+        int mask = (table.length >> 1) - 1;
+        int index = hash(argKey) & mask;
+        Object key;
+        while ((key = table[index << 1]) != null) {
+            if (key == argKey || key.equals(argKey)) {
+                Object previous = table[(index << 1) + 1];
+                table[(index << 1) + 1] = argValue;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[(index << 1) + 1] = argValue;
+        table[index << 1] = argKey;
+        mSize++;
+        return null;
+    }
+
+    /**
+     * @return The removed value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(@Nullable K argKey) {
+        if (argKey == null) {
+            return null;
+        }
+
+        Object[] table = mTable;
+        int mask = (table.length >> 1) - 1;
+        int index = hash(argKey) & mask;
+        Object key;
+        while ((key = table[index << 1]) != null) {
+            if (key == argKey || key.equals(argKey)) {
+                Object value = table[(index << 1) + 1];
+                shiftBack(table, mask, index);
+                mSize--;
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        mTable = new Object[DEFAULT_CAPACITY * 2];
+        mThreshold = (int) (DEFAULT_CAPACITY * LOAD_FACTOR);
+        mSize = 0;
+    }
+
+    /**
+     * Backward shift deletion, see {@link LongHashMap}.
+     */
+    private static void shiftBack(@NonNull Object[] argTable, int argMask, int argHole) {
+        int hole = argHole;
+        int index = (hole + 1) & argMask;
+        Object key;
+        while ((key = argTable[index << 1]) != null) {
+            int home = hash(key) & argMask;
+            if (((index - home) & argMask) >= ((index - hole) & argMask)) {
+                argTable[(hole << 1) + 1] = argTable[(index << 1) + 1];
+                argTable[hole << 1] = key;
+                hole = index;
+            }
+            index = (index + 1) & argMask;
+        }
+
+        argTable[hole << 1] = null;
+        argTable[(hole << 1) + 1] = null;
+    }
+
+    private void resize(int argCapacity) {
+        Object[] oldTable = mTable;
+        Object[] newTable = new Object[argCapacity * 2];
+        int mask = argCapacity - 1;
+
+        for (int i = 0; i < oldTable.length; i += 2) {
+            Object key = oldTable[i];
+            if (key == null) {
+                continue;
+            }
+
+            int index = hash(key) & mask;
+            while (newTable[index << 1] != null) {
+                index = (index + 1) & mask;
+            }
+            newTable[index << 1] = key;
+            newTable[(index << 1) + 1] = oldTable[i + 1];
+        }
+
+        mTable = newTable;
+        mThreshold = (int) (argCapacity * LOAD_FACTOR);
+    }
+
+    private static int hash(@NonNull Object argKey) {
+        int h = argKey.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -4,6 +4,7 @@ import android.app.Notification;
 import android.app.NotificationManager;
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v4.app.NotificationCompat;
 import android.text.format.Formatter;
 
@@ -18,6 +19,10 @@ public class ProgressNotification {
     private static final int sProgressNotificationId = 642;
 
     public static void show(@NonNull Context argContext, @NonNull IEpisode argEpisode, int progress, long argSpeedBps) {
+        show(argContext, argEpisode.getTitle(), progress, argSpeedBps);
+    }
+
+    public static void show(@NonNull Context argContext, @Nullable String argTitle, int progress, long argSpeedBps) {
 
         String speed = argSpeedBps > 0 ? Formatter.formatFileSize(argContext, argSpeedBps) + "/s" : "";
 
@@ -25,7 +30,7 @@ public class ProgressNotification {
                 .Builder(argContext)
                 .setOngoing(true)
                 .setSmallIcon(android.R.drawable.stat_sys_download)
-                .setContentTitle(argEpisode.getTitle())
+                .setContentTitle(argTitle)
                 .setContentText(speed);
 
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
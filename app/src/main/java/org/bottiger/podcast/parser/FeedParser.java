@@ -4,7 +4,6 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringDef;
-import android.support.v4.util.Pair;
 import android.text.Html;
 import android.text.TextUtils;
 import android.util.Log;
@@ -29,12 +28,10 @@ import java.io.InputStream;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.TimeZone;
 
 import static org.bottiger.podcast.utils.StorageUtils.VIDEO;
 
@@ -45,11 +42,20 @@ public class FeedParser {
 
     private static final String TAG = FeedParser.class.getSimpleName();
 
-    private static final SimpleDateFormat[] DURATION_FORMATS = {new SimpleDateFormat("HH:mm:ss"), new SimpleDateFormat("mm:ss")};
 
     // We don't use namespaces
     private static final String ns = null;
 
+    /**
+     * In incremental mode the parser stops after this many consecutive episodes we already know.
+     */
+    private static final int INCREMENTAL_KNOWN_EPISODE_RUN = 5;
+
+    /**
+     * Episodes published within this window of each other are not used to decide the order of the feed.
+     */
+    private static final long ORDERING_TOLERANCE_MS = 60 * 1000;
+
     private static final String topTag = "rss";
     private static final String startTag = "channel";
     private static final String EPISODE_ITEM_TAG = "item";
@@ -141,9 +147,16 @@ public class FeedParser {
      *
      * The parser will not persist the subscription.
      *
+     * If argFullRead is false the parser assumes the feed lists the newest episodes first, and stops
+     * reading episodes once it has seen a run of episodes which are already part of the subscription.
+     * The remaining items are skipped without being parsed, but channel tags after them, like the
+     * title or the image, are still read. If the feed turns out not to be ordered that way the parser
+     * falls back to reading the entire feed.
+     *
      * @param argSubscription The subscription which will be updated
      * @param in The inputstream wit the datat
      * @param argContext A Context
+     * @param argFullRead Read every item in the feed, even if the rest of the feed is known
      * @return The same subscription which was given as input
      * @throws XmlPullParserException
      * @throws IOException
@@ -194,6 +207,12 @@ public class FeedParser {
             }
         }
 
+        return finishFeed(addedEpisodes, argSubscription, argContext);
+    }
+
+    private static ISubscription finishFeed(@NonNull List<IEpisode> addedEpisodes,
+                                            @NonNull ISubscription argSubscription,
+                                            @NonNull Context argContext) {
         if (addedEpisodes.size() > 0 && !isParsingSlimSubscription(argSubscription)) {
             Subscription sub = ((Subscription) argSubscription);
             SoundWaves.getAppContext(argContext).getLibraryInstance().addEpisodes(sub);
@@ -235,9 +254,14 @@ public class FeedParser {
         List<IEpisode> addedEpisodes = new LinkedList<>();
 
         Boolean containsHTML = null;
-        DateUtils.Hint dateFormatHint = null;
+        DateUtils.FeedDates feedDates = new DateUtils.FeedDates();
         Boolean hasReportedUnparsableDate = false;
 
+        boolean incremental = !argFullRead;
+        int knownEpisodeRun = 0;
+        long previousPubDate = Long.MAX_VALUE;
+        boolean readEpisodes = true;
+
         while (parser.next() != XmlPullParser.END_TAG) {
             if (parser.getEventType() != XmlPullParser.START_TAG) {
                 continue;
@@ -264,14 +288,31 @@ public class FeedParser {
                     break;
                 }
                 case EPISODE_ITEM_TAG: {
-                    IEpisode episode = readEpisode(parser, argSubscription, dateFormatHint, hasReportedUnparsableDate);
+                    if (!readEpisodes) {
+                        skip(parser);
+                        break;
+                    }
+
+                    IEpisode episode = readEpisode(parser, argSubscription, feedDates, hasReportedUnparsableDate);
 
                     // Bulk insert.
                     if (episode != null) {
+                        if (incremental) {
+                            // Only a feed listing the newest episodes first can be read incrementally.
+                            long pubDate = episode.getDateTime().getTime();
+                            if (pubDate > previousPubDate + ORDERING_TOLERANCE_MS) {
+                                Log.d(TAG, "Feed is not ordered newest first. Reading all of it: " + argSubscription.getURLString()); // NoI18N
+                                incremental = false;
+                            }
+                            previousPubDate = pubDate;
+                        }
+
                         if (argSubscription.addEpisode(episode)) {
                             addedEpisodes.add(episode);
-                        } else if (!argFullRead) {
-                            return addedEpisodes;
+                            knownEpisodeRun = 0;
+                        } else if (incremental && ++knownEpisodeRun >= INCREMENTAL_KNOWN_EPISODE_RUN) {
+                            // The rest of the items are known. Keep going for the channel tags after them.
+                            readEpisodes = false;
                         }
                     }
 
@@ -326,7 +367,7 @@ public class FeedParser {
     @Nullable
     private static IEpisode readEpisode(@NonNull XmlPullParser parser,
                                         @NonNull ISubscription argSubscription,
-                                        @Nullable DateUtils.Hint argDateHint,
+                                        @NonNull DateUtils.FeedDates argFeedDates,
                                         Boolean hasReportedUnparsableDate) throws XmlPullParserException, IOException {
         parser.require(XmlPullParser.START_TAG, ns, EPISODE_ITEM_TAG);
 
@@ -372,7 +413,7 @@ public class FeedParser {
                 }
                 case EPISODE_PUB_DATE_TAG: {
                     try {
-                        Date date = readDate(parser, argDateHint);
+                        Date date = readDate(parser, argFeedDates);
                         if (date != null) {
                             episode.setPubDate(DateUtils.preventDateInTheFutre(date));
                         }
@@ -525,18 +566,13 @@ public class FeedParser {
 
     // Processes pubdate tag of an item in the feed.
     @Nullable
-    private static Date readDate(XmlPullParser parser, @Nullable DateUtils.Hint argDateHint) throws IOException, XmlPullParserException, ParseException {
+    private static Date readDate(XmlPullParser parser, @NonNull DateUtils.FeedDates argFeedDates) throws IOException, XmlPullParserException, ParseException {
         parser.require(XmlPullParser.START_TAG, ns, EPISODE_PUB_DATE_TAG);
         String pubDate = readText(parser);
         parser.require(XmlPullParser.END_TAG, ns, EPISODE_PUB_DATE_TAG);
 
-        return cacheDateFormat(pubDate.trim(), argDateHint);
-    }
-
-    private static Date cacheDateFormat(@NonNull String argDate, @Nullable DateUtils.Hint argDateHint) throws IOException, XmlPullParserException, ParseException {
-        Pair<Date, DateUtils.Hint> parsedDate = DateUtils.parse(argDate, argDateHint);
-        argDateHint = parsedDate.second;
-        return parsedDate.first;
+        // Remembers the format of the date for the next episode of the feed
+        return argFeedDates.parse(pubDate.trim());
     }
 
     // Processes link tags in the feed.
@@ -621,27 +657,46 @@ public class FeedParser {
         return argSubscription instanceof SlimSubscription;
     }
 
+    /**
+     * Parses a duration of the format hh:mm:ss or mm:ss, like the lenient SimpleDateFormats used to.
+     * Fields may overflow, so 90:00 is 90 minutes. Anything after the seconds is ignored.
+     *
+     * @return The duration in ms, or -1
+     */
     private static long parseDuration(@NonNull String argUnparsedDuration) {
-        Date date;
-        SimpleDateFormat sdf;
-        Calendar cal;
-
-        long duration = -1;
-
-        for (int i = 0; i < DURATION_FORMATS.length; i++) {
-            try {
-                sdf = DURATION_FORMATS[i];
-                sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-                date = sdf.parse(argUnparsedDuration);
-                cal = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-                cal.setTime(date);
-                duration = cal.getTimeInMillis();
+        String duration = argUnparsedDuration.trim();
+        long[] fields = new long[3];
+        int count = 0;
+        int pos = 0;
+
+        while (count < fields.length) {
+            int start = pos;
+            long value = 0;
+            while (pos < duration.length() && pos - start < 9
+                    && duration.charAt(pos) >= '0' && duration.charAt(pos) <= '9') {
+                value = value * 10 + (duration.charAt(pos) - '0');
+                pos++;
+            }
+
+            if (pos == start) {
+                break;
+            }
+
+            fields[count++] = value;
+            if (pos >= duration.length() || duration.charAt(pos) != ':') {
                 break;
-            } catch (ParseException ignored) {
             }
+            pos++;
         }
 
-        return duration;
+        switch (count) {
+            case 3:
+                return ((fields[0] * 60 + fields[1]) * 60 + fields[2]) * 1000;
+            case 2:
+                return (fields[0] * 60 + fields[1]) * 1000;
+            default:
+                return -1;
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package org.bottiger.podcast.parser.opml;
 
+import android.support.annotation.NonNull;
 import android.util.Log;
 
 import org.bottiger.podcast.ApplicationConfiguration;
@@ -15,9 +16,13 @@ import java.util.ArrayList;
 public class OpmlReader {
 	private static final String TAG = OpmlReader.class.getSimpleName();
 	
+	/** Receives the OPML elements while the document is being read. */
+	public interface ElementHandler {
+		void onElement(@NonNull OpmlElement argElement);
+	}
+
 	// ATTRIBUTES
 	private boolean isInOpml = false;
-	private ArrayList<OpmlElement> elementList;
 
 	/**
 	 * Reads an Opml document and returns a list of all OPML elements it can
@@ -28,9 +33,27 @@ public class OpmlReader {
 	 */
 	public ArrayList<OpmlElement> readDocument(Reader reader)
 			throws XmlPullParserException, IOException {
+		final ArrayList<OpmlElement> elementList = new ArrayList<>();
+		readDocument(reader, new ElementHandler() {
+			@Override
+			public void onElement(@NonNull OpmlElement argElement) {
+				elementList.add(argElement);
+			}
+		});
+		return elementList;
+	}
+
+	/**
+	 * Reads an Opml document and hands every OPML element with a feed url to
+	 * the handler as soon as it has been read, without keeping them.
+	 *
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 */
+	public void readDocument(Reader reader, @NonNull ElementHandler handler)
+			throws XmlPullParserException, IOException {
 		Log.i(TAG, "readDocument");
 
-		elementList = new ArrayList<>();
 		XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
 		factory.setNamespaceAware(true);
 		XmlPullParser xpp = factory.newPullParser();
@@ -54,10 +77,10 @@ public class OpmlReader {
 					final String title = xpp.getAttributeValue(null, OpmlSymbols.TITLE);
 
 					if (title != null) {
-						Log.i(TAG, "Using title: " + title);
+						Log.d(TAG, "Using title: " + title);
 						element.setText(title);
 					} else {
-						Log.i(TAG, "Title not found, using text");
+						Log.d(TAG, "Title not found, using text");
 						element.setText(xpp.getAttributeValue(null, OpmlSymbols.TEXT));			
 					}
 					String xmlUrl = xpp.getAttributeValue(null, OpmlSymbols.XMLURL);
@@ -74,7 +97,7 @@ public class OpmlReader {
 							Log.i(TAG, "Opml element has no text attribute.");
 							element.setText(element.getXmlUrl());
 						}
-						elementList.add(element);
+						handler.onElement(element);
 					} else {
 						Log.d(TAG,"Skipping element because of missing xml url");
 					}
@@ -85,8 +108,6 @@ public class OpmlReader {
 		}
 
 		Log.d(TAG, "Parsing finished.");
-
-		return elementList;
 	}
 
 }
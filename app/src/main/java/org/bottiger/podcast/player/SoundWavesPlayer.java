@@ -8,6 +8,7 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Handler;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v4.media.session.PlaybackStateCompat;
 import android.util.Log;
 
@@ -21,14 +22,17 @@ import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.flavors.Analytics.IAnalytics;
 import org.bottiger.podcast.listeners.PlayerStatusObservable;
+import org.bottiger.podcast.player.exoplayer.AudioAnalysis;
 import org.bottiger.podcast.player.exoplayer.ExoPlayerEventListener;
 import org.bottiger.podcast.player.exoplayer.ExoPlayerMediaSourceHelper;
 import org.bottiger.podcast.player.exoplayer.NewExoPlayer;
+import org.bottiger.podcast.player.sonic.SonicFactory;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.service.PlayerService;
 import org.bottiger.podcast.utils.PlaybackSpeed;
 import org.bottiger.podcast.utils.PreferenceHelper;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.io.File;
 import java.io.IOException;
@@ -55,6 +59,11 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
     @NonNull
     private NewExoPlayer mExoplayer;
 
+    // Counts the episodes the analysis has been loaded for, so a late analysis is not applied to
+    // the next episode. Guarded by mAnalysisLock.
+    private final Object mAnalysisLock = new Object();
+    private int mAnalysisGeneration = 0;
+
     private org.bottiger.podcast.player.PlayerHandler mPlayerHandler;
 
     public SoundWavesPlayer(@NonNull final Context argContext) {
@@ -69,7 +78,14 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
                 R.bool.pref_audioengine_automatic_gain_control_default);
 
 
+        boolean native_sonic = PreferenceHelper.getBooleanPreferenceValue(argContext,
+                R.string.pref_audioengine_native_sonic_key,
+                R.bool.pref_audioengine_native_sonic_default);
+        SonicFactory.setBackend(native_sonic ? SonicFactory.NATIVE : SonicFactory.JAVA);
+
         mExoplayer = NewExoPlayer.newInstance(argContext);
+        mExoplayer.setRemoveSilence(remove_silence);
+        mExoplayer.setAutomaticGainControl(gain_control);
         mPlayerHandler = new PlayerHandler(argContext);
 
         addListener(new ExoPlayerEventListener() {
@@ -147,7 +163,44 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
         return true;
     }
 
+    /**
+     * Read the analysis made when the episode was downloaded on a background lane, and hand it to
+     * the player once it has been read. Until then the audio is measured while it plays.
+     *
+     * @param argFile The downloaded episode, or null if it is streamed
+     */
+    private void loadAudioAnalysis(@Nullable final File argFile) {
+        final int generation;
+        synchronized (mAnalysisLock) {
+            generation = ++mAnalysisGeneration;
+            mExoplayer.setAudioAnalysis(null);
+        }
+
+        if (argFile == null) {
+            return;
+        }
+
+        Lanes.DB.execute(() -> {
+            AudioAnalysis analysis = AudioAnalysis.read(argFile);
+            if (analysis == null) {
+                return;
+            }
+
+            synchronized (mAnalysisLock) {
+                if (generation == mAnalysisGeneration) {
+                    mExoplayer.setAudioAnalysis(analysis);
+                }
+            }
+        });
+    }
+
     public void setDataSourceAsync(@NonNull IEpisode argEpisode) throws SecurityException {
+        long timeSavedMs = mExoplayer.getTimeSavedMs();
+        if (timeSavedMs > 0) {
+            Log.d(TAG, "Silence removal saved " + timeSavedMs + " ms of the previous episode"); // NoI18N
+        }
+        mExoplayer.resetTimeSaved();
+
         super.setDataSourceAsync(argEpisode);
 
         try {
@@ -162,6 +215,8 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
 
             reset();
 
+            loadAudioAnalysis(mIsStreaming ? null : f);
+
             Uri uri = Uri.parse(path);
             setDataSource(mPlayerService, uri);
             seekTo(startPos);
@@ -407,19 +462,26 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
 
 
     public boolean doAutomaticGainControl() {
-        return false; //mExoplayer.doAutomaticGainControl();
+        return mExoplayer.doAutomaticGainControl();
     }
 
     public void setAutomaticGainControl(boolean argSetAutomaticGainControl) {
-        //mExoplayer.setAutomaticGainControl(argSetAutomaticGainControl);
+        mExoplayer.setAutomaticGainControl(argSetAutomaticGainControl);
     }
 
     public boolean doRemoveSilence() {
-        return false; //mExoplayer.doRemoveSilence();
+        return mExoplayer.doRemoveSilence();
     }
 
     public void setRemoveSilence(boolean argDoRemoveSilence) {
-        //mExoplayer.setRemoveSilence(argDoRemoveSilence);
+        mExoplayer.setRemoveSilence(argDoRemoveSilence);
+    }
+
+    /**
+     * @return The time silence removal has saved on the current episode
+     */
+    public long getTimeSavedMs() {
+        return mExoplayer.getTimeSavedMs();
     }
 
     @Override
@@ -467,13 +529,12 @@ public class SoundWavesPlayer extends org.bottiger.podcast.player.SoundWavesPlay
 
     @Override
     public long seekTo(long msec, boolean argFastSeeking) throws IllegalStateException {
-        long position = mExoplayer.getCurrentPosition();;
         mExoplayer.seekTo(msec);
 
         if (!argFastSeeking) {
             PlayerService ps = mPlayerService;
             if (ps != null) {
-                mPlayerService.updateChapter(position);
+                ps.updateChapter();
             }
         }
 
@@ -0,0 +1,348 @@
+package org.bottiger.podcast.player.exoplayer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The result of decoding a downloaded episode once, ahead of playback: the spans which silence
+ * trimming removes, and the loudness of every 100 ms of audio.
+ *
+ * During playback the silence remover looks the spans up instead of measuring the energy of the
+ * audio, and automatic gain control looks up the gain for the position, which is computed from the
+ * loudness of the surrounding seconds when the analysis is loaded.
+ *
+ * It is stored in a small binary file next to the episode, and is deleted together with it. The
+ * length of the episode is stored as well, so an analysis of an older file is not used.
+ *
+ * Plain Java without Android dependencies, apart from logging.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class AudioAnalysis implements SilenceRemover.SilenceIndex {
+
+    private static final String TAG = AudioAnalysis.class.getSimpleName();
+
+    public static final String FILE_SUFFIX = ".analysis"; // NoI18N
+
+    private static final int MAGIC = 0x53574141; // SWAA
+    private static final int VERSION = 1;
+
+    public static final int BLOCK_MS = 100;
+    private static final long BLOCK_US = BLOCK_MS * 1000L;
+
+    // Loudness is stored as whole dB below full scale, in a byte
+    private static final int MAX_ATTENUATION_DB = 127;
+
+    // Automatic gain control brings the loudest speech in the last and next 1.5 seconds to this level
+    private static final int TARGET_DB = -18;
+    private static final int MAX_GAIN_DB = 12;
+    private static final int GAIN_WINDOW_BLOCKS = 15;
+
+    // Blocks quieter than this are pauses, which are not boosted
+    private static final int QUIET_DB = -50;
+
+    private final long mSourceLength;
+
+    // Attenuation of each block in dB
+    @NonNull private final byte[] mLoudness;
+
+    // Sorted, non overlapping silent spans, as start and end pairs
+    @NonNull private final long[] mSilentSpans;
+
+    @NonNull private final float[] mGains;
+
+    AudioAnalysis(long argSourceLength, @NonNull byte[] argLoudness, @NonNull long[] argSilentSpans) {
+        mSourceLength = argSourceLength;
+        mLoudness = argLoudness;
+        mSilentSpans = argSilentSpans;
+        mGains = computeGains(argLoudness);
+    }
+
+    @NonNull
+    public static File getFile(@NonNull File argAudioFile) {
+        return new File(argAudioFile.getPath() + FILE_SUFFIX);
+    }
+
+    /**
+     * @return True if the whole span is part of a silent span
+     */
+    @Override
+    public boolean isSilent(long argStartUs, long argEndUs) {
+        int span = findSpan(argStartUs);
+        return span >= 0 && argEndUs <= mSilentSpans[span * 2 + 1];
+    }
+
+    /**
+     * @return The gain automatic gain control applies at the position
+     */
+    public float getGain(long argPositionUs) {
+        int block = (int) (argPositionUs / BLOCK_US);
+        if (block < 0 || block >= mGains.length) {
+            return 1.0f;
+        }
+        return mGains[block];
+    }
+
+    /**
+     * @return The loudness of the 100 ms around the position in dB below full scale
+     */
+    public int getLoudnessDb(long argPositionUs) {
+        int block = (int) (argPositionUs / BLOCK_US);
+        if (block < 0 || block >= mLoudness.length) {
+            return -MAX_ATTENUATION_DB;
+        }
+        return -mLoudness[block];
+    }
+
+    public int getSilentSpanCount() {
+        return mSilentSpans.length / 2;
+    }
+
+    public long getTotalSilenceUs() {
+        long total = 0;
+        for (int i = 0; i < mSilentSpans.length; i += 2) {
+            total += mSilentSpans[i + 1] - mSilentSpans[i];
+        }
+        return total;
+    }
+
+    public long getDurationUs() {
+        return mLoudness.length * BLOCK_US;
+    }
+
+    /**
+     * @return The index of the last span which starts at or before the position, if it contains it
+     */
+    private int findSpan(long argPositionUs) {
+        int low = 0;
+        int high = mSilentSpans.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (mSilentSpans[middle * 2] <= argPositionUs) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && argPositionUs < mSilentSpans[high * 2 + 1] ? high : -1;
+    }
+
+    @NonNull
+    private static float[] computeGains(@NonNull byte[] argLoudness) {
+        float[] gains = new float[argLoudness.length];
+        for (int block = 0; block < argLoudness.length; block++) {
+            int first = Math.max(0, block - GAIN_WINDOW_BLOCKS);
+            int last = Math.min(argLoudness.length - 1, block + GAIN_WINDOW_BLOCKS);
+            int loudest = MAX_ATTENUATION_DB;
+            for (int i = first; i <= last; i++) {
+                loudest = Math.min(loudest, argLoudness[i]);
+            }
+
+            int gainDb = 0;
+            if (-loudest > QUIET_DB) {
+                gainDb = Math.max(-MAX_GAIN_DB, Math.min(MAX_GAIN_DB, TARGET_DB + loudest));
+            }
+            gains[block] = (float) Math.pow(10, gainDb / 20.0);
+        }
+        return gains;
+    }
+
+    /**
+     * @return The stored analysis of the audio file, or null if there is none, or it is out of date.
+     */
+    @Nullable
+    public static AudioAnalysis read(@NonNull File argAudioFile) {
+        File analysisFile = getFile(argAudioFile);
+        if (!analysisFile.exists()) {
+            return null;
+        }
+
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(analysisFile)));
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) {
+                return null;
+            }
+
+            long sourceLength = inputStream.readLong();
+            if (sourceLength != argAudioFile.length()) {
+                Log.d(TAG, "Analysis is out of date: " + analysisFile); // NoI18N
+                return null;
+            }
+
+            byte[] loudness = new byte[inputStream.readInt()];
+            inputStream.readFully(loudness);
+
+            long[] spans = new long[inputStream.readInt() * 2];
+            for (int i = 0; i < spans.length; i++) {
+                spans[i] = inputStream.readLong();
+            }
+
+            return new AudioAnalysis(sourceLength, loudness, spans);
+        } catch (IOException | NegativeArraySizeException e) {
+            Log.w(TAG, "Could not read analysis: " + analysisFile); // NoI18N
+            return null;
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    public void write(@NonNull File argAudioFile) throws IOException {
+        // Written to a temporary file first, so playback never reads half an analysis
+        File analysisFile = getFile(argAudioFile);
+        File tmpFile = new File(analysisFile.getPath() + ".tmp"); // NoI18N
+
+        FileOutputStream fileOutputStream = new FileOutputStream(tmpFile);
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+        try {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeLong(mSourceLength);
+            outputStream.writeInt(mLoudness.length);
+            outputStream.write(mLoudness);
+            outputStream.writeInt(mSilentSpans.length / 2);
+            for (long position : mSilentSpans) {
+                outputStream.writeLong(position);
+            }
+            outputStream.flush();
+            fileOutputStream.getFD().sync();
+        } finally {
+            closeQuietly(outputStream);
+        }
+
+        if (!tmpFile.renameTo(analysisFile)) {
+            tmpFile.delete();
+            throw new IOException("Could not rename " + tmpFile); // NoI18N
+        }
+    }
+
+    public static void delete(@NonNull File argAudioFile) {
+        File analysisFile = getFile(argAudioFile);
+        if (analysisFile.exists() && !analysisFile.delete()) {
+            Log.w(TAG, "Could not delete analysis: " + analysisFile); // NoI18N
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable argCloseable) {
+        if (argCloseable == null)
+            return;
+
+        try {
+            argCloseable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close analysis"); // NoI18N
+        }
+    }
+
+    /**
+     * Builds the analysis from the decoded audio. The silent spans are the windows a
+     * {@link SilenceRemover} with the default settings removes.
+     */
+    public static class Builder implements SilenceRemover.SkipListener {
+
+        private final int mSampleRate;
+        private final int mChannels;
+        private final long mSourceLength;
+
+        private final SilenceRemover mSilenceRemover;
+        private short[] mTrimmed = new short[0];
+
+        private final int mBlockFrames;
+        private int mBlockFilled = 0;
+        private long mBlockEnergy = 0;
+        private byte[] mLoudness = new byte[1024];
+        private int mBlocks = 0;
+
+        private long[] mSpans = new long[64];
+        private int mSpanValues = 0;
+
+        public Builder(int argSampleRate, int argChannels, long argSourceLength) {
+            mSampleRate = argSampleRate;
+            mChannels = argChannels;
+            mSourceLength = argSourceLength;
+            mBlockFrames = argSampleRate * BLOCK_MS / 1000;
+            mSilenceRemover = new SilenceRemover(argSampleRate, argChannels);
+            mSilenceRemover.setSkipListener(this);
+        }
+
+        /**
+         * @param argSamples Interleaved 16 bit samples
+         */
+        public void addSamples(@NonNull short[] argSamples, int argNumFrames) {
+            int trimmedSamples = mSilenceRemover.getMaxOutputFrames(argNumFrames) * mChannels;
+            if (mTrimmed.length < trimmedSamples) {
+                mTrimmed = new short[trimmedSamples];
+            }
+            mSilenceRemover.removeSilence(argSamples, argNumFrames, mTrimmed);
+
+            int channels = mChannels;
+            for (int frame = 0; frame < argNumFrames; frame++) {
+                for (int channel = 0; channel < channels; channel++) {
+                    int sample = argSamples[frame * channels + channel];
+                    mBlockEnergy += sample * sample;
+                }
+
+                if (++mBlockFilled == mBlockFrames) {
+                    addBlock();
+                }
+            }
+        }
+
+        @Override
+        public void onSkipped(long argFirstFrame, int argNumFrames) {
+            long start = argFirstFrame * 1_000_000L / mSampleRate;
+            long end = (argFirstFrame + argNumFrames) * 1_000_000L / mSampleRate;
+
+            // Windows next to each other make one span
+            if (mSpanValues > 0 && mSpans[mSpanValues - 1] == start) {
+                mSpans[mSpanValues - 1] = end;
+                return;
+            }
+
+            if (mSpanValues == mSpans.length) {
+                mSpans = Arrays.copyOf(mSpans, mSpans.length * 2);
+            }
+            mSpans[mSpanValues++] = start;
+            mSpans[mSpanValues++] = end;
+        }
+
+        @NonNull
+        public AudioAnalysis build() {
+            if (mBlockFilled > 0) {
+                addBlock();
+            }
+            return new AudioAnalysis(mSourceLength,
+                    Arrays.copyOf(mLoudness, mBlocks),
+                    Arrays.copyOf(mSpans, mSpanValues));
+        }
+
+        private void addBlock() {
+            double meanSquare = (double) mBlockEnergy / (mBlockFilled * mChannels);
+            int attenuation = MAX_ATTENUATION_DB;
+            if (meanSquare > 0) {
+                double db = 10 * Math.log10(meanSquare / ((double) Short.MAX_VALUE * Short.MAX_VALUE));
+                attenuation = (int) Math.max(0, Math.min(MAX_ATTENUATION_DB, Math.round(-db)));
+            }
+
+            if (mBlocks == mLoudness.length) {
+                mLoudness = Arrays.copyOf(mLoudness, mLoudness.length * 2);
+            }
+            mLoudness[mBlocks++] = (byte) attenuation;
+
+            mBlockFilled = 0;
+            mBlockEnergy = 0;
+        }
+    }
+}
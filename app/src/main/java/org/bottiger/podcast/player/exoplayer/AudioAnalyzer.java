@@ -0,0 +1,158 @@
+package org.bottiger.podcast.player.exoplayer;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Decodes a downloaded episode once and stores an {@link AudioAnalysis} next to it, so playback can
+ * look up the silent spans and the gain instead of measuring the audio while it plays.
+ *
+ * Decoding an hour of audio takes a while, so this runs on a background thread with low priority.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class AudioAnalyzer {
+
+    private static final String TAG = AudioAnalyzer.class.getSimpleName();
+
+    private static final long TIMEOUT_US = 10_000;
+
+    private AudioAnalyzer() {
+    }
+
+    /**
+     * Analyse the audio file, unless an up to date analysis exists already.
+     */
+    @WorkerThread
+    public static void analyzeAndStore(@NonNull File argAudioFile) throws IOException {
+        if (AudioAnalysis.read(argAudioFile) != null) {
+            return;
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        AudioAnalysis analysis = analyze(argAudioFile);
+        analysis.write(argAudioFile);
+
+        Log.d(TAG, "Analysed " + argAudioFile.getName() + " in " + (SystemClock.elapsedRealtime() - start) // NoI18N
+                + " ms. " + analysis.getSilentSpanCount() + " silent spans, " // NoI18N
+                + analysis.getTotalSilenceUs() / 1000 + " ms"); // NoI18N
+    }
+
+    @WorkerThread
+    @NonNull
+    public static AudioAnalysis analyze(@NonNull File argAudioFile) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(argAudioFile.getAbsolutePath());
+
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat trackFormat = extractor.getTrackFormat(i);
+                String mime = trackFormat.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) { // NoI18N
+                    extractor.selectTrack(i);
+                    format = trackFormat;
+                    break;
+                }
+            }
+
+            if (format == null) {
+                throw new IOException("No audio track in " + argAudioFile); // NoI18N
+            }
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            return decode(extractor, codec, format, argAudioFile.length());
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Could not stop decoder"); // NoI18N
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    @NonNull
+    private static AudioAnalysis decode(@NonNull MediaExtractor argExtractor,
+                                        @NonNull MediaCodec argCodec,
+                                        @NonNull MediaFormat argFormat,
+                                        long argSourceLength) {
+        ByteBuffer[] inputBuffers = argCodec.getInputBuffers();
+        ByteBuffer[] outputBuffers = argCodec.getOutputBuffers();
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+
+        AudioAnalysis.Builder builder = null;
+        int channels = argFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+        int sampleRate = argFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+        short[] samples = new short[0];
+
+        boolean inputDone = false;
+        boolean outputDone = false;
+        while (!outputDone) {
+            if (!inputDone) {
+                int inputIndex = argCodec.dequeueInputBuffer(TIMEOUT_US);
+                if (inputIndex >= 0) {
+                    int size = argExtractor.readSampleData(inputBuffers[inputIndex], 0);
+                    if (size < 0) {
+                        argCodec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                        inputDone = true;
+                    } else {
+                        argCodec.queueInputBuffer(inputIndex, 0, size, argExtractor.getSampleTime(), 0);
+                        argExtractor.advance();
+                    }
+                }
+            }
+
+            int outputIndex = argCodec.dequeueOutputBuffer(info, TIMEOUT_US);
+            if (outputIndex == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
+                outputBuffers = argCodec.getOutputBuffers();
+            } else if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                MediaFormat outputFormat = argCodec.getOutputFormat();
+                channels = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            } else if (outputIndex >= 0) {
+                if (builder == null) {
+                    builder = new AudioAnalysis.Builder(sampleRate, channels, argSourceLength);
+                }
+
+                ByteBuffer buffer = outputBuffers[outputIndex];
+                buffer.position(info.offset);
+                buffer.limit(info.offset + info.size);
+                ShortBuffer shorts = buffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+
+                int numSamples = shorts.remaining();
+                if (samples.length < numSamples) {
+                    samples = new short[numSamples];
+                }
+                shorts.get(samples, 0, numSamples);
+                builder.addSamples(samples, numSamples / channels);
+
+                argCodec.releaseOutputBuffer(outputIndex, false);
+                outputDone = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+            }
+        }
+
+        if (builder == null) {
+            builder = new AudioAnalysis.Builder(sampleRate, channels, argSourceLength);
+        }
+        return builder.build();
+    }
+}
@@ -8,6 +8,7 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSourceFactory;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
 import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
@@ -20,12 +21,15 @@ import com.google.android.exoplayer2.source.smoothstreaming.SsMediaSource;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
-import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
-import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.exoplayer2.util.Util;
 
 import org.bottiger.podcast.utils.HttpUtils;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
+
+import okhttp3.OkHttpClient;
+
+import static org.bottiger.podcast.utils.okhttp.UserAgentInterceptor.STREAM_EPISODE;
 
 /**
  * Created by aplb on 06-10-2016.
@@ -48,13 +52,12 @@ public class ExoPlayerMediaSourceHelper {
 
         String userAgent = HttpUtils.getUserAgent(mContext);
 
-        // Default parameters, except allowCrossProtocolRedirects is true
-        DefaultHttpDataSourceFactory httpDataSourceFactory = new DefaultHttpDataSourceFactory(
+        // Stream through the shared OkHttpClient, so the connections to the host can be reused.
+        // OkHttp follows redirects between http and https by default.
+        OkHttpDataSourceFactory httpDataSourceFactory = new OkHttpDataSourceFactory(
+                getHttpClient(),
                 userAgent,
-                null /* listener */,
-                DefaultHttpDataSource.DEFAULT_CONNECT_TIMEOUT_MILLIS,
-                DefaultHttpDataSource.DEFAULT_READ_TIMEOUT_MILLIS,
-                true /* allowCrossProtocolRedirects */
+                null /* listener */
         );
 
         //mediaDataSourceFactory = new DefaultDataSourceFactory(mContext, userAgent);
@@ -103,6 +106,11 @@ public class ExoPlayerMediaSourceHelper {
     }
 
     private HttpDataSource.Factory buildHttpDataSourceFactory(DefaultBandwidthMeter bandwidthMeter) {
-        return new DefaultHttpDataSourceFactory(HttpUtils.getUserAgent(mContext), bandwidthMeter);
+        return new OkHttpDataSourceFactory(getHttpClient(), HttpUtils.getUserAgent(mContext), bandwidthMeter);
+    }
+
+    @NonNull
+    private OkHttpClient getHttpClient() {
+        return OkHttpClientFactory.getClient(mContext, STREAM_EPISODE);
     }
 }
@@ -66,6 +66,7 @@ import com.google.android.exoplayer2.video.MediaCodecVideoRenderer;
 import com.google.android.exoplayer2.video.VideoRendererEventListener;
 
 import org.bottiger.podcast.SoundWaves;
+import org.bottiger.podcast.utils.PlaybackSpeed;
 import org.bottiger.podcast.utils.rxbus.RxBusSimpleEvents;
 
 import java.lang.reflect.Constructor;
@@ -946,6 +947,53 @@ public final class NewExoPlayer implements ExoPlayer {
         notifyAudioEngineChange(argNewSpeed);
     }
 
+    public void setRemoveSilence(boolean argDoRemoveSilence) {
+        mDoRemoveSilence = argDoRemoveSilence;
+        float speed = PlaybackSpeed.DEFAULT;
+        if (renderers[audioRendererIndex] != null) {
+            PodcastMediaCodecAudioRenderer renderer = (PodcastMediaCodecAudioRenderer) renderers[audioRendererIndex];
+            renderer.setRemoveSilence(argDoRemoveSilence);
+            speed = renderer.getSpeed();
+        }
+        notifyAudioEngineChange(speed);
+    }
+
+    public void setAutomaticGainControl(boolean argAutomaticGainControl) {
+        mAutomaticGainControl = argAutomaticGainControl;
+        float speed = PlaybackSpeed.DEFAULT;
+        if (renderers[audioRendererIndex] != null) {
+            PodcastMediaCodecAudioRenderer renderer = (PodcastMediaCodecAudioRenderer) renderers[audioRendererIndex];
+            renderer.setAutomaticGainControl(argAutomaticGainControl);
+            speed = renderer.getSpeed();
+        }
+        notifyAudioEngineChange(speed);
+    }
+
+    /**
+     * @param argAnalysis The analysis of the episode which is played, or null if there is none
+     */
+    public void setAudioAnalysis(@Nullable AudioAnalysis argAnalysis) {
+        if (renderers[audioRendererIndex] != null) {
+            ((PodcastMediaCodecAudioRenderer) renderers[audioRendererIndex]).setAudioAnalysis(argAnalysis);
+        }
+    }
+
+    /**
+     * @return The time removed by silence trimming since the last call to {@link #resetTimeSaved()}
+     */
+    public long getTimeSavedMs() {
+        if (renderers[audioRendererIndex] == null) {
+            return 0;
+        }
+        return ((PodcastMediaCodecAudioRenderer) renderers[audioRendererIndex]).getTimeSavedUs() / 1000;
+    }
+
+    public void resetTimeSaved() {
+        if (renderers[audioRendererIndex] != null) {
+            ((PodcastMediaCodecAudioRenderer) renderers[audioRendererIndex]).resetTimeSaved();
+        }
+    }
+
     private void notifyAudioEngineChange(float argSpeed) {
         SoundWaves.getRxBus().send(new RxBusSimpleEvents.PlaybackEngineChanged(argSpeed, doRemoveSilence(), doAutomaticGainControl()));
     }
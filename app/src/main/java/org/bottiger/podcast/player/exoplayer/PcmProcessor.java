@@ -0,0 +1,289 @@
+package org.bottiger.podcast.player.exoplayer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.bottiger.podcast.player.sonic.SonicFactory;
+import org.bottiger.podcast.player.sonic.SonicStream;
+import org.bottiger.podcast.utils.PlaybackSpeed;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Processes the 16 bit PCM output of the decoder: silence trimming, gain and time-stretch.
+ *
+ * The decoder output is read through a ShortBuffer view of the codec buffer, so there is no byte to
+ * short conversion. Silence trimming copies the frames it keeps to a second sample array, gain works
+ * in place, and Sonic writes its output directly to the output buffer. All buffers are allocated up
+ * front for the format, and only grow if the codec returns a larger buffer than expected, so
+ * processing a frame does not allocate.
+ *
+ * If the episode has been analysed after it was downloaded, silence trimming looks up the silent
+ * spans, and automatic gain control looks up the gain for the position, instead of measuring the
+ * audio. Automatic gain control needs the analysis.
+ *
+ * If no stage is active the codec buffer is returned untouched.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class PcmProcessor {
+
+    private static final String TAG = PcmProcessor.class.getSimpleName();
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    // Gain is applied in fixed point with this many fractional bits
+    private static final int GAIN_SHIFT = 12;
+    private static final int GAIN_UNITY = 1 << GAIN_SHIFT;
+
+    // MediaCodec cycles through a small set of output buffers. The views of them are cached.
+    private static final int MAX_CACHED_VIEWS = 16;
+
+    private final int mChannelCount;
+
+    private final SonicStream mSonic;
+    private final SilenceRemover mSilenceRemover;
+
+    private final ByteBuffer[] mViewSources = new ByteBuffer[MAX_CACHED_VIEWS];
+    private final ShortBuffer[] mViews = new ShortBuffer[MAX_CACHED_VIEWS];
+    private int mNextView = 0;
+
+    // Interleaved samples of the frame being processed, before and after silence trimming
+    private short[] mSamples;
+    private short[] mTrimmedSamples;
+
+    private ByteBuffer mOutput;
+    private ShortBuffer mOutputShorts;
+
+    private float mSpeed = PlaybackSpeed.DEFAULT;
+    private int mGain = GAIN_UNITY;
+    private boolean mRemoveSilence = false;
+    private boolean mAutomaticGainControl = false;
+
+    @Nullable
+    private AudioAnalysis mAnalysis;
+
+    // The gain applied at the end of the last buffer, which the next buffer ramps from
+    private int mCurrentGain = GAIN_UNITY;
+
+    // True while Sonic holds samples which have not been played yet
+    private boolean mSonicPending = false;
+
+    /**
+     * @param argMaxInputBytes The largest buffer the decoder is expected to return
+     */
+    public PcmProcessor(int argSampleRate, int argChannelCount, int argMaxInputBytes) {
+        mChannelCount = argChannelCount;
+        mSonic = SonicFactory.create(argSampleRate, argChannelCount);
+        mSilenceRemover = new SilenceRemover(argSampleRate, argChannelCount);
+        allocate(argMaxInputBytes / BYTES_PER_SAMPLE);
+    }
+
+    public void setSpeed(float argSpeed) {
+        mSpeed = argSpeed;
+        mSonic.setSpeed(argSpeed);
+    }
+
+    public float getSpeed() {
+        return mSpeed;
+    }
+
+    public void setGain(float argGain) {
+        mGain = Math.round(argGain * GAIN_UNITY);
+    }
+
+    public void setRemoveSilence(boolean argRemoveSilence) {
+        mRemoveSilence = argRemoveSilence;
+    }
+
+    public boolean doRemoveSilence() {
+        return mRemoveSilence;
+    }
+
+    public void setAutomaticGainControl(boolean argAutomaticGainControl) {
+        mAutomaticGainControl = argAutomaticGainControl;
+    }
+
+    /**
+     * @param argAnalysis The analysis of the episode, or null if it has not been analysed
+     */
+    public void setAnalysis(@Nullable AudioAnalysis argAnalysis) {
+        mAnalysis = argAnalysis;
+        mSilenceRemover.setSilenceIndex(argAnalysis);
+    }
+
+    /**
+     * Forget the audio which is buffered for silence trimming, for example after a seek.
+     */
+    public void reset() {
+        mSilenceRemover.reset();
+    }
+
+    /**
+     * Free the time-stretch stream. The processor can not be used afterwards.
+     */
+    public void release() {
+        mSonic.close();
+    }
+
+    /**
+     * @return True if processing changes the audio
+     */
+    public boolean isActive() {
+        return mRemoveSilence || mGain != GAIN_UNITY || mSpeed != PlaybackSpeed.DEFAULT || mSonicPending
+                || doAutomaticGainControl();
+    }
+
+    /**
+     * Process the next buffer from the decoder. The position of the input buffer is not changed.
+     *
+     * @return The processed audio. Only valid until the next call.
+     */
+    @NonNull
+    public ByteBuffer process(@NonNull ByteBuffer argInput) {
+        return process(argInput, -1);
+    }
+
+    /**
+     * @param argPresentationTimeUs The position of the buffer in the episode, or -1 if unknown.
+     *                              Needed to look up the analysis.
+     */
+    @NonNull
+    public ByteBuffer process(@NonNull ByteBuffer argInput, long argPresentationTimeUs) {
+        if (!isActive()) {
+            return argInput;
+        }
+
+        // The position of the remover only drifts from the decoder after a seek, when it is empty
+        if (argPresentationTimeUs >= 0 && mSilenceRemover.getPendingFrames() == 0) {
+            mSilenceRemover.setPosition(argPresentationTimeUs * mSilenceRemover.getSampleRate() / 1_000_000L);
+        }
+
+        int numSamples = argInput.remaining() / BYTES_PER_SAMPLE;
+        if (numSamples > mSamples.length) {
+            Log.w(TAG, "Decoder buffer larger than expected: " + argInput.remaining() + " bytes"); // NoI18N
+            allocate(numSamples);
+        }
+
+        ShortBuffer view = getView(argInput);
+        view.limit(argInput.limit() / BYTES_PER_SAMPLE);
+        view.position(argInput.position() / BYTES_PER_SAMPLE);
+        view.get(mSamples, 0, numSamples);
+
+        int numFrames = numSamples / mChannelCount;
+        short[] samples = mSamples;
+
+        if (mRemoveSilence) {
+            numFrames = mSilenceRemover.removeSilence(mSamples, numFrames, mTrimmedSamples);
+            samples = mTrimmedSamples;
+        }
+
+        if (doAutomaticGainControl() && argPresentationTimeUs >= 0) {
+            int gain = (int) ((mGain * (long) Math.round(mAnalysis.getGain(argPresentationTimeUs) * GAIN_UNITY)) >> GAIN_SHIFT);
+            applyGainRamp(samples, numFrames, mChannelCount, mCurrentGain, gain);
+            mCurrentGain = gain;
+        } else {
+            if (mGain != GAIN_UNITY) {
+                applyGain(samples, numFrames * mChannelCount, mGain);
+            }
+            mCurrentGain = mGain;
+        }
+
+        ShortBuffer output = mOutputShorts;
+        output.clear();
+        if (mSpeed != PlaybackSpeed.DEFAULT || mSonicPending) {
+            mSonic.writeShortToStream(samples, numFrames);
+            mSonic.readShortFromStream(output, output.remaining() / mChannelCount);
+            // At normal speed Sonic passes all its input through, so it is empty after this
+            mSonicPending = mSpeed != PlaybackSpeed.DEFAULT || mSonic.samplesAvailable() > 0;
+        } else {
+            output.put(samples, 0, numFrames * mChannelCount);
+        }
+
+        mOutput.clear();
+        mOutput.limit(output.position() * BYTES_PER_SAMPLE);
+        return mOutput;
+    }
+
+    /**
+     * @return The time removed by silence trimming since this processor was created
+     */
+    public long getSkippedUs() {
+        return mSilenceRemover.getSkippedUs();
+    }
+
+    private boolean doAutomaticGainControl() {
+        return mAutomaticGainControl && mAnalysis != null;
+    }
+
+    private void allocate(int argNumSamples) {
+        mSamples = new short[argNumSamples];
+
+        // Silence trimming releases delayed audio, so it can return a little more than it is given
+        int trimmedSamples = mSilenceRemover.getMaxOutputFrames(argNumSamples / mChannelCount) * mChannelCount;
+        mTrimmedSamples = new short[trimmedSamples];
+
+        // Room for the output at the slowest speed. Sonic keeps what does not fit.
+        int outputSamples = (int) Math.ceil(trimmedSamples / PlaybackSpeed.sSpeedMinimum) + mChannelCount;
+        mOutput = ByteBuffer.allocateDirect(outputSamples * BYTES_PER_SAMPLE).order(ByteOrder.nativeOrder());
+        mOutputShorts = mOutput.asShortBuffer();
+    }
+
+    @NonNull
+    private ShortBuffer getView(@NonNull ByteBuffer argBuffer) {
+        for (int i = 0; i < MAX_CACHED_VIEWS; i++) {
+            if (mViewSources[i] == argBuffer) {
+                return mViews[i];
+            }
+        }
+
+        // Codec buffers are in native byte order. The view covers the whole buffer.
+        ByteBuffer whole = argBuffer.duplicate();
+        whole.clear();
+        ShortBuffer view = whole.order(ByteOrder.nativeOrder()).asShortBuffer();
+
+        int index = mNextView;
+        mNextView = (mNextView + 1) % MAX_CACHED_VIEWS;
+        mViewSources[index] = argBuffer;
+        mViews[index] = view;
+        return view;
+    }
+
+    static void applyGain(@NonNull short[] argSamples, int argNumSamples, int argGain) {
+        for (int i = 0; i < argNumSamples; i++) {
+            int sample = (argSamples[i] * argGain) >> GAIN_SHIFT;
+            if (sample > Short.MAX_VALUE) {
+                sample = Short.MAX_VALUE;
+            } else if (sample < Short.MIN_VALUE) {
+                sample = Short.MIN_VALUE;
+            }
+            argSamples[i] = (short) sample;
+        }
+    }
+
+    /**
+     * Change the gain linearly over the buffer, so a change of gain does not click.
+     */
+    static void applyGainRamp(@NonNull short[] argSamples, int argNumFrames, int argChannels, int argFrom, int argTo) {
+        if (argFrom == argTo || argNumFrames == 0) {
+            applyGain(argSamples, argNumFrames * argChannels, argTo);
+            return;
+        }
+
+        for (int frame = 0; frame < argNumFrames; frame++) {
+            int gain = argFrom + (int) ((long) (argTo - argFrom) * (frame + 1) / argNumFrames);
+            for (int i = frame * argChannels; i < (frame + 1) * argChannels; i++) {
+                int sample = (argSamples[i] * gain) >> GAIN_SHIFT;
+                if (sample > Short.MAX_VALUE) {
+                    sample = Short.MAX_VALUE;
+                } else if (sample < Short.MIN_VALUE) {
+                    sample = Short.MIN_VALUE;
+                }
+                argSamples[i] = (short) sample;
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.bottiger.podcast.player.exoplayer;
 
 import com.google.android.exoplayer2.source.MediaSource;
 
+import org.bottiger.podcast.player.sonic.SonicStream;
 import org.bottiger.podcast.utils.PlaybackSpeed;
 
 import java.nio.ByteBuffer;
@@ -17,7 +18,7 @@ public class PodcastAudioRendererV21 extends PodcastAudioRenderer {
 
     private static final int SAMPLES_PER_CODEC_FRAME = 1_024;
 
-    private Sonic mSonic;
+    private SonicStream mSonic;
     private byte[] mSonicInputBuffer;
     private byte[] mSonicOutputBuffer;
 
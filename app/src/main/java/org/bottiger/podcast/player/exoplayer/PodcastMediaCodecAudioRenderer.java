@@ -4,6 +4,7 @@ import android.annotation.TargetApi;
 import android.media.MediaCodec;
 import android.media.MediaFormat;
 import android.os.Handler;
+import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.google.android.exoplayer2.ExoPlaybackException;
@@ -30,18 +31,21 @@ public class PodcastMediaCodecAudioRenderer extends MediaCodecAudioRenderer {
 
     private static final int SAMPLES_PER_CODEC_FRAME = 1_024;
 
-    private org.bottiger.podcast.player.exoplayer.Sonic mSonic;
-    private byte[] mSonicInputBuffer;
-    private byte[] mSonicOutputBuffer;
-
-    private SilenceRemover mSilenceRemover;
+    @Nullable
+    private PcmProcessor mPcmProcessor;
 
     private float mSpeed = PlaybackSpeed.DEFAULT;
+    private boolean mRemoveSilence = false;
+    private boolean mAutomaticGainControl = false;
+
+    @Nullable
+    private AudioAnalysis mAnalysis;
 
     private int mLastSeenBufferIndex = -1;
     private ByteBuffer mLastInternalBuffer;
-    private byte[] mSilenceInputBuffer;
-    private byte[] mSilenceOutputBuffer;
+
+    // Time removed by processors which have been replaced after a format change
+    private long mPreviousSkippedUs = 0;
 
     public PodcastMediaCodecAudioRenderer(MediaCodecSelector mediaCodecSelector) {
         super(mediaCodecSelector);
@@ -65,14 +69,62 @@ public class PodcastMediaCodecAudioRenderer extends MediaCodecAudioRenderer {
 
     public synchronized void setSpeed(float speed) {
         this.mSpeed = speed;
-        if (this.mSonic != null)
-            this.mSonic.setSpeed(speed);
+        if (this.mPcmProcessor != null)
+            this.mPcmProcessor.setSpeed(speed);
     }
 
     public float getSpeed() {
         return mSpeed;
     }
 
+    public synchronized void setRemoveSilence(boolean argRemoveSilence) {
+        this.mRemoveSilence = argRemoveSilence;
+        if (this.mPcmProcessor != null)
+            this.mPcmProcessor.setRemoveSilence(argRemoveSilence);
+    }
+
+    public boolean doRemoveSilence() {
+        return mRemoveSilence;
+    }
+
+    public synchronized void setAutomaticGainControl(boolean argAutomaticGainControl) {
+        this.mAutomaticGainControl = argAutomaticGainControl;
+        if (this.mPcmProcessor != null)
+            this.mPcmProcessor.setAutomaticGainControl(argAutomaticGainControl);
+    }
+
+    /**
+     * @param argAnalysis The analysis of the episode which is played, or null if there is none
+     */
+    public synchronized void setAudioAnalysis(@Nullable AudioAnalysis argAnalysis) {
+        this.mAnalysis = argAnalysis;
+        if (this.mPcmProcessor != null)
+            this.mPcmProcessor.setAnalysis(argAnalysis);
+    }
+
+    /**
+     * @return The time removed by silence trimming since the last call to {@link #resetTimeSaved()}
+     */
+    public synchronized long getTimeSavedUs() {
+        return mPreviousSkippedUs + (mPcmProcessor != null ? mPcmProcessor.getSkippedUs() : 0);
+    }
+
+    public synchronized void resetTimeSaved() {
+        mPreviousSkippedUs = mPcmProcessor != null ? -mPcmProcessor.getSkippedUs() : 0;
+    }
+
+    @Override
+    protected void onPositionReset(long positionUs, boolean joining) throws ExoPlaybackException {
+        super.onPositionReset(positionUs, joining);
+
+        // The codec has been flushed, and the audio held back for silence trimming is stale
+        mLastSeenBufferIndex = -1;
+        synchronized (this) {
+            if (mPcmProcessor != null)
+                mPcmProcessor.reset();
+        }
+    }
+
     @Override
     protected boolean processOutputBuffer(long positionUs, long elapsedRealtimeUs, MediaCodec codec,
                                           ByteBuffer buffer, int bufferIndex, int bufferFlags, long bufferPresentationTimeUs,
@@ -81,55 +133,54 @@ public class PodcastMediaCodecAudioRenderer extends MediaCodecAudioRenderer {
         if (DEBUG)
             Log.d(TAG, "processOutputBuffer");
 
+        // The sink did not take all of the processed buffer last time
         if (bufferIndex == mLastSeenBufferIndex) {
-            return super.processOutputBuffer(positionUs, elapsedRealtimeUs, codec,
-                    mLastInternalBuffer, bufferIndex, bufferFlags, bufferPresentationTimeUs, shouldSkip);
+            return renderProcessedBuffer(positionUs, elapsedRealtimeUs, codec, bufferIndex,
+                    bufferFlags, bufferPresentationTimeUs, shouldSkip);
         } else {
             mLastSeenBufferIndex = bufferIndex;
         }
 
-        int bytesToRead;
-        bytesToRead = buffer.remaining();
-
-        buffer.get(mSonicInputBuffer, 0, bytesToRead);
-
-        int bytesOld = bytesToRead;
-
-        // Remove Silence
-        //if (doRemoveSilence()) {
-        if (false) {
-            mSilenceOutputBuffer = mSilenceRemover.removeSilence(mSonicInputBuffer, mSilenceOutputBuffer, bytesToRead);
-            bytesToRead = mSilenceRemover.getOutputLength();
+        PcmProcessor processor = mPcmProcessor;
+        if (processor == null) {
+            mLastInternalBuffer = buffer;
         } else {
-            mSilenceOutputBuffer = mSonicInputBuffer;
-        }
-
-        long us_skipped = 0;
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.JELLY_BEAN) {
-            if (bytesToRead != 0) {
-                long us_pr_frame = (bufferPresentationTimeUs / bytesToRead);
-                us_skipped = us_pr_frame * (bytesOld - bytesToRead);
+            // The removed silence is not added to the position here. The buffers keep the
+            // presentation time of the decoder, so the audio sink sees a jump once the removed
+            // time is more than 200 ms, and moves its position to the buffer. Until then the
+            // reported position lags behind by the silence removed since the last jump.
+            synchronized (this) {
+                mLastInternalBuffer = processor.process(buffer, bufferPresentationTimeUs);
             }
         }
 
-        if (us_skipped > 0) {
-            Log.w(TAG, "bytediff: " + (bytesOld - bytesToRead) + "time skipped: " + us_skipped);
-        }
-
-        positionUs += us_skipped;
+        return renderProcessedBuffer(positionUs, elapsedRealtimeUs, codec, bufferIndex,
+                bufferFlags, bufferPresentationTimeUs, shouldSkip);
+    }
 
-        mSonic.writeBytesToStream(mSilenceOutputBuffer, bytesToRead);
-        final int readThisTime = mSonic.readBytesFromStream(mSonicOutputBuffer, mSonicOutputBuffer.length);
+    private boolean renderProcessedBuffer(long positionUs, long elapsedRealtimeUs, MediaCodec codec,
+                                          int bufferIndex, int bufferFlags, long bufferPresentationTimeUs,
+                                          boolean shouldSkip) throws ExoPlaybackException {
+        boolean processed = super.processOutputBuffer(positionUs, elapsedRealtimeUs, codec,
+                mLastInternalBuffer, bufferIndex, bufferFlags, bufferPresentationTimeUs, shouldSkip);
 
-        //bufferInfo.offset = 0;
-        mLastInternalBuffer.position(0);
+        // The codec reuses the index for a new buffer once this one has been released
+        if (processed) {
+            mLastSeenBufferIndex = -1;
+        }
 
-        //bufferInfo.size = readThisTime;
-        mLastInternalBuffer.limit(readThisTime);
+        return processed;
+    }
 
-        return super.processOutputBuffer(positionUs, elapsedRealtimeUs, codec, mLastInternalBuffer,
-                bufferIndex, bufferFlags, bufferPresentationTimeUs, shouldSkip);
+    @Override
+    protected void onDisabled() {
+        super.onDisabled();
 
+        // The renderer is disabled when the player is released, e.g. after the Sonic backend has
+        // been changed. A new processor is created for the next output format.
+        synchronized (this) {
+            releasePcmProcessor();
+        }
     }
 
     @TargetApi(16)
@@ -144,17 +195,27 @@ public class PodcastMediaCodecAudioRenderer extends MediaCodecAudioRenderer {
         final int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
         final int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
 
-        // Two samples per frame * 2 to support narration speeds down to 0.5
+        // Two bytes per sample * 2 for headroom. The processor grows if the codec returns more.
         final int bufferSizeBytes = SAMPLES_PER_CODEC_FRAME * 2 * 2 * channelCount;
 
-        this.mSilenceInputBuffer = new byte[bufferSizeBytes];
-        this.mSilenceOutputBuffer = new byte[bufferSizeBytes];
-        mSilenceRemover = new SilenceRemover(sampleRate, channelCount);
+        synchronized (this) {
+            releasePcmProcessor();
+            mPcmProcessor = new PcmProcessor(sampleRate, channelCount, bufferSizeBytes);
+            mPcmProcessor.setSpeed(mSpeed);
+            mPcmProcessor.setRemoveSilence(mRemoveSilence);
+            mPcmProcessor.setAutomaticGainControl(mAutomaticGainControl);
+            mPcmProcessor.setAnalysis(mAnalysis);
+        }
+    }
 
-        this.mSonicInputBuffer = new byte[bufferSizeBytes];
-        this.mSonicOutputBuffer = new byte[bufferSizeBytes];
-        this.mSonic = new Sonic(sampleRate, channelCount);
-        this.mLastInternalBuffer = ByteBuffer.wrap(mSonicOutputBuffer, 0, 0);
-        setSpeed(mSpeed);
+    /**
+     * Must be called while holding the lock of the renderer.
+     */
+    private void releasePcmProcessor() {
+        if (mPcmProcessor != null) {
+            mPreviousSkippedUs += mPcmProcessor.getSkippedUs();
+            mPcmProcessor.release();
+            mPcmProcessor = null;
+        }
     }
 }
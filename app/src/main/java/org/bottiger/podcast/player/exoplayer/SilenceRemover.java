@@ -1,121 +1,332 @@
 package org.bottiger.podcast.player.exoplayer;
 
 /**
+ * Removes long pauses from 16 bit interleaved PCM.
+ *
+ * The audio is split into short windows, and the energy of each window is compared with an estimate
+ * of the noise floor of the episode, so quiet recordings and recordings with background noise are
+ * both handled. A window is silent if every channel is silent. Pauses shorter than the lookahead
+ * plus the hangover are kept, so the rhythm of the speech is not lost, and the audio on both sides
+ * of a cut is crossfaded.
+ *
+ * The output is delayed by the lookahead. The number of frames removed is counted exactly, so the
+ * time saved can be reported.
+ *
+ * If the episode has been analysed ahead of time, a {@link SilenceIndex} can decide which windows
+ * are silent instead of the energy of the window, and a {@link SkipListener} reports the removed
+ * windows, which is how the index is built.
+ *
+ * Plain Java without Android dependencies.
+ *
  * Created by aplb on 15-06-2016.
  */
+public class SilenceRemover {
+
+    public static final int DEFAULT_WINDOW_MS = 10;
+    public static final int DEFAULT_LOOKAHEAD_MS = 20;
+    public static final int DEFAULT_HANGOVER_MS = 100;
+    public static final int DEFAULT_CROSSFADE_MS = 5;
+
+    // A window is voiced if its energy is this much above the noise floor. 10^(9 dB / 10)
+    private static final double THRESHOLD_RATIO = 7.94;
+
+    // Limits of the noise floor, as mean square of a sample. RMS 50 and 2000.
+    private static final double MIN_NOISE_FLOOR = 50 * 50;
+    private static final double MAX_NOISE_FLOOR = 2000 * 2000;
+
+    // The floor follows a quieter window quickly, and rises by about 2 dB a second.
+    private static final double NOISE_FLOOR_FALL = 0.5;
+    private static final double NOISE_FLOOR_RISE_PER_SECOND = 1.58;
+
+    private final int mSampleRate;
+    private final int mNumChannels;
+    private final int mWindowFrames;
+    private final int mLookaheadWindows;
+    private final int mHangoverWindows;
+    private final int mCrossfadeFrames;
+    private final double mNoiseFloorRise;
+
+    // Windows waiting to be written, as a ring of window slots
+    private final short[] mWindows;
+    private final boolean[] mKeep;
+    private final int mSlots;
+    private int mFirstSlot = 0;
+    private int mQueuedWindows = 0;
+
+    // The window being filled, which is the slot after the queued windows
+    private int mFilledFrames = 0;
+    private final long[] mChannelEnergy;
+
+    // The end of the audio before a cut, which is crossfaded with the audio after it
+    private final short[] mFadeFrames;
+    private boolean mHasFade = false;
+
+    private double mNoiseFloor = MIN_NOISE_FLOOR;
+    private int mWindowsSinceVoiced = Integer.MAX_VALUE / 2;
+
+    private long mSkippedFrames = 0;
+
+    // The position in the episode of the first queued window
+    private long mFirstWindowFrame = 0;
+
+    private SilenceIndex mIndex = null;
+    private SkipListener mSkipListener = null;
+
+    /**
+     * Tells which parts of the episode are silent, from an analysis made before playback.
+     */
+    public interface SilenceIndex {
+        boolean isSilent(long argStartUs, long argEndUs);
+    }
 
-class SilenceRemover {
+    public interface SkipListener {
+        /**
+         * Called when a window is removed.
+         *
+         * @param argFirstFrame The position of the window in the episode
+         */
+        void onSkipped(long argFirstFrame, int argNumFrames);
+    }
 
-    private static final int SPEECH_BUFFER = 2000;
-    private static final double THRESHOLD =  400; //0.02;
+    public SilenceRemover(int sampleRate, int numChannels) {
+        this(sampleRate, numChannels, DEFAULT_WINDOW_MS, DEFAULT_LOOKAHEAD_MS, DEFAULT_HANGOVER_MS, DEFAULT_CROSSFADE_MS);
+    }
 
-    private final int sampleRate;
-    private final int numChannels;
+    public SilenceRemover(int argSampleRate,
+                          int argNumChannels,
+                          int argWindowMs,
+                          int argLookaheadMs,
+                          int argHangoverMs,
+                          int argCrossfadeMs) {
+        mSampleRate = argSampleRate;
+        mNumChannels = argNumChannels;
+        mWindowFrames = Math.max(1, argSampleRate * argWindowMs / 1000);
+        mLookaheadWindows = divideRoundUp(argLookaheadMs, argWindowMs);
+        mHangoverWindows = divideRoundUp(argHangoverMs, argWindowMs);
+        // Both ends of a window can be crossfaded
+        mCrossfadeFrames = Math.min(mWindowFrames / 2, argSampleRate * argCrossfadeMs / 1000);
+        mNoiseFloorRise = Math.pow(NOISE_FLOOR_RISE_PER_SECOND, (double) argWindowMs / 1000);
+
+        // The window which is written, the window after it, its lookahead, and the window being filled
+        mSlots = mLookaheadWindows + 3;
+        mWindows = new short[mSlots * mWindowFrames * argNumChannels];
+        mKeep = new boolean[mSlots];
+        mChannelEnergy = new long[argNumChannels];
+        mFadeFrames = new short[Math.max(1, mCrossfadeFrames) * argNumChannels];
+    }
 
-    private int sampleCapacity = 0;
-    private int mOutputIndex;
+    /**
+     * @return The largest number of frames {@link #removeSilence} can write for the given input
+     */
+    public int getMaxOutputFrames(int argNumFrames) {
+        return argNumFrames + mWindowFrames;
+    }
 
-    private int silence_start = -2; // convenient initial condition
-    private int silence_end = -1;
+    /**
+     * Remove long pauses from interleaved 16 bit samples.
+     *
+     * @param argInput The input samples, which are not changed
+     * @param argNumFrames The number of frames in the input
+     * @param argOutput Room for at least {@link #getMaxOutputFrames} frames
+     * @return The number of frames written to the output
+     */
+    public int removeSilence(short[] argInput, int argNumFrames, short[] argOutput) {
+        int channels = mNumChannels;
+        int windowSamples = mWindowFrames * channels;
+        int outputFrames = 0;
+
+        for (int frame = 0; frame < argNumFrames; frame++) {
+            int slot = (mFirstSlot + mQueuedWindows) % mSlots;
+            int input = frame * channels;
+            int position = slot * windowSamples + mFilledFrames * channels;
+            for (int channel = 0; channel < channels; channel++) {
+                short sample = argInput[input + channel];
+                mWindows[position + channel] = sample;
+                mChannelEnergy[channel] += sample * sample;
+            }
+
+            if (++mFilledFrames < mWindowFrames) {
+                continue;
+            }
 
-    private short[] input_signal_2;
-    private short[] output_signal_2;
+            classifyWindow(slot);
+            mFilledFrames = 0;
+            mQueuedWindows++;
 
-    // Create a sonic stream.
-    SilenceRemover(
-            int sampleRate,
-            int numChannels) {
-        this.sampleRate = sampleRate;
-        this.numChannels = numChannels;
+            // The window after the first one must be final too, to know if the audio after it is cut
+            if (mQueuedWindows == mSlots - 1) {
+                outputFrames = writeFirstWindow(argOutput, outputFrames);
+            }
+        }
+
+        return outputFrames;
     }
 
-    int getOutputLength() {
-        return mOutputIndex;
+    /**
+     * @return The number of frames removed since this remover was created
+     */
+    public long getSkippedFrames() {
+        return mSkippedFrames;
     }
 
-    byte[] removeSilence(byte[] input_signal, byte[] output_signal, int argBytesToRead) {
-        int i;
+    public long getSkippedUs() {
+        return mSkippedFrames * 1_000_000L / mSampleRate;
+    }
 
-        int numSamples = argBytesToRead / (2 * numChannels);
-        short sample;
+    /**
+     * @return The number of frames which have been read, but not written or removed yet
+     */
+    public int getPendingFrames() {
+        return mQueuedWindows * mWindowFrames + mFilledFrames + (mHasFade ? mCrossfadeFrames : 0);
+    }
 
-        int buffer_size = (argBytesToRead << 1);
+    public double getNoiseFloor() {
+        return Math.sqrt(mNoiseFloor);
+    }
 
-        if (buffer_size > output_signal.length) {
-            input_signal_2 = new short[buffer_size];
-            output_signal_2 = new short[buffer_size];
+    public int getSampleRate() {
+        return mSampleRate;
+    }
 
-            output_signal = resize(output_signal, buffer_size);
-            sampleCapacity = buffer_size;
-        }
+    /**
+     * @param argIndex Decides which windows are silent, or null to use the energy of the windows
+     */
+    public void setSilenceIndex(SilenceIndex argIndex) {
+        mIndex = argIndex;
+    }
 
-        int numInputSamples = 0; //numSamples;
+    public void setSkipListener(SkipListener argSkipListener) {
+        mSkipListener = argSkipListener;
+    }
 
-        int xBuffer = numInputSamples * numChannels;
-        for (int xByte = 0; xByte + 1 < argBytesToRead; xByte += 2) {
-            sample = (short) ((input_signal[xByte] & 0xff) | (input_signal[xByte + 1] << 8));
-            input_signal_2[xBuffer++] = sample;
-        }
-        numInputSamples += numSamples;
+    /**
+     * Set the position in the episode of the next frame. Only valid when no frames are pending.
+     */
+    public void setPosition(long argFrame) {
+        mFirstWindowFrame = argFrame;
+    }
 
+    /**
+     * Forget the pending audio, for example after a seek. The noise floor is kept.
+     */
+    public void reset() {
+        reset(0);
+    }
 
-        mOutputIndex = 0;
+    /**
+     * @param argFrame The position in the episode of the next frame
+     */
+    public void reset(long argFrame) {
+        mFirstWindowFrame = argFrame;
+        mFirstSlot = 0;
+        mQueuedWindows = 0;
+        mFilledFrames = 0;
+        mHasFade = false;
+        mWindowsSinceVoiced = Integer.MAX_VALUE / 2;
+        for (int channel = 0; channel < mNumChannels; channel++) {
+            mChannelEnergy[channel] = 0;
+        }
+    }
 
-        double input_value;
-        boolean is_voiced;
+    private void classifyWindow(int argSlot) {
+        if (mIndex != null) {
+            // The hangover and the lookahead were applied when the index was made
+            long firstFrame = mFirstWindowFrame + (long) mQueuedWindows * mWindowFrames;
+            mKeep[argSlot] = !mIndex.isSilent(toUs(firstFrame), toUs(firstFrame + mWindowFrames));
+            for (int channel = 0; channel < mNumChannels; channel++) {
+                mChannelEnergy[channel] = 0;
+            }
+            return;
+        }
 
-        int loop_size = xBuffer;
+        // The loudest channel decides, so speech on a single channel is not cut
+        double energy = 0;
+        for (int channel = 0; channel < mNumChannels; channel++) {
+            energy = Math.max(energy, (double) mChannelEnergy[channel] / mWindowFrames);
+            mChannelEnergy[channel] = 0;
+        }
 
-        for (i = 0; i < loop_size; i++) {
+        boolean voiced = energy > mNoiseFloor * THRESHOLD_RATIO;
 
-            input_value = Math.abs(input_signal_2[i]);
-            is_voiced = input_value >= THRESHOLD;
+        if (energy < mNoiseFloor) {
+            mNoiseFloor += (energy - mNoiseFloor) * NOISE_FLOOR_FALL;
+        } else {
+            mNoiseFloor *= mNoiseFloorRise;
+        }
+        mNoiseFloor = Math.min(MAX_NOISE_FLOOR, Math.max(MIN_NOISE_FLOOR, mNoiseFloor));
 
-            // Detect if we are moving into speech
-            if (is_voiced && silence_start > silence_end) {
-                silence_end = i;
+        if (voiced) {
+            mWindowsSinceVoiced = 0;
+            // Keep the silence right before speech, so the first syllable is not clipped
+            for (int i = 0; i < mQueuedWindows; i++) {
+                mKeep[(mFirstSlot + i) % mSlots] |= mQueuedWindows - i <= mLookaheadWindows;
             }
+        } else {
+            mWindowsSinceVoiced++;
+        }
 
-            // Detect if we are moving into silence
-            if (!is_voiced && silence_start < silence_end) {
-                silence_start = i;
-            }
+        mKeep[argSlot] = mWindowsSinceVoiced <= mHangoverWindows;
+    }
 
-            // There have been silence for a long time
-            int silence_length = i - silence_start;
-            boolean is_long_pause = !is_voiced && silence_start > silence_end && silence_length > SPEECH_BUFFER;
-            if (!is_long_pause) {
-                output_signal_2[mOutputIndex] = input_signal_2[i];
-                mOutputIndex++;
+    private int writeFirstWindow(short[] argOutput, int argOutputFrames) {
+        int channels = mNumChannels;
+        int slot = mFirstSlot;
+        boolean keep = mKeep[slot];
+        boolean keepNext = mKeep[(slot + 1) % mSlots];
+        int windowStart = slot * mWindowFrames * channels;
+
+        long firstFrame = mFirstWindowFrame;
+        mFirstWindowFrame += mWindowFrames;
+        mFirstSlot = (mFirstSlot + 1) % mSlots;
+        mQueuedWindows--;
+
+        if (!keep) {
+            mSkippedFrames += mWindowFrames;
+            if (mSkipListener != null) {
+                mSkipListener.onSkipped(firstFrame, mWindowFrames);
             }
-
+            return argOutputFrames;
         }
 
-        int outCount = 0;
-        for (int xSample = 0; xSample < mOutputIndex; xSample++) {
-            short sample_out = output_signal_2[xSample];
-            output_signal[xSample << 1] = (byte) (sample_out & 0xff);
-            output_signal[(xSample << 1) + 1] = (byte) (sample_out >> 8);
-            outCount = (xSample << 1) + 1;
+        int output = argOutputFrames * channels;
+        int first = 0;
+        int end = mWindowFrames;
+
+        // Crossfade the start of the window with the audio before the cut
+        if (mHasFade) {
+            int fadeFrames = mCrossfadeFrames;
+            for (int frame = 0; frame < fadeFrames; frame++) {
+                for (int channel = 0; channel < channels; channel++) {
+                    int before = mFadeFrames[frame * channels + channel];
+                    int after = mWindows[windowStart + frame * channels + channel];
+                    argOutput[output++] = (short) ((before * (fadeFrames - frame) + after * frame) / fadeFrames);
+                }
+            }
+            first = fadeFrames;
+            mHasFade = false;
+            // The two ends overlap
+            mSkippedFrames += fadeFrames;
         }
 
-        mOutputIndex *= 2;
+        // Hold back the end of the window if the audio after it is cut
+        if (!keepNext && mCrossfadeFrames > 0) {
+            end = mWindowFrames - mCrossfadeFrames;
+            System.arraycopy(mWindows, windowStart + end * channels, mFadeFrames, 0, mCrossfadeFrames * channels);
+            mHasFade = true;
+        }
 
-        silence_start -= loop_size;
-        silence_end -= loop_size;
+        int length = (end - first) * channels;
+        System.arraycopy(mWindows, windowStart + first * channels, argOutput, output, length);
+        output += length;
 
-        return output_signal;
+        return output / channels;
     }
 
-    // Resize the array.
-    private byte[] resize(
-            byte[] oldArray,
-            int newLength) {
-        newLength *= numChannels;
-        byte[] newArray = new byte[newLength];
-        int length = oldArray.length <= newLength ? oldArray.length : newLength;
+    private long toUs(long argFrame) {
+        return argFrame * 1_000_000L / mSampleRate;
+    }
 
-        System.arraycopy(oldArray, 0, newArray, 0, length);
-        return newArray;
+    private static int divideRoundUp(int argNumerator, int argDenominator) {
+        return (argNumerator + argDenominator - 1) / argDenominator;
     }
 }
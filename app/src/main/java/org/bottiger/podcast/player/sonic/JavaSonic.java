@@ -1,4 +1,4 @@
-package org.bottiger.podcast.player.exoplayer;
+package org.bottiger.podcast.player.sonic;
 
 /* Sonic library
    Copyright 2010, 2011
@@ -8,7 +8,9 @@ package org.bottiger.podcast.player.exoplayer;
    This file is licensed under the Apache 2.0 license.
 */
 
-public class Sonic {
+import java.nio.ShortBuffer;
+
+public class JavaSonic implements SonicStream {
 
     private static final int SONIC_MIN_PITCH = 65;
     private static final int SONIC_MAX_PITCH = 400;
@@ -177,7 +179,7 @@ public class Sonic {
     }
 
     // Create a sonic stream.
-    public Sonic(
+    public JavaSonic(
             int sampleRate,
             int numChannels) {
         allocateStreamBuffers(sampleRate, numChannels);
@@ -349,6 +351,7 @@ public class Sonic {
     public int readShortFromStream(
             short samples[],
             int maxSamples) {
+        checkLength(samples, maxSamples);
         int numSamples = numOutputSamples;
         int remainingSamples = 0;
 
@@ -365,6 +368,27 @@ public class Sonic {
         return numSamples;
     }
 
+    // Read short data out of the stream directly into a buffer, without an intermediate array.
+    // Sometimes no data will be available, and zero is returned, which is not an error condition.
+    public int readShortFromStream(
+            ShortBuffer samples,
+            int maxSamples) {
+        int numSamples = numOutputSamples;
+        int remainingSamples = 0;
+
+        if (numSamples == 0) {
+            return 0;
+        }
+        if (numSamples > maxSamples) {
+            remainingSamples = numSamples - maxSamples;
+            numSamples = maxSamples;
+        }
+        samples.put(outputBuffer, 0, numSamples * numChannels);
+        move(outputBuffer, 0, outputBuffer, numSamples, remainingSamples);
+        numOutputSamples = remainingSamples;
+        return numSamples;
+    }
+
     // Read unsigned byte data out of the stream.  Sometimes no data will be available, and zero
     // is returned, which is not an error condition.
     public int readUnsignedByteFromStream(
@@ -445,6 +469,10 @@ public class Sonic {
         return numOutputSamples;
     }
 
+    // Nothing to release, the buffers are garbage collected.
+    public void close() {
+    }
+
     // If skip is greater than one, average skip samples together and write them to
     // the down-sample buffer.  If numChannels is greater than one, mix the channels
     // together as we down sample.
@@ -859,10 +887,21 @@ public class Sonic {
     public void writeShortToStream(
             short samples[],
             int numSamples) {
+        checkLength(samples, numSamples);
         addShortSamplesToInputBuffer(samples, numSamples);
         processStreamInput();
     }
 
+    // Fail like NativeSonic does, instead of part way through the array.
+    private void checkLength(
+            short samples[],
+            int numSamples) {
+        int length = samples == null ? 0 : samples.length;
+        if (numSamples < 0 || (long) numSamples * numChannels > length) {
+            throw new IllegalArgumentException(numSamples + " samples do not fit in " + length); // NoI18N
+        }
+    }
+
     // Simple wrapper around sonicWriteFloatToStream that does the unsigned byte to short
     // conversion for you.
     public void writeUnsignedByteToStream(
@@ -891,7 +930,7 @@ public class Sonic {
             boolean useChordPitch,
             int sampleRate,
             int numChannels) {
-        Sonic stream = new Sonic(sampleRate, numChannels);
+        JavaSonic stream = new JavaSonic(sampleRate, numChannels);
 
         stream.setSpeed(speed);
         stream.setPitch(pitch);
@@ -916,7 +955,7 @@ public class Sonic {
             boolean useChordPitch,
             int sampleRate,
             int numChannels) {
-        Sonic stream = new Sonic(sampleRate, numChannels);
+        JavaSonic stream = new JavaSonic(sampleRate, numChannels);
 
         stream.setSpeed(speed);
         stream.setPitch(pitch);
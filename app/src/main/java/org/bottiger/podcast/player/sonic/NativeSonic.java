@@ -7,16 +7,27 @@
 
 package org.bottiger.podcast.player.sonic;
 
-public class Sonic
+import android.support.annotation.NonNull;
+
+import java.nio.ShortBuffer;
+
+// The JNI backend of SonicStream. Use SonicFactory to create a stream, which falls back to
+// JavaSonic if the native library could not be loaded.
+public class NativeSonic implements SonicStream
 {
+    static final String LIBRARY = "sonic2"; // NoI18N
+
     // Sonic is thread-safe, but to have multiple instances of it, we have to
     // store a pointer to it's data. We store that here as a long, just in case
     // someone wants to port this JNI wapper to a 64-bit JVM.
     long sonicID = 0;
+
+    // Room for the output when it is read into a ShortBuffer
+    private short[] readBuffer = new short[0];
     
     // Create a sonic stream.  Return false only if we are out of memory and cannot
     // allocate the stream. Set numChannels to 1 for mono, and 2 for stereo.
-    public Sonic(int sampleRate, int numChannels)
+    public NativeSonic(int sampleRate, int numChannels)
     {
         close();
         sonicID = initNative(sampleRate, numChannels);
@@ -41,7 +52,7 @@ public class Sonic
     // Force the sonic stream to generate output using whatever data it currently
     // has.  No extra delay will be added to the output, but flushing in the middle of
     // words could introduce distortion.
-    public void flush()
+    public void flushStream()
     {
         flushNative(sonicID);
     }
@@ -121,20 +132,62 @@ public class Sonic
     }
 
     // Use this to write 16-bit data to be speed up or down into the stream.
-    // Return false if memory realloc failed, otherwise true.
-    public boolean putBytes(byte[] buffer, int lenBytes)
+    public void writeBytesToStream(byte[] buffer, int lenBytes)
     {
-        return putBytesNative(sonicID, buffer, lenBytes);
+        if (!putBytesNative(sonicID, buffer, lenBytes)) {
+            throw new OutOfMemoryError("Sonic could not enlarge its buffers"); // NoI18N
+        }
     }
 
     // Use this to read 16-bit data out of the stream.  Sometimes no data will
     // be available, and zero is returned, which is not an error condition.
-    public int receiveBytes(byte[] ret, int lenBytes)
+    public int readBytesFromStream(byte[] ret, int lenBytes)
     {
         return receiveBytesNative(sonicID, ret, lenBytes);
     }
 
+    // The samples are read in place by sonic.c, without a copy through a byte array.
+    public void writeShortToStream(short[] samples, int numSamples)
+    {
+        checkLength(samples, numSamples);
+        if (!putShortsNative(sonicID, samples, numSamples)) {
+            throw new OutOfMemoryError("Sonic could not enlarge its buffers"); // NoI18N
+        }
+    }
+
+    public int readShortFromStream(short[] samples, int maxSamples)
+    {
+        checkLength(samples, maxSamples);
+        return receiveShortsNative(sonicID, samples, maxSamples);
+    }
+
+    // sonic.c does not know the length of the array, so a wrong count would go past its end.
+    private void checkLength(short[] samples, int numSamples)
+    {
+        if (numSamples < 0 || (long) numSamples * getNumChannels() > samples.length) {
+            throw new IllegalArgumentException(numSamples + " samples do not fit in " + samples.length); // NoI18N
+        }
+    }
+
+    public int readShortFromStream(@NonNull ShortBuffer samples, int maxSamples)
+    {
+        int numSamples = Math.min(maxSamples, samplesAvailable());
+        int length = numSamples * getNumChannels();
+        if (readBuffer.length < length) {
+            readBuffer = new short[length];
+        }
+        numSamples = receiveShortsNative(sonicID, readBuffer, numSamples);
+        samples.put(readBuffer, 0, numSamples * getNumChannels());
+        return numSamples;
+    }
+
     // Return the number of samples in the output buffer
+    public int samplesAvailable()
+    {
+        return samplesAvailableNative(sonicID);
+    }
+
+    // Return the number of bytes in the output buffer
     public int availableBytes()
     {
         return availableBytesNative(sonicID);
@@ -172,10 +225,13 @@ public class Sonic
     private native boolean putBytesNative(long sonicID, byte[] buffer, int lenBytes);
     private native int receiveBytesNative(long sonicID, byte[] ret, int lenBytes);
     private native int availableBytesNative(long sonicID);
+    private native boolean putShortsNative(long sonicID, short[] samples, int numSamples);
+    private native int receiveShortsNative(long sonicID, short[] samples, int maxSamples);
+    private native int samplesAvailableNative(long sonicID);
     private native void setVolumeNative(long sonicID, float newVolume);
     private native float getVolumeNative(long sonicID);
 
     static {
-        System.loadLibrary("sonic");
+        System.loadLibrary(LIBRARY);
     }
 }
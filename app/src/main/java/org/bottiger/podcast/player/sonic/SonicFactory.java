@@ -0,0 +1,69 @@
+package org.bottiger.podcast.player.sonic;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Creates Sonic streams with the backend which has been selected. The backend can be changed at
+ * any time, and is used for the streams created afterwards, so it can be chosen per device from
+ * the results of SonicBenchmarkTest.
+ *
+ * If the native backend is selected, but the library can not be loaded, the Java backend is used.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SonicFactory {
+
+    private static final String TAG = SonicFactory.class.getSimpleName();
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({JAVA, NATIVE})
+    public @interface Backend {}
+    public static final int JAVA = 1;
+    public static final int NATIVE = 2;
+
+    private static volatile @Backend int sBackend = JAVA;
+
+    private static Boolean sNativeAvailable = null;
+
+    private SonicFactory() {
+    }
+
+    public static void setBackend(@Backend int argBackend) {
+        sBackend = argBackend;
+    }
+
+    public static @Backend int getBackend() {
+        return sBackend;
+    }
+
+    public static synchronized boolean isNativeAvailable() {
+        if (sNativeAvailable == null) {
+            try {
+                System.loadLibrary(NativeSonic.LIBRARY);
+                sNativeAvailable = true;
+            } catch (UnsatisfiedLinkError | SecurityException e) {
+                Log.w(TAG, "Native Sonic is not available: " + e); // NoI18N
+                sNativeAvailable = false;
+            }
+        }
+        return sNativeAvailable;
+    }
+
+    @NonNull
+    public static SonicStream create(int argSampleRate, int argNumChannels) {
+        return create(sBackend, argSampleRate, argNumChannels);
+    }
+
+    @NonNull
+    public static SonicStream create(@Backend int argBackend, int argSampleRate, int argNumChannels) {
+        if (argBackend == NATIVE && isNativeAvailable()) {
+            return new NativeSonic(argSampleRate, argNumChannels);
+        }
+        return new JavaSonic(argSampleRate, argNumChannels);
+    }
+}
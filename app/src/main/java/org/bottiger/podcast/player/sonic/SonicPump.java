@@ -0,0 +1,128 @@
+package org.bottiger.podcast.player.sonic;
+
+import android.support.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Moves the PCM output of a decoder through a Sonic stream to an audio sink, for the decode thread
+ * of {@link Track}.
+ *
+ * The codec output buffers are read through ShortBuffer views, which are made once for every
+ * buffer, into a sample array which is reused, and the output of Sonic is written to the sink from
+ * a second reused array. The arrays grow to the size the decoder needs during the first buffers,
+ * so in steady state a buffer is processed without allocating. Every allocation is counted, so
+ * tests can check that.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SonicPump {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    public interface AudioSink {
+        /**
+         * Same as {@link android.media.AudioTrack#write(short[], int, int)}
+         */
+        int write(@NonNull short[] audioData, int offsetInShorts, int sizeInShorts);
+    }
+
+    @NonNull private final SonicStream mSonic;
+    private final int mNumChannels;
+
+    private ByteBuffer[] mCodecBuffers = new ByteBuffer[0];
+    private ShortBuffer[] mViews = new ShortBuffer[0];
+
+    private short[] mInput = new short[0];
+    private short[] mOutput = new short[0];
+
+    private int mAllocations = 0;
+
+    public SonicPump(@NonNull SonicStream argSonic) {
+        mSonic = argSonic;
+        mNumChannels = argSonic.getNumChannels();
+    }
+
+    /**
+     * Call when the codec has been started, and on INFO_OUTPUT_BUFFERS_CHANGED.
+     */
+    public void setOutputBuffers(@NonNull ByteBuffer[] argCodecBuffers) {
+        mCodecBuffers = argCodecBuffers;
+        mViews = new ShortBuffer[argCodecBuffers.length];
+        mAllocations++;
+    }
+
+    /**
+     * Process an output buffer of the decoder. The buffer itself is not changed, so it can be
+     * released to the codec afterwards.
+     *
+     * @return The number of samples written to the sink
+     */
+    public int process(int argIndex, int argOffset, int argSize, @NonNull AudioSink argSink) {
+        int numSamples = argSize / BYTES_PER_SAMPLE;
+        if (mInput.length < numSamples) {
+            mInput = new short[numSamples];
+            mAllocations++;
+        }
+
+        ShortBuffer view = getView(argIndex);
+        view.limit((argOffset + argSize) / BYTES_PER_SAMPLE);
+        view.position(argOffset / BYTES_PER_SAMPLE);
+        view.get(mInput, 0, numSamples);
+
+        mSonic.writeShortToStream(mInput, numSamples / mNumChannels);
+        return drain(argSink);
+    }
+
+    /**
+     * Play what Sonic holds back, at the end of the stream.
+     *
+     * @return The number of samples written to the sink
+     */
+    public int flush(@NonNull AudioSink argSink) {
+        mSonic.flushStream();
+        return drain(argSink);
+    }
+
+    /**
+     * @return The number of arrays and views allocated since the pump was created
+     */
+    public int getAllocationCount() {
+        return mAllocations;
+    }
+
+    private int drain(@NonNull AudioSink argSink) {
+        int available = mSonic.samplesAvailable();
+        if (available == 0) {
+            return 0;
+        }
+
+        int samples = available * mNumChannels;
+        if (mOutput.length < samples) {
+            // Room for more, so small changes of the speed do not cause another allocation
+            mOutput = new short[samples * 2];
+            mAllocations++;
+        }
+
+        int frames = mSonic.readShortFromStream(mOutput, available);
+        int written = frames * mNumChannels;
+        argSink.write(mOutput, 0, written);
+        return written;
+    }
+
+    @NonNull
+    private ShortBuffer getView(int argIndex) {
+        ShortBuffer view = mViews[argIndex];
+        if (view == null) {
+            // Codec buffers are in native byte order. The view covers the whole buffer.
+            ByteBuffer whole = mCodecBuffers[argIndex].duplicate();
+            whole.clear();
+            view = whole.order(ByteOrder.nativeOrder()).asShortBuffer();
+            mViews[argIndex] = view;
+            mAllocations++;
+        }
+        return view;
+    }
+}
@@ -0,0 +1,63 @@
+package org.bottiger.podcast.player.sonic;
+
+import android.support.annotation.NonNull;
+
+import java.nio.ShortBuffer;
+
+/**
+ * A Sonic time-stretch stream, independent of the implementation. There is a pure Java backend,
+ * {@link JavaSonic}, and a backend which calls sonic.c through JNI, {@link NativeSonic}. They
+ * produce the same audio, and {@link SonicFactory} decides which one is used.
+ *
+ * Samples are 16 bit and interleaved. Counts of samples are in frames, one sample for every
+ * channel, like in sonic.c, and counts of bytes are in bytes. Both backends throw an
+ * IllegalArgumentException if a short array is too small for the count.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public interface SonicStream {
+
+    int getSampleRate();
+
+    int getNumChannels();
+
+    float getSpeed();
+
+    void setSpeed(float speed);
+
+    float getPitch();
+
+    void setPitch(float pitch);
+
+    float getRate();
+
+    void setRate(float rate);
+
+    float getVolume();
+
+    void setVolume(float volume);
+
+    // Write the data to the input stream, and process it.
+    void writeShortToStream(short samples[], int numSamples);
+
+    // Read short data out of the stream. Sometimes no data will be available, and zero
+    // is returned, which is not an error condition.
+    int readShortFromStream(short samples[], int maxSamples);
+
+    int readShortFromStream(@NonNull ShortBuffer samples, int maxSamples);
+
+    // Write 16-bit little endian data to the input stream, and process it.
+    void writeBytesToStream(byte inBuffer[], int numBytes);
+
+    // Returns the number of bytes read.
+    int readBytesFromStream(byte outBuffer[], int maxBytes);
+
+    // Force the stream to generate output using whatever data it currently has.
+    void flushStream();
+
+    // Return the number of samples in the output buffer
+    int samplesAvailable();
+
+    // Release the memory of the stream. It can not be used afterwards.
+    void close();
+}
@@ -46,7 +46,8 @@ import java.util.concurrent.locks.ReentrantLock;
 @TargetApi(16)
 public class Track {
     private AudioTrack mTrack;
-    private Sonic mSonic;
+    private SonicStream mSonic;
+    private SonicPump mPump;
     private MediaExtractor mExtractor;
     private MediaCodec mCodec;
     private Thread mDecoderThread;
@@ -94,6 +95,13 @@ public class Track {
     // Don't know how to persist this other than pass it in and 'hold' it
     private final IDeathCallback mDeath;
 
+    private final SonicPump.AudioSink mAudioSink = new SonicPump.AudioSink() {
+        @Override
+        public int write(short[] audioData, int offsetInShorts, int sizeInShorts) {
+            return mTrack.write(audioData, offsetInShorts, sizeInShorts);
+        }
+    };
+
     public Track(Context context, IDeathCallback cb) {
         mCurrentState = STATE_IDLE;
         mCurrentSpeed = (float) 1.0;
@@ -332,6 +340,7 @@ public class Track {
             mTrack.release();
             mTrack = null;
         }
+        releaseSonic();
         mCurrentState = STATE_IDLE;
         Log.d(TAG_TRACK, "State changed to STATE_IDLE");
         mLock.unlock();
@@ -478,10 +487,23 @@ public class Track {
         mTrack = new AudioTrack(AudioManager.STREAM_MUSIC, sampleRate, format,
                 AudioFormat.ENCODING_PCM_16BIT, minSize * 4,
                 AudioTrack.MODE_STREAM);
-        mSonic = new Sonic(sampleRate, numChannels);
+        releaseSonic();
+        mSonic = SonicFactory.create(sampleRate, numChannels);
+        mPump = new SonicPump(mSonic);
         mLock.unlock();
     }
 
+    /**
+     * Free the stream right away. The native stream is otherwise only freed when it is finalized.
+     */
+    private void releaseSonic() {
+        if (mSonic != null) {
+            mSonic.close();
+            mSonic = null;
+            mPump = null;
+        }
+    }
+
     public void decode() {
         mDecoderThread = new Thread(new Runnable() {
             @Override
@@ -490,7 +512,10 @@ public class Track {
                 mCodec.start();
 
                 ByteBuffer[] inputBuffers = mCodec.getInputBuffers();
-                ByteBuffer[] outputBuffers = mCodec.getOutputBuffers();
+                mPump.setOutputBuffers(mCodec.getOutputBuffers());
+
+                // Reused for every buffer. The samples are pooled by the pump.
+                final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
 
                 boolean sawInputEOS = false;
                 boolean sawOutputEOS = false;
@@ -537,31 +562,16 @@ public class Track {
                         }
                     }
 
-                    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
-                    byte[] modifiedSamples = new byte[info.size];
-
                     int res;
                     do {
                         res = mCodec.dequeueOutputBuffer(info, 200);
                         if (res >= 0) {
                             int outputBufIndex = res;
-                            ByteBuffer buf = outputBuffers[outputBufIndex];
-                            final byte[] chunk = new byte[info.size];
-                            outputBuffers[res].get(chunk);
-                            outputBuffers[res].clear();
 
-                            if (chunk.length > 0) {
-                                mSonic.putBytes(chunk, chunk.length);
+                            if (info.size > 0) {
+                                mPump.process(outputBufIndex, info.offset, info.size, mAudioSink);
                             } else {
-                                mSonic.flush();
-                            }
-                            int available = mSonic.availableBytes();
-                            if (available > 0) {
-                                if (modifiedSamples.length < available) {
-                                    modifiedSamples = new byte[available];
-                                }
-                                mSonic.receiveBytes(modifiedSamples, available);
-                                mTrack.write(modifiedSamples, 0, available);
+                                mPump.flush(mAudioSink);
                             }
 
                             mCodec.releaseOutputBuffer(outputBufIndex, false);
@@ -570,7 +580,7 @@ public class Track {
                                 sawOutputEOS = true;
                             }
                         } else if (res == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
-                            outputBuffers = mCodec.getOutputBuffers();
+                            mPump.setOutputBuffers(mCodec.getOutputBuffers());
                             Log.d("PCM", "Output buffers changed");
                         } else if (res == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
                             mTrack.stop();
@@ -583,7 +593,7 @@ public class Track {
                             initDevice(
                                     oformat.getInteger(MediaFormat.KEY_SAMPLE_RATE),
                                     oformat.getInteger(MediaFormat.KEY_CHANNEL_COUNT));
-                            outputBuffers = mCodec.getOutputBuffers();
+                            mPump.setOutputBuffers(mCodec.getOutputBuffers());
                             mTrack.play();
                             mLock.unlock();
                         }
@@ -593,6 +603,7 @@ public class Track {
                 Log.d(TAG_TRACK,
                         "Decoding loop exited. Stopping codec and track");
                 Log.d(TAG_TRACK, "Duration: " + (int) (mDuration / 1000));
+                Log.d(TAG_TRACK, "Buffers allocated: " + mPump.getAllocationCount());
                 Log.d(TAG_TRACK,
                         "Current position: "
                                 + (int) (mExtractor.getSampleTime() / 1000));
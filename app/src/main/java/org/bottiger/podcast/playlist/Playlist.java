@@ -29,12 +29,11 @@ import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.provider.ISubscription;
 import org.bottiger.podcast.provider.ItemColumns;
 import org.bottiger.podcast.provider.PersistedSubscription;
-import org.bottiger.podcast.provider.Subscription;
-import org.bottiger.podcast.provider.SubscriptionColumns;
+import org.bottiger.podcast.provider.PreparedQuery;
 import org.bottiger.podcast.service.PlayerService;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -44,7 +43,6 @@ import io.reactivex.ObservableOnSubscribe;
 import io.reactivex.Single;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
 
 import static org.bottiger.podcast.player.PlayerStateManager.populateFastMediaMetadata;
 
@@ -116,7 +114,7 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
                 .toObserverable()
                 .onBackpressureDrop()
                 .ofType(PlaylistData.class)
-                .observeOn(Schedulers.computation())
+                .observeOn(Lanes.DB.rx())
                 .subscribe(new Action1<PlaylistData>() {
                     @Override
                     public void call(PlaylistData argPlaylistData) {
@@ -140,7 +138,7 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
                         return episodeChanged.getAction()==EpisodeChanged.ADDED;
                     }
                 })
-                .observeOn(Schedulers.computation())
+                .observeOn(Lanes.DB.rx())
                 .subscribe(new Action1<EpisodeChanged>() {
                     @Override
                     public void call(EpisodeChanged episodeChanged) {
@@ -507,6 +505,87 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
         return result;
     }
 
+	/**
+	 * The episodes to load into the playlist: The episode which is playing, the manually queued
+	 * episodes and the newest (or oldest) episodes which are added automatically.
+	 */
+	@NonNull
+	public PreparedQuery getEpisodeQuery() {
+		String inputOrder = sharedPreferences.getString(inputOrderKey, defaultOrder);
+		int amount = sharedPreferences.getInt(amountKey, amountValue);
+
+		long playingId = -1;
+		PlayerService playerService = PlayerService.getInstance();
+		if (playerService != null && playerService.getCurrentItem() instanceof FeedItem) {
+			playingId = ((FeedItem)playerService.getCurrentItem()).getId();
+		}
+
+		List<String> filterArgs = new ArrayList<>();
+		String filter = mSubscriptionFilter.toSQL(filterArgs);
+
+		return getEpisodeQuery(playingId, mSubscriptionFilter.getMode(), filter, filterArgs,
+				showOnlyDownloadedVal, inputOrder, amount);
+	}
+
+	/**
+	 * Each part of the query is answered by an index, and the automatic part is sorted by the order
+	 * of the index. The playlist is sorted in memory, so the order of the rows returned does not
+	 * matter, and an episode which is returned twice is only added once.
+	 *
+	 * @param argPlayingId The id of the episode which is playing, or -1
+	 * @param argMode The mode of the subscription filter. The subscriptions it selects do not have
+	 *                to be eligible for the playlist, and SHOW_NONE only shows the queued episodes
+	 * @param argFilter The SQL of the subscription filter
+	 * @param argFilterArgs The values bound by the filter
+	 * @param argOrder ASC or DESC
+	 * @param argAmount The number of episodes added automatically
+	 */
+	@NonNull
+	public static PreparedQuery getEpisodeQuery(long argPlayingId,
+												@SubscriptionFilter.Mode int argMode,
+												@Nullable String argFilter,
+												@NonNull List<String> argFilterArgs,
+												boolean argOnlyDownloaded,
+												@NonNull String argOrder,
+												int argAmount) {
+		String order = mSortOld.equals(argOrder) ? mSortOld : mSortNew;
+		List<String> args = new ArrayList<>();
+		StringBuilder sql = new StringBuilder(512);
+
+		if (argPlayingId >= 0) {
+			sql.append("SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns._ID + "=?");
+			args.add(String.valueOf(argPlayingId));
+			sql.append(" UNION ALL ");
+		}
+
+		// Manually queued episodes
+		sql.append("SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE " + ItemColumns.PRIORITY + " > 0");
+
+		if (argMode == SubscriptionFilter.SHOW_NONE) {
+			return new PreparedQuery(sql.toString(), args);
+		}
+
+		// Episodes added automatically. 'removed' episodes have a negative priority
+		sql.append(" UNION ALL SELECT * FROM (SELECT * FROM " + ItemColumns.TABLE_NAME + " WHERE ");
+		if (argMode != SubscriptionFilter.SHOW_SELECTED) {
+			sql.append(ItemColumns.PLAYLIST_ELIGIBLE + "=1 AND ");
+		}
+		sql.append(ItemColumns.PRIORITY + "=0");
+		if (!TextUtils.isEmpty(argFilter)) {
+			sql.append(" AND (").append(argFilter).append(")");
+			args.addAll(argFilterArgs);
+		}
+		if (argOnlyDownloaded) {
+			sql.append(" AND " + ItemColumns.IS_DOWNLOADED + "==1");
+		}
+		sql.append(" ORDER BY " + ItemColumns.PUB_DATE + " ").append(order)
+				.append(", " + ItemColumns.DATE + " ").append(order)
+				.append(" LIMIT ?)");
+		args.add(String.valueOf(argAmount));
+
+		return new PreparedQuery(sql.toString(), args);
+	}
+
     /**
 	 * 
 	 *
@@ -514,6 +593,15 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
 	 * @return A SQL formatted string of the order
 	 */
 	public String getOrder() {
+		return getOrder(null);
+	}
+
+	/**
+	 * @param argArgs The values which change between calls are added to this list and replaced by
+	 *                placeholders, or written into the SQL if it is null.
+	 * @return A SQL formatted string of the order
+	 */
+	public String getOrder(@Nullable List<String> argArgs) {
 
 		String inputOrder = sharedPreferences.getString(inputOrderKey,
                 defaultOrder);
@@ -521,11 +609,11 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
 
 		PlayerService playerService = PlayerService.getInstance();
 
-		String playingFirst = "";
+		StringBuilder order = new StringBuilder();
 		if (playerService != null && playerService.getCurrentItem() != null && playerService.getCurrentItem() instanceof FeedItem) {
-			playingFirst = "case " + ItemColumns.TABLE_NAME + "." + ItemColumns._ID + " when "
-					+ + ((FeedItem)playerService.getCurrentItem()).getId()
-					+ " then 1 else 2 end, ";
+			order.append("case " + ItemColumns.TABLE_NAME + "." + ItemColumns._ID + " when ");
+			PreparedQuery.bind(order, argArgs, ((FeedItem)playerService.getCurrentItem()).getId());
+			order.append(" then 1 else 2 end, ");
 		}
 		String prioritiesSecond = "case " + ItemColumns.TABLE_NAME + "." + ItemColumns.PRIORITY
 				+ " when 0 then 1 else 2 end DESC, " + ItemColumns.TABLE_NAME + "." + ItemColumns.PRIORITY + " ASC, ";
@@ -533,9 +621,9 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
         String deprecatedDateOrder = ItemColumns.TABLE_NAME + "." + ItemColumns.DATE + " " + inputOrder + " ";
         String dateOrder = ItemColumns.TABLE_NAME + "." + ItemColumns.PUB_DATE + " " + inputOrder + ", ";
 
-		String order = playingFirst + prioritiesSecond + dateOrder + deprecatedDateOrder
-				+ " LIMIT " + amount; // before:
-		return order;
+		order.append(prioritiesSecond).append(dateOrder).append(deprecatedDateOrder).append(" LIMIT ");
+		PreparedQuery.bind(order, argArgs, amount);
+		return order.toString();
 	}
 
 	/**
@@ -543,16 +631,17 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
 	 * @return A SQL formatted string of the where clause
 	 */
 	public String getWhere() {
+		return getWhere(null);
+	}
 
-        StringBuilder where = new StringBuilder();
+	/**
+	 * @param argArgs The values which change between calls are added to this list and replaced by
+	 *                placeholders, or written into the SQL if it is null.
+	 * @return A SQL formatted string of the where clause
+	 */
+	public String getWhere(@Nullable List<String> argArgs) {
 
-        // Ignore (or include) podcasts which have been toggled manually
-        String filterSubscriptions = "";
-        filterSubscriptions += " AND CASE WHEN (" + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns.SETTINGS + ">0 & ((" +
-                SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns.SETTINGS + " & " +
-                Subscription.ADD_NEW_TO_PLAYLIST_SET + ") <> 0)) THEN (";
-        filterSubscriptions += SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns.SETTINGS + " & " + Subscription.ADD_NEW_TO_PLAYLIST;
-        filterSubscriptions += ") ELSE 1 END";
+        StringBuilder where = new StringBuilder();
 
         where.append("(");
 
@@ -562,15 +651,14 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
             //where += mSubscriptionFilter.toSQL();
             where.append("1");
         } else {
-            where.append(ItemColumns.TABLE_NAME + "." + ItemColumns.SUBS_ID+ " ");
-            // only find episodes from suscriptions which are not "unsubscribed"
-            where.append("IN (SELECT " + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns._ID + " FROM " + SubscriptionColumns.TABLE_NAME + " WHERE (" + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns.STATUS + "<>" + Subscription.STATUS_UNSUBSCRIBED + " OR " + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns.STATUS + " IS NULL)")
-                    .append(filterSubscriptions).append(" )");
+            // only find episodes from suscriptions which are not "unsubscribed", and which have not
+            // been toggled out of the playlist manually
+            where.append(ItemColumns.TABLE_NAME + "." + ItemColumns.PLAYLIST_ELIGIBLE + "=1");
         }
 
         where.append(" )");
 
-        String subscripttionFilter = mSubscriptionFilter.toSQL();
+        String subscripttionFilter = mSubscriptionFilter.toSQL(argArgs);
         if (!TextUtils.isEmpty(subscripttionFilter)) {
             where.append(" AND ").append(subscripttionFilter);
         }
@@ -759,14 +847,14 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
      */
     public static void persist(final Context context,
                         final FeedItem movedItem, final FeedItem precedingItem, final int from, final int to) {
-        new Thread(new Runnable() {
+        Lanes.DB.execute(new Runnable() {
             public void run() {
 
                 if (from != to) {
                     movedItem.setPriority(precedingItem, context);
                 }
             }
-        }).start();
+        });
     }
 
     public boolean contains(IEpisode argItem) {
@@ -929,7 +1017,10 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
         argPlaylist.notifyDatabaseChanged();
     }
 
-    private static int comparePlaylistOrder(@Nullable IEpisode argEpisode1,
+    /**
+     * The order of the playlist: episodes with a priority first, then the newest episodes.
+     */
+    public static int comparePlaylistOrder(@Nullable IEpisode argEpisode1,
                                             @Nullable IEpisode argEpisode2) {
         int E1_FIRST = -1;
         int E2_FIRST = 1;
@@ -951,16 +1042,13 @@ public class Playlist implements SharedPreferences.OnSharedPreferenceChangeListe
             return p1 > p2 ? E1_FIRST : E2_FIRST; // Returns highest first
         }
 
-        Date dt1 = argEpisode1.getDateTime();
-
-        if (dt1 == null)
-            return E2_FIRST;
+        // Newest first. Episodes without a date have the smallest key, so they come last
+        long key1 = argEpisode1.getSortKey();
+        long key2 = argEpisode2.getSortKey();
 
-        Date dt2 = argEpisode2.getDateTime();
-
-        if (dt2 == null)
-            return E1_FIRST;
+        if (key1 == key2)
+            return 0;
 
-        return dt2.compareTo(dt1);
+        return key1 > key2 ? E1_FIRST : E2_FIRST;
     }
 }
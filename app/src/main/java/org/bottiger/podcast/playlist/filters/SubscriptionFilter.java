@@ -11,10 +11,12 @@ import android.text.TextUtils;
 
 import org.bottiger.podcast.R;
 import org.bottiger.podcast.provider.ItemColumns;
+import org.bottiger.podcast.provider.PreparedQuery;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -145,6 +147,14 @@ public class SubscriptionFilter implements IPlaylistFilter, SharedPreferences.On
     }
 
     public String toSQL() {
+        return toSQL(null);
+    }
+
+    /**
+     * @param argArgs The subscription ids are added to this list and replaced by placeholders, or
+     *                written into the SQL if it is null.
+     */
+    public String toSQL(@Nullable List<String> argArgs) {
 
         String listened = (mShowListened) ? " 1 " : " " + ItemColumns.LISTENED + "<= 0 ";
 
@@ -164,10 +174,18 @@ public class SubscriptionFilter implements IPlaylistFilter, SharedPreferences.On
 
             if (!mSubscriptions.isEmpty()) {
 
-                sql = " " + ItemColumns.SUBS_ID + " IN (";
-                sql += TextUtils.join(",", mSubscriptions);
-                sql += ")";
-                sql += " AND " + listened;
+                StringBuilder builder = new StringBuilder(" " + ItemColumns.SUBS_ID + " IN (");
+                boolean first = true;
+                for (Long id : mSubscriptions) {
+                    if (!first) {
+                        builder.append(',');
+                    }
+                    PreparedQuery.bind(builder, argArgs, id);
+                    first = false;
+                }
+                builder.append(")");
+                builder.append(" AND ").append(listened);
+                sql = builder.toString();
             }
         } finally {
             mLock.unlock();
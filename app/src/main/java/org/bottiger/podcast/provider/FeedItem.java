@@ -21,12 +21,14 @@ import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
 import org.bottiger.podcast.model.Library;
 import org.bottiger.podcast.model.events.DownloadProgress;
 import org.bottiger.podcast.model.events.EpisodeChanged;
+import org.bottiger.podcast.player.exoplayer.AudioAnalysis;
 import org.bottiger.podcast.provider.base.BaseEpisode;
 import org.bottiger.podcast.service.DownloadStatus;
 import org.bottiger.podcast.utils.BitMaskUtils;
 import org.bottiger.podcast.utils.PlaybackSpeed;
 import org.bottiger.podcast.utils.SDCardManager;
 import org.bottiger.podcast.utils.StrUtils;
+import org.bottiger.podcast.utils.chapter.ChapterCache;
 
 import java.io.File;
 import java.io.IOException;
@@ -289,6 +291,10 @@ public class FeedItem extends BaseEpisode implements Comparable<FeedItem> {
 
 	private Date mDate = null;
 
+	// The sort key of an episode without a pub_date, parsed once from the legacy date string
+	private static final long LEGACY_SORT_KEY_UNSET = Long.MAX_VALUE;
+	private volatile long mLegacySortKey = LEGACY_SORT_KEY_UNSET;
+
 	private boolean mIsParsing = false;
 
 	public FeedItem() {
@@ -333,6 +339,8 @@ public class FeedItem extends BaseEpisode implements Comparable<FeedItem> {
 		sub_id = -1;
         pub_date = -1;
 
+		mDate = null;
+		mLegacySortKey = LEGACY_SORT_KEY_UNSET;
 	}
 
 	public boolean setOffset(long argOffset) {
@@ -400,6 +408,21 @@ public class FeedItem extends BaseEpisode implements Comparable<FeedItem> {
         return mDate;
     }
 
+	@Override
+	public long getSortKey() {
+		if (pub_date > 0) {
+			return pub_date;
+		}
+
+		long sortKey = mLegacySortKey;
+		if (sortKey == LEGACY_SORT_KEY_UNSET) {
+			Date date = getDateTime();
+			sortKey = date != null ? date.getTime() : NO_SORT_KEY;
+			mLegacySortKey = sortKey;
+		}
+		return sortKey;
+	}
+
 	@Override
 	public String toString() {
 		return "Feed: " + title;
@@ -419,6 +442,8 @@ public class FeedItem extends BaseEpisode implements Comparable<FeedItem> {
 				setDownloaded(false);
 				update(argContext);
 				File file = new File(getAbsolutePath(argContext));
+				AudioAnalysis.delete(file);
+				ChapterCache.delete(argContext, this);
 				if (file.exists() && file.delete()) {
 					// FIXME Investigate this
                     //DownloadProgressPublisher.deleteEpisode(this);
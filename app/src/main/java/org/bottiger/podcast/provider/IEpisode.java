@@ -10,6 +10,7 @@ import android.support.annotation.Nullable;
 import android.support.annotation.RequiresPermission;
 
 import org.bottiger.podcast.utils.chapter.Chapter;
+import org.bottiger.podcast.utils.chapter.ChapterTimeline;
 
 import java.io.IOException;
 import java.lang.annotation.Retention;
@@ -41,10 +42,20 @@ public interface IEpisode extends IDbItem {
     long getOffset();
     Date getDateTime();
     Date getCreatedAt();
+
+    long NO_SORT_KEY = Long.MIN_VALUE;
+
+    /**
+     * The publishing time in ms, without creating a Date, for sorting episodes. NO_SORT_KEY if the
+     * episode has no date, which sorts it after all the other episodes when the newest are first.
+     */
+    long getSortKey();
+
     long getFilesize();
 
     void setChapters(@NonNull List<Chapter> argChapters);
     @NonNull List<Chapter> getChapters();
+    @NonNull ChapterTimeline getChapterTimeline();
     boolean hasChapters();
 
     void setTitle(@NonNull String argTitle);
@@ -80,6 +80,9 @@ public class ItemColumns implements BaseColumns {
 	public static final String LISTENED = "keep";
 	public static final String PRIORITY = "priority";
 
+	// 1 if new episodes of the subscription are added to the playlist. Kept up to date by triggers
+	public static final String PLAYLIST_ELIGIBLE = "playlist_eligible";
+
 	public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
 
 	public static final String[] ALL_COLUMNS = { _ID, SUBS_ID, TITLE, AUTHOR,
@@ -123,6 +126,7 @@ public class ItemColumns implements BaseColumns {
             + LISTENED + " INTEGER NOT NULL DEFAULT 0, "
 			+ PRIORITY + " INTEGER NOT NULL DEFAULT 0, "
 			+ PUB_DATE + " INTEGER NOT NULL DEFAULT -1, "
+			+ PLAYLIST_ELIGIBLE + " INTEGER NOT NULL DEFAULT 0, "
 	        + "UNIQUE(" + SUBS_ID + ", " + URL + ") ON CONFLICT ABORT"
 			+ ");";
 
@@ -156,6 +160,80 @@ public class ItemColumns implements BaseColumns {
 			+ TABLE_NAME + "_" + STATUS + " ON " + TABLE_NAME + " ("
 			+ STATUS + ");";
 
+	// The automatic part of the playlist, and the manually queued episodes
+	public static final String sql_index_item_playlist = "CREATE INDEX IF NOT EXISTS IDX_"
+			+ TABLE_NAME + "_playlist ON " + TABLE_NAME + " ("
+			+ PLAYLIST_ELIGIBLE + ", " + PRIORITY + ", " + PUB_DATE + ", " + DATE + ");";
+	public static final String sql_index_item_queue = "CREATE INDEX IF NOT EXISTS IDX_"
+			+ TABLE_NAME + "_queue ON " + TABLE_NAME + " ("
+			+ PRIORITY + ", " + PUB_DATE + ", " + DATE + ");";
+	// The number of new episodes of every subscription
+	public static final String sql_index_item_subid_pub_date = "CREATE INDEX IF NOT EXISTS IDX_"
+			+ TABLE_NAME + "_" + SUBS_ID + "_" + PUB_DATE + " ON " + TABLE_NAME + " ("
+			+ SUBS_ID + ", " + PUB_DATE + ");";
+
+	// To upgrade from database version 22 to version 23
+	public static final String sql_upgrade_table_add_playlist_eligible_column = "ALTER TABLE "
+			+ TABLE_NAME
+			+ " ADD COLUMN "
+			+ PLAYLIST_ELIGIBLE
+			+ " INTEGER NOT NULL DEFAULT 0;";
+	public static final String sql_populate_playlist_eligible = "UPDATE "
+			+ TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = "
+			+ playlistEligibleOfSubscription(TABLE_NAME + "." + SUBS_ID);
+
+	public static final String sql_trigger_item_insert = "CREATE TRIGGER IF NOT EXISTS "
+			+ TABLE_NAME + "_playlist_eligible_insert AFTER INSERT ON " + TABLE_NAME
+			+ " BEGIN UPDATE " + TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = "
+			+ playlistEligibleOfSubscription("NEW." + SUBS_ID)
+			+ " WHERE " + _ID + " = NEW." + _ID + "; END;";
+	public static final String sql_trigger_item_move = "CREATE TRIGGER IF NOT EXISTS "
+			+ TABLE_NAME + "_playlist_eligible_move AFTER UPDATE OF " + SUBS_ID + " ON " + TABLE_NAME
+			+ " BEGIN UPDATE " + TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = "
+			+ playlistEligibleOfSubscription("NEW." + SUBS_ID)
+			+ " WHERE " + _ID + " = NEW." + _ID + "; END;";
+	public static final String sql_trigger_subscription_insert = "CREATE TRIGGER IF NOT EXISTS "
+			+ SubscriptionColumns.TABLE_NAME + "_playlist_eligible_insert AFTER INSERT ON " + SubscriptionColumns.TABLE_NAME
+			+ " BEGIN UPDATE " + TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = " + playlistEligible("NEW")
+			+ " WHERE " + SUBS_ID + " = NEW." + SubscriptionColumns._ID + "; END;";
+	public static final String sql_trigger_subscription_update = "CREATE TRIGGER IF NOT EXISTS "
+			+ SubscriptionColumns.TABLE_NAME + "_playlist_eligible_update AFTER UPDATE OF "
+			+ SubscriptionColumns.STATUS + ", " + SubscriptionColumns.SETTINGS + " ON " + SubscriptionColumns.TABLE_NAME
+			+ " WHEN OLD." + SubscriptionColumns.STATUS + " IS NOT NEW." + SubscriptionColumns.STATUS
+			+ " OR OLD." + SubscriptionColumns.SETTINGS + " IS NOT NEW." + SubscriptionColumns.SETTINGS
+			+ " BEGIN UPDATE " + TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = " + playlistEligible("NEW")
+			+ " WHERE " + SUBS_ID + " = NEW." + SubscriptionColumns._ID + "; END;";
+	public static final String sql_trigger_subscription_delete = "CREATE TRIGGER IF NOT EXISTS "
+			+ SubscriptionColumns.TABLE_NAME + "_playlist_eligible_delete AFTER DELETE ON " + SubscriptionColumns.TABLE_NAME
+			+ " BEGIN UPDATE " + TABLE_NAME + " SET " + PLAYLIST_ELIGIBLE + " = 0"
+			+ " WHERE " + SUBS_ID + " = OLD." + SubscriptionColumns._ID + "; END;";
+
+	public static final String[] sql_playlist_eligible_triggers = {
+			sql_trigger_item_insert, sql_trigger_item_move, sql_trigger_subscription_insert,
+			sql_trigger_subscription_update, sql_trigger_subscription_delete };
+
+	/**
+	 * SQL which is true if new episodes of the subscription are added to the playlist: It has not
+	 * been unsubscribed, and "add new to playlist" is on if it has been set for the subscription.
+	 *
+	 * @param argSubscription The subscriptions table, or its alias
+	 */
+	public static String playlistEligible(String argSubscription) {
+		String status = argSubscription + "." + SubscriptionColumns.STATUS;
+		String settings = argSubscription + "." + SubscriptionColumns.SETTINGS;
+		return "((" + status + "<>" + Subscription.STATUS_UNSUBSCRIBED + " OR " + status + " IS NULL)"
+				+ " AND CASE WHEN (" + settings + ">0 & ((" + settings + " & "
+				+ Subscription.ADD_NEW_TO_PLAYLIST_SET + ") <> 0)) THEN ("
+				+ settings + " & " + Subscription.ADD_NEW_TO_PLAYLIST + ") ELSE 1 END)";
+	}
+
+	private static String playlistEligibleOfSubscription(String argSubscriptionId) {
+		return "COALESCE((SELECT " + playlistEligible(SubscriptionColumns.TABLE_NAME)
+				+ " FROM " + SubscriptionColumns.TABLE_NAME
+				+ " WHERE " + SubscriptionColumns.TABLE_NAME + "." + SubscriptionColumns._ID
+				+ " = " + argSubscriptionId + "), 0)";
+	}
+
 	public static ContentValues checkValues(ContentValues values, Uri uri) {
 		if (!values.containsKey(SUBS_ID)) {
 			throw new SQLException(
@@ -47,6 +47,13 @@ public abstract class PersistedSubscription extends BaseSubscription implements
 
     @ColumnInfo(name = SubscriptionColumns.RATING)
     public int mClicks = 0;
+
+    @ColumnInfo(name = SubscriptionColumns.HTTP_ETAG)
+    public String http_etag;
+
+    @ColumnInfo(name = SubscriptionColumns.HTTP_LAST_MODIFIED)
+    public String http_last_modified;
+
     /**
      * See SubscriptionColumns for documentation
      */
@@ -15,13 +15,19 @@ public class PodcastOpenHelper extends SQLiteOpenHelper {
 
 	private final PodcastLog log = PodcastLog.getLog(getClass());
 
-	private final static int DBVERSION = 21;
+	private final static int DBVERSION = 23;
 	private final static String DBNAME = "podcast.db";
 
     private static PodcastOpenHelper mInstance = null;
 
+	private final ReadConnectionPool mReadPool;
+
 	public PodcastOpenHelper(Context context) {
 		super(context, DBNAME, null, DBVERSION);
+
+		// Readers do not block the writer, or each other
+		setWriteAheadLoggingEnabled(true);
+		mReadPool = new ReadConnectionPool(this);
 	}
 
     public static synchronized PodcastOpenHelper getInstance(Context argContext) {
@@ -35,9 +41,20 @@ public class PodcastOpenHelper extends SQLiteOpenHelper {
         return mInstance;
     }
 
-	public static synchronized Cursor runQuery(Context argContext, String argQuery) {
-		SQLiteDatabase database = getInstance(argContext).getWritableDatabase();
-		return database.rawQuery(argQuery, null);
+	/**
+	 * Run a read only query on a connection from the read pool. Queries from different threads run
+	 * at the same time.
+	 */
+	public static Cursor runQuery(Context argContext, String argQuery) {
+		return getInstance(argContext).mReadPool.query(argQuery, null);
+	}
+
+	public static Cursor runQuery(Context argContext, PreparedQuery argQuery) {
+		return getInstance(argContext).mReadPool.query(argQuery);
+	}
+
+	public ReadConnectionPool getReadPool() {
+		return mReadPool;
 	}
 
 	@Override
@@ -52,6 +69,17 @@ public class PodcastOpenHelper extends SQLiteOpenHelper {
 		db.execSQL(ItemColumns.sql_index_item_created);
 		db.execSQL(ItemColumns.sql_index_item_subid);
 		db.execSQL(ItemColumns.sql_index_item_status);
+
+		createPlaylistIndexes(db);
+	}
+
+	private static void createPlaylistIndexes(SQLiteDatabase db) {
+		for (String trigger : ItemColumns.sql_playlist_eligible_triggers) {
+			db.execSQL(trigger);
+		}
+		db.execSQL(ItemColumns.sql_index_item_playlist);
+		db.execSQL(ItemColumns.sql_index_item_queue);
+		db.execSQL(ItemColumns.sql_index_item_subid_pub_date);
 	}
 
 	@Override
@@ -235,5 +263,23 @@ public class PodcastOpenHelper extends SQLiteOpenHelper {
 			db.execSQL(new_episodes_column);
 			db.execSQL(new_episode_count_column);
 		}
+
+		if (oldVersion < 22) {
+			String etag_column = "ALTER TABLE " + SubscriptionColumns.TABLE_NAME
+					+ " ADD COLUMN " + SubscriptionColumns.HTTP_ETAG + " VARCHAR(256);";
+			String last_modified_column = "ALTER TABLE " + SubscriptionColumns.TABLE_NAME
+					+ " ADD COLUMN " + SubscriptionColumns.HTTP_LAST_MODIFIED + " VARCHAR(64);";
+
+			log.debug("Upgrading database to version 22");
+			db.execSQL(etag_column);
+			db.execSQL(last_modified_column);
+		}
+
+		if (oldVersion < 23) {
+			log.debug("Upgrading database to version 23");
+			db.execSQL(ItemColumns.sql_upgrade_table_add_playlist_eligible_column);
+			db.execSQL(ItemColumns.sql_populate_playlist_eligible);
+			createPlaylistIndexes(db);
+		}
 	}
 }
@@ -0,0 +1,61 @@
+package org.bottiger.podcast.provider;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A query with ? placeholders and the values bound to them.
+ *
+ * SQLite connections keep the statements they have compiled, keyed by the SQL. Values which change
+ * from call to call are bound instead of written into the SQL, so the same SQL is used every time
+ * and the compiled statement is reused. Bound values also need no quoting.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class PreparedQuery {
+
+    private static final String[] NO_ARGS = new String[0];
+
+    @NonNull private final String mSql;
+    @NonNull private final String[] mArgs;
+
+    public PreparedQuery(@NonNull String argSql, @NonNull String... argArgs) {
+        mSql = argSql;
+        mArgs = argArgs;
+    }
+
+    public PreparedQuery(@NonNull String argSql, @NonNull List<String> argArgs) {
+        this(argSql, argArgs.isEmpty() ? NO_ARGS : argArgs.toArray(new String[argArgs.size()]));
+    }
+
+    @NonNull
+    public String getSql() {
+        return mSql;
+    }
+
+    @NonNull
+    public String[] getArgs() {
+        return mArgs;
+    }
+
+    /**
+     * Append a placeholder for the value, or the value itself if there is no list of arguments,
+     * for SQL which is not run through a PreparedQuery.
+     */
+    public static void bind(@NonNull StringBuilder argSql, @Nullable List<String> argArgs, long argValue) {
+        if (argArgs == null) {
+            argSql.append(argValue);
+        } else {
+            argSql.append('?');
+            argArgs.add(String.valueOf(argValue));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mSql + " " + Arrays.toString(mArgs);
+    }
+}
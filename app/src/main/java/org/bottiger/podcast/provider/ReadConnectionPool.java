@@ -0,0 +1,216 @@
+package org.bottiger.podcast.provider;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.requery.android.database.sqlite.SQLiteDatabase;
+import io.requery.android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * A small pool of read only connections to a database in WAL mode, so the library, the playlist
+ * and the UI can read at the same time. Writes still go through the single writable connection of
+ * the open helper, and WAL lets them happen while the reads run.
+ *
+ * Connections are opened when they are needed, up to POOL_SIZE. A query waits for a free
+ * connection when they are all in use. The time spent waiting and the time spent running the query
+ * are measured, and logged every LOG_INTERVAL queries.
+ *
+ * Every connection keeps the last STATEMENT_CACHE_SIZE statements it has compiled. The pool keeps
+ * track of the SQL each connection has run in the same way, so it can count how often a query
+ * reuses a compiled statement. See {@link PreparedQuery}.
+ *
+ * If a read only connection can not be opened, the writable connection is used instead, like
+ * before.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ReadConnectionPool {
+
+    private static final String TAG = ReadConnectionPool.class.getSimpleName();
+
+    private static final int POOL_SIZE = 3;
+    private static final int LOG_INTERVAL = 50;
+    private static final int STATEMENT_CACHE_SIZE = 25;
+
+    @NonNull private final SQLiteOpenHelper mHelper;
+
+    private final BlockingQueue<Connection> mIdle = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final AtomicInteger mOpened = new AtomicInteger();
+    @Nullable private volatile Connection mWritable = null;
+
+    private final AtomicLong mQueries = new AtomicLong();
+    private final AtomicLong mWaitNanos = new AtomicLong();
+    private final AtomicLong mExecuteNanos = new AtomicLong();
+    private final AtomicLong mMaxWaitNanos = new AtomicLong();
+    private final AtomicLong mStatementHits = new AtomicLong();
+
+    public ReadConnectionPool(@NonNull SQLiteOpenHelper argHelper) {
+        mHelper = argHelper;
+    }
+
+    /**
+     * Run a query on a free read only connection. The query has run when this returns, so reading
+     * the cursor does not need the connection again, unless the result is larger than the cursor
+     * window.
+     */
+    @NonNull
+    public Cursor query(@NonNull String argQuery, @Nullable String[] argArgs) {
+        long start = System.nanoTime();
+        Connection connection = acquire();
+        long acquired = System.nanoTime();
+
+        try {
+            if (connection.compile(argQuery)) {
+                mStatementHits.incrementAndGet();
+            }
+
+            Cursor cursor = connection.database.rawQuery(argQuery, argArgs);
+            // SQLiteCursor does not run the query until it is first read
+            cursor.getCount();
+            return cursor;
+        } finally {
+            release(connection);
+            record(acquired - start, System.nanoTime() - acquired);
+        }
+    }
+
+    @NonNull
+    public Cursor query(@NonNull PreparedQuery argQuery) {
+        return query(argQuery.getSql(), argQuery.getArgs());
+    }
+
+    public long getQueryCount() {
+        return mQueries.get();
+    }
+
+    public long getWaitNanos() {
+        return mWaitNanos.get();
+    }
+
+    public long getExecuteNanos() {
+        return mExecuteNanos.get();
+    }
+
+    public long getMaxWaitNanos() {
+        return mMaxWaitNanos.get();
+    }
+
+    public int getOpenedConnections() {
+        return mOpened.get();
+    }
+
+    /**
+     * @return The number of queries which used a statement their connection had compiled already
+     */
+    public long getStatementCacheHits() {
+        return mStatementHits.get();
+    }
+
+    @NonNull
+    private Connection acquire() {
+        Connection writable = mWritable;
+        if (writable != null) {
+            return writable;
+        }
+
+        Connection connection = mIdle.poll();
+        if (connection != null) {
+            return connection;
+        }
+
+        if (mOpened.incrementAndGet() <= POOL_SIZE) {
+            try {
+                return open();
+            } catch (SQLiteException e) {
+                mOpened.decrementAndGet();
+                Log.w(TAG, "Could not open read only connection: " + e); // NoI18N
+                return useWritable();
+            }
+        }
+        mOpened.decrementAndGet();
+
+        try {
+            return mIdle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return useWritable();
+        }
+    }
+
+    private void release(@NonNull Connection argConnection) {
+        if (argConnection != mWritable) {
+            mIdle.offer(argConnection);
+        }
+    }
+
+    @NonNull
+    private Connection open() {
+        // Creates or upgrades the database and turns on WAL before anything reads it
+        String path = mHelper.getWritableDatabase().getPath();
+        Log.d(TAG, "Opening read only connection " + mOpened.get()); // NoI18N
+        SQLiteDatabase database = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READONLY);
+        database.setMaxSqlCacheSize(STATEMENT_CACHE_SIZE);
+        return new Connection(database);
+    }
+
+    @NonNull
+    private synchronized Connection useWritable() {
+        if (mWritable == null) {
+            mWritable = new Connection(mHelper.getWritableDatabase());
+        }
+        return mWritable;
+    }
+
+    private void record(long argWaitNanos, long argExecuteNanos) {
+        long queries = mQueries.incrementAndGet();
+        long wait = mWaitNanos.addAndGet(argWaitNanos);
+        long execute = mExecuteNanos.addAndGet(argExecuteNanos);
+
+        long maxWait;
+        do {
+            maxWait = mMaxWaitNanos.get();
+        } while (argWaitNanos > maxWait && !mMaxWaitNanos.compareAndSet(maxWait, argWaitNanos));
+
+        if (queries % LOG_INTERVAL == 0) {
+            Log.d(TAG, queries + " queries. Waiting: " + (wait / queries / 1000) + " us/query, " // NoI18N
+                    + "max " + (mMaxWaitNanos.get() / 1000) + " us. Executing: " // NoI18N
+                    + (execute / queries / 1000) + " us/query. Statement cache hits: " // NoI18N
+                    + (mStatementHits.get() * 100 / queries) + "%"); // NoI18N
+        }
+    }
+
+    private static class Connection {
+
+        @NonNull final SQLiteDatabase database;
+
+        // The SQL of the statements the connection has compiled, least recently used first
+        private final LinkedHashMap<String, Boolean> mStatements =
+                new LinkedHashMap<String, Boolean>(STATEMENT_CACHE_SIZE, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> argEldest) {
+                        return size() > STATEMENT_CACHE_SIZE;
+                    }
+                };
+
+        Connection(@NonNull SQLiteDatabase argDatabase) {
+            database = argDatabase;
+        }
+
+        /**
+         * @return True if the connection has compiled the SQL already
+         */
+        synchronized boolean compile(@NonNull String argSql) {
+            return mStatements.put(argSql, Boolean.TRUE) != null;
+        }
+    }
+}
@@ -119,6 +119,11 @@ public class SlimEpisode extends BaseEpisode implements Parcelable {
         return null;
     }
 
+    @Override
+    public long getSortKey() {
+        return NO_SORT_KEY;
+    }
+
     @Override
     public Date getCreatedAt() {
         return new Date();
@@ -101,6 +101,8 @@ public class Subscription extends BasePodcastSubscription {
 		mSettings = -1;
 		new_episodes_cache = -1;
 		episode_count_cache = -1;
+		http_etag = null;
+		http_last_modified = null;
 	}
 
 	public Subscription(@NonNull SharedPreferences argSharedPreferences) {
@@ -140,9 +142,8 @@ public class Subscription extends BasePodcastSubscription {
 	}
 
 	public boolean addEpisode(@NonNull IEpisode argEpisode, boolean argSilent) {
-		if (contains(argEpisode)) {
-
-			IEpisode modelEpisode = getMatchingEpisode(argEpisode);
+		IEpisode modelEpisode = getMatchingEpisode(argEpisode);
+		if (modelEpisode != null) {
 			updateEpisodeData(modelEpisode, argEpisode);
 
 			return false;
@@ -366,6 +367,31 @@ public class Subscription extends BasePodcastSubscription {
 		return this.lastUpdated;
 	}
 
+	@android.support.annotation.Nullable
+	public String getHttpETag() {
+		return http_etag;
+	}
+
+	@android.support.annotation.Nullable
+	public String getHttpLastModified() {
+		return http_last_modified;
+	}
+
+	/**
+	 * Store the HTTP validators of the last successfully parsed version of the feed.
+	 * They should only be set once the content of the feed has been persisted, otherwise a 304
+	 * response would hide episodes we never stored.
+	 */
+	public void setHttpValidators(@android.support.annotation.Nullable String argETag,
+								  @android.support.annotation.Nullable String argLastModified) {
+		if (TextUtils.equals(http_etag, argETag) && TextUtils.equals(http_last_modified, argLastModified))
+			return;
+
+		http_etag = argETag;
+		http_last_modified = argLastModified;
+		notifyPropertyChanged(null);
+	}
+
 	public int getStatus() {
 		if (!IsSubscribed())
 			return STATUS_UNSUBSCRIBED;
@@ -380,6 +406,11 @@ public class Subscription extends BasePodcastSubscription {
 
     public void unsubscribe(@NonNull String argTag) {
 		VendorCrashReporter.report("Unsubscribe" , argTag + "mTitle: " + mTitle + " mUrlString: " + mUrlString);
+
+		// The episodes are deleted when unsubscribing, so the next refresh must fetch the full feed.
+		http_etag = null;
+		http_last_modified = null;
+
         setStatus(STATUS_UNSUBSCRIBED, argTag);
     }
 
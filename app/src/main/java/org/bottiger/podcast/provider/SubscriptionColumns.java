@@ -48,6 +48,12 @@ public class SubscriptionColumns implements BaseColumns {
 
 	public static final String SETTINGS = "settings";
 
+	/**
+	 * HTTP validators from the last successful refresh. Used for conditional GET requests.
+	 */
+	public static final String HTTP_ETAG = "http_etag";
+	public static final String HTTP_LAST_MODIFIED = "http_last_modified";
+
 	public static final String DEFAULT_SORT_ORDER = _ID + " ASC";
 	public static final String sql_create_table = "CREATE TABLE " 
 		+ TABLE_NAME + " (" 
@@ -74,7 +80,9 @@ public class SubscriptionColumns implements BaseColumns {
 		+ SECONDARY_COLOR + " INTEGER DEFAULT 0 , "
         + SETTINGS + " INTEGER DEFAULT -1 , "
 		+ NEW_EPISODES + " INTEGER DEFAULT 0 , "
-		+ EPISODE_COUNT + " INTEGER DEFAULT 0 "
+		+ EPISODE_COUNT + " INTEGER DEFAULT 0 , "
+		+ HTTP_ETAG + " VARCHAR(256) , "
+		+ HTTP_LAST_MODIFIED + " VARCHAR(64) "
 		+ ");";
 
 	public static final String sql_index_subs_url = "CREATE UNIQUE INDEX IDX_"
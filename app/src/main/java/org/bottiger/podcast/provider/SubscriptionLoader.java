@@ -66,6 +66,13 @@ public class SubscriptionLoader {
             sub.setEpisodeCount(cursor.getInt(episodeCountIndex));
         }
 
+        int etagIndex = cursor.getColumnIndex(SubscriptionColumns.HTTP_ETAG);
+        int lastModifiedIndex = cursor.getColumnIndex(SubscriptionColumns.HTTP_LAST_MODIFIED);
+        if (etagIndex > 0 && lastModifiedIndex > 0) {
+            sub.http_etag = cursor.getString(etagIndex);
+            sub.http_last_modified = cursor.getString(lastModifiedIndex);
+        }
+
         sub.setIsRefreshing(false);
 
         return sub;
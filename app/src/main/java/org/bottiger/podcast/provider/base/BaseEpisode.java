@@ -13,6 +13,7 @@ import org.bottiger.podcast.service.PlayerService;
 import org.bottiger.podcast.utils.SDCardManager;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.chapter.Chapter;
+import org.bottiger.podcast.utils.chapter.ChapterTimeline;
 
 import java.io.IOException;
 import java.util.LinkedList;
@@ -24,6 +25,7 @@ import java.util.List;
 public abstract class BaseEpisode extends LiveData<IEpisode> implements IEpisode {
 
     private List<Chapter> mChapters;
+    private ChapterTimeline mChapterTimeline = ChapterTimeline.EMPTY;
     private double mProgress = -1;
 
     public BaseEpisode() {
@@ -47,12 +49,18 @@ public abstract class BaseEpisode extends LiveData<IEpisode> implements IEpisode
     public void setChapters(@NonNull List<Chapter> argChapters) {
         boolean changed = mChapters.size() != argChapters.size();
         mChapters = argChapters;
+        mChapterTimeline = ChapterTimeline.of(argChapters);
 
         if (changed) {
             notifyPropertyChanged(EpisodeChanged.CHANGED);
         }
     }
 
+    @NonNull
+    public ChapterTimeline getChapterTimeline() {
+        return mChapterTimeline;
+    }
+
     public boolean hasChapters() {
         return mChapters.size()>0;
     }
@@ -83,13 +91,10 @@ public abstract class BaseEpisode extends LiveData<IEpisode> implements IEpisode
     }
 
     /**
-     * http://docs.oracle.com/javase/6/docs/api/java/lang/String.html#compareTo
-     *      %28java.lang.String%29
      * @return True of the current FeedItem is newer than the supplied argument
      */
     public boolean newerThan(IEpisode item) {
-        int comparator = this.getDateTime().compareTo(item.getDateTime());
-        return comparator > 0;
+        return getSortKey() > item.getSortKey();
     }
 
     public void setIsParsing(boolean argIsParsing) {
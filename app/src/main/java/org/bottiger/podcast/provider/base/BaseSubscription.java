@@ -28,9 +28,9 @@ import org.bottiger.podcast.utils.ColorExtractor;
 import org.bottiger.podcast.utils.ErrorUtils;
 import org.bottiger.podcast.utils.ImageLoaderUtils;
 import org.bottiger.podcast.utils.StrUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.io.IOException;
-import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -44,7 +44,6 @@ import io.reactivex.SingleObserver;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 
 /**
  * Created by aplb on 08-06-2016.
@@ -101,17 +100,11 @@ public abstract class BaseSubscription extends LiveData<ISubscription> implement
             if (o2 == null)
                 return -1;
 
-            Date dt1 = o1.getDateTime();
+            // Newest first. Episodes without a date have the smallest key, so they come last
+            long key1 = o1.getSortKey();
+            long key2 = o2.getSortKey();
 
-            if (dt1 == null)
-                return 1;
-
-            Date dt2 = o2.getDateTime();
-
-            if (dt2 == null)
-                return -1;
-
-            return o2.getDateTime().compareTo(o1.getDateTime());
+            return key1 == key2 ? 0 : (key1 < key2 ? 1 : -1);
         }
 
         @Override
@@ -306,7 +299,7 @@ public abstract class BaseSubscription extends LiveData<ISubscription> implement
     @MainThread
     public void cacheImage(@NonNull final Context argContext) {
         Single.just(argContext)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .map(new Function<Context, Boolean>() {
                     @Override
                     public Boolean apply(Context context) throws Exception {
@@ -355,18 +348,12 @@ public abstract class BaseSubscription extends LiveData<ISubscription> implement
 
     @Nullable
     protected IEpisode getMatchingEpisode(@NonNull IEpisode argEpisode) {
-        for (int i = 0; i < getEpisodes().size(); i++) {
-            if (getEpisodes().get(i).equals(argEpisode))
-                return getEpisodes().get(i);
-        }
-
-        return null;
+        return getEpisodes().find(argEpisode);
     }
 
     public boolean contains(@NonNull IEpisode argEpisode) {
 
-        // For some reason this doesn't work
-        //return mEpisodes.indexOf(argEpisode) >= 0;
+        // indexOf() searches by the sort order, so an episode whose date has changed is not found
         IEpisode matchingEpisode = getMatchingEpisode(argEpisode);
 
         return matchingEpisode != null;
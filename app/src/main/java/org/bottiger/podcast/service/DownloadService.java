@@ -1,39 +1,52 @@
 package org.bottiger.podcast.service;
 
-import android.app.IntentService;
+import android.app.Service;
 import android.arch.lifecycle.MutableLiveData;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.TextUtils;
 import android.util.Log;
 
+import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.listeners.DownloadProgressPublisher;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.provider.QueueEpisode;
 import org.bottiger.podcast.provider.SlimImplementations.SlimEpisode;
+import org.bottiger.podcast.service.Downloader.DownloadScheduler;
 import org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager;
 import org.bottiger.podcast.service.Downloader.engines.IDownloadEngine;
 import org.bottiger.podcast.utils.ErrorUtils;
+import org.bottiger.podcast.utils.NamedThreadFactory;
 import org.bottiger.podcast.utils.NetworkUtils;
+import org.bottiger.podcast.utils.PreferenceHelper;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager.postQueueChangedEvent;
 
 /**
+ * Keeps the download queue and starts the downloads in it. The downloads themselves run in parallel
+ * on the {@link DownloadScheduler}, the service stops itself when no downloads are running.
+ *
  * Created by apl on 18-09-2014.
  */
-public class DownloadService extends IntentService {
+public class DownloadService extends Service {
 
-    private static final String SERVICE_NAME = "SoundWaves Download Service";
     private static final String TAG = DownloadService.class.getSimpleName();
 
     private static final String PARAM_IN_ID = "id";
@@ -43,23 +56,31 @@ public class DownloadService extends IntentService {
     private static ReentrantLock sLock = new ReentrantLock();
     private static MutableLiveData<List<QueueEpisode>> sLiveQueue = new MutableLiveData<>();
 
+    private static final DownloadScheduler sScheduler = new DownloadScheduler(DownloadScheduler.DEFAULT_MAX_DOWNLOADS,
+            DownloadScheduler.DEFAULT_MAX_DOWNLOADS_PER_HOST);
+
+    // Serializes the scheduling, so the main thread never waits for the queue or the storage checks
+    private static final ExecutorService sQueueExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("DownloadQueue")); // NoI18N
+
     private DownloadProgressPublisher mProgressPublisher;
     private SoundWavesDownloadManager mSoundWavesDownloadManager;
-
-    /**
-     * Creates an IntentService.  Invoked by your subclass's constructor.
-     */
-    public DownloadService() {
-        super(SERVICE_NAME);
-    }
+    private Handler mMainHandler;
+    private volatile int mLastStartId;
 
     @Override
     public void onCreate() {
         super.onCreate();
+        mMainHandler = new Handler(Looper.getMainLooper());
         mSoundWavesDownloadManager = new SoundWavesDownloadManager(getApplicationContext());
         mProgressPublisher = new DownloadProgressPublisher(SoundWaves.getAppContext(getApplicationContext()), mSoundWavesDownloadManager);
     }
 
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
     /**
      *
      * @param argEpisode
@@ -105,80 +126,96 @@ public class DownloadService extends IntentService {
             }
         }
 
-        // make sure you call the super class to ensure everything performs as expected
-        return super.onStartCommand(intent, flags, startId);
+        mLastStartId = startId;
+        sQueueExecutor.execute(this::scheduleDownloads);
+
+        return START_NOT_STICKY;
     }
 
-    @Override
-    protected void onHandleIntent(Intent intent) {
-        Log.d(TAG, "onHandleIntent called");
+    /**
+     * Start as many downloads from the queue as the scheduler allows. Runs on the queue thread.
+     */
+    @WorkerThread
+    private void scheduleDownloads() {
+        Log.d(TAG, "scheduleDownloads called");
 
-        boolean downloadStarted = false;
-        QueueEpisode episode = null;
+        updateLimits();
 
-        // Locate the next episode to be downloaded.
-        try {
-            sLock.lock();
-            int queueChanced = 0;
+        while (true) {
+            QueueEpisode episode;
+            IEpisode feedItem;
+            IDownloadEngine engine;
 
-            List<QueueEpisode> episodes = sLiveQueue.getValue();
+            try {
+                sLock.lock();
 
-            int size = episodes == null ? 0 : episodes.size();
-            for (int i = 0; i < size && !downloadStarted; i++) {
-                episode = episodes.get(i);
+                List<QueueEpisode> episodes = sLiveQueue.getValue();
+                if (episodes == null) {
+                    break;
+                }
 
-                if (episode != null) {
-                    boolean canDownload = false;
-                    try {
-                        canDownload = NetworkUtils.canDownload(episode, this, sLock);
-                    } catch (IOException e) {
-                        ErrorUtils.handleException(e);
-                    }
-                    if (canDownload) {
-                        downloadStarted = true;
-                    } else {
-                        // in case the download couldn't start
-                        //sQueue.remove(episode);
-                        episodes.remove(episode);
-                        queueChanced++;
-
-                        // This need to be more general and work for SlimEpisodes
-                        if (!(episode.getEpisode() instanceof FeedItem)) {
-                            ((FeedItem)episode.getEpisode()).downloadAborted();
-                        }
-                    }
+                episode = sScheduler.nextDownload(episodes);
+                if (episode == null) {
+                    break;
                 }
-            }
 
-            sLiveQueue.postValue(episodes);
+                boolean canDownload = false;
+                try {
+                    canDownload = NetworkUtils.canDownload(episode, this, sLock);
+                } catch (IOException e) {
+                    ErrorUtils.handleException(e);
+                }
 
-            if (queueChanced > 0) {
-                postQueueChangedEvent(null, SoundWavesDownloadManager.UNDEFINED);
-            }
+                if (!canDownload) {
+                    // in case the download couldn't start
+                    episodes.remove(episode);
+                    sLiveQueue.postValue(episodes);
+                    postQueueChangedEvent(null, SoundWavesDownloadManager.UNDEFINED);
 
-        } finally {
-            sLock.unlock();
-        }
+                    // This need to be more general and work for SlimEpisodes
+                    if (episode.getEpisode() instanceof FeedItem) {
+                        ((FeedItem)episode.getEpisode()).downloadAborted();
+                    }
+                    continue;
+                }
 
-        if (episode == null) {
-            return;
-        }
+                feedItem = episode.getEpisode();
+                engine = NetworkUtils.newEngine(this, feedItem);
+                engine.addCallback(mSoundWavesDownloadManager.getIDownloadEngineCallback());
 
-        IEpisode feedItem = episode.getEpisode();
+                final IEpisode finishedEpisode = feedItem;
+                sScheduler.start(episode, engine, () -> {
+                    // The engine normally removes the episode itself, but not if it failed early
+                    remove(finishedEpisode);
+                    sQueueExecutor.execute(this::scheduleDownloads);
+                });
+            } finally {
+                sLock.unlock();
+            }
 
-        IDownloadEngine mEngine = NetworkUtils.newEngine(this, feedItem);
-        mEngine.addCallback(mSoundWavesDownloadManager.getIDownloadEngineCallback());
+            Log.d(TAG, "Start downloading: " + feedItem);
 
-        Log.d(TAG, "Start downloading: " + feedItem);
-        List<QueueEpisode> episodes = sLiveQueue.getValue();
-        int size = episodes != null ? episodes.size() : 0;
-        mEngine.startDownload(size > 0);
+            if (feedItem instanceof FeedItem) {
+                mProgressPublisher.addEpisode((FeedItem) feedItem);
+            }
+        }
 
-        if (feedItem instanceof FeedItem) {
-            mProgressPublisher.addEpisode((FeedItem) feedItem);
+        if (sScheduler.getRunningCount() == 0) {
+            Log.d(TAG, "No more downloads, stopping");
+            mMainHandler.post(() -> stopSelf(mLastStartId));
         }
     }
 
+    private void updateLimits() {
+        String maxDownloads = PreferenceHelper.getStringPreferenceValue(this,
+                R.string.pref_max_concurrent_downloads_key,
+                R.string.pref_max_concurrent_downloads_default);
+        String maxDownloadsPerHost = PreferenceHelper.getStringPreferenceValue(this,
+                R.string.pref_max_downloads_per_host_key,
+                R.string.pref_max_downloads_per_host_default);
+        sScheduler.setLimits(Integer.parseInt(maxDownloads), Integer.parseInt(maxDownloadsPerHost));
+    }
+
     @Nullable
     private QueueEpisode getEpisode(@Nullable Intent argIntent) {
         if (argIntent == null)
@@ -230,17 +267,32 @@ public class DownloadService extends IntentService {
         return getQueue().size();
     }
 
-    public static void removeFirst() {
+    @NonNull
+    public static DownloadScheduler getScheduler() {
+        return sScheduler;
+    }
+
+    /**
+     * Remove the episode from the queue, e.g. because it has been downloaded.
+     */
+    public static void remove(@NonNull IEpisode argEpisode) {
 
-        // Queue have been cleared while downloading the current file
+        // Queue have been cleared while downloading the file
         sLock.lock();
         try {
             List<QueueEpisode> episodes = sLiveQueue.getValue();
 
-            if (episodes != null && episodes.size() > 0) {
-                episodes.remove(0);
+            if (episodes == null)
+                return;
+
+            String url = argEpisode.getURL();
+            for (int i = 0; i < episodes.size(); i++) {
+                if (TextUtils.equals(url, episodes.get(i).getEpisode().getURL())) {
+                    episodes.remove(i);
+                    sLiveQueue.postValue(episodes);
+                    return;
+                }
             }
-            sLiveQueue.postValue(episodes);
         } finally {
             sLock.unlock();
         }
@@ -250,30 +302,11 @@ public class DownloadService extends IntentService {
         return getSize()>0;
     }
 
-    /* Return the FeedItem currently being downloaded
-     *
-     * @return The downloading FeedItem
+    /* Return true if the episode is being downloaded right now
      */
-     @Nullable
-     public static IEpisode getDownloadingItem() {
-         sLock.lock();
-         try {
-             List<QueueEpisode> episodes = sLiveQueue.getValue();
-
-             if (episodes == null || episodes.size() == 0)
-                 return null;
-
-             QueueEpisode downloadingItem = episodes.get(0);
-
-             if (downloadingItem == null) {
-                 return null;
-             }
-
-             return downloadingItem.getEpisode();
-         } finally {
-             sLock.unlock();
-         }
-     }
+    public static boolean isDownloading(@Nullable IEpisode argEpisode) {
+        return sScheduler.isDownloading(argEpisode);
+    }
 
     public static void clearQueue() {
         sLock.lock();
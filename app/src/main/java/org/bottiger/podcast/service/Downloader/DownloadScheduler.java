@@ -0,0 +1,219 @@
+package org.bottiger.podcast.service.Downloader;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.ArrayMap;
+import android.util.Log;
+
+import org.bottiger.podcast.provider.IEpisode;
+import org.bottiger.podcast.provider.QueueEpisode;
+import org.bottiger.podcast.service.Downloader.engines.IDownloadEngine;
+import org.bottiger.podcast.utils.ErrorUtils;
+import org.bottiger.podcast.utils.NamedThreadFactory;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a number of episode downloads in parallel.
+ *
+ * The scheduler does not own the download queue. It picks the next episode to start from the queue
+ * it is given, while respecting a global limit and a limit per host. Episodes which were started
+ * manually are picked before automatic downloads, and one slot is kept free for them, so a manual
+ * download never has to wait for a batch of automatic downloads to finish.
+ *
+ * Created by apl on 18-10-2026.
+ */
+public class DownloadScheduler {
+
+    private static final String TAG = DownloadScheduler.class.getSimpleName();
+
+    public static final int DEFAULT_MAX_DOWNLOADS = 3;
+    public static final int DEFAULT_MAX_DOWNLOADS_PER_HOST = 2;
+
+    // Number of download slots automatic downloads can not use
+    private static final int RESERVED_MANUAL_SLOTS = 1;
+
+    private static class RunningDownload {
+        final QueueEpisode episode;
+        final IDownloadEngine engine;
+        final String host;
+
+        RunningDownload(@NonNull QueueEpisode argEpisode, @NonNull IDownloadEngine argEngine, @NonNull String argHost) {
+            episode = argEpisode;
+            engine = argEngine;
+            host = argHost;
+        }
+    }
+
+    // Keyed by the URL of the episode
+    private final ArrayMap<String, RunningDownload> mRunning = new ArrayMap<>();
+    private final ThreadPoolExecutor mExecutor;
+
+    private int mMaxDownloads;
+    private int mMaxDownloadsPerHost;
+
+    public DownloadScheduler(int argMaxDownloads, int argMaxDownloadsPerHost) {
+        mMaxDownloads = Math.max(1, argMaxDownloads);
+        mMaxDownloadsPerHost = Math.max(1, argMaxDownloadsPerHost);
+
+        // Admission is controlled by nextDownload(), so the work queue never grows beyond the limit
+        mExecutor = new ThreadPoolExecutor(mMaxDownloads,
+                mMaxDownloads,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamedThreadFactory("Download")); // NoI18N
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public synchronized void setLimits(int argMaxDownloads, int argMaxDownloadsPerHost) {
+        mMaxDownloads = Math.max(1, argMaxDownloads);
+        mMaxDownloadsPerHost = Math.max(1, argMaxDownloadsPerHost);
+
+        if (mMaxDownloads > mExecutor.getMaximumPoolSize()) {
+            mExecutor.setMaximumPoolSize(mMaxDownloads);
+            mExecutor.setCorePoolSize(mMaxDownloads);
+        } else {
+            mExecutor.setCorePoolSize(mMaxDownloads);
+            mExecutor.setMaximumPoolSize(mMaxDownloads);
+        }
+    }
+
+    /**
+     * Find the next episode in the queue which may start downloading now.
+     *
+     * @param argQueue The download queue, in the order the user wants the episodes downloaded
+     * @return The episode to start, or null if no episode may start before a running download is done
+     */
+    @Nullable
+    public synchronized QueueEpisode nextDownload(@NonNull List<QueueEpisode> argQueue) {
+        if (mRunning.size() >= mMaxDownloads) {
+            return null;
+        }
+
+        QueueEpisode next = firstEligible(argQueue, true);
+        if (next != null) {
+            return next;
+        }
+
+        int maxAutomatic = Math.max(1, mMaxDownloads - RESERVED_MANUAL_SLOTS);
+        if (countAutomatic() >= maxAutomatic) {
+            return null;
+        }
+
+        return firstEligible(argQueue, false);
+    }
+
+    /**
+     * Start downloading the episode on a download thread.
+     *
+     * @param argOnFinished Called on the download thread when the download has succeeded or failed
+     */
+    public synchronized void start(@NonNull final QueueEpisode argEpisode,
+                                   @NonNull final IDownloadEngine argEngine,
+                                   @NonNull final Runnable argOnFinished) {
+        final String key = getKey(argEpisode.getEpisode());
+        mRunning.put(key, new RunningDownload(argEpisode, argEngine, getHost(argEpisode.getEpisode())));
+        Log.d(TAG, "Starting download (" + mRunning.size() + " running): " + argEpisode); // NoI18N
+
+        mExecutor.execute(() -> {
+            try {
+                argEngine.startDownload(false);
+            } catch (Exception e) {
+                ErrorUtils.handleException(e);
+            } finally {
+                synchronized (DownloadScheduler.this) {
+                    mRunning.remove(key);
+                }
+                argOnFinished.run();
+            }
+        });
+    }
+
+    public synchronized boolean isDownloading(@Nullable IEpisode argEpisode) {
+        return argEpisode != null && mRunning.containsKey(getKey(argEpisode));
+    }
+
+    @Nullable
+    public synchronized IDownloadEngine getEngine(@Nullable IEpisode argEpisode) {
+        if (argEpisode == null) {
+            return null;
+        }
+
+        RunningDownload download = mRunning.get(getKey(argEpisode));
+        return download != null ? download.engine : null;
+    }
+
+    @NonNull
+    public synchronized List<IDownloadEngine> getEngines() {
+        List<IDownloadEngine> engines = new ArrayList<>(mRunning.size());
+        for (int i = 0; i < mRunning.size(); i++) {
+            engines.add(mRunning.valueAt(i).engine);
+        }
+        return engines;
+    }
+
+    public synchronized int getRunningCount() {
+        return mRunning.size();
+    }
+
+    @Nullable
+    private QueueEpisode firstEligible(@NonNull List<QueueEpisode> argQueue, boolean argStartedManually) {
+        for (int i = 0; i < argQueue.size(); i++) {
+            QueueEpisode episode = argQueue.get(i);
+            if (episode == null || episode.IsStartedManually() != argStartedManually) {
+                continue;
+            }
+
+            if (mRunning.containsKey(getKey(episode.getEpisode()))) {
+                continue;
+            }
+
+            if (countHost(getHost(episode.getEpisode())) >= mMaxDownloadsPerHost) {
+                continue;
+            }
+
+            return episode;
+        }
+
+        return null;
+    }
+
+    private int countAutomatic() {
+        int count = 0;
+        for (int i = 0; i < mRunning.size(); i++) {
+            if (!mRunning.valueAt(i).episode.IsStartedManually()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int countHost(@NonNull String argHost) {
+        int count = 0;
+        for (int i = 0; i < mRunning.size(); i++) {
+            if (argHost.equals(mRunning.valueAt(i).host)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @NonNull
+    private static String getKey(@NonNull IEpisode argEpisode) {
+        String url = argEpisode.getURL();
+        return url != null ? url : "";
+    }
+
+    @NonNull
+    private static String getHost(@NonNull IEpisode argEpisode) {
+        URL url = argEpisode.getUrl();
+        String host = url != null ? url.getHost() : null;
+        return host != null ? host : "";
+    }
+}
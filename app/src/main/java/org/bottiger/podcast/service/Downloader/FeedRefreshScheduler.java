@@ -0,0 +1,215 @@
+package org.bottiger.podcast.service.Downloader;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import org.bottiger.podcast.utils.ErrorUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Runs feed refreshes concurrently.
+ *
+ * Fetches are handed to the OkHttp Dispatcher, which enforces a global and a per-host cap on the
+ * number of requests in flight. Once a feed has been downloaded it is parsed on the CPU lane,
+ * so slow parses never hold a network slot. When the queue of the lane is full the network
+ * thread parses the feed itself, which throttles the fetches instead of buffering every feed in memory.
+ *
+ * Created by apl on 18-10-2026.
+ */
+public class FeedRefreshScheduler {
+
+    private static final String TAG = "FeedRefreshScheduler";
+
+    public static final int MAX_CONCURRENT_FETCHES = 8;
+    public static final int MAX_FETCHES_PER_HOST = 2;
+
+    public interface FeedHandler {
+        /**
+         * Called on a parse thread with a response whose body has already been read into memory.
+         */
+        @WorkerThread
+        void onFetched(@NonNull Response argResponse);
+
+        /**
+         * Called when the request could not be completed.
+         */
+        @WorkerThread
+        void onFailed(@NonNull IOException argException);
+    }
+
+    /**
+     * A group of refreshes which are timed together, e.g. a full refresh of the library.
+     *
+     * The batch is done once it has been closed and every refresh queued in it has completed.
+     */
+    public static class Batch {
+        private final String mName;
+        @Nullable private final Runnable mOnDone;
+        private final long mStartTime = System.currentTimeMillis();
+        // Starts at one, which is released by close(), so the batch is not done while it is being filled
+        private final AtomicInteger mPending = new AtomicInteger(1);
+        private final AtomicInteger mCompleted = new AtomicInteger();
+        private final AtomicLong mFetchTimeSum = new AtomicLong();
+        private final AtomicLong mParseTimeSum = new AtomicLong();
+
+        private Batch(@NonNull String argName, @Nullable Runnable argOnDone) {
+            mName = argName;
+            mOnDone = argOnDone;
+        }
+
+        /**
+         * Called once every refresh of the batch has been queued.
+         */
+        public void close() {
+            release();
+        }
+
+        private void taskQueued() {
+            mPending.incrementAndGet();
+        }
+
+        private void taskDone(long argFetchTime, long argParseTime) {
+            mCompleted.incrementAndGet();
+            mFetchTimeSum.addAndGet(argFetchTime);
+            mParseTimeSum.addAndGet(argParseTime);
+            release();
+        }
+
+        private void release() {
+            if (mPending.decrementAndGet() == 0) {
+                long wallClock = System.currentTimeMillis() - mStartTime;
+                long serialTime = mFetchTimeSum.get() + mParseTimeSum.get();
+                Log.i(TAG, mName + ": refreshed " + mCompleted.get() + " feeds in " + wallClock + " ms" // NoI18N
+                        + " (fetch: " + mFetchTimeSum.get() + " ms, parse: " + mParseTimeSum.get() + " ms" // NoI18N
+                        + ", serial estimate: " + serialTime + " ms), " // NoI18N
+                        + OkHttpClientFactory.getConnectionMetrics() + ", " + Lanes.CPU); // NoI18N
+
+                if (mOnDone != null) {
+                    mOnDone.run();
+                }
+            }
+        }
+    }
+
+    @NonNull private final OkHttpClient mClient;
+    @NonNull private final Executor mParseExecutor = Lanes.CPU;
+
+    public FeedRefreshScheduler(@NonNull OkHttpClient argBaseClient) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_CONCURRENT_FETCHES);
+        dispatcher.setMaxRequestsPerHost(MAX_FETCHES_PER_HOST);
+
+        // newBuilder() keeps the shared connection pool and the interceptors of the base client.
+        mClient = argBaseClient.newBuilder()
+                .dispatcher(dispatcher)
+                .build();
+    }
+
+    @NonNull
+    public OkHttpClient getHttpClient() {
+        return mClient;
+    }
+
+    @NonNull
+    public Batch newBatch(@NonNull String argName) {
+        return newBatch(argName, null);
+    }
+
+    /**
+     * @param argName The name the batch is logged with
+     * @param argOnDone Run when the batch is done, on the thread which completed the last refresh
+     *                  or closed the batch
+     */
+    @NonNull
+    public Batch newBatch(@NonNull String argName, @Nullable Runnable argOnDone) {
+        return new Batch(argName, argOnDone);
+    }
+
+    /**
+     * Fetch and parse a single feed.
+     *
+     * @param argBatch The batch the refresh is timed as part of
+     * @param argRequest The feed request
+     * @param argHandler Receives the downloaded feed on the parse pool
+     */
+    public void enqueue(@NonNull final Batch argBatch,
+                        @NonNull final Request argRequest,
+                        @NonNull final FeedHandler argHandler) {
+        argBatch.taskQueued();
+        final long queuedAt = System.currentTimeMillis();
+
+        mClient.newCall(argRequest).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                long fetchTime = System.currentTimeMillis() - queuedAt;
+                try {
+                    argHandler.onFailed(e);
+                } finally {
+                    argBatch.taskDone(fetchTime, 0);
+                }
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                final Response bufferedResponse;
+                try {
+                    bufferedResponse = bufferBody(response);
+                } catch (IOException e) {
+                    onFailure(call, e);
+                    return;
+                }
+
+                final long fetchTime = System.currentTimeMillis() - queuedAt;
+                mParseExecutor.execute(() -> {
+                    long parseStart = System.currentTimeMillis();
+                    try {
+                        argHandler.onFetched(bufferedResponse);
+                    } catch (Exception e) {
+                        ErrorUtils.handleException(e);
+                    } finally {
+                        long parseTime = System.currentTimeMillis() - parseStart;
+                        Log.d(TAG, "Refreshed: " + argRequest.url() + " fetch: " + fetchTime + " ms, parse: " + parseTime + " ms"); // NoI18N
+                        argBatch.taskDone(fetchTime, parseTime);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Read the body on the network thread so the connection is released before the response is
+     * handed to the parse pool.
+     */
+    @NonNull
+    private static Response bufferBody(@NonNull Response argResponse) throws IOException {
+        ResponseBody body = argResponse.body();
+        if (body == null) {
+            return argResponse;
+        }
+
+        try {
+            byte[] bytes = body.bytes();
+            return argResponse.newBuilder()
+                    .body(ResponseBody.create(body.contentType(), bytes))
+                    .build();
+        } finally {
+            body.close();
+        }
+    }
+}
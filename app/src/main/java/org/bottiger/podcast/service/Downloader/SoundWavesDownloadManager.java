@@ -21,6 +21,7 @@ import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.TopActivity;
 import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
 import org.bottiger.podcast.listeners.DownloadProgressPublisher;
+import org.bottiger.podcast.player.exoplayer.AudioAnalyzer;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.provider.ISubscription;
@@ -28,7 +29,10 @@ import org.bottiger.podcast.provider.QueueEpisode;
 import org.bottiger.podcast.service.DownloadService;
 import org.bottiger.podcast.service.DownloadStatus;
 import org.bottiger.podcast.service.Downloader.engines.IDownloadEngine;
+import org.bottiger.podcast.utils.ErrorUtils;
+import org.bottiger.podcast.utils.PreferenceHelper;
 import org.bottiger.podcast.utils.StorageUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.io.File;
 import java.io.IOException;
@@ -95,8 +99,6 @@ public class SoundWavesDownloadManager extends Observable {
 
 	private Context mContext = null;
 
-    private IDownloadEngine mEngine = null;
-
     @NonNull private DownloadProgressPublisher mProgressPublisher;
     @NonNull private IDownloadEngine.Callback mDownloadCompleteCallback;
 
@@ -123,18 +125,15 @@ public class SoundWavesDownloadManager extends Observable {
 
         FeedItem item = (FeedItem)argEpisode;
 
+		if (DownloadService.isDownloading(item)) {
+            return DownloadStatus.DOWNLOADING;
+        }
+
         QueueEpisode qe = new QueueEpisode(item);
 		if (DownloadService.getQueue().contains(qe)) {
             return DownloadStatus.PENDING;
         }
 
-		IEpisode downloadingItem = DownloadService.getDownloadingItem();
-		if (downloadingItem != null) {
-            if (item.equals(downloadingItem)) {
-                return DownloadStatus.DOWNLOADING;
-            }
-        }
-
 		if (item.isDownloaded(mContext)) {
 			return DownloadStatus.DONE;
 		} else if (item.chunkFilesize > 0) {
@@ -176,11 +175,13 @@ public class SoundWavesDownloadManager extends Observable {
         return mDownloadCompleteCallback;
     }
 
-    @Deprecated
+    /**
+     * Abort the download of the episode, if it is running.
+     */
     public void removeDownloadingEpisode(IEpisode argEpisode) {
-        IDownloadEngine engine = mEngine;
+        IDownloadEngine engine = DownloadService.getScheduler().getEngine(argEpisode);
         if (engine != null)
-            mEngine.abort();
+            engine.abort();
     }
 
     public void addItemToQueue(IEpisode argEpisode, @QueuePosition int argPosition) {
@@ -213,7 +214,9 @@ public class SoundWavesDownloadManager extends Observable {
     }
 
     public void cancelCurrentDownload() {
-        mEngine.abort();
+        for (IDownloadEngine engine : DownloadService.getScheduler().getEngines()) {
+            engine.abort();
+        }
     }
 
 	/**
@@ -224,8 +227,8 @@ public class SoundWavesDownloadManager extends Observable {
 	}
 
     @Nullable
-    public IDownloadEngine getCurrentDownloadProcess() {
-        return mEngine;
+    public IDownloadEngine getDownloadProcess(@Nullable IEpisode argEpisode) {
+        return DownloadService.getScheduler().getEngine(argEpisode);
     }
 
     public static long bytesToKeep(@NonNull SharedPreferences argSharedPreference, @NonNull Resources argResources) {
@@ -273,6 +276,10 @@ public class SoundWavesDownloadManager extends Observable {
 
             SoundWaves.getAppContext(mContext).getLibraryInstance().updateEpisode(item);
 
+            if (!item.isVideo()) {
+                analyzeAudio(item);
+            }
+
             Intent intent = new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE);
             try {
                 intent.setData(Uri.fromFile(new File(item.getAbsolutePath(mContext))));
@@ -284,9 +291,8 @@ public class SoundWavesDownloadManager extends Observable {
 
             mContext.sendBroadcast(intent);
 
-            DownloadService.removeFirst();
+            DownloadService.remove(argEpisode);
 
-            removeDownloadingEpisode(argEpisode);
             StorageUtils.removeExpiredDownloadedPodcasts(mContext);
             StorageUtils.removeTmpFolderCruft(mContext);
 
@@ -296,20 +302,54 @@ public class SoundWavesDownloadManager extends Observable {
         @RequiresPermission(Manifest.permission.WRITE_EXTERNAL_STORAGE)
         @Override
         public void downloadInterrupted(IEpisode argEpisode) throws SecurityException {
-            removeTopQueueItem();
-            removeDownloadingEpisode(argEpisode);
+            DownloadService.remove(argEpisode);
             StorageUtils.removeTmpFolderCruft(mContext);
             notifyDownloadComplete(argEpisode);
         }
     }
 
-    private void notifyDownloadComplete(@Nullable IEpisode argFeedItem) {
-        postQueueChangedEvent(argFeedItem, REMOVED);
+    /**
+     * Decode the episode once in the background, so playback can look up the silent spans and the
+     * gain instead of measuring the audio while it plays.
+     */
+    private void analyzeAudio(@NonNull FeedItem argItem) throws SecurityException {
+        boolean removeSilence = PreferenceHelper.getBooleanPreferenceValue(mContext,
+                R.string.pref_audioengine_remove_silence_key,
+                R.bool.pref_audioengine_remove_silence_default);
+
+        boolean gainControl = PreferenceHelper.getBooleanPreferenceValue(mContext,
+                R.string.pref_audioengine_automatic_gain_control_key,
+                R.bool.pref_audioengine_automatic_gain_control_default);
+
+        if (!removeSilence && !gainControl) {
+            return;
+        }
+
+        final File file;
+        try {
+            file = new File(argItem.getAbsolutePath(mContext));
+        } catch (IOException e) {
+            ErrorUtils.handleException(e);
+            return;
+        }
+
+        Lanes.AUDIO.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (file.exists()) {
+                        AudioAnalyzer.analyzeAndStore(file);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Playback measures the audio instead
+                    Log.w(TAG, "Could not analyse " + file.getName() + ": " + e); // NoI18N
+                }
+            }
+        });
     }
 
-    @Deprecated
-    private void removeTopQueueItem() {
-        DownloadService.removeFirst();
+    private void notifyDownloadComplete(@Nullable IEpisode argFeedItem) {
+        postQueueChangedEvent(argFeedItem, REMOVED);
     }
 
     private static DownloadManagerChanged produceDownloadManagerState(@Nullable IEpisode argFeedItem, @DownloadManagerEvent int eventType) {
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Handler;
 import android.preference.PreferenceManager;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RestrictTo;
@@ -22,15 +23,16 @@ import org.bottiger.podcast.provider.ISubscription;
 import org.bottiger.podcast.provider.Subscription;
 import org.bottiger.podcast.service.IDownloadCompleteCallback;
 import org.bottiger.podcast.utils.ErrorUtils;
-import org.bottiger.podcast.utils.HttpUtils;
 import org.bottiger.podcast.utils.JSonUtils;
 import org.bottiger.podcast.utils.StorageUtils;
 import org.bottiger.podcast.utils.featured.FeaturedPodcastsUtil;
-import org.bottiger.podcast.utils.okhttp.AuthenticationInterceptor;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 import org.bottiger.podcast.utils.okhttp.UserAgentInterceptor;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -38,16 +40,13 @@ import java.util.List;
 
 import javax.net.ssl.SSLHandshakeException;
 
-import io.reactivex.Single;
-import io.reactivex.SingleObserver;
-import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
 import okhttp3.Credentials;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
 import static android.support.annotation.RestrictTo.Scope.TESTS;
+import static org.bottiger.podcast.utils.okhttp.AuthenticationInterceptor.AUTHENTICATION_HEADER;
 
 /**
  * Created by apl on 26-03-2015.
@@ -57,11 +56,18 @@ public class SubscriptionRefreshManager {
     private static final String ACRA_KEY = "SubscriptionRefreshManager";
     public static final String TAG = "SubscriptionRefresh";
 
-    @NonNull
-    private final OkHttpClient mOkClient;
+    private static final String HEADER_ETAG = "ETag"; // NoI18N
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified"; // NoI18N
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match"; // NoI18N
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since"; // NoI18N
+
+    public interface ProgressListener {
+        @MainThread
+        void onProgress(int argRefreshed, int argTotal);
+    }
 
     @NonNull
-    private static final AuthenticationInterceptor sAuthenticationInterceptor = new AuthenticationInterceptor();
+    private final FeedRefreshScheduler mRefreshScheduler;
 
     @NonNull
     private final Handler mainHandler;
@@ -77,10 +83,8 @@ public class SubscriptionRefreshManager {
     public SubscriptionRefreshManager(@NonNull Context argContext) {
         mContext = argContext;
         mainHandler = new Handler(argContext.getMainLooper());
-        mOkClient = HttpUtils
-                .getNewDefaultOkHttpClientBuilder(argContext, UserAgentInterceptor.SUBSCRIPTION_REFRESH)
-                .addInterceptor(sAuthenticationInterceptor)
-                .build();
+        mRefreshScheduler = new FeedRefreshScheduler(OkHttpClientFactory
+                .getClient(argContext, UserAgentInterceptor.SUBSCRIPTION_REFRESH));
 
         prefs = PreferenceManager.getDefaultSharedPreferences(argContext);
         prefKey = argContext.getResources().getString(R.string.feed_authentication_data_key);
@@ -93,9 +97,8 @@ public class SubscriptionRefreshManager {
 
     @WorkerThread
     public Subscription refreshSync(@NonNull Subscription argSubscription) throws IOException {
-        final Request request = getRequest(argSubscription);
-        final String credentials = getCredentials(argSubscription);
-        Response response = executeRequest(request, credentials);
+        final Request request = getRequest(argSubscription, getCredentials(argSubscription));
+        Response response = executeRequest(request);
         handleHttpResponse(mContext, argSubscription, response, null);
         return argSubscription;
     }
@@ -109,13 +112,60 @@ public class SubscriptionRefreshManager {
         }
 
         if (argSubscription != null) {
-            addSubscriptionToQueue(mContext, argSubscription, argCallback);
+            FeedRefreshScheduler.Batch batch = mRefreshScheduler.newBatch(argSubscription.getURLString());
+            addSubscriptionToQueue(mContext, batch, argSubscription, argCallback);
+            batch.close();
         } else {
             addAllSubscriptionsToQueue(mContext, argCallback);
         }
     }
 
+    /**
+     * Refresh many subscriptions, e.g. after an OPML import, at most argBatchSize at a time. The
+     * next batch is queued when the previous one is done, so hundreds of feeds are not waiting in
+     * the queue of the HTTP client at once.
+     *
+     * @param argSubscriptions The subscriptions to refresh
+     * @param argBatchSize The maximum number of subscriptions being refreshed at a time
+     * @param argListener Notified on the main thread when a batch is done
+     */
+    public void refresh(@NonNull List<? extends ISubscription> argSubscriptions,
+                        int argBatchSize,
+                        @Nullable ProgressListener argListener) {
+        Log.d(TAG, "refresh " + argSubscriptions.size() + " subscriptions in batches of " + argBatchSize); // NoI18N
+
+        if (!StorageUtils.canPerform(SoundWavesDownloadManager.ACTION_REFRESH_SUBSCRIPTION, mContext, null)) {
+            Log.d(TAG, "refresh aborted, not allowed"); // NoI18N
+            return;
+        }
+
+        addBatchToQueue(new ArrayList<>(argSubscriptions), 0, Math.max(1, argBatchSize), argListener);
+    }
+
+    private void addBatchToQueue(@NonNull final List<ISubscription> argSubscriptions,
+                                 final int argStart,
+                                 final int argBatchSize,
+                                 @Nullable final ProgressListener argListener) {
+        final int end = Math.min(argStart + argBatchSize, argSubscriptions.size());
+
+        FeedRefreshScheduler.Batch batch = mRefreshScheduler.newBatch("refresh " + argStart + "-" + end, () -> { // NoI18N
+            if (argListener != null) {
+                mainHandler.post(() -> argListener.onProgress(end, argSubscriptions.size()));
+            }
+
+            if (end < argSubscriptions.size()) {
+                addBatchToQueue(argSubscriptions, end, argBatchSize, argListener);
+            }
+        });
+
+        for (int i = argStart; i < end; i++) {
+            addSubscriptionToQueue(mContext, batch, argSubscriptions.get(i), null);
+        }
+        batch.close();
+    }
+
     private void addSubscriptionToQueue(@NonNull final Context argContext,
+                                        @NonNull final FeedRefreshScheduler.Batch argBatch,
                                         @NonNull final ISubscription argSubscription,
                                         @Nullable final IDownloadCompleteCallback argCallback) {
         Log.d(TAG, "Adding to queue: " + argSubscription);
@@ -145,42 +195,24 @@ public class SubscriptionRefreshManager {
 
         argSubscription.setIsRefreshing(true);
 
-        final Request request = getRequest(argSubscription);
-        final String credentials = getCredentials(argSubscription);
+        final Request request = getRequest(argSubscription, getCredentials(argSubscription));
 
-        Single.just(request)
-                .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.io())
-                .subscribe(new SingleObserver<Request>() {
+        mRefreshScheduler.enqueue(argBatch, request, new FeedRefreshScheduler.FeedHandler() {
             @Override
-            public void onSubscribe(Disposable d) {
-
+            public void onFetched(@NonNull Response argResponse) {
+                handleHttpResponse(argContext, argSubscription, argResponse, argCallback);
             }
 
             @Override
-            public void onSuccess(Request value) {
-                try {
-                    Response response = executeRequest(value, credentials);
-                    handleHttpResponse(argContext, argSubscription, response, argCallback);
-                } catch (SSLHandshakeException ssle) {
-                    final Request request = getInsecureRequest(argSubscription);
-                    Response response = null;
-                    try {
-                        response = executeRequest(request, credentials);
-                    } catch (IOException e) {
-                        ErrorUtils.handleException(e);
-                        wrappedCallback.complete(false, argSubscription);
-                    }
-                    handleHttpResponse(argContext, argSubscription, response, argCallback);
-                } catch (IOException e) {
-                    ErrorUtils.handleException(e);
-                    wrappedCallback.complete(false, argSubscription);
+            public void onFailed(@NonNull IOException argException) {
+                if (argException instanceof SSLHandshakeException && !isInsecureRequest(request)) {
+                    final Request insecureRequest = getInsecureRequest(request);
+                    mRefreshScheduler.enqueue(argBatch, insecureRequest, this);
+                    return;
                 }
-            }
 
-            @Override
-            public void onError(Throwable e) {
-                ErrorUtils.handleException(e);
+                ErrorUtils.handleException(argException);
+                wrappedCallback.complete(false, argSubscription);
             }
         });
     }
@@ -190,17 +222,19 @@ public class SubscriptionRefreshManager {
         Log.d(TAG, "addAllSubscriptionsToQueue");
 
         int subscriptionsAdded = 0;
+        FeedRefreshScheduler.Batch batch = mRefreshScheduler.newBatch("refreshAll"); // NoI18N
 
         List<Subscription> subscriptions = SoundWaves.getAppContext(argContext).getLibraryInstance().getLiveSubscriptions().getValue();
         for (int i = 0; i < subscriptions.size(); i++) {
-           addSubscriptionToQueue(argContext, subscriptions.get(i), argCallback);
+           addSubscriptionToQueue(argContext, batch, subscriptions.get(i), argCallback);
            subscriptionsAdded++;
         }
 
         if (FeaturedPodcastsUtil.hasFeaturedPodcast()) {
             IDownloadCompleteCallback callback = FeaturedPodcastsUtil.getRefreshCallback(argContext);
-            addSubscriptionToQueue(argContext, FeaturedPodcastsUtil.getFeaturedPodcats(), callback);
+            addSubscriptionToQueue(argContext, batch, FeaturedPodcastsUtil.getFeaturedPodcats(), callback);
         }
+        batch.close();
 
         Log.d(TAG, "addAllSubscriptionsToQueue added: " + subscriptionsAdded);
         return subscriptionsAdded;
@@ -234,24 +268,67 @@ public class SubscriptionRefreshManager {
         }
     }
 
-    private static Request getRequest(@NonNull ISubscription argSubscription) {
-        return new Request.Builder()
-                .url(argSubscription.getURLString())
-                .build();
+    /**
+     * The credentials are added to the request itself, rather than to a shared interceptor,
+     * so requests for different subscriptions can run concurrently.
+     *
+     * If we have validators from the last refresh the request is made conditional, so an unchanged
+     * feed results in a 304 without a body.
+     */
+    private static Request getRequest(@NonNull ISubscription argSubscription, @Nullable String argCredentials) {
+        Request.Builder builder = new Request.Builder()
+                .url(argSubscription.getURLString());
+
+        if (argCredentials != null) {
+            builder.header(AUTHENTICATION_HEADER, argCredentials);
+        }
+
+        if (argSubscription instanceof Subscription) {
+            Subscription subscription = (Subscription) argSubscription;
+            if (subscription.IsSubscribed() && subscription.getEpisodeCount() > 0) {
+                String etag = subscription.getHttpETag();
+                String lastModified = subscription.getHttpLastModified();
+
+                if (!TextUtils.isEmpty(etag)) {
+                    builder.header(HEADER_IF_NONE_MATCH, etag);
+                }
+
+                if (!TextUtils.isEmpty(lastModified)) {
+                    builder.header(HEADER_IF_MODIFIED_SINCE, lastModified);
+                }
+            }
+        }
+
+        return builder.build();
     }
 
-    private static Request  getInsecureRequest(@NonNull ISubscription argSubscription) {
-        String url = argSubscription.getURLString().replaceFirst("https:", "http:");
-        return new Request.Builder()
+    private static Request getInsecureRequest(@NonNull Request argRequest) {
+        String url = argRequest.url().toString().replaceFirst("https:", "http:");
+        return argRequest.newBuilder()
                 .url(url)
                 .build();
     }
 
+    private static boolean isInsecureRequest(@NonNull Request argRequest) {
+        return !argRequest.isHttps();
+    }
+
     private void handleHttpResponse(@NonNull Context argContext,
                                     @NonNull ISubscription argSubscription,
                                     @NonNull Response response,
                                     @Nullable final IDownloadCompleteCallback argCallback) {
         try {
+            if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                // Nothing changed since the last refresh. Skip parsing and merging with the Library.
+                Log.d(TAG, "Not modified: " + argSubscription);
+                argSubscription.setIsRefreshing(false);
+
+                if (argCallback != null)
+                    argCallback.complete(true, argSubscription);
+
+                return;
+            }
+
             ensureLoadedSubscription(argContext, argSubscription);
 
             if (requiresAuthentication(response, argSubscription)) {
@@ -261,7 +338,7 @@ public class SubscriptionRefreshManager {
             if (response.body() != null && response.isSuccessful()) {
                 boolean success = true;
                 try {
-                    FeedParser.parse(argSubscription, response.body().byteStream(), argContext, true);
+                    FeedParser.parse(argSubscription, response.body().byteStream(), argContext, requiresFullRead(argSubscription));
 
                     //downloadNewEpisodes(argContext, argSubscription);
                 } catch (XmlPullParserException xppe) {
@@ -277,6 +354,11 @@ public class SubscriptionRefreshManager {
                     success = false;
                 }
 
+                if (success && argSubscription instanceof Subscription) {
+                    ((Subscription) argSubscription).setHttpValidators(response.header(HEADER_ETAG),
+                            response.header(HEADER_LAST_MODIFIED));
+                }
+
                 Log.d(TAG, "Parsing callback for: " + argSubscription);
 
                 if (argCallback != null)
@@ -294,6 +376,22 @@ public class SubscriptionRefreshManager {
         }
     }
 
+    /**
+     * Known subscriptions are parsed incrementally, i.e. the parser stops once it reaches episodes
+     * we already have.
+     *
+     * @param argSubscription The subscription
+     * @return true if every item in the feed must be parsed
+     */
+    private static boolean requiresFullRead(@NonNull ISubscription argSubscription) {
+        if (!(argSubscription instanceof Subscription)) {
+            return true;
+        }
+
+        Subscription subscription = (Subscription) argSubscription;
+        return !subscription.IsLoaded() || subscription.getEpisodes().size() == 0;
+    }
+
     /**
      * Ensure the subscription and all of it's episodes are loaded before refreshing it.
      *
@@ -342,9 +440,8 @@ public class SubscriptionRefreshManager {
         VendorCrashReporter.handleException(argExceiption, keys, values);
     }
 
-    private synchronized Response executeRequest(@NonNull Request argRequest, @Nullable String argCredentials) throws IOException {
-        sAuthenticationInterceptor.setCredenticals(argCredentials);
-        return mOkClient.newCall(argRequest).execute();
+    private Response executeRequest(@NonNull Request argRequest) throws IOException {
+        return mRefreshScheduler.getHttpClient().newCall(argRequest).execute();
     }
 
     private String getCredentials(@NonNull ISubscription argSubscription) {
@@ -368,7 +465,7 @@ public class SubscriptionRefreshManager {
 
     @RestrictTo(TESTS)
     public OkHttpClient getHttpClient() {
-        return mOkClient;
+        return mRefreshScheduler.getHttpClient();
     }
 }
 
@@ -42,7 +42,6 @@ public abstract class DownloadEngineBase implements IDownloadEngine {
 
         mProgress = argProgress;
         mEpisode.setProgress(argProgress);
-        updatedNotification();
     }
 
     protected void setSpeed(long argSpeed) {
@@ -53,10 +52,11 @@ public abstract class DownloadEngineBase implements IDownloadEngine {
         return mProgress;
     }
 
-    private void updatedNotification() {
-        if (showNotification()) {
-            ProgressNotification.show(mContext, getEpisode(), (int) getProgress(), mDownloadSpeedBps);
-        }
+    /**
+     * @return The current download speed in bytes per second
+     */
+    public long getSpeed() {
+        return mDownloadSpeedBps;
     }
 
     protected void removeNotification() {
@@ -0,0 +1,202 @@
+package org.bottiger.podcast.service.Downloader.engines;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The state needed to resume a partial download: the URL, the validator of the response and the
+ * total length of the file.
+ *
+ * It is stored in a small file next to the partial download, so it survives the process being
+ * killed, and is removed together with the partial download when the tmp folder is cleaned.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class DownloadResumeState {
+
+    private static final String TAG = DownloadResumeState.class.getSimpleName();
+
+    public static final String FILE_SUFFIX = ".resume"; // NoI18N
+
+    // Partial downloads which have not been touched for this long are deleted as cruft.
+    public static final long MAX_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static final String KEY_URL = "url"; // NoI18N
+    private static final String KEY_ETAG = "etag"; // NoI18N
+    private static final String KEY_LAST_MODIFIED = "last_modified"; // NoI18N
+    private static final String KEY_TOTAL_LENGTH = "total_length"; // NoI18N
+
+    // The tmp files which are being downloaded right now
+    private static final Set<String> sActiveDownloads = new HashSet<>();
+
+    @NonNull private final String mUrl;
+    @Nullable private final String mETag;
+    @Nullable private final String mLastModified;
+    private final long mTotalLength;
+
+    public DownloadResumeState(@NonNull String argUrl,
+                               @Nullable String argETag,
+                               @Nullable String argLastModified,
+                               long argTotalLength) {
+        mUrl = argUrl;
+        mETag = argETag;
+        mLastModified = argLastModified;
+        mTotalLength = argTotalLength;
+    }
+
+    @NonNull
+    public static File getFile(@NonNull File argTmpFile) {
+        return new File(argTmpFile.getPath() + FILE_SUFFIX);
+    }
+
+    /**
+     * @return The validator to send in If-Range, or null if the download can not be resumed safely.
+     */
+    @Nullable
+    public String getIfRangeValidator() {
+        // Weak validators are not allowed in If-Range. RFC 7233, section 3.2
+        if (!TextUtils.isEmpty(mETag) && !mETag.startsWith("W/")) { // NoI18N
+            return mETag;
+        }
+
+        if (!TextUtils.isEmpty(mLastModified)) {
+            return mLastModified;
+        }
+
+        return null;
+    }
+
+    public long getTotalLength() {
+        return mTotalLength;
+    }
+
+    public boolean isFor(@NonNull String argUrl) {
+        return mUrl.equals(argUrl);
+    }
+
+    /**
+     * @return The stored state, or null if there is none, or it could not be read.
+     */
+    @Nullable
+    public static DownloadResumeState read(@NonNull File argTmpFile) {
+        File stateFile = getFile(argTmpFile);
+        if (!stateFile.exists()) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(stateFile);
+            properties.load(inputStream);
+
+            String url = properties.getProperty(KEY_URL);
+            if (url == null) {
+                return null;
+            }
+
+            long totalLength = Long.parseLong(properties.getProperty(KEY_TOTAL_LENGTH, "-1"));
+            return new DownloadResumeState(url,
+                    properties.getProperty(KEY_ETAG),
+                    properties.getProperty(KEY_LAST_MODIFIED),
+                    totalLength);
+        } catch (IOException | NumberFormatException e) {
+            Log.w(TAG, "Could not read resume state: " + stateFile); // NoI18N
+            return null;
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    public void write(@NonNull File argTmpFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY_URL, mUrl);
+        properties.setProperty(KEY_TOTAL_LENGTH, Long.toString(mTotalLength));
+        if (mETag != null)
+            properties.setProperty(KEY_ETAG, mETag);
+        if (mLastModified != null)
+            properties.setProperty(KEY_LAST_MODIFIED, mLastModified);
+
+        FileOutputStream outputStream = new FileOutputStream(getFile(argTmpFile));
+        try {
+            properties.store(outputStream, null);
+            outputStream.getFD().sync();
+        } finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    public static void delete(@NonNull File argTmpFile) {
+        File stateFile = getFile(argTmpFile);
+        if (stateFile.exists() && !stateFile.delete()) {
+            Log.w(TAG, "Could not delete resume state: " + stateFile); // NoI18N
+        }
+    }
+
+    /**
+     * Marks the tmp file as being downloaded, so the tmp folder cleanup does not delete it. A download
+     * without a validator has no resumable state, but must not be deleted while it is running.
+     */
+    public static void setActive(@NonNull File argTmpFile, boolean argActive) {
+        synchronized (sActiveDownloads) {
+            if (argActive) {
+                sActiveDownloads.add(argTmpFile.getPath());
+            } else {
+                sActiveDownloads.remove(argTmpFile.getPath());
+            }
+        }
+    }
+
+    private static boolean isActive(@NonNull File argTmpFile) {
+        synchronized (sActiveDownloads) {
+            return sActiveDownloads.contains(argTmpFile.getPath());
+        }
+    }
+
+    /**
+     * @return True if the file is a partial download, or the state of one, which is being downloaded
+     * or can still be resumed.
+     */
+    public static boolean isResumable(@NonNull File argFile, long argNow) {
+        String path = argFile.getPath();
+        File tmpFile = path.endsWith(FILE_SUFFIX) ?
+                new File(path.substring(0, path.length() - FILE_SUFFIX.length())) :
+                argFile;
+
+        if (isActive(tmpFile)) {
+            return true;
+        }
+
+        File stateFile = getFile(tmpFile);
+        if (!stateFile.exists() || argNow - stateFile.lastModified() >= MAX_AGE_MS) {
+            return false;
+        }
+
+        // Without a validator the download starts over, so the partial file is of no use
+        DownloadResumeState state = read(tmpFile);
+        return state != null && state.getIfRangeValidator() != null;
+    }
+
+    private static void closeQuietly(@Nullable Closeable argCloseable) {
+        if (argCloseable == null)
+            return;
+
+        try {
+            argCloseable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close resume state"); // NoI18N
+        }
+    }
+}
@@ -9,6 +9,7 @@ public interface IDownloadEngine {
 
     void startDownload(boolean argIsLast);
     float getProgress();
+    long getSpeed();
     IEpisode getEpisode();
     void addCallback(Callback argCallback);
     void abort();
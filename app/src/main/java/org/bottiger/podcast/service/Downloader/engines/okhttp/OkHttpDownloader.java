@@ -2,6 +2,7 @@ package org.bottiger.podcast.service.Downloader.engines.okhttp;
 
 import android.Manifest;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresPermission;
@@ -10,16 +11,19 @@ import android.util.Log;
 import android.util.SparseArray;
 import android.webkit.MimeTypeMap;
 
+import org.bottiger.podcast.R;
 import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.service.Downloader.engines.DownloadEngineBase;
+import org.bottiger.podcast.service.Downloader.engines.DownloadResumeState;
 import org.bottiger.podcast.service.Downloader.engines.ProgressListener;
 import org.bottiger.podcast.utils.ErrorUtils;
 import org.bottiger.podcast.utils.FileUtils;
 import org.bottiger.podcast.utils.HttpUtils;
+import org.bottiger.podcast.utils.PreferenceHelper;
 import org.bottiger.podcast.utils.StrUtils;
-import org.bottiger.podcast.utils.okhttp.UserAgentInterceptor;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -28,7 +32,6 @@ import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
-import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -52,20 +55,36 @@ public class OkHttpDownloader extends DownloadEngineBase {
 
     private static final int BUFFER_SIZE = 2048;
 
+    private static final String HEADER_RANGE = "Range"; // NoI18N
+    private static final String HEADER_IF_RANGE = "If-Range"; // NoI18N
+    private static final String HEADER_CONTENT_RANGE = "Content-Range"; // NoI18N
+    private static final String HEADER_ETAG = "ETag"; // NoI18N
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified"; // NoI18N
+
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     private final OkHttpClient mOkHttpClient;
+    private final ProgressListener mProgressListener;
     private final SparseArray<Callback> mExternalCallback = new SparseArray<>();
 
     @Nullable
     private volatile BufferedSink sink;
 
+    @Nullable
+    private volatile SegmentedDownloader mSegmentedDownloader;
+
     @Nullable private final URL mURL;
 
+    // Number of bytes which were already downloaded when the current transfer started
+    private volatile long mResumeOffset = 0;
+
     @WorkerThread
     public OkHttpDownloader(@NonNull Context argContext, @NonNull IEpisode argEpisode) {
         super(argContext, argEpisode);
         mURL = argEpisode.getUrl();
 
-        final ProgressListener progressListener = (bytesRead, contentLength, done, startTime) -> {
+        mProgressListener = (bytesRead, contentLength, done, startTime) -> {
             long nowTime = System.currentTimeMillis();
             long timeS = (nowTime-startTime)/1000;
             if (timeS > 0) {
@@ -73,20 +92,14 @@ public class OkHttpDownloader extends DownloadEngineBase {
             }
 
             if (bytesRead != contentLength) {
-                float progress = (100 * bytesRead) / contentLength;
+                long offset = mResumeOffset;
+                float progress = (100 * (offset + bytesRead)) / (offset + contentLength);
                 setProgress(progress);
             }
         };
 
-        mOkHttpClient = new OkHttpClient.Builder()
-                .addNetworkInterceptor(new UserAgentInterceptor(argContext, DOWNLOAD_EPISODE))
-                .addNetworkInterceptor(chain -> {
-                    Response originalResponse = chain.proceed(chain.request());
-                    return originalResponse.newBuilder()
-                            .body(new ProgressResponseBody(originalResponse.body(), progressListener))
-                            .build();
-                })
-                .build();
+        // The client is shared by all downloads, so the progress is tracked for each call instead
+        mOkHttpClient = OkHttpClientFactory.getClient(argContext, DOWNLOAD_EPISODE);
     }
 
     @WorkerThread
@@ -94,6 +107,7 @@ public class OkHttpDownloader extends DownloadEngineBase {
     @RequiresPermission(Manifest.permission.WRITE_EXTERNAL_STORAGE)
     public void startDownload(boolean argIsLast) throws SecurityException {
         setProgress(0);
+        long startTime = SystemClock.elapsedRealtime();
 
         if (!StrUtils.isValidUrl(mURL)) {
             Log.d(TAG, "no URL, return");
@@ -123,53 +137,35 @@ public class OkHttpDownloader extends DownloadEngineBase {
             return;
         }
 
+        DownloadResumeState.setActive(tmpFile, true);
         try {
             Log.d(TAG, "startDownload");
 
-            Request request = new Request.Builder()
-                    .url(mURL.toString())
-                    .header("User-Agent", HttpUtils.getUserAgent(getContext()))
-                    .build();
-
-            Response response = mOkHttpClient.newCall(request).execute();
-
-            ResponseBody body = response.body();
-            long contentLength = body.contentLength();
+            long contentLength = downloadToFile(mURL.toString(), tmpFile);
             mEpisode.setFilesize(contentLength);
 
-            Log.d(TAG, "starting file transfer");
-
-
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
-            } else {
-                Log.d(TAG, "filetransfer done");
-            }
-
-            sink = Okio.buffer(Okio.sink(tmpFile));
-
-            try {
-                sink.writeAll(response.body().source());
-                sink.close();
-                sink = null;
-            } catch (NullPointerException npe) {
-                String msg = "unable to aquire downl";
-                Log.d(TAG, msg);
-                onFailure(new FileNotFoundException(msg));
-                return;
-            }
+            Log.d(TAG, "filetransfer done");
+            long downloadedTime = SystemClock.elapsedRealtime();
 
             // If download was succesfull
             boolean movedFileSuccesfully = false;
             if (tmpFile.exists() && tmpFile.length() == contentLength) {
-                Log.d(TAG, "Renaming file");
-                movedFileSuccesfully = FileUtils.copy_file(tmpFile.getAbsolutePath(), finalFile.getAbsolutePath());
-                //tmpFile.renameTo(finalFile);
-                //movedFileSuccesfully = finalFile.exists();
-                Log.d(TAG, "File renamed");
+                Log.d(TAG, "Moving file");
+                boolean renamed = FileUtils.moveFile(tmpFile, finalFile);
+                movedFileSuccesfully = true;
+
+                // Time to available: from the start of the download until the episode can be played
+                long availableTime = SystemClock.elapsedRealtime();
+                Log.i(TAG, "Episode available after " + (availableTime - startTime) + " ms. Download: " // NoI18N
+                        + (downloadedTime - startTime) + " ms, " + (renamed ? "rename: " : "copy: ") // NoI18N
+                        + (availableTime - downloadedTime) + " ms, " + contentLength + " bytes"); // NoI18N
+            } else if (tmpFile.length() > contentLength) {
+                // The partial file can not be resumed
+                discardPartialDownload(tmpFile);
             }
 
             if (movedFileSuccesfully) {
+                discardPartialDownload(tmpFile);
                 onSucces(finalFile);
                 Log.d(TAG, "post onSucces");
             } else {
@@ -185,12 +181,217 @@ public class OkHttpDownloader extends DownloadEngineBase {
             String[] values = {mURL.toString()};
             VendorCrashReporter.handleException(e, keys, values);
         } finally{
+            DownloadResumeState.setActive(tmpFile, false);
             if (argIsLast) {
                 removeNotification();
             }
         }
     }
 
+    /**
+     * Download the URL into the tmp file. If a partial download of the same URL exists, only the
+     * remaining bytes are requested. The server only honors the range if the file has not changed
+     * (If-Range), otherwise it returns the full file and the download starts over.
+     *
+     * The resume state is written before the body is transferred, so an interrupted download can be
+     * resumed after the process has been restarted.
+     *
+     * @return The expected length of the complete file, or -1 if unknown
+     */
+    private long downloadToFile(@NonNull String argUrl, @NonNull File argTmpFile) throws IOException {
+        DownloadResumeState resumeState = DownloadResumeState.read(argTmpFile);
+        boolean resumable = resumeState != null &&
+                resumeState.isFor(argUrl) &&
+                resumeState.getIfRangeValidator() != null &&
+                argTmpFile.exists();
+
+        // A partial download is resumed over a single connection instead
+        if (!resumable && useSegmentedDownload()) {
+            long length = downloadSegmented(argUrl, argTmpFile);
+            if (length >= 0) {
+                return length;
+            }
+        }
+
+        long offset = 0;
+        String validator = null;
+        if (resumable) {
+            validator = resumeState.getIfRangeValidator();
+            offset = argTmpFile.length();
+        }
+
+        if (offset > 0 && offset == resumeState.getTotalLength()) {
+            Log.d(TAG, "Partial download is already complete: " + argUrl); // NoI18N
+            return offset;
+        }
+
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(argUrl)
+                .header("User-Agent", HttpUtils.getUserAgent(getContext()));
+
+        if (offset > 0) {
+            requestBuilder.header(HEADER_RANGE, "bytes=" + offset + "-"); // NoI18N
+            requestBuilder.header(HEADER_IF_RANGE, validator);
+        }
+
+        Response response = mOkHttpClient.newCall(requestBuilder.build()).execute();
+        try {
+            if (offset > 0 && response.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+                Log.d(TAG, "Range not satisfiable, restarting download: " + argUrl); // NoI18N
+                response.close();
+                discardPartialDownload(argTmpFile);
+                return downloadToFile(argUrl, argTmpFile);
+            }
+
+            ResponseBody responseBody = response.body();
+            if (!response.isSuccessful() || responseBody == null) {
+                throw new IOException("Unexpected code " + response);
+            }
+
+            ResponseBody body = new ProgressResponseBody(responseBody, mProgressListener);
+
+            boolean append = false;
+            long totalLength = body.contentLength();
+            if (response.code() == HTTP_PARTIAL_CONTENT) {
+                String contentRange = response.header(HEADER_CONTENT_RANGE);
+                if (offset == 0 || getContentRangeStart(contentRange) != offset) {
+                    discardPartialDownload(argTmpFile);
+                    throw new IOException("Unexpected Content-Range: " + contentRange); // NoI18N
+                }
+
+                append = true;
+                long rangeTotal = getContentRangeTotal(contentRange);
+                totalLength = rangeTotal >= 0 ? rangeTotal : offset + body.contentLength();
+                Log.d(TAG, "Resuming download at byte " + offset + " of " + totalLength); // NoI18N
+            } else if (offset > 0) {
+                Log.d(TAG, "The file has changed or can not be resumed, restarting download"); // NoI18N
+            }
+
+            mResumeOffset = append ? offset : 0;
+
+            new DownloadResumeState(argUrl,
+                    response.header(HEADER_ETAG),
+                    response.header(HEADER_LAST_MODIFIED),
+                    totalLength).write(argTmpFile);
+
+            Log.d(TAG, "starting file transfer");
+
+            BufferedSink fileSink = Okio.buffer(append ? Okio.appendingSink(argTmpFile) : Okio.sink(argTmpFile));
+            sink = fileSink;
+            try {
+                fileSink.writeAll(body.source());
+            } finally {
+                fileSink.close();
+                sink = null;
+                Log.d(TAG, OkHttpClientFactory.getConnectionMetrics().toString());
+            }
+
+            return totalLength;
+        } finally {
+            response.close();
+        }
+    }
+
+    private boolean useSegmentedDownload() {
+        return mEpisode.isVideo() && PreferenceHelper.getBooleanPreferenceValue(getContext(),
+                R.string.pref_segmented_download_key,
+                R.bool.pref_segmented_download_default);
+    }
+
+    /**
+     * Download the URL over several connections, if the server supports range requests and the file
+     * is large enough to benefit from it.
+     *
+     * The completed segments are not tracked, so a failed segmented download starts over.
+     *
+     * @return The length of the file, or -1 if it should be downloaded over a single connection
+     */
+    private long downloadSegmented(@NonNull String argUrl, @NonNull File argTmpFile) throws IOException {
+        SegmentedDownloader downloader = new SegmentedDownloader(mOkHttpClient,
+                argUrl,
+                HttpUtils.getUserAgent(getContext()),
+                SegmentedDownloader.DEFAULT_SEGMENTS);
+        mSegmentedDownloader = downloader;
+        try {
+            try {
+                if (!downloader.probe() || downloader.getTotalLength() < SegmentedDownloader.MIN_LENGTH) {
+                    return -1;
+                }
+            } catch (IOException e) {
+                if (downloader.isAborted()) {
+                    throw e;
+                }
+                Log.d(TAG, "Could not probe for range support: " + e.toString()); // NoI18N
+                return -1;
+            }
+
+            Log.d(TAG, "Segmented download of " + downloader.getTotalLength() + " bytes"); // NoI18N
+            mResumeOffset = 0;
+            try {
+                // The preallocated file is never resumed, so a state left by an older download of
+                // the file must not keep it in the tmp folder.
+                DownloadResumeState.delete(argTmpFile);
+                return downloader.download(argTmpFile, mProgressListener);
+            } catch (IOException e) {
+                discardPartialDownload(argTmpFile);
+                throw e;
+            }
+        } finally {
+            mSegmentedDownloader = null;
+        }
+    }
+
+    private static void discardPartialDownload(@NonNull File argTmpFile) {
+        DownloadResumeState.delete(argTmpFile);
+        if (argTmpFile.exists() && !argTmpFile.delete()) {
+            Log.w(TAG, "Could not delete partial download: " + argTmpFile); // NoI18N
+        }
+    }
+
+    /**
+     * @param argContentRange A header like "bytes 100-999/1000"
+     * @return The first byte of the range, or -1
+     */
+    static long getContentRangeStart(@Nullable String argContentRange) {
+        if (argContentRange == null) {
+            return -1;
+        }
+
+        int start = argContentRange.indexOf(' ');
+        int end = argContentRange.indexOf('-', start);
+        if (start < 0 || end < 0) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(argContentRange.substring(start + 1, end).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param argContentRange A header like "bytes 100-999/1000"
+     * @return The complete length of the file, or -1 if unknown
+     */
+    static long getContentRangeTotal(@Nullable String argContentRange) {
+        if (argContentRange == null) {
+            return -1;
+        }
+
+        int start = argContentRange.lastIndexOf('/');
+        if (start < 0) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(argContentRange.substring(start + 1).trim());
+        } catch (NumberFormatException e) {
+            // "*" if the length is unknown
+            return -1;
+        }
+    }
+
     private void closeConnection(@Nullable BufferedSource source, @Nullable BufferedSink sink) {
         Log.d(TAG, "disconnecting");
         try {
@@ -214,6 +415,15 @@ public class OkHttpDownloader extends DownloadEngineBase {
 
     @Override
     public void abort() {
+        SegmentedDownloader segmentedDownloader = mSegmentedDownloader;
+        if (segmentedDownloader != null) {
+            segmentedDownloader.abort();
+
+            Log.d(TAG, "Transfer abort");
+            onFailure(new InterruptedIOException());
+            return;
+        }
+
         try {
             BufferedSink sinkHolder = sink;
             if (sinkHolder != null) {
@@ -0,0 +1,317 @@
+package org.bottiger.podcast.service.Downloader.engines.okhttp;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.TextUtils;
+import android.util.Log;
+
+import org.bottiger.podcast.service.Downloader.DownloadScheduler;
+import org.bottiger.podcast.service.Downloader.engines.ProgressListener;
+import org.bottiger.podcast.utils.NamedThreadFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Downloads a file over several connections at once. The file is split into a number of byte
+ * ranges which are fetched in parallel, and each range is written directly to its position in a
+ * preallocated file.
+ *
+ * A single stream from a slow CDN is often limited by the latency of the connection rather than by
+ * the bandwidth, so this is used for large video enclosures from servers which advertise support
+ * for range requests. Call {@link #probe()} first to find out if the server supports it.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class SegmentedDownloader {
+
+    private static final String TAG = SegmentedDownloader.class.getSimpleName();
+
+    public static final int DEFAULT_SEGMENTS = 4;
+
+    // Smaller files are not worth the extra connections
+    public static final long MIN_LENGTH = 32L * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges"; // NoI18N
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length"; // NoI18N
+    private static final String HEADER_CONTENT_RANGE = "Content-Range"; // NoI18N
+    private static final String HEADER_ETAG = "ETag"; // NoI18N
+    private static final String HEADER_IF_RANGE = "If-Range"; // NoI18N
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified"; // NoI18N
+    private static final String HEADER_RANGE = "Range"; // NoI18N
+
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+
+    // A thread for every segment of the default number of parallel downloads. If more downloads
+    // are allowed, the extra segments wait in the queue, or run on the download thread when it is full.
+    private static final int SEGMENT_THREADS = DEFAULT_SEGMENTS * DownloadScheduler.DEFAULT_MAX_DOWNLOADS;
+
+    private static final ThreadPoolExecutor sExecutor = newExecutor();
+
+    private final OkHttpClient mClient;
+    private final String mUrl;
+    private final String mUserAgent;
+    private final int mSegments;
+
+    // Guarded by itself
+    private final List<Call> mCalls = new ArrayList<>();
+    private volatile boolean mAborted = false;
+
+    private long mTotalLength = -1;
+    @Nullable private String mValidator;
+
+    public SegmentedDownloader(@NonNull OkHttpClient argClient,
+                               @NonNull String argUrl,
+                               @NonNull String argUserAgent,
+                               int argSegments) {
+        mClient = argClient;
+        mUrl = argUrl;
+        mUserAgent = argUserAgent;
+        mSegments = Math.max(1, argSegments);
+    }
+
+    /**
+     * Ask the server for the length of the file, and if it supports range requests.
+     *
+     * @return True if the file can be downloaded in segments
+     */
+    @WorkerThread
+    public boolean probe() throws IOException {
+        Response response = newCall(newRequest().head().build()).execute();
+        try {
+            if (!response.isSuccessful()) {
+                return false;
+            }
+
+            mTotalLength = parseLong(response.header(HEADER_CONTENT_LENGTH));
+
+            // Weak validators are not allowed in If-Range. RFC 7233, section 3.2
+            String etag = response.header(HEADER_ETAG);
+            mValidator = !TextUtils.isEmpty(etag) && !etag.startsWith("W/") ? etag : response.header(HEADER_LAST_MODIFIED); // NoI18N
+
+            return "bytes".equalsIgnoreCase(response.header(HEADER_ACCEPT_RANGES)) && mTotalLength > 0; // NoI18N
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * @return The length of the file, or -1 if it is unknown
+     */
+    public long getTotalLength() {
+        return mTotalLength;
+    }
+
+    public boolean isAborted() {
+        return mAborted;
+    }
+
+    /**
+     * Download all the segments into the file. The file is truncated or extended to the length of
+     * the download before the segments are fetched.
+     *
+     * @return The length of the downloaded file
+     * @throws IOException If a segment failed, or the file changed on the server while downloading
+     */
+    @WorkerThread
+    public long download(@NonNull File argFile, @Nullable ProgressListener argListener) throws IOException {
+        if (mTotalLength <= 0) {
+            throw new IllegalStateException("The length of the file is unknown, call probe() first"); // NoI18N
+        }
+
+        long startTime = System.currentTimeMillis();
+        long segmentLength = (mTotalLength + mSegments - 1) / mSegments;
+        AtomicLong written = new AtomicLong();
+
+        RandomAccessFile file = new RandomAccessFile(argFile, "rw"); // NoI18N
+        try {
+            file.setLength(mTotalLength);
+            FileChannel channel = file.getChannel();
+
+            List<Future<Long>> segments = new ArrayList<>(mSegments);
+            for (long start = 0; start < mTotalLength; start += segmentLength) {
+                final long first = start;
+                final long last = Math.min(start + segmentLength, mTotalLength) - 1;
+                segments.add(sExecutor.submit(() -> downloadSegment(channel, first, last, written, argListener, startTime)));
+            }
+
+            IOException error = null;
+            for (Future<Long> segment : segments) {
+                try {
+                    segment.get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        Throwable cause = e.getCause();
+                        error = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                        // No reason to keep downloading the other segments
+                        abort();
+                    }
+                } catch (InterruptedException e) {
+                    abort();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+
+            if (error != null) {
+                throw error;
+            }
+
+            long received = written.get();
+            if (received != mTotalLength || channel.size() != mTotalLength) {
+                throw new IOException("Wrong file size. Expected: " + mTotalLength + ", received: " + received + ", file: " + channel.size()); // NoI18N
+            }
+        } finally {
+            file.close();
+        }
+
+        long duration = Math.max(1, System.currentTimeMillis() - startTime);
+        Log.d(TAG, "Downloaded " + mTotalLength + " bytes in " + mSegments + " segments, " // NoI18N
+                + (mTotalLength * 1000 / duration) + " bytes/s"); // NoI18N
+
+        if (argListener != null) {
+            argListener.update(mTotalLength, mTotalLength, true, startTime);
+        }
+
+        return mTotalLength;
+    }
+
+    /**
+     * Cancel all requests. Running calls to {@link #probe()} and {@link #download} fail with an
+     * IOException.
+     */
+    public void abort() {
+        synchronized (mCalls) {
+            mAborted = true;
+            for (int i = 0; i < mCalls.size(); i++) {
+                mCalls.get(i).cancel();
+            }
+        }
+    }
+
+    private long downloadSegment(@NonNull FileChannel argChannel,
+                                 long argFirst,
+                                 long argLast,
+                                 @NonNull AtomicLong argWritten,
+                                 @Nullable ProgressListener argListener,
+                                 long argStartTime) throws IOException {
+        Request.Builder requestBuilder = newRequest()
+                .header(HEADER_RANGE, "bytes=" + argFirst + "-" + argLast); // NoI18N
+        if (mValidator != null) {
+            // If the file has changed the server sends all of it, and the download fails
+            requestBuilder.header(HEADER_IF_RANGE, mValidator);
+        }
+
+        Response response = newCall(requestBuilder.build()).execute();
+        try {
+            ResponseBody body = response.body();
+            if (response.code() != HTTP_PARTIAL_CONTENT || body == null) {
+                throw new IOException("Range request not honored: " + response); // NoI18N
+            }
+
+            String contentRange = response.header(HEADER_CONTENT_RANGE);
+            if (OkHttpDownloader.getContentRangeStart(contentRange) != argFirst ||
+                    OkHttpDownloader.getContentRangeTotal(contentRange) != mTotalLength) {
+                throw new IOException("Unexpected Content-Range: " + contentRange); // NoI18N
+            }
+
+            BufferedSource source = body.source();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long position = argFirst;
+            while (position <= argLast) {
+                int length = (int) Math.min(buffer.length, argLast - position + 1);
+                int read = source.read(buffer, 0, length);
+                if (read == -1) {
+                    break;
+                }
+
+                // Positional writes do not move the position of the channel, so the segments can
+                // share it
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += argChannel.write(byteBuffer, position);
+                }
+
+                long total = argWritten.addAndGet(read);
+                if (argListener != null) {
+                    argListener.update(total, mTotalLength, false, argStartTime);
+                }
+            }
+
+            if (position != argLast + 1) {
+                throw new IOException("Segment " + argFirst + "-" + argLast + " ended at " + position); // NoI18N
+            }
+
+            return position - argFirst;
+        } finally {
+            response.close();
+        }
+    }
+
+    @NonNull
+    private Request.Builder newRequest() {
+        return new Request.Builder()
+                .url(mUrl)
+                .header("User-Agent", mUserAgent); // NoI18N
+    }
+
+    @NonNull
+    private Call newCall(@NonNull Request argRequest) throws IOException {
+        synchronized (mCalls) {
+            if (mAborted) {
+                throw new InterruptedIOException("Download aborted"); // NoI18N
+            }
+
+            Call call = mClient.newCall(argRequest);
+            mCalls.add(call);
+            return call;
+        }
+    }
+
+    @NonNull
+    private static ThreadPoolExecutor newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(SEGMENT_THREADS,
+                SEGMENT_THREADS,
+                30,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(SEGMENT_THREADS),
+                new NamedThreadFactory("DownloadSegment"), // NoI18N
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static long parseLong(@Nullable String argValue) {
+        if (argValue == null) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(argValue.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
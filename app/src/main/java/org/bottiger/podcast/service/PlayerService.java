@@ -16,6 +16,8 @@ import android.net.NetworkInfo;
 import android.net.wifi.WifiManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.RemoteException;
 import android.support.annotation.IntDef;
 import android.support.annotation.MainThread;
@@ -51,7 +53,7 @@ import org.bottiger.podcast.provider.base.BaseSubscription;
 import org.bottiger.podcast.receiver.HeadsetReceiver;
 import org.bottiger.podcast.utils.PlaybackSpeed;
 import org.bottiger.podcast.utils.StrUtils;
-import org.bottiger.podcast.utils.chapter.ChapterUtil;
+import org.bottiger.podcast.utils.chapter.ChapterTimeline;
 import org.bottiger.podcast.widgets.SoundWavesWidgetProvider;
 
 import java.lang.annotation.Retention;
@@ -120,6 +122,22 @@ public class PlayerService extends MediaBrowserServiceCompat implements
 	@NonNull
 	private PlayerStatusObservable mPlayerStatusObservable;
 
+	// The chapter is updated once, when the next chapter starts
+	private static final long MIN_CHAPTER_UPDATE_DELAY_MS = 20;
+	private static final long MAX_CHAPTER_UPDATE_DELAY_MS = 10000;
+
+	private final Handler mChapterHandler = new Handler(Looper.getMainLooper());
+	private final Runnable mChapterBoundaryRunnable = new Runnable() {
+		@Override
+		public void run() {
+			updateChapter();
+		}
+	};
+
+	@Nullable private IEpisode mChapterEpisode = null;
+	@Nullable private ChapterTimeline mChapterTimeline = null;
+	private int mChapterIndex = ChapterTimeline.NO_CHAPTER;
+
 
 	/**
 	 * Phone state listener. Will pause the playback when the phone is ringing
@@ -252,6 +270,7 @@ public class PlayerService extends MediaBrowserServiceCompat implements
 	@Override
 	public void onDestroy() {
 		sInstance = null;
+		mChapterHandler.removeCallbacks(mChapterBoundaryRunnable);
 		if (mPlayer != null) {
 			mPlayer.release();
 		}
@@ -320,6 +339,7 @@ public class PlayerService extends MediaBrowserServiceCompat implements
 		mPlayer.updateNotificationPlayer();
 
         mPlayerStatusObservable.startProgressUpdate(isPlaying());
+		updateChapter();
     }
 
 	public void playNext() {
@@ -608,19 +628,56 @@ public class PlayerService extends MediaBrowserServiceCompat implements
 		return mPlayerStateManager;
 	}
 
-	public void updateChapter(long lastPosition) {
+	/**
+	 * Publish the chapter which is playing if it has changed, and schedule the next update for when
+	 * the next chapter starts. Call when the position jumps or playback starts or stops.
+	 */
+	public void updateChapter() {
+		mChapterHandler.removeCallbacks(mChapterBoundaryRunnable);
+
+		IEpisode episode = mPlaylist.first();
+		ChapterTimeline timeline = episode != null ? episode.getChapterTimeline() : null;
+		if (episode != mChapterEpisode || timeline != mChapterTimeline) {
+			mChapterEpisode = episode;
+			mChapterTimeline = timeline;
+			mChapterIndex = ChapterTimeline.NO_CHAPTER;
+		}
 
-		FlowableProcessor<Integer> chapterProcessor = SoundWaves.getAppContext(this).getChapterProcessor();
-		if (!chapterProcessor.hasSubscribers())
+		if (timeline == null || timeline.isEmpty())
 			return;
 
-		IEpisode episode = mPlaylist.first();
 		long currentPosition = position();
-		Integer lastChapterIndex = ChapterUtil.getCurrentChapterIndex(episode, lastPosition);
-		Integer currentChapterIndex = ChapterUtil.getCurrentChapterIndex(episode, currentPosition);
+		int chapterIndex = timeline.indexOf(currentPosition);
+		if (chapterIndex != mChapterIndex) {
+			mChapterIndex = chapterIndex;
 
-		if (currentChapterIndex != null && !currentChapterIndex.equals(lastChapterIndex)) {
-			chapterProcessor.onNext(currentChapterIndex);
+			FlowableProcessor<Integer> chapterProcessor = SoundWaves.getAppContext(this).getChapterProcessor();
+			if (chapterProcessor.hasSubscribers()) {
+				chapterProcessor.onNext(chapterIndex);
+			}
+		}
+
+		long boundary = timeline.getNextBoundary(chapterIndex);
+		if (!isPlaying() || boundary == ChapterTimeline.NO_BOUNDARY)
+			return;
+
+		// Playback runs ahead of the clock when it is sped up or silence is skipped. Long delays
+		// are split up, so the update is never late by much.
+		float speed = Math.max(1.0f, mPlayer.getCurrentSpeedMultiplier());
+		long delay = (long) ((boundary - currentPosition) / speed);
+		delay = Math.max(MIN_CHAPTER_UPDATE_DELAY_MS, Math.min(MAX_CHAPTER_UPDATE_DELAY_MS, delay));
+		mChapterHandler.postDelayed(mChapterBoundaryRunnable, delay);
+	}
+
+	/**
+	 * Update the chapter if another episode is playing, or the chapters of the episode have been
+	 * loaded since the last update. Cheap enough for every progress update.
+	 */
+	public void updateChapterIfChanged() {
+		IEpisode episode = mPlaylist.first();
+		ChapterTimeline timeline = episode != null ? episode.getChapterTimeline() : null;
+		if (episode != mChapterEpisode || timeline != mChapterTimeline) {
+			updateChapter();
 		}
 	}
 
@@ -10,13 +10,19 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
+ * Parses the dates of feeds. Nothing is shared between threads except immutable tables, so feeds
+ * can be parsed in parallel without waiting for each other.
+ *
+ * RSS dates are RFC 822 dates, like "Mon, 02 Jan 2017 10:00:00 +0000". Most of them are parsed by
+ * hand without any allocations besides the Date. Other formats are matched with the regular
+ * expressions below, and parsed with SimpleDateFormats which belong to the parsing thread.
+ *
  * Created by aplb on 19-09-2015.
  */
 public class DateUtils {
@@ -68,13 +74,38 @@ public class DateUtils {
         put("EDT", "GMT-04:00");
     }};
 
-    private static final Map<String, SimpleDateFormat> SIMPLE_DATE_FORMATS_LUT = new HashMap<>(DATE_FORMAT_REGEXPS.size());
-    private static Pattern[] sDateFormatKeys = null;
+    // SimpleDateFormat is not thread safe, so every thread has its own
+    private static final ThreadLocal<Map<String, SimpleDateFormat>> SIMPLE_DATE_FORMATS_LUT = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+        @Override
+        protected Map<String, SimpleDateFormat> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    private static final Pattern[] DATE_FORMAT_KEYS = getDateFormatKeys();
 
     public interface Hint {
         Pattern get();
     }
 
+    /**
+     * Parses the dates of a single feed, which are usually all in the same format. The format of
+     * the last date is tried first. Used by a single thread.
+     */
+    public static class FeedDates {
+
+        @Nullable private Hint mHint = null;
+
+        @NonNull
+        public Date parse(@NonNull String argDate) throws ParseException {
+            Pair<Date, Hint> parsedDate = DateUtils.parse(argDate, mHint);
+            if (parsedDate.second != null) {
+                mHint = parsedDate.second;
+            }
+            return parsedDate.first;
+        }
+    }
+
     // Converters ---------------------------------------------------------------------------------
 
     /**
@@ -88,6 +119,11 @@ public class DateUtils {
      * the given date string or its actual date is invalid based on the date format pattern.
      */
     public static Pair<Date, Hint> parse(@NonNull String dateString, @Nullable Hint argHint) throws ParseException {
+        long rfc822 = Rfc822.parse(dateString);
+        if (rfc822 != Rfc822.INVALID) {
+            return new Pair<>(new Date(rfc822), argHint);
+        }
+
         Pair<String, Hint> dateFormat = determineDateFormat(dateString, argHint);
         if (dateFormat == null) {
             throw new ParseException("Unknown date format: " + dateString, 0);
@@ -108,7 +144,7 @@ public class DateUtils {
      * given date format pattern.
      * @see SimpleDateFormat
      */
-    public static synchronized Date parse(@NonNull String dateString, @NonNull String dateFormat) throws ParseException {
+    public static Date parse(@NonNull String dateString, @NonNull String dateFormat) throws ParseException {
 
         Locale[] locales = {
                 Locale.getDefault(),
@@ -134,14 +170,13 @@ public class DateUtils {
     }
 
     private static String fixUnsupportedTimeZones(@NonNull String dateString) {
-        String result = dateString;
-        // This is a hack to deal with time zones not known to Java
-        Iterator it = UNSUPPORTED_TIME_ZONE.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry pair = (Map.Entry) it.next();
-            result = result.replace(pair.getKey().toString(), pair.getValue().toString());
+        // This is a hack to deal with time zones not known to Java. The time zone is the last word
+        int start = dateString.lastIndexOf(' ') + 1;
+        String timeZone = UNSUPPORTED_TIME_ZONE.get(dateString.substring(start));
+        if (timeZone == null) {
+            return dateString;
         }
-        return result;
+        return dateString.substring(0, start) + timeZone;
     }
 
     // Validators ---------------------------------------------------------------------------------
@@ -205,7 +240,7 @@ public class DateUtils {
             }
         }
 
-        for (final Pattern regexp : getDateFormatKeys()) {
+        for (final Pattern regexp : DATE_FORMAT_KEYS) {
 
             if (argKeyHint != null && regexp.equals(argKeyHint.get()))
                 continue;
@@ -237,29 +272,238 @@ public class DateUtils {
         return newDate;
     }
 
-    private static synchronized Pattern[] getDateFormatKeys() {
-        if (sDateFormatKeys == null) {
-            Set<Pattern> keySet = DATE_FORMAT_REGEXPS.keySet();
-            sDateFormatKeys = keySet.toArray(new Pattern[keySet.size()]);
-            Collections.reverse(Arrays.asList(sDateFormatKeys));
-        }
-
-        return sDateFormatKeys;
+    private static Pattern[] getDateFormatKeys() {
+        Set<Pattern> keySet = DATE_FORMAT_REGEXPS.keySet();
+        Pattern[] keys = keySet.toArray(new Pattern[keySet.size()]);
+        Collections.reverse(Arrays.asList(keys));
+        return keys;
     }
 
     private static SimpleDateFormat getSimpleDateFormat(@NonNull String argDateFormat, Locale locale) {
+        Map<String, SimpleDateFormat> formats = SIMPLE_DATE_FORMATS_LUT.get();
         String lutKey = argDateFormat + locale.toString();
-        SimpleDateFormat simpleDateFormat = SIMPLE_DATE_FORMATS_LUT.get(lutKey);
+        SimpleDateFormat simpleDateFormat = formats.get(lutKey);
 
         if (simpleDateFormat == null) {
-            synchronized (SIMPLE_DATE_FORMATS_LUT) {
-                simpleDateFormat = new SimpleDateFormat(argDateFormat, locale);
-                simpleDateFormat.setLenient(false); // Don't automatically convert invalid date.
+            simpleDateFormat = new SimpleDateFormat(argDateFormat, locale);
+            simpleDateFormat.setLenient(false); // Don't automatically convert invalid date.
 
-                SIMPLE_DATE_FORMATS_LUT.put(lutKey, simpleDateFormat);
-            }
+            formats.put(lutKey, simpleDateFormat);
         }
 
         return simpleDateFormat;
     }
+
+    /**
+     * Parses RFC 822 dates with an English day and month name, like
+     * "Mon, 02 Jan 2017 10:00:00 +0000", "Mon, 2 January 2017 10:00 GMT" or
+     * "Mon 02 Jan 2017 10:00:00 EST".
+     *
+     * Accepts and rejects the same dates as the SimpleDateFormats of the matching patterns above,
+     * so it does not matter which of them parses a date. Dates it does not handle, like dates with
+     * another time zone name or before 1900, are left to the SimpleDateFormats.
+     */
+    private static class Rfc822 {
+
+        static final long INVALID = Long.MIN_VALUE;
+
+        private static final String[] DAYS = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"}; // NoI18N
+        private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june", // NoI18N
+                "july", "august", "september", "october", "november", "december"}; // NoI18N
+        private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+        private static final long MINUTE_MS = 60 * 1000;
+        private static final long DAY_MS = 24 * 60 * MINUTE_MS;
+
+        private final String mText;
+        private int mPos = 0;
+
+        private Rfc822(@NonNull String argText) {
+            mText = argText;
+        }
+
+        /**
+         * @return The time in ms, or INVALID
+         */
+        static long parse(@NonNull String argDate) {
+            return new Rfc822(argDate).parse();
+        }
+
+        private long parse() {
+            int dayOfWeek = readName(DAYS, 3, 3);
+            if (dayOfWeek < 0) {
+                return INVALID;
+            }
+
+            boolean comma = read(',');
+            if (!readSpace()) {
+                return INVALID;
+            }
+
+            int day = readNumber(1, 2);
+            if (day < 0 || !readSpace()) {
+                return INVALID;
+            }
+
+            int month = readName(MONTHS, 3, 9);
+            if (month < 0 || !readSpace()) {
+                return INVALID;
+            }
+
+            int year = readNumber(4, 4);
+            if (year < 1900 || !readSpace()) {
+                return INVALID;
+            }
+
+            int hour = readNumber(1, 2);
+            if (hour < 0 || !read(':')) {
+                return INVALID;
+            }
+
+            int minute = readNumber(2, 2);
+            int second = 0;
+            if (read(':')) {
+                second = readNumber(2, 2);
+            } else if (!comma) {
+                // There is no pattern for dates without seconds and without a comma
+                return INVALID;
+            }
+
+            if (minute < 0 || second < 0 || !readSpace()) {
+                return INVALID;
+            }
+
+            long offsetMinutes = readTimeZone();
+            if (offsetMinutes == INVALID) {
+                return INVALID;
+            }
+
+            boolean leapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            if (day < 1 || day > DAYS_IN_MONTH[month] || (month == 1 && day == 29 && !leapYear)
+                    || hour > 23 || minute > 59 || second > 59) {
+                return INVALID;
+            }
+
+            long days = daysSinceEpoch(year, month + 1, day);
+            // 1 January 1970 was a Thursday
+            if ((days % 7 + 7 + 3) % 7 != dayOfWeek) {
+                return INVALID;
+            }
+
+            return days * DAY_MS + ((hour * 60 + minute) - offsetMinutes) * MINUTE_MS + second * 1000L;
+        }
+
+        /**
+         * @return The offset from UTC in minutes, or INVALID
+         */
+        private long readTimeZone() {
+            int length = mText.length() - mPos;
+
+            if (length == 5 && (read('+') || read('-'))) {
+                int sign = mText.charAt(mPos - 1) == '-' ? -1 : 1;
+                int hhmm = readNumber(4, 4);
+                int hours = hhmm / 100;
+                int minutes = hhmm % 100;
+                if (hhmm < 0 || hours > 23 || minutes > 59) {
+                    return INVALID;
+                }
+                return sign * (hours * 60 + minutes);
+            }
+
+            if (length == 3) {
+                String zone = mText.substring(mPos);
+                switch (zone) {
+                    case "GMT": // NoI18N
+                    case "UTC": // NoI18N
+                        return 0;
+                    case "BST": // NoI18N
+                        return 60;
+                    case "EDT": // NoI18N
+                        return -4 * 60;
+                    case "EST": // NoI18N
+                        return -5 * 60;
+                    case "PDT": // NoI18N
+                        return -7 * 60;
+                    case "PST": // NoI18N
+                        return -8 * 60;
+                }
+            }
+
+            return INVALID;
+        }
+
+        private boolean read(char argChar) {
+            if (mPos < mText.length() && mText.charAt(mPos) == argChar) {
+                mPos++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean readSpace() {
+            return read(' ');
+        }
+
+        /**
+         * @return The number, or -1 if there are too few or too many digits
+         */
+        private int readNumber(int argMinDigits, int argMaxDigits) {
+            int start = mPos;
+            int value = 0;
+            while (mPos < mText.length() && mPos - start < argMaxDigits) {
+                char c = mText.charAt(mPos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                mPos++;
+            }
+
+            int digits = mPos - start;
+            if (digits < argMinDigits || (mPos < mText.length() && Character.isDigit(mText.charAt(mPos)))) {
+                return -1;
+            }
+            return value;
+        }
+
+        /**
+         * Reads a word which is either the first three letters of one of the names, or the whole
+         * name, ignoring case.
+         *
+         * @return The index of the name, or -1
+         */
+        private int readName(@NonNull String[] argNames, int argMinLength, int argMaxLength) {
+            int start = mPos;
+            while (mPos < mText.length() && Character.isLetter(mText.charAt(mPos))) {
+                mPos++;
+            }
+
+            int length = mPos - start;
+            if (length < argMinLength || length > argMaxLength) {
+                return -1;
+            }
+
+            for (int i = 0; i < argNames.length; i++) {
+                String name = argNames[i];
+                if ((length == 3 || length == name.length()) && length <= name.length()
+                        && mText.regionMatches(true, start, name, 0, length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Days from 1 January 1970 to the date in the Gregorian calendar.
+         * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+         */
+        private static long daysSinceEpoch(int argYear, int argMonth, int argDay) {
+            int year = argMonth <= 2 ? argYear - 1 : argYear;
+            int era = year / 400;
+            int yearOfEra = year - era * 400;
+            int dayOfYear = (153 * (argMonth + (argMonth > 2 ? -3 : 9)) + 2) / 5 + argDay - 1;
+            int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+            return era * 146097L + dayOfEra - 719468;
+        }
+    }
 }
@@ -3,13 +3,24 @@ package org.bottiger.podcast.utils;
 import android.Manifest;
 import android.support.annotation.NonNull;
 import android.support.annotation.RequiresPermission;
+import android.util.Log;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 
 public class FileUtils {
 
+    private static final String TAG = FileUtils.class.getSimpleName();
+
+    private static final String PART_SUFFIX = ".part"; // NoI18N
+
+    // Bytes handed to a single transferTo call. Some kernels silently transfer less than 2GB at most.
+    private static final long TRANSFER_CHUNK = 8 * 1024 * 1024;
+
 	public static boolean copy_file(String src, String dst)
 	{
         FileInputStream fileInputStream = null;
@@ -51,6 +62,110 @@ public class FileUtils {
         return b;
 	}
 	
+    /**
+     * Move a file into place. If the source and the destination are on the same volume the file is
+     * renamed, which is atomic and does not touch the data. Otherwise the file is transferred with a
+     * file channel into a temporary file next to the destination, synced, and renamed into place, so
+     * the destination is never seen half written.
+     *
+     * The data is synced to the disk before it is made available, and the length of the destination
+     * is checked afterwards. If the check fails the destination is deleted, so a truncated file is
+     * never left in place.
+     *
+     * @return True if the file was renamed, false if it had to be copied across volumes
+     * @throws IOException If the file could not be moved, or the moved file has the wrong length
+     */
+    public static boolean moveFile(@NonNull File argSrc, @NonNull File argDst) throws IOException {
+        long length = argSrc.length();
+
+        // Write-sync-rename. Without the sync the rename can survive a crash while the data does not.
+        sync(argSrc);
+
+        if (argSrc.renameTo(argDst)) {
+            verifyLengthOrDelete(argDst, length);
+            return true;
+        }
+
+        // Most likely on another volume, like a removable SD card
+        Log.d(TAG, "Could not rename " + argSrc + ", copying it instead"); // NoI18N
+        File part = new File(argDst.getPath() + PART_SUFFIX);
+        try {
+            transfer(argSrc, part);
+            verifyLength(part, length);
+            if (!part.renameTo(argDst)) {
+                throw new IOException("Could not rename " + part + " to " + argDst); // NoI18N
+            }
+        } catch (IOException e) {
+            part.delete();
+            throw e;
+        }
+
+        verifyLengthOrDelete(argDst, length);
+        if (!argSrc.delete()) {
+            Log.w(TAG, "Could not delete " + argSrc); // NoI18N
+        }
+
+        return false;
+    }
+
+    private static void verifyLengthOrDelete(@NonNull File argFile, long argLength) throws IOException {
+        try {
+            verifyLength(argFile, argLength);
+        } catch (IOException e) {
+            if (!argFile.delete()) {
+                Log.w(TAG, "Could not delete " + argFile); // NoI18N
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Copy the file with FileChannel.transferTo, which lets the kernel move the data without copying
+     * it through the Java heap, and sync the copy to the disk.
+     */
+    private static void transfer(@NonNull File argSrc, @NonNull File argDst) throws IOException {
+        FileInputStream inputStream = new FileInputStream(argSrc);
+        try {
+            FileOutputStream outputStream = new FileOutputStream(argDst);
+            try {
+                FileChannel in = inputStream.getChannel();
+                FileChannel out = outputStream.getChannel();
+
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    long transferred = in.transferTo(position, Math.min(size - position, TRANSFER_CHUNK), out);
+                    if (transferred <= 0) {
+                        throw new IOException("Transfer stopped at " + position + " of " + size + " bytes"); // NoI18N
+                    }
+                    position += transferred;
+                }
+
+                out.force(true);
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static void sync(@NonNull File argFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(argFile, "rw"); // NoI18N
+        try {
+            file.getFD().sync();
+        } finally {
+            file.close();
+        }
+    }
+
+    private static void verifyLength(@NonNull File argFile, long argExpectedLength) throws IOException {
+        long length = argFile.length();
+        if (length != argExpectedLength) {
+            throw new IOException("Wrong file size of " + argFile + ". Expected: " + argExpectedLength + ", got: " + length); // NoI18N
+        }
+    }
+
 	public static String get_export_file_name(String title, long id)
 	{
 		title = title.replaceAll("[\\s\\\\:\\<\\>\\[\\]\\*\\|\\/\\?\\{\\}]+", "_");		
@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 
 import org.bottiger.podcast.BuildConfig;
 import org.bottiger.podcast.R;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 import org.bottiger.podcast.utils.okhttp.UserAgentInterceptor;
 
 import java.util.concurrent.TimeUnit;
@@ -31,7 +32,8 @@ public class HttpUtils {
     }
 
     private static OkHttpClient.Builder getNewDefaultOkHttpClientBuilder(@NonNull Context argContext, int argTimeOut, @UserAgentInterceptor.TrafficTag int argTag) {
-        OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder();
+        // Derive from the shared client so the connection pool and dispatcher are reused
+        OkHttpClient.Builder okHttpBuilder = OkHttpClientFactory.getBaseClient().newBuilder();
         okHttpBuilder.interceptors().add(new UserAgentInterceptor(argContext, argTag));
         okHttpBuilder.connectTimeout(argTimeOut, TimeUnit.SECONDS)
                 .writeTimeout(argTimeOut, TimeUnit.SECONDS)
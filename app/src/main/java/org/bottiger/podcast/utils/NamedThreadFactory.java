@@ -0,0 +1,34 @@
+package org.bottiger.podcast.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named background threads, so they can be told apart in traces and thread dumps.
+ *
+ * Created by apl on 18-10-2026.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger mCount = new AtomicInteger();
+    private final String mPrefix;
+    private final int mPriority;
+
+    public NamedThreadFactory(@NonNull String argPrefix) {
+        this(argPrefix, Thread.NORM_PRIORITY - 1);
+    }
+
+    public NamedThreadFactory(@NonNull String argPrefix, int argPriority) {
+        mPrefix = argPrefix;
+        mPriority = argPriority;
+    }
+
+    @Override
+    public Thread newThread(@NonNull Runnable r) {
+        Thread thread = new Thread(r, mPrefix + "-" + mCount.incrementAndGet());
+        thread.setPriority(mPriority);
+        return thread;
+    }
+}
@@ -37,8 +37,9 @@ import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class OPMLImportExport {
 
@@ -83,17 +84,36 @@ public class OPMLImportExport {
 	public List<SlimSubscription> readSubscriptionsFromOPML(@NonNull Reader argOPMLReader) {
 		Log.i(TAG, "readSubscriptionsFromOPML(): " + argOPMLReader.toString());
 
-		int numImported = 0;
-		BufferedReader reader;
-		ArrayList<OpmlElement> elements = new ArrayList<>();
-		LinkedList<SlimSubscription> opmlSubscriptions = new LinkedList<>();
+		final ArrayList<SlimSubscription> opmlSubscriptions = new ArrayList<>();
+		final Set<String> urls = new HashSet<>();
 
 		try {
 			Log.i(TAG, "try to read the opml buffer");
-			reader = new BufferedReader(argOPMLReader);
+			BufferedReader reader = new BufferedReader(argOPMLReader);
 
+			// The elements are converted while the document is read, so they are never all in memory twice
 			OpmlReader omplReader = new OpmlReader();
-			elements = omplReader.readDocument(reader);
+			omplReader.readDocument(reader, new OpmlReader.ElementHandler() {
+				@Override
+				public void onElement(@NonNull OpmlElement argElement) {
+					String url = argElement.getXmlUrl();
+
+					URL parsedUrl;
+					try {
+						parsedUrl = new URL(url);
+					} catch (MalformedURLException e) {
+						Log.e(TAG, "Malform URL: " + url);
+						return;
+					}
+
+					// The same feed may be listed in several categories
+					if (!urls.add(url)) {
+						return;
+					}
+
+					opmlSubscriptions.add(new SlimSubscription(argElement.getText(), parsedUrl, null));
+				}
+			});
 		} catch (FileNotFoundException e) {
 			Log.e(TAG, "FileNotFoundException: " + e.toString());
 			toastMsg(opmlNotFound);
@@ -107,37 +127,11 @@ public class OPMLImportExport {
 			e.printStackTrace();
 		}
 
-		Log.i(TAG, "Read the OPML file. Found a number of elements: " + elements.size());
-		for (int i = 0; i < elements.size(); i++) {
-			OpmlElement element = elements.get(i);
+		Log.i(TAG, "Read the OPML file. Found a number of feeds: " + opmlSubscriptions.size());
 
-			String url = element.getXmlUrl();
-			String title = element.getText();
+		// Test which of them we are already subscribed to, all at once
+		SoundWaves.getAppContext(mActivity).getLibraryInstance().markSubscribed(opmlSubscriptions);
 
-			URL parsedUrl = null;
-			try {
-				parsedUrl = new URL(url);
-			} catch (MalformedURLException e) {
-				Log.e(TAG, "Malform URL: " + url);
-				e.printStackTrace();
-				continue;
-			}
-
-			SlimSubscription slimSubscription = new SlimSubscription(title, parsedUrl, null);
-
-			// Test we if already have the item in out database.
-			// If not we add it.
-			boolean isAlreadySubscribed = false;
-			Subscription subscription = SoundWaves.getAppContext(mActivity).getLibraryInstance().getSubscription(url);
-			if (subscription != null && subscription.status == Subscription.STATUS_SUBSCRIBED) {
-				isAlreadySubscribed = true;
-			}
-
-			slimSubscription.setIsSubscribed(isAlreadySubscribed);
-			opmlSubscriptions.add(slimSubscription);
-		}
-
-		//return opmlSubscriptions.toArray(new SlimSubscription[opmlSubscriptions.size()]);
 		return opmlSubscriptions;
 	}
 
@@ -12,6 +12,7 @@ import com.bumptech.glide.request.target.SimpleTarget;
 import com.bumptech.glide.request.transition.Transition;
 
 import org.bottiger.podcast.listeners.PaletteListener;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBasicSubscriber;
 
 import java.util.Collections;
@@ -23,7 +24,6 @@ import java.util.concurrent.locks.ReentrantLock;
 import io.reactivex.Flowable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 
 /**
  * Created by apl on 10-11-2014.
@@ -78,7 +78,7 @@ public class PaletteHelper {
                     public void onResourceReady(Bitmap resource, Transition<? super Bitmap> transition) {
                         Flowable.just(resource)
                                 .observeOn(AndroidSchedulers.mainThread())
-                                .subscribeOn(Schedulers.computation())
+                                .subscribeOn(Lanes.CPU.rx2())
                                 .map(new Function<Bitmap, Palette>( ) {
                                     @Override
                                     public Palette apply(Bitmap bitmap) throws Exception {
@@ -21,11 +21,13 @@ import org.bottiger.podcast.BuildConfig;
 import org.bottiger.podcast.R;
 import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
+import org.bottiger.podcast.player.exoplayer.AudioAnalysis;
 import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.provider.ISubscription;
 import org.bottiger.podcast.provider.Subscription;
 import org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager;
+import org.bottiger.podcast.service.Downloader.engines.DownloadResumeState;
 
 import java.io.File;
 import java.io.IOException;
@@ -75,8 +77,20 @@ public class StorageUtils {
         }
         Log.d(TAG, "Cleaning tmp folder: " + tmpFolder); // NoI18N
         File dir = new File(tmpFolder);
-        if(dir.exists() && dir.isDirectory()) {
-            return FileUtils.cleanDirectory(dir, false);
+        if(!dir.exists() || !dir.isDirectory()) {
+            return true;
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null)
+            return true;
+
+        // Keep partial downloads which can be resumed
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            if (file.isFile() && !DownloadResumeState.isResumable(file, now)) {
+                file.delete();
+            }
         }
 
         return  true;
@@ -155,6 +169,7 @@ public class StorageUtils {
                 } else {
                     deleteFile = false;
                     filesToKeep.add(item.getFilename());
+                    filesToKeep.add(item.getFilename() + AudioAnalysis.FILE_SUFFIX);
                 }
             }
 
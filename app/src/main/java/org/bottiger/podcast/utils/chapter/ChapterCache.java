@@ -0,0 +1,221 @@
+package org.bottiger.podcast.utils.chapter;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.bottiger.podcast.provider.IEpisode;
+import org.bottiger.podcast.utils.id3reader.ID3Chapter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the chapters of an episode once they have been parsed, so opening the chapters again does
+ * not read the ID3 tag again, or download it if the episode is streamed.
+ *
+ * Every episode has a small binary file in the app directory, named after a hash of the url of the
+ * episode. The url is stored as well, so a hash collision is not mistaken for the episode. Episodes
+ * without chapters are stored too, as finding out costs as much as reading them.
+ *
+ * A file is deleted when the episode file is deleted, or the subscription is removed. Streamed
+ * episodes are never deleted, so when there are more than {@link #MAX_FILES} files the oldest are
+ * deleted as well.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ChapterCache {
+
+    private static final String TAG = ChapterCache.class.getSimpleName();
+
+    private static final String DIRECTORY = "chapters"; // NoI18N
+    public static final String FILE_SUFFIX = ".chapters"; // NoI18N
+
+    private static final int MAGIC = 0x53574348; // SWCH
+    private static final int VERSION = 1;
+
+    public static final int MAX_FILES = 500;
+
+    private ChapterCache() {
+    }
+
+    @NonNull
+    public static File getFile(@NonNull Context argContext, @NonNull IEpisode argEpisode) {
+        File directory = new File(argContext.getFilesDir(), DIRECTORY);
+        return new File(directory, Integer.toHexString(argEpisode.getURL().hashCode()) + FILE_SUFFIX);
+    }
+
+    /**
+     * @param argDownloaded True if the episode is downloaded. Chapters which were looked for while the
+     *                      episode was streamed are not used if none were found, as the local file can
+     *                      be read in more ways.
+     * @return The stored chapters, or null if they have not been stored.
+     */
+    @Nullable
+    public static List<Chapter> read(@NonNull Context argContext, @NonNull IEpisode argEpisode, boolean argDownloaded) {
+        return read(getFile(argContext, argEpisode), argEpisode.getURL(), argDownloaded);
+    }
+
+    public static void write(@NonNull Context argContext,
+                             @NonNull IEpisode argEpisode,
+                             @NonNull List<Chapter> argChapters,
+                             boolean argDownloaded) {
+        File file = getFile(argContext, argEpisode);
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.w(TAG, "Could not create " + directory); // NoI18N
+            return;
+        }
+
+        try {
+            write(file, argEpisode.getURL(), argChapters, argDownloaded);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not store chapters: " + file); // NoI18N
+            return;
+        }
+
+        trim(directory, MAX_FILES);
+    }
+
+    public static void delete(@NonNull Context argContext, @NonNull IEpisode argEpisode) {
+        File file = getFile(argContext, argEpisode);
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete chapters: " + file); // NoI18N
+        }
+    }
+
+    /**
+     * Delete the oldest files in the directory until there are at most argMaxFiles left.
+     */
+    public static void trim(@NonNull File argDirectory, int argMaxFiles) {
+        File[] files = argDirectory.listFiles();
+        if (files == null || files.length <= argMaxFiles) {
+            return;
+        }
+
+        long[] modified = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+        }
+
+        // Every file modified at or before the cutoff is among the oldest
+        int excess = files.length - argMaxFiles;
+        long[] sorted = modified.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[excess - 1];
+
+        for (int i = 0; i < files.length && excess > 0; i++) {
+            if (modified[i] <= cutoff) {
+                excess--;
+                if (!files[i].delete()) {
+                    Log.w(TAG, "Could not delete chapters: " + files[i]); // NoI18N
+                }
+            }
+        }
+    }
+
+    @Nullable
+    public static List<Chapter> read(@NonNull File argFile, @NonNull String argUrl, boolean argDownloaded) {
+        if (!argFile.exists()) {
+            return null;
+        }
+
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(argFile)));
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) {
+                return null;
+            }
+
+            if (!argUrl.equals(inputStream.readUTF())) {
+                return null;
+            }
+
+            boolean downloaded = inputStream.readBoolean();
+            int count = inputStream.readInt();
+            if (count == 0 && argDownloaded && !downloaded) {
+                return null;
+            }
+
+            List<Chapter> chapters = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long start = inputStream.readLong();
+                String title = readNullableString(inputStream);
+                String link = readNullableString(inputStream);
+                chapters.add(new ID3Chapter(start, title, null, link));
+            }
+
+            return chapters;
+        } catch (IOException | NegativeArraySizeException | IllegalArgumentException e) {
+            Log.w(TAG, "Could not read chapters: " + argFile); // NoI18N
+            return null;
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    public static void write(@NonNull File argFile,
+                             @NonNull String argUrl,
+                             @NonNull List<Chapter> argChapters,
+                             boolean argDownloaded) throws IOException {
+        // Written to a temporary file first, so a half written file is never read
+        File tmpFile = new File(argFile.getPath() + ".tmp"); // NoI18N
+
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeUTF(argUrl);
+            outputStream.writeBoolean(argDownloaded);
+            outputStream.writeInt(argChapters.size());
+            for (Chapter chapter : argChapters) {
+                outputStream.writeLong(chapter.getStart());
+                writeNullableString(outputStream, chapter.getTitle());
+                writeNullableString(outputStream, chapter.getLink());
+            }
+            outputStream.flush();
+        } finally {
+            closeQuietly(outputStream);
+        }
+
+        if (!tmpFile.renameTo(argFile)) {
+            tmpFile.delete();
+            throw new IOException("Could not rename " + tmpFile); // NoI18N
+        }
+    }
+
+    @Nullable
+    private static String readNullableString(@NonNull DataInputStream argInputStream) throws IOException {
+        return argInputStream.readBoolean() ? argInputStream.readUTF() : null;
+    }
+
+    private static void writeNullableString(@NonNull DataOutputStream argOutputStream,
+                                            @Nullable String argString) throws IOException {
+        argOutputStream.writeBoolean(argString != null);
+        if (argString != null) {
+            argOutputStream.writeUTF(argString);
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable argCloseable) {
+        if (argCloseable == null)
+            return;
+
+        try {
+            argCloseable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close chapters"); // NoI18N
+        }
+    }
+}
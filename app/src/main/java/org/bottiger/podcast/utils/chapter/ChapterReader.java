@@ -28,14 +28,14 @@ public class ChapterReader extends ID3Reader {
 	@Override
 	public int onStartTagHeader(TagHeader header) {
 		chapters = new ArrayList<Chapter>();
-		System.out.println(header.toString());
+		if (BuildConfig.DEBUG) Log.d(TAG, header.toString());
 		return ID3Reader.ACTION_DONT_SKIP;
 	}
 
 	@Override
 	public int onStartFrameHeader(FrameHeader header, InputStream input)
 			throws IOException, ID3ReaderException {
-		System.out.println(header.toString());
+		if (BuildConfig.DEBUG) Log.v(TAG, header.toString());
 		if (header.getId().equals(FRAME_ID_CHAPTER)) {
 			if (currentChapter != null) {
 				if (!hasId3Chapter(currentChapter)) {
@@ -99,17 +99,14 @@ public class ChapterReader extends ID3Reader {
 				chapters.add(currentChapter);
 			}
 		}
-		System.out.println("Reached end of tag");
-		if (chapters != null) {
-			for (Chapter c : chapters) {
-				System.out.println(c.toString());
-			}
+		if (BuildConfig.DEBUG && chapters != null) {
+			Log.d(TAG, "Reached end of tag. Chapters: " + chapters.size());
 		}
 	}
 
 	@Override
 	public void onNoTagHeaderFound() {
-		System.out.println("No tag header found");
+		if (BuildConfig.DEBUG) Log.d(TAG, "No tag header found");
 		super.onNoTagHeaderFound();
 	}
 
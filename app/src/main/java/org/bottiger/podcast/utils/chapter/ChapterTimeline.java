@@ -0,0 +1,132 @@
+package org.bottiger.podcast.utils.chapter;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The start times of the chapters of an episode, sorted, for looking up the chapter at a position
+ * while the episode plays.
+ *
+ * The chapter at a position is found with a binary search, and the start of the next chapter is
+ * read directly, so the player can schedule a single update at the next boundary instead of
+ * checking the position on every progress update. Indexes are the indexes in the list of chapters
+ * the timeline was made from, which does not have to be sorted.
+ *
+ * Immutable. A new timeline is made when the chapters of an episode are set.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public final class ChapterTimeline {
+
+    public static final int NO_CHAPTER = -1;
+    public static final long NO_BOUNDARY = Long.MAX_VALUE;
+
+    public static final ChapterTimeline EMPTY = new ChapterTimeline(new long[0], new int[0]);
+
+    // Start times in milliseconds, in ascending order
+    @NonNull private final long[] mStarts;
+
+    // The index in the list of chapters of every start time
+    @NonNull private final int[] mChapterIndexes;
+
+    // The position in mStarts of every chapter
+    @NonNull private final int[] mSortedPositions;
+
+    private ChapterTimeline(@NonNull long[] argStarts, @NonNull int[] argChapterIndexes) {
+        mStarts = argStarts;
+        mChapterIndexes = argChapterIndexes;
+        mSortedPositions = new int[argChapterIndexes.length];
+        for (int i = 0; i < argChapterIndexes.length; i++) {
+            mSortedPositions[argChapterIndexes[i]] = i;
+        }
+    }
+
+    @NonNull
+    public static ChapterTimeline of(@NonNull List<Chapter> argChapters) {
+        int size = argChapters.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        final long[] starts = new long[size];
+        int i = 0;
+        for (Chapter chapter : argChapters) {
+            starts[i++] = Math.max(0, chapter.getStart());
+        }
+
+        Integer[] order = new Integer[size];
+        for (i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        // Stable, so chapters which start at the same time keep their order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer argLeft, Integer argRight) {
+                long left = starts[argLeft];
+                long right = starts[argRight];
+                return left < right ? -1 : (left == right ? 0 : 1);
+            }
+        });
+
+        long[] sortedStarts = new long[size];
+        int[] indexes = new int[size];
+        for (i = 0; i < size; i++) {
+            indexes[i] = order[i];
+            sortedStarts[i] = starts[order[i]];
+        }
+        return new ChapterTimeline(sortedStarts, indexes);
+    }
+
+    public int size() {
+        return mStarts.length;
+    }
+
+    public boolean isEmpty() {
+        return mStarts.length == 0;
+    }
+
+    /**
+     * @return The index of the chapter playing at the position, or NO_CHAPTER if there are no
+     * chapters. Positions before the first chapter belong to the first chapter.
+     */
+    public int indexOf(long argPositionMs) {
+        int position = sortedPositionOf(argPositionMs);
+        return position < 0 ? NO_CHAPTER : mChapterIndexes[position];
+    }
+
+    /**
+     * @return The start of the chapter after the chapter with the index, or NO_BOUNDARY if it is the
+     * last chapter.
+     */
+    public long getNextBoundary(int argChapterIndex) {
+        if (argChapterIndex < 0 || argChapterIndex >= mSortedPositions.length) {
+            return NO_BOUNDARY;
+        }
+
+        int next = mSortedPositions[argChapterIndex] + 1;
+        return next < mStarts.length ? mStarts[next] : NO_BOUNDARY;
+    }
+
+    private int sortedPositionOf(long argPositionMs) {
+        if (mStarts.length == 0) {
+            return NO_CHAPTER;
+        }
+
+        // The last chapter which starts at or before the position
+        int low = 0;
+        int high = mStarts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (mStarts[middle] <= argPositionMs) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return Math.max(0, high);
+    }
+}
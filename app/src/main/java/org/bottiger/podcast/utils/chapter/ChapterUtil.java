@@ -4,6 +4,7 @@ import android.content.Context;
 import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.util.Log;
 
 import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
 import org.bottiger.podcast.provider.FeedItem;
@@ -12,6 +13,8 @@ import org.bottiger.podcast.utils.ErrorUtils;
 import org.bottiger.podcast.utils.id3reader.ID3Chapter;
 import org.bottiger.podcast.utils.id3reader.ID3ReaderException;
 
+import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.LinkedList;
@@ -36,43 +39,81 @@ public class ChapterUtil {
             @Override
             public List<Chapter> apply(IEpisode argEpisode) throws Exception {
 
-                List<Chapter> chapters = null;
+                // Already read since the app was started
+                if (argEpisode.hasChapters()) {
+                    return argEpisode.getChapters();
+                }
+
+                File localFile = getLocalFile(argContext, argEpisode);
+                boolean downloaded = localFile != null;
+
+                List<Chapter> chapters = ChapterCache.read(argContext, argEpisode, downloaded);
+                if (chapters != null) {
+                    return chapters;
+                }
+
                 String arch = System.getProperty("os.arch");
 
                 try {
                     if (arch.contains("a")) { // https://developer.android.com/ndk/guides/abis.html
                         chapters = getM4aChapters(argContext, argEpisode);
                     } else {
-                        chapters = getMp3Chapters(argEpisode);
+                        chapters = getMp3Chapters(argEpisode, localFile);
                     }
                 } catch (UnsatisfiedLinkError unsatisfiedLinkError) {
                     ErrorUtils.handleException(unsatisfiedLinkError, TAG);
                 } finally {
                     if (chapters == null || chapters.isEmpty()) {
-                        chapters = getMp3Chapters(argEpisode);
+                        chapters = getMp3Chapters(argEpisode, localFile);
                     }
                 }
 
+                // Not stored if the tag could not be read, so it is tried again next time
+                if (chapters == null) {
+                    return new LinkedList<>();
+                }
+
+                ChapterCache.write(argContext, argEpisode, chapters, downloaded);
                 return chapters;
             }
         });
     }
 
-    private static List<Chapter> getMp3Chapters(@NonNull final IEpisode argEpisode) {
+    /**
+     * Read the chapters from the ID3 tag of the local file if the episode has been downloaded, and
+     * from the start of the stream otherwise.
+     *
+     * @return The chapters, or null if the tag could not be read
+     */
+    @Nullable
+    private static List<Chapter> getMp3Chapters(@NonNull final IEpisode argEpisode, @Nullable File argLocalFile) {
 
-        List<Chapter> chapters = null;
+        List<Chapter> chapters;
         ChapterReader reader = new ChapterReader();
 
+        InputStream is = null;
         try {
-            InputStream is = argEpisode.getUrl().openStream();
-            reader.readInputStream(is);
+            if (argLocalFile != null) {
+                reader.readFile(argLocalFile);
+            } else {
+                is = new BufferedInputStream(argEpisode.getUrl().openStream());
+                reader.readInputStream(is);
+            }
             chapters = reader.getChapters();
         } catch (ID3ReaderException | IOException e) {
             VendorCrashReporter.handleException(e);
-            //e.printStackTrace();
+            return null;
+        } finally {
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not close stream"); // NoI18N
+                }
+            }
         }
 
-        // reader.getChapters() can return null
+        // reader.getChapters() is null if there is no tag
         if (chapters == null) {
             chapters = new LinkedList<>();
         }
@@ -80,6 +121,20 @@ public class ChapterUtil {
         return chapters;
     }
 
+    @Nullable
+    private static File getLocalFile(@NonNull Context argContext, @NonNull IEpisode argEpisode) throws SecurityException {
+        if (!(argEpisode instanceof FeedItem) || !argEpisode.isDownloaded(argContext)) {
+            return null;
+        }
+
+        try {
+            File file = new File(argEpisode.getAbsolutePath(argContext));
+            return file.exists() ? file : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     @NonNull
     private static List<Chapter> getM4aChapters(@NonNull final Context argContext,
                                                 @NonNull final IEpisode argEpisode) throws SecurityException {
@@ -118,6 +173,10 @@ public class ChapterUtil {
         return chapters;
     }
 
+    /**
+     * @return The index of the chapter playing at the position, or null if the episode has no
+     * chapters
+     */
     @Nullable
     public static Integer getCurrentChapterIndex(@Nullable IEpisode argEpisode, long argCurrentPosition) {
 
@@ -125,28 +184,6 @@ public class ChapterUtil {
             return null;
         }
 
-        List<Chapter> chapters = argEpisode.getChapters();
-        Chapter chapter;
-        int chapterIndex = -1;
-
-        for (int i = 0; i < chapters.size(); i++) {
-            boolean isLast = i == chapters.size()-1;
-
-            // If last
-            if (isLast) {
-                chapterIndex = i;
-                break;
-            }
-
-            chapter = chapters.get(i);
-            if (argCurrentPosition >= chapter.getStart()) {
-                continue;
-            }
-
-            chapterIndex = i > 0 ? i-1 : i;
-            break;
-        }
-
-        return chapterIndex;
+        return argEpisode.getChapterTimeline().indexOf(argCurrentPosition);
     }
 }
@@ -0,0 +1,53 @@
+package org.bottiger.podcast.utils.id3reader;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An InputStream over a ByteBuffer, which is used to parse a memory mapped ID3 tag. Unlike
+ * ByteArrayInputStream the methods are not synchronized, as the reader reads most of the tag a byte
+ * at a time.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer;
+
+	ByteBufferInputStream(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	@Override
+	public int read() {
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		int read = Math.min(length, buffer.remaining());
+		buffer.get(bytes, offset, read);
+		return read;
+	}
+
+	@Override
+	public long skip(long number) {
+		int skipped = (int) Math.max(0, Math.min(number, buffer.remaining()));
+		buffer.position(buffer.position() + skipped);
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+}
@@ -3,9 +3,12 @@ package org.bottiger.podcast.utils.id3reader;
 import org.bottiger.podcast.utils.id3reader.model.FrameHeader;
 import org.bottiger.podcast.utils.id3reader.model.TagHeader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 
 /**
@@ -16,6 +19,7 @@ public class ID3Reader {
 	private static final int HEADER_LENGTH = 10;
 	private static final int ID3_LENGTH = 3;
 	private static final int FRAME_ID_LENGTH = 4;
+	private static final int FLAG_FOOTER = 0x10;
 
 	protected static final int ACTION_SKIP = 1;
 	protected static final int ACTION_DONT_SKIP = 2;
@@ -67,6 +71,49 @@ public class ID3Reader {
 		}
 	}
 
+	/**
+	 * Read the ID3 tag of a local file. Only the tag at the start of the file
+	 * is mapped into memory, so the audio after it is never read.
+	 */
+	public final void readFile(File file) throws IOException,
+			ID3ReaderException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long length = Math.min(channel.size(), getTagLength(randomAccessFile));
+			ByteBuffer tag = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			readInputStream(new ByteBufferInputStream(tag));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Returns the length of the tag including the header and the footer, or
+	 * the length of the header if the file does not start with a tag.
+	 */
+	private long getTagLength(RandomAccessFile file) throws IOException {
+		if (file.length() < HEADER_LENGTH) {
+			return HEADER_LENGTH;
+		}
+
+		byte[] header = new byte[HEADER_LENGTH];
+		file.readFully(header);
+		file.seek(0);
+
+		if (header[0] != 0x49 || header[1] != 0x44 || header[2] != 0x33) {
+			return HEADER_LENGTH;
+		}
+
+		int size = ((header[6] & 0xFF) << 24) | ((header[7] & 0xFF) << 16)
+				| ((header[8] & 0xFF) << 8) | (header[9] & 0xFF);
+		long length = HEADER_LENGTH + unsynchsafe(size);
+		if ((header[5] & FLAG_FOOTER) != 0) {
+			length += HEADER_LENGTH;
+		}
+		return length;
+	}
+
 	/** Returns true if string only contains null-bytes. */
 	private boolean checkForNullString(String s) {
 		if (!s.isEmpty()) {
@@ -92,15 +139,21 @@ public class ID3Reader {
 	 */
 	protected char[] readBytes(InputStream input, int number)
 			throws IOException, ID3ReaderException {
-		char[] header = new char[number];
-		for (int i = 0; i < number; i++) {
-			int b = input.read();
-			readerPosition++;
-			if (b != -1) {
-				header[i] = (char) b;
-			} else {
+		byte[] bytes = new byte[number];
+		int read = 0;
+		while (read < number) {
+			int count = input.read(bytes, read, number - read);
+			if (count == -1) {
+				readerPosition += read;
 				throw new ID3ReaderException("Unexpected end of stream");
 			}
+			read += count;
+		}
+		readerPosition += number;
+
+		char[] header = new char[number];
+		for (int i = 0; i < number; i++) {
+			header[i] = (char) (bytes[i] & 0xFF);
 		}
 		return header;
 	}
@@ -114,8 +167,19 @@ public class ID3Reader {
 			number = 1;
 		}
 
-		//IOUtils.skipFully(input, number);
-		input.skip(number);
+		// skip() may skip less than asked, e.g. at the end of the buffer of a
+		// BufferedInputStream
+		int skipped = 0;
+		while (skipped < number) {
+			long count = input.skip(number - skipped);
+			if (count <= 0) {
+				if (input.read() == -1) {
+					break;
+				}
+				count = 1;
+			}
+			skipped += count;
+		}
 
 		readerPosition += number;
 	}
@@ -195,10 +259,14 @@ public class ID3Reader {
 			throws IOException, ID3ReaderException {
 
 		int bytesRead = 0;
-		char c;
-		while (++bytesRead <= max && (c = (char) input.read()) > 0) {
+		int c;
+		while (++bytesRead <= max && (c = input.read()) != -1) {
+			readerPosition++;
+			if (c == 0) {
+				break;
+			}
             if (buffer != null) {
-			    buffer.append(c);
+			    buffer.append((char) c);
             }
 		}
 		return bytesRead;
@@ -213,7 +281,9 @@ public class ID3Reader {
             c = input.read();
             if (c == -1) {
                 break;
-            } else if (c == 0) {
+            }
+            readerPosition++;
+            if (c == 0) {
                 if (cZero == 0) {
                     // termination character found
                     break;
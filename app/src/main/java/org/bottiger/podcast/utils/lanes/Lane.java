@@ -0,0 +1,304 @@
+package org.bottiger.podcast.utils.lanes;
+
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import org.bottiger.podcast.utils.NamedThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of named threads for one kind of background work, with a bounded queue.
+ *
+ * When the queue is full the task is dropped if the work is optional. Otherwise a background
+ * thread submitting it runs it itself, which slows the producer down. A thread with a Looper, like
+ * the main thread, must never block or run database and network work, so its task is handed to
+ * the overflow thread of the lane instead, which waits for room in the queue. The lane measures
+ * how deep its queue gets and how long tasks wait in it and run, so a saturated lane shows up in
+ * the logs.
+ *
+ * The same threads are used for RxJava 1 and RxJava 2 through {@link #rx()} and {@link #rx2()}.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class Lane implements Executor {
+
+    private static final String TAG = "Lane";
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final long SATURATION_LOG_INTERVAL_MS = 60 * 1000;
+    private static final long NANOS_PER_MS = 1000 * 1000;
+
+    @NonNull private final String mName;
+    private final int mQueueCapacity;
+    private final boolean mDropWhenFull;
+
+    @NonNull private final ThreadPoolExecutor mExecutor;
+    @NonNull private final ThreadPoolExecutor mOverflowExecutor;
+    @NonNull private final rx.Scheduler mRxScheduler;
+    @NonNull private final io.reactivex.Scheduler mRx2Scheduler;
+
+    private final AtomicLong mSubmitted = new AtomicLong();
+    private final AtomicLong mCompleted = new AtomicLong();
+    private final AtomicLong mDropped = new AtomicLong();
+    private final AtomicLong mCallerRuns = new AtomicLong();
+    private final AtomicLong mOverflowed = new AtomicLong();
+    private final AtomicLong mWaitNanosSum = new AtomicLong();
+    private final AtomicLong mMaxWaitNanos = new AtomicLong();
+    private final AtomicLong mRunNanosSum = new AtomicLong();
+    private final AtomicInteger mMaxQueueDepth = new AtomicInteger();
+    private final AtomicLong mLastSaturationLog = new AtomicLong();
+
+    /**
+     * @param argName The name of the lane, and the prefix of the names of its threads
+     * @param argThreads The maximum number of threads
+     * @param argQueueCapacity The maximum number of waiting tasks
+     * @param argPriority The priority of the threads
+     * @param argDropWhenFull Drop tasks when the queue is full, instead of running them on the
+     *                        submitting thread or the overflow thread. Only for work which may be
+     *                        skipped.
+     */
+    public Lane(@NonNull String argName, int argThreads, int argQueueCapacity, int argPriority, boolean argDropWhenFull) {
+        mName = argName;
+        mQueueCapacity = argQueueCapacity;
+        mDropWhenFull = argDropWhenFull;
+
+        mExecutor = new ThreadPoolExecutor(argThreads,
+                argThreads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(argQueueCapacity),
+                new NamedThreadFactory(argName, argPriority),
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                        onQueueFull(r, executor);
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+
+        // Unbounded, because the tasks have nowhere else to go. It only fills while the lane is
+        // saturated by Looper threads.
+        mOverflowExecutor = new ThreadPoolExecutor(1,
+                1,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamedThreadFactory(argName + "Overflow", argPriority)); // NoI18N
+        mOverflowExecutor.allowCoreThreadTimeOut(true);
+
+        mRxScheduler = rx.schedulers.Schedulers.from(this);
+        mRx2Scheduler = io.reactivex.schedulers.Schedulers.from(this);
+    }
+
+    @Override
+    public void execute(@NonNull final Runnable argTask) {
+        mSubmitted.incrementAndGet();
+        final long queuedAt = System.nanoTime();
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                recordWait(start - queuedAt);
+                try {
+                    argTask.run();
+                } finally {
+                    mRunNanosSum.addAndGet(System.nanoTime() - start);
+                    mCompleted.incrementAndGet();
+                }
+            }
+        });
+
+        recordQueueDepth(mExecutor.getQueue().size());
+    }
+
+    /**
+     * @return A RxJava 1 scheduler which runs on this lane
+     */
+    @NonNull
+    public rx.Scheduler rx() {
+        return mRxScheduler;
+    }
+
+    /**
+     * @return A RxJava 2 scheduler which runs on this lane
+     */
+    @NonNull
+    public io.reactivex.Scheduler rx2() {
+        return mRx2Scheduler;
+    }
+
+    @NonNull
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return The number of tasks waiting for a thread
+     */
+    public int getQueueDepth() {
+        return mExecutor.getQueue().size();
+    }
+
+    public int getMaxQueueDepth() {
+        return mMaxQueueDepth.get();
+    }
+
+    public int getQueueCapacity() {
+        return mQueueCapacity;
+    }
+
+    /**
+     * @return The number of threads running a task
+     */
+    public int getActiveCount() {
+        return mExecutor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return mSubmitted.get();
+    }
+
+    public long getCompletedCount() {
+        return mCompleted.get();
+    }
+
+    /**
+     * @return The number of tasks which were dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return mDropped.get();
+    }
+
+    /**
+     * @return The number of tasks which were run by the submitting thread because the queue was full
+     */
+    public long getCallerRunsCount() {
+        return mCallerRuns.get();
+    }
+
+    /**
+     * @return The number of tasks from Looper threads which were handed to the overflow thread
+     * because the queue was full
+     */
+    public long getOverflowCount() {
+        return mOverflowed.get();
+    }
+
+    /**
+     * @return The number of tasks waiting in the overflow thread for room in the queue
+     */
+    public int getOverflowDepth() {
+        return mOverflowExecutor.getQueue().size();
+    }
+
+    public long getAverageWaitMs() {
+        long completed = mCompleted.get();
+        return completed > 0 ? mWaitNanosSum.get() / completed / NANOS_PER_MS : 0;
+    }
+
+    public long getMaxWaitMs() {
+        return mMaxWaitNanos.get() / NANOS_PER_MS;
+    }
+
+    public long getAverageRunMs() {
+        long completed = mCompleted.get();
+        return completed > 0 ? mRunNanosSum.get() / completed / NANOS_PER_MS : 0;
+    }
+
+    private void onQueueFull(@NonNull final Runnable argTask, @NonNull final ThreadPoolExecutor argExecutor) {
+        logSaturation();
+
+        if (argExecutor.isShutdown()) {
+            throw new RejectedExecutionException(mName + " is shut down"); // NoI18N
+        }
+
+        if (mDropWhenFull) {
+            mDropped.incrementAndGet();
+            return;
+        }
+
+        if (Looper.myLooper() != null) {
+            mOverflowed.incrementAndGet();
+            mOverflowExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    enqueue(argTask, argExecutor);
+                }
+            });
+            return;
+        }
+
+        mCallerRuns.incrementAndGet();
+        argTask.run();
+    }
+
+    /**
+     * Waits until there is room in the queue. Runs on the overflow thread.
+     */
+    private void enqueue(@NonNull Runnable argTask, @NonNull ThreadPoolExecutor argExecutor) {
+        try {
+            argExecutor.getQueue().put(argTask);
+        } catch (InterruptedException e) {
+            Log.w(TAG, "Interrupted, running the task on the overflow thread: " + mName); // NoI18N
+            Thread.currentThread().interrupt();
+            argTask.run();
+            return;
+        }
+
+        // The task went around the executor, so make sure a thread is there to take it
+        argExecutor.prestartCoreThread();
+    }
+
+    private void recordWait(long argWaitNanos) {
+        mWaitNanosSum.addAndGet(argWaitNanos);
+
+        long max = mMaxWaitNanos.get();
+        while (argWaitNanos > max && !mMaxWaitNanos.compareAndSet(max, argWaitNanos)) {
+            max = mMaxWaitNanos.get();
+        }
+    }
+
+    private void recordQueueDepth(int argDepth) {
+        int max = mMaxQueueDepth.get();
+        while (argDepth > max && !mMaxQueueDepth.compareAndSet(max, argDepth)) {
+            max = mMaxQueueDepth.get();
+        }
+
+        if (argDepth > 0 && argDepth >= mQueueCapacity * 3 / 4) {
+            logSaturation();
+        }
+    }
+
+    /**
+     * Logs the metrics of the lane when it is close to full, at most once a minute.
+     */
+    private void logSaturation() {
+        long now = System.currentTimeMillis();
+        long last = mLastSaturationLog.get();
+        if (now - last >= SATURATION_LOG_INTERVAL_MS && mLastSaturationLog.compareAndSet(last, now)) {
+            Log.w(TAG, "Saturated: " + this); // NoI18N
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mName + ": " + getActiveCount() + "/" + mExecutor.getMaximumPoolSize() + " threads busy" // NoI18N
+                + ", queue: " + getQueueDepth() + "/" + mQueueCapacity + " (max: " + getMaxQueueDepth() + ")" // NoI18N
+                + ", tasks: " + getCompletedCount() + "/" + getSubmittedCount() // NoI18N
+                + ", wait: " + getAverageWaitMs() + " ms (max: " + getMaxWaitMs() + " ms)" // NoI18N
+                + ", run: " + getAverageRunMs() + " ms" // NoI18N
+                + ", caller runs: " + getCallerRunsCount() // NoI18N
+                + ", overflowed: " + getOverflowCount() + " (waiting: " + getOverflowDepth() + ")" // NoI18N
+                + ", dropped: " + getDroppedCount(); // NoI18N
+    }
+}
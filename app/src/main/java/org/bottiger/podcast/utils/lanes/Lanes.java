@@ -0,0 +1,59 @@
+package org.bottiger.podcast.utils.lanes;
+
+import android.support.annotation.NonNull;
+
+/**
+ * The lanes all background work of the app runs on, instead of a new thread per operation or the
+ * unbounded io() pools of RxJava 1 and RxJava 2.
+ *
+ * Downloads and feed fetches are not run here. They have their own schedulers with per-host
+ * limits, and the audio players keep their own decoder threads.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class Lanes {
+
+    private static final int CPU_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 3));
+
+    /**
+     * Database reads and writes, and small files like the audio analysis. Mostly fed from the main
+     * thread, so a full queue hands the tasks to the overflow thread. The queue is large, so that
+     * rarely happens.
+     */
+    public static final Lane DB = new Lane("DB", 2, 1024, Thread.NORM_PRIORITY - 1, false); // NoI18N
+
+    /**
+     * Blocking network calls outside of the download and refresh schedulers, e.g. web services
+     * and images. Like the DB lane mostly fed from the main thread.
+     */
+    public static final Lane NETWORK = new Lane("Network", 4, 256, Thread.NORM_PRIORITY - 1, false); // NoI18N
+
+    /**
+     * Parsing feeds and other CPU bound work. The queue is small, so a full queue throttles the
+     * producer, e.g. the feed fetches on the OkHttp threads, instead of buffering work in memory.
+     */
+    public static final Lane CPU = new Lane("CPU", CPU_THREADS, 16, Thread.NORM_PRIORITY - 1, false); // NoI18N
+
+    /**
+     * Analysing downloaded episodes, one at a time with the lowest priority. The analysis is
+     * optional, playback measures the audio if it is missing, so it is dropped when the queue is full.
+     */
+    public static final Lane AUDIO = new Lane("AudioAnalysis", 1, 64, Thread.MIN_PRIORITY, true); // NoI18N
+
+    private static final Lane[] ALL = {DB, NETWORK, CPU, AUDIO};
+
+    /**
+     * @return The metrics of every lane, one line each
+     */
+    @NonNull
+    public static String getMetrics() {
+        StringBuilder builder = new StringBuilder();
+        for (Lane lane : ALL) {
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            builder.append(lane);
+        }
+        return builder.toString();
+    }
+}
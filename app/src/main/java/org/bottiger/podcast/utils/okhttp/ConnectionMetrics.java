@@ -0,0 +1,84 @@
+package org.bottiger.podcast.utils.okhttp;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Counts how many calls could reuse a pooled connection and how many had to open a new one.
+ *
+ * One instance is shared by all calls of the shared OkHttpClient, so all counters are atomic.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class ConnectionMetrics extends EventListener {
+
+    private final AtomicLong mAcquired = new AtomicLong();
+    private final AtomicLong mConnected = new AtomicLong();
+    private final AtomicLong mFailed = new AtomicLong();
+
+    @Override
+    public void connectEnd(@NonNull Call call,
+                           @NonNull InetSocketAddress inetSocketAddress,
+                           @Nullable Proxy proxy,
+                           @Nullable Protocol protocol) {
+        mConnected.incrementAndGet();
+    }
+
+    @Override
+    public void connectFailed(@NonNull Call call,
+                              @NonNull InetSocketAddress inetSocketAddress,
+                              @Nullable Proxy proxy,
+                              @Nullable Protocol protocol,
+                              @NonNull IOException ioe) {
+        mFailed.incrementAndGet();
+    }
+
+    @Override
+    public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+        mAcquired.incrementAndGet();
+    }
+
+    /**
+     * @return The number of times a connection was handed to a call
+     */
+    public long getAcquiredCount() {
+        return mAcquired.get();
+    }
+
+    /**
+     * @return The number of new connections which were established
+     */
+    public long getNewConnectionCount() {
+        return mConnected.get();
+    }
+
+    /**
+     * @return The number of times a pooled connection was reused
+     */
+    public long getReusedCount() {
+        return Math.max(0, mAcquired.get() - mConnected.get());
+    }
+
+    public long getFailedConnectCount() {
+        return mFailed.get();
+    }
+
+    @Override
+    public String toString() {
+        long acquired = getAcquiredCount();
+        long reused = getReusedCount();
+        int reusePercent = acquired > 0 ? (int) (100 * reused / acquired) : 0;
+        return "connections: " + getNewConnectionCount() + " new, " + reused + " reused (" + reusePercent + "%), " // NoI18N
+                + getFailedConnectCount() + " failed"; // NoI18N
+    }
+}
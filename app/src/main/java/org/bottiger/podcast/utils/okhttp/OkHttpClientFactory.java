@@ -0,0 +1,65 @@
+package org.bottiger.podcast.utils.okhttp;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import org.bottiger.podcast.utils.HttpUtils;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Hands out OkHttpClients which all share one connection pool and dispatcher.
+ *
+ * Every OkHttpClient built from scratch has its own connection pool, so connections to the same
+ * host (e.g. a CDN serving many episodes) could not be reused between clients. Clients with other
+ * settings should be derived from {@link #getBaseClient()} with newBuilder(), which keeps the pool.
+ *
+ * Created by aplb on 18-10-2026.
+ */
+public class OkHttpClientFactory {
+
+    private static final ConnectionMetrics sConnectionMetrics = new ConnectionMetrics();
+
+    private static volatile OkHttpClient sBaseClient;
+
+    // One shared client for each traffic tag
+    private static final SparseArray<OkHttpClient> sClients = new SparseArray<>();
+
+    @NonNull
+    public static OkHttpClient getBaseClient() {
+        OkHttpClient client = sBaseClient;
+        if (client != null) {
+            return client;
+        }
+
+        synchronized (OkHttpClientFactory.class) {
+            if (sBaseClient == null) {
+                sBaseClient = new OkHttpClient.Builder()
+                        .eventListener(sConnectionMetrics)
+                        .build();
+            }
+            return sBaseClient;
+        }
+    }
+
+    /**
+     * @return A shared client which adds the User-Agent and tags the traffic with argTag
+     */
+    @NonNull
+    public static OkHttpClient getClient(@NonNull Context argContext, @UserAgentInterceptor.TrafficTag int argTag) {
+        synchronized (sClients) {
+            OkHttpClient client = sClients.get(argTag);
+            if (client == null) {
+                client = HttpUtils.getNewDefaultOkHttpClientBuilder(argContext, argTag).build();
+                sClients.put(argTag, client);
+            }
+            return client;
+        }
+    }
+
+    @NonNull
+    public static ConnectionMetrics getConnectionMetrics() {
+        return sConnectionMetrics;
+    }
+}
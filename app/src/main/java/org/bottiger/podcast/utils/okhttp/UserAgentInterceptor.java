@@ -23,7 +23,7 @@ import okhttp3.Response;
 public class UserAgentInterceptor implements Interceptor {
 
     @Retention(RetentionPolicy.SOURCE)
-    @IntDef({NONE, SUBSCRIPTION_REFRESH, GPODDER, GENERIC_SEARCH, AUDIOSEARCH, DOWNLOAD_EPISODE})
+    @IntDef({NONE, SUBSCRIPTION_REFRESH, GPODDER, GENERIC_SEARCH, AUDIOSEARCH, DOWNLOAD_EPISODE, STREAM_EPISODE})
     public @interface TrafficTag {}
     public static final int NONE                    = 1001;
     public static final int SUBSCRIPTION_REFRESH    = 1002;
@@ -31,6 +31,7 @@ public class UserAgentInterceptor implements Interceptor {
     public static final int GENERIC_SEARCH          = 1004;
     public static final int AUDIOSEARCH             = 1005;
     public static final int DOWNLOAD_EPISODE        = 1006;
+    public static final int STREAM_EPISODE          = 1007;
 
     private static final String USER_AGENT_HEADER = "User-Agent"; // NoI18N
 
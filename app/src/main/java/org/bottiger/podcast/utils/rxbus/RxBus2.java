@@ -1,10 +1,11 @@
 package org.bottiger.podcast.utils.rxbus;
 
+import org.bottiger.podcast.utils.lanes.Lanes;
+
 import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.processors.PublishProcessor;
-import io.reactivex.schedulers.Schedulers;
 
 /**
  * Created by aplb on 18-10-2016.
@@ -28,7 +29,7 @@ public final class RxBus2 {
 
     public Flowable<Object> toFlowableCommon() {
         return this.mBus
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx2())
                 .observeOn(AndroidSchedulers.mainThread());
     }
 
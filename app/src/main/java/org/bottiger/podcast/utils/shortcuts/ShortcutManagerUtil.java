@@ -33,6 +33,7 @@ import org.bottiger.podcast.receiver.DownloadManagerReceiver;
 import org.bottiger.podcast.utils.ErrorUtils;
 import org.bottiger.podcast.utils.ImageLoaderUtils;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import java.util.Collections;
 import java.util.Comparator;
@@ -41,7 +42,6 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 
 /**
  * Created by aplb on 30-11-2016.
@@ -79,8 +79,9 @@ public class ShortcutManagerUtil {
         }
 
         SoundWaves.getAppContext(argContext).getLibraryInstance().getLoadedSubscriptions()
-                .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.io())
+                .subscribeOn(Lanes.DB.rx2())
+                // The icons are downloaded while the shortcuts are built
+                .observeOn(Lanes.NETWORK.rx2())
                 .map(itemsList -> {
                     List<ShortcutInfo> list = new LinkedList<>();
                     List<IDbItem> items = new LinkedList<>();
@@ -25,6 +25,7 @@ import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.service.Downloader.SoundWavesDownloadManager;
 import org.bottiger.podcast.utils.ColorExtractor;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.disposables.Disposable;
@@ -33,7 +34,6 @@ import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
 
 /**
  * Created by apl on 02-09-2014.
@@ -103,7 +103,7 @@ public class DownloadButtonView extends PlayerButtonView implements View.OnClick
         mRxDisposable = SoundWaves.getRxBus2()
                 .toObservable()
                 .toFlowable(BackpressureStrategy.LATEST)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .ofType(DownloadProgress.class)
                 .subscribe(new Consumer<DownloadProgress>() {
@@ -188,7 +188,7 @@ public class DownloadButtonView extends PlayerButtonView implements View.OnClick
                             return getEpisode().equals(downloadProgress.getEpisode());
                         }
                     })
-                    .subscribeOn(Schedulers.io())
+                    .subscribeOn(Lanes.CPU.rx())
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribe(new Action1<DownloadProgress>() {
                         @Override
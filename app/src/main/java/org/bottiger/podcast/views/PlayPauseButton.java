@@ -59,6 +59,7 @@ import org.bottiger.podcast.service.PlayerService;
 import org.bottiger.podcast.utils.ColorExtractor;
 import org.bottiger.podcast.utils.StorageUtils;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.views.dialogs.DialogOpenVideoExternally;
 import org.bottiger.podcast.views.drawables.PlayPauseDrawable;
 
@@ -70,7 +71,6 @@ import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Predicate;
-import io.reactivex.schedulers.Schedulers;
 
 import static org.bottiger.podcast.player.SoundWavesPlayerBase.STATE_BUFFERING;
 import static org.bottiger.podcast.player.SoundWavesPlayerBase.STATE_IDLE;
@@ -234,7 +234,7 @@ public class PlayPauseButton extends View implements DownloadObserver,
 
         mRxDisposable = SoundWaves.getRxBus2()
                 .toFlowable()
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx2())
                 .observeOn(AndroidSchedulers.mainThread())
                 .ofType(PlayerStatusProgressData.class)
                 .filter(new Predicate<PlayerStatusProgressData>() {
@@ -76,6 +76,7 @@ import org.bottiger.podcast.utils.PlaybackSpeed;
 import org.bottiger.podcast.utils.PlayerHelper;
 import org.bottiger.podcast.utils.StrUtils;
 import org.bottiger.podcast.utils.UIUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBusSimpleEvents;
 import org.bottiger.podcast.views.dialogs.DialogChapters;
 import org.bottiger.podcast.views.dialogs.DialogPlaybackSpeed;
@@ -86,7 +87,6 @@ import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action1;
 import rx.functions.Func1;
-import rx.schedulers.Schedulers;
 
 import static org.bottiger.podcast.flavors.Activities.Constants.OTHER;
 import static org.bottiger.podcast.player.SoundWavesPlayerBase.STATE_READY;
@@ -401,7 +401,7 @@ public class TopPlayer extends RelativeLayout implements ScrollingView, NestedSc
 
         SoundWaves.getRxBus().toObserverable()
                 .ofType(RxBusSimpleEvents.PlaybackEngineChanged.class)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(Lanes.CPU.rx())
                 .observeOn(AndroidSchedulers.mainThread())
                 .filter(playbackEngineChanged -> mSpeedButton != null)
                 .subscribe(event -> {
@@ -676,7 +676,7 @@ public class TopPlayer extends RelativeLayout implements ScrollingView, NestedSc
 
     private void setDynamicColors(@NonNull ISubscription argSubscription, @NonNull IEpisode argEpisode) {
         argSubscription.getColors(mContext)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
 
@@ -712,7 +712,7 @@ public class TopPlayer extends RelativeLayout implements ScrollingView, NestedSc
                 });
 
         argEpisode.getSubscription(mContext).getColors(mContext)
-                .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                .subscribeOn(Lanes.NETWORK.rx2())
                 .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                 .subscribe(new BaseSubscription.BasicColorExtractorObserver<ColorExtractor>() {
                     @Override
@@ -22,6 +22,7 @@ import org.bottiger.podcast.provider.FeedItem;
 import org.bottiger.podcast.provider.IEpisode;
 import org.bottiger.podcast.utils.chapter.Chapter;
 import org.bottiger.podcast.utils.chapter.ChapterUtil;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBasicSubscriber;
 
 import java.util.LinkedList;
@@ -123,7 +124,7 @@ public class DialogChapters extends DialogFragment {
 
         if (hasEpisode) {
             ChapterUtil.getChapters(mActivity, episode)
-                    .subscribeOn(io.reactivex.schedulers.Schedulers.io())
+                    .subscribeOn(Lanes.DB.rx2())
                     .observeOn(io.reactivex.android.schedulers.AndroidSchedulers.mainThread())
                     .subscribe(new RxBasicSubscriber<List<Chapter>>("ChapterLoaded") {
                         @Override
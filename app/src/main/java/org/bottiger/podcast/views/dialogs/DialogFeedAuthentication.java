@@ -27,6 +27,7 @@ import org.bottiger.podcast.SoundWaves;
 import org.bottiger.podcast.provider.Subscription;
 import org.bottiger.podcast.utils.AuthenticationUtils;
 import org.bottiger.podcast.utils.JSonUtils;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -56,7 +57,7 @@ public class DialogFeedAuthentication extends DialogFragment {
 
     private Activity mActivity;
 
-    OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
+    OkHttpClient.Builder clientBuilder = OkHttpClientFactory.getBaseClient().newBuilder();
 
     private Disposable _subscription = null;
 
@@ -8,6 +8,7 @@ import android.util.Log;
 import org.bottiger.podcast.common.WebPlayerShared;
 import org.bottiger.podcast.flavors.MessagingService.InstanceIDService;
 import org.bottiger.podcast.provider.IEpisode;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 
 import java.io.IOException;
 import java.text.ParseException;
@@ -57,7 +58,7 @@ public class WebPlayerAuthenticator {
         Log.d("dsfdsfsd---", nonce);
 
         //final OkHttpClient client = new OkHttpClient();
-        OkHttpClient client = new OkHttpClient().newBuilder()
+        OkHttpClient client = OkHttpClientFactory.getBaseClient().newBuilder()
                 .addInterceptor(new Interceptor() {
                     @Override
                     public Response intercept(Interceptor.Chain chain) throws IOException {
@@ -6,8 +6,8 @@ import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 
 import org.bottiger.podcast.R;
-import org.bottiger.podcast.utils.HttpUtils;
 import org.bottiger.podcast.utils.PreferenceHelper;
+import org.bottiger.podcast.utils.okhttp.OkHttpClientFactory;
 import org.bottiger.podcast.webservices.directories.IDirectoryProvider;
 import org.bottiger.podcast.webservices.directories.ISearchResult;
 
@@ -65,7 +65,7 @@ public abstract class GenericDirectory implements IDirectoryProvider {
     protected abstract AsyncTask<String, Void, ISearchResult> getAsyncTask();
 
     protected OkHttpClient createOkHttpClient() {
-        return HttpUtils.getNewDefaultOkHttpClientBuilder(mContext, GENERIC_SEARCH).build();
+        return OkHttpClientFactory.getClient(mContext, GENERIC_SEARCH);
     }
 
     public OkHttpClient getOkHttpClient() {
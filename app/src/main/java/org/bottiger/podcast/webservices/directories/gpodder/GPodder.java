@@ -13,6 +13,7 @@ import org.bottiger.podcast.flavors.CrashReporter.VendorCrashReporter;
 import org.bottiger.podcast.provider.ISubscription;
 import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
 import org.bottiger.podcast.utils.StrUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.webservices.datastore.IWebservice;
 import org.bottiger.podcast.webservices.datastore.gpodder.GPodderAPI;
 import org.bottiger.podcast.webservices.datastore.gpodder.GPodderUtils;
@@ -83,12 +84,12 @@ public class GPodder extends GenericDirectory {
          * Her ewe should just call:
          * mCall.cancel();
          *
-         * However, this is not working, so for now we are spawning a new thread.
+         * However, this is not working on the main thread, so it is done on the network lane.
          * https://github.com/square/okhttp/issues/1592
          *
          * Maybe I have to make a better solution
          */
-        new Thread(new Runnable() {
+        Lanes.NETWORK.execute(new Runnable() {
             public void run() {
                 if (mCall == null)
                     return;
@@ -96,7 +97,7 @@ public class GPodder extends GenericDirectory {
                 mCall.cancel();
                 Log.i(TAG, "Call canceled");
             }
-        }).start();
+        });
 
     }
 
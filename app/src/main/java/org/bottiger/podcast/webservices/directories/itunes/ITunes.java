@@ -16,6 +16,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bottiger.podcast.R;
 import org.bottiger.podcast.provider.SlimImplementations.SlimSubscription;
 import org.bottiger.podcast.utils.ErrorUtils;
+import org.bottiger.podcast.utils.lanes.Lanes;
 import org.bottiger.podcast.utils.rxbus.RxBasicSubscriber;
 import org.bottiger.podcast.webservices.directories.ISearchParameters;
 import org.bottiger.podcast.webservices.directories.ISearchResult;
@@ -39,7 +40,6 @@ import java.util.Locale;
 import io.reactivex.Flowable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.functions.Function;
-import io.reactivex.schedulers.Schedulers;
 import okhttp3.Request;
 import okhttp3.Response;
 import retrofit2.Call;
@@ -152,7 +152,7 @@ public class ITunes extends GenericDirectory {
             @Override
             public void onResponse(Call<TopList> call, final retrofit2.Response<TopList> response) {
                 Flowable.just(response)
-                        .subscribeOn(Schedulers.io())
+                        .subscribeOn(Lanes.CPU.rx2())
                         .map(new Function<retrofit2.Response<TopList>, ISearchResult>() {
                             @Override
                             public ISearchResult apply(retrofit2.Response<TopList> chartResponse) throws Exception {